@@ -0,0 +1,394 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Absence Alerts - Flags Students Under the Attendance Policy as Sessions Are Saved
+ *
+ * A student is flagged when they have been absent STREAK_LIMIT or more
+ * sessions in a row, or were present in under MIN_PERCENTAGE of their last
+ * WINDOW marked sessions. Each student keeps a few counters: the date of
+ * their latest mark, their current run of absences and a bit mask of their
+ * last 64 marks (newest in the lowest bit), so a saved mark updates the
+ * streak and the windowed ratio in constant time without reading history.
+ *
+ * The counters are built from one date-ordered pass over the store the first
+ * time they are needed and are then updated as each session is saved. Saving
+ * a date again only replaces the student's latest mark. The counters hold no
+ * dates for older marks, so a mark saved for an earlier date than the latest
+ * one marks the student stale instead, and preload() rebuilds just that
+ * student from their history in the store (the store calls in here under its
+ * own lock, so the rebuild cannot happen during the save itself). The
+ * students flagged by the most recent saves are kept for the dashboard.
+ */
+public class AbsenceAlerts implements AttendanceListener {
+    public static final int STREAK_LIMIT = 3;
+    public static final int MIN_PERCENTAGE = 75;
+    public static final int WINDOW = 20;
+    // Fewer marks than this say too little for the percentage rule
+    private static final int MIN_MARKS = 4;
+    private static final int MAX_RECENT = 100;
+    private static final long WINDOW_MASK = (1L << WINDOW) - 1;
+
+    private static AbsenceAlerts instance;
+
+    // Student ID -> slot in the columns below, numeric IDs without a String key
+    private final IntIntMap numericSlots = new IntIntMap();
+    private final Map<String, Integer> textSlots = new HashMap<>();
+    private int slots = 0;
+    private int[] lastDays = new int[16];
+    private long[] marks = new long[16];
+    private int[] markCounts = new int[16];
+    private int[] streaks = new int[16];
+    // The streak before the latest mark, so that mark can be replaced
+    private int[] previousStreaks = new int[16];
+    private boolean[] flagged = new boolean[16];
+    private int flaggedCount = 0;
+
+    // Students with a back-dated mark, rebuilt from their history by preload()
+    private final Map<String, Stale> stale = new HashMap<>();
+
+    // Alerts raised by saves, oldest first, one per student
+    private final LinkedHashMap<String, Alert> recent = new LinkedHashMap<>();
+
+    // Same lock order as AttendanceStatistics: the store's, then this object's
+    private final Object buildLock = new Object();
+    private volatile boolean built = false;
+    private boolean building = false;
+    // Sessions saved while building, applied once the pass is done
+    private final List<AttendanceRecord> pending = new ArrayList<>();
+
+    private AbsenceAlerts() {
+    }
+
+    public static synchronized AbsenceAlerts getInstance() {
+        if (instance == null) {
+            instance = new AbsenceAlerts();
+        }
+        return instance;
+    }
+
+    /**
+     * A student waiting for a rebuild: the date of the last mark saved for
+     * them, and how many were saved, so a rebuild that raced a save is redone.
+     */
+    private static class Stale {
+        String date;
+        int version;
+
+        Stale(String date) {
+            this.date = date;
+        }
+
+        void saved(String date) {
+            this.date = date;
+            version++;
+        }
+    }
+
+    /**
+     * One flagged student, as of the mark that flagged them.
+     */
+    public static class Alert {
+        private final String studentId;
+        private final String date;
+        private final int streak;
+        private final int present;
+        private final int total;
+
+        Alert(String studentId, String date, int streak, int present, int total) {
+            this.studentId = studentId;
+            this.date = date;
+            this.streak = streak;
+            this.present = present;
+            this.total = total;
+        }
+
+        public String getStudentId() {
+            return studentId;
+        }
+
+        public String getDate() {
+            return date;
+        }
+
+        /**
+         * Sessions missed in a row up to the alert's date.
+         */
+        public int getStreak() {
+            return streak;
+        }
+
+        /**
+         * Present marks among the last getTotal() sessions.
+         */
+        public int getPresent() {
+            return present;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        public double getPercentage() {
+            return total == 0 ? 0.0 : present * 100.0 / total;
+        }
+
+        public boolean isStreak() {
+            return streak >= STREAK_LIMIT;
+        }
+
+        public boolean isLowAttendance() {
+            return isLow(present, total);
+        }
+
+        /**
+         * The rules broken, e.g. "3 absences in a row, 70% of last 20 sessions".
+         */
+        public String getReason() {
+            List<String> reasons = new ArrayList<>(2);
+            if (isStreak()) {
+                reasons.add(streak + " absences in a row");
+            }
+            if (isLowAttendance()) {
+                reasons.add(String.format("%.0f%% of last %d sessions", getPercentage(), total));
+            }
+            return String.join(", ", reasons);
+        }
+    }
+
+    /**
+     * Builds the counters now rather than when the first session is saved,
+     * and rebuilds those of students who had back-dated marks saved since.
+     */
+    public void preload() throws IOException {
+        ensureBuilt();
+        rebuildStale();
+    }
+
+    /**
+     * Returns the students flagged by recent saves, newest first. Empty until
+     * the counters are built; back-dated marks count after the next preload().
+     */
+    public synchronized List<Alert> getRecent() {
+        List<Alert> alerts = new ArrayList<>(recent.values());
+        Collections.reverse(alerts);
+        return alerts;
+    }
+
+    /**
+     * Returns how many students break a rule right now.
+     */
+    public synchronized int getFlaggedCount() {
+        return flaggedCount;
+    }
+
+    @Override
+    public synchronized void sessionSaved(List<AttendanceRecord> records) {
+        if (!built) {
+            if (building) {
+                pending.addAll(records);
+            }
+            return;
+        }
+        for (AttendanceRecord record : records) {
+            int slot = add(record);
+            if (slot >= 0) {
+                noteAlert(record.getStudentId(), slot, record.getDate());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void storeReset() {
+        // The store re-announces its rows, but not in date order, so rebuild instead
+        built = false;
+        building = false;
+        clear();
+    }
+
+    private void ensureBuilt() throws IOException {
+        synchronized (buildLock) {
+            if (built) {
+                return;
+            }
+            synchronized (this) {
+                clear();
+                building = true;
+            }
+            // scan() visits the latest marks in date order, which the streaks need
+            AttendanceStore.getInstance().subscribe(record -> {
+                synchronized (this) {
+                    add(record);
+                }
+            }, this);
+            synchronized (this) {
+                if (!building) {
+                    // The store was reset meanwhile; the next call builds again
+                    return;
+                }
+                // Sessions saved before the pass are in it too, but applying a
+                // mark again changes nothing, so only later ones count
+                List<AttendanceRecord> saved = new ArrayList<>(pending);
+                building = false;
+                built = true;
+                sessionSaved(saved);
+            }
+        }
+    }
+
+    /**
+     * Replays the history of each stale student onto fresh counters. The store
+     * is read without holding this object's lock; if another mark was saved
+     * for the student meanwhile, they stay stale for the next call.
+     */
+    private void rebuildStale() throws IOException {
+        Map<String, Integer> versions = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<String, Stale> entry : stale.entrySet()) {
+                versions.put(entry.getKey(), entry.getValue().version);
+            }
+        }
+
+        for (Map.Entry<String, Integer> entry : versions.entrySet()) {
+            String studentId = entry.getKey();
+            List<AttendanceRecord> history = AttendanceStore.getInstance().findByStudent(studentId, null, null);
+            synchronized (this) {
+                Stale waiting = stale.get(studentId);
+                if (waiting == null || waiting.version != entry.getValue()) {
+                    continue;
+                }
+                stale.remove(studentId);
+                int slot = slotOf(studentId);
+                if (flagged[slot]) {
+                    flaggedCount--;
+                }
+                clearSlot(slot);
+                for (AttendanceRecord record : history) {
+                    add(record);
+                }
+                noteAlert(studentId, slot, waiting.date);
+            }
+        }
+    }
+
+    /**
+     * Records the student's alert as of the given save, or drops it if they
+     * are no longer flagged.
+     */
+    private void noteAlert(String studentId, int slot, String date) {
+        // Re-inserted so the student moves to the newest end
+        recent.remove(studentId);
+        if (flagged[slot]) {
+            int total = Math.min(markCounts[slot], WINDOW);
+            recent.put(studentId, new Alert(studentId, date, streaks[slot],
+                    Long.bitCount(marks[slot] & WINDOW_MASK), total));
+        }
+        while (recent.size() > MAX_RECENT) {
+            recent.remove(recent.keySet().iterator().next());
+        }
+    }
+
+    private void clear() {
+        numericSlots.clear();
+        textSlots.clear();
+        slots = 0;
+        flaggedCount = 0;
+        recent.clear();
+        pending.clear();
+        stale.clear();
+    }
+
+    /**
+     * Applies one mark to the student's counters.
+     *
+     * @return the student's slot, or -1 if the mark was not applied
+     */
+    private int add(AttendanceRecord record) {
+        int day = ScanRow.parseDay(record.getDate());
+        if (day == Integer.MIN_VALUE) {
+            return -1;
+        }
+        String studentId = record.getStudentId();
+        Stale waiting = stale.get(studentId);
+        if (waiting != null) {
+            // Their rebuild reads this mark from the store too
+            waiting.saved(record.getDate());
+            return -1;
+        }
+        int slot = slotOf(studentId);
+        boolean present = record.isPresent();
+        if (markCounts[slot] > 0 && day < lastDays[slot]) {
+            // Back-dated: the window has no place for it, so rebuild the student
+            stale.put(studentId, new Stale(record.getDate()));
+            return -1;
+        }
+
+        if (markCounts[slot] > 0 && day == lastDays[slot]) {
+            // The date was saved again: replace the latest mark
+            marks[slot] = (marks[slot] & ~1L) | (present ? 1L : 0L);
+            streaks[slot] = present ? 0 : previousStreaks[slot] + 1;
+        } else {
+            marks[slot] = (marks[slot] << 1) | (present ? 1L : 0L);
+            markCounts[slot]++;
+            previousStreaks[slot] = streaks[slot];
+            streaks[slot] = present ? 0 : streaks[slot] + 1;
+            lastDays[slot] = day;
+        }
+
+        boolean nowFlagged = streaks[slot] >= STREAK_LIMIT
+                || isLow(Long.bitCount(marks[slot] & WINDOW_MASK), Math.min(markCounts[slot], WINDOW));
+        if (nowFlagged != flagged[slot]) {
+            flagged[slot] = nowFlagged;
+            flaggedCount += nowFlagged ? 1 : -1;
+        }
+        return slot;
+    }
+
+    private static boolean isLow(int present, int total) {
+        return total >= MIN_MARKS && present * 100 < MIN_PERCENTAGE * total;
+    }
+
+    private int slotOf(String studentId) {
+        int numeric = Roster.numericId(studentId);
+        int slot;
+        if (numeric >= 0) {
+            slot = numericSlots.get(numeric);
+            if (slot < 0) {
+                slot = newSlot();
+                numericSlots.put(numeric, slot);
+            }
+        } else {
+            Integer existing = textSlots.get(studentId);
+            if (existing != null) {
+                return existing;
+            }
+            slot = newSlot();
+            textSlots.put(studentId, slot);
+        }
+        return slot;
+    }
+
+    private int newSlot() {
+        if (slots == lastDays.length) {
+            int capacity = slots * 2;
+            lastDays = Arrays.copyOf(lastDays, capacity);
+            marks = Arrays.copyOf(marks, capacity);
+            markCounts = Arrays.copyOf(markCounts, capacity);
+            streaks = Arrays.copyOf(streaks, capacity);
+            previousStreaks = Arrays.copyOf(previousStreaks, capacity);
+            flagged = Arrays.copyOf(flagged, capacity);
+        }
+        int slot = slots++;
+        clearSlot(slot);
+        return slot;
+    }
+
+    private void clearSlot(int slot) {
+        lastDays[slot] = 0;
+        marks[slot] = 0;
+        markCounts[slot] = 0;
+        streaks[slot] = 0;
+        previousStreaks[slot] = 0;
+        flagged[slot] = false;
+    }
+}
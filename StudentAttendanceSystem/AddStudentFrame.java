@@ -1,11 +1,12 @@
 import javax.swing.*;
 import java.awt.*;
 import java.io.*;
+import java.util.Collections;
 
 /**
  * Add Student Frame - Student Registration
  */
-public class AddStudentFrame extends JFrame {
+public class AddStudentFrame extends JFrame implements Navigator.Screen {
     private String lecturerEmail;
     private JTextField studentIdField;
     private JTextField nameField;
@@ -127,58 +128,59 @@ public class AddStudentFrame extends JFrame {
             return;
         }
 
-        if (studentIdExists(studentId)) {
-            JOptionPane.showMessageDialog(this, "Student ID already exists",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        if (saveStudent(studentId, name, department, semester)) {
-            JOptionPane.showMessageDialog(this, "Student added successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-            clearFields();
-        } else {
-            JOptionPane.showMessageDialog(this, "Error adding student",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
+        // Check for duplicates and save in the background
+        saveButton.setEnabled(false);
+        DataAccess.run(() -> Metrics.time("student.add", () -> {
+            if (studentIdExists(studentId)) {
+                return "exists";
+            }
+            return saveStudent(studentId, name, department, semester) ? "saved" : "failed";
+        }), result -> {
+            saveButton.setEnabled(true);
+            if (result.equals("exists")) {
+                JOptionPane.showMessageDialog(this, "Student ID already exists",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            } else if (result.equals("saved")) {
+                JOptionPane.showMessageDialog(this, "Student added successfully!",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                clearFields();
+            } else {
+                JOptionPane.showMessageDialog(this, "Error adding student",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }, e -> {
+            Log.error("Error adding student", e, "operation", "student.add", "studentId", studentId);
+            saveButton.setEnabled(true);
+        });
     }
 
     private boolean studentIdExists(String studentId) {
-        File file = new File("data/students.txt");
-        if (!file.exists()) {
-            return false;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 1 && parts[0].trim().equals(studentId)) {
-                    return true;
-                }
-            }
+        try {
+            return AttendanceService.getInstance().studentExists(studentId);
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("Error checking student ID", e, "operation", "student.add", "studentId", studentId,
+                    "file", "data/students.txt");
         }
 
         return false;
     }
 
     private boolean saveStudent(String studentId, String name, String department, String semester) {
-        File dataDir = new File("data");
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
-
-        try (FileWriter writer = new FileWriter("data/students.txt", true)) {
-            writer.write(studentId + "," + name + "," + department + "," + semester + "\n");
-            return true;
+        try {
+            return AttendanceService.getInstance().addStudents(Collections.singletonList(
+                    new Student(studentId, name, department, semester))).isEmpty();
         } catch (IOException e) {
-            e.printStackTrace();
+            Log.error("Error saving student", e, "operation", "student.add", "studentId", studentId,
+                    "file", "data/students.txt");
             return false;
         }
     }
 
+    @Override
+    public void onShow() {
+        clearFields();
+    }
+
     private void clearFields() {
         studentIdField.setText("");
         nameField.setText("");
@@ -187,7 +189,6 @@ public class AddStudentFrame extends JFrame {
     }
 
     private void backToDashboard() {
-        this.dispose();
-        new DashboardFrame(lecturerEmail).setVisible(true);
+        Navigator.showDashboard();
     }
 }
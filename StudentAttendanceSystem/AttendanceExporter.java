@@ -0,0 +1,368 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Attendance Exporter - Streams an Attendance Sheet to CSV or XLSX
+ *
+ * Writes one row per student and one column per date, with P or A in each
+ * cell and the student's present, total and percentage at the end:
+ *
+ *   Student ID,Name,Department,Semester,2024-03-01,2024-03-02,...,Present,Total,Percentage
+ *
+ * The marks never become a list. The store's range scan fills a byte per
+ * cell for a block of students, the block is written out and the buffer is
+ * reused, so memory is bounded by the cell budget rather than by the number
+ * of rows. Rosters too large for one block take one scan per block.
+ *
+ * XLSX files are written directly as the minimal set of OOXML parts, with
+ * inline strings, so no spreadsheet library is needed.
+ */
+public class AttendanceExporter {
+    // At most this many cells (one byte each) are held at a time
+    private static final int CELL_BUDGET = 16 * 1024 * 1024;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte NONE = 0;
+    private static final byte PRESENT = 1;
+    private static final byte ABSENT = 2;
+
+    public enum Format {
+        CSV, XLSX;
+
+        /**
+         * The format for a file name, by its extension (CSV unless it ends in .xlsx).
+         */
+        public static Format forFile(File file) {
+            return file.getName().toLowerCase().endsWith(".xlsx") ? XLSX : CSV;
+        }
+    }
+
+    /**
+     * Receives progress after every block of students, on the exporting thread.
+     */
+    public interface Listener {
+        void progress(int studentsWritten, int totalStudents);
+    }
+
+    private final String from;
+    private final String to;
+    private final String department;
+
+    /**
+     * @param from       first date, or null for the earliest
+     * @param to         last date, or null for the latest
+     * @param department department to export, or empty for all
+     */
+    public AttendanceExporter(String from, String to, String department) {
+        this.from = from;
+        this.to = to;
+        this.department = department;
+    }
+
+    /**
+     * Writes the sheet to the file. An interrupted export stops between
+     * blocks and deletes the partial file.
+     *
+     * @return the number of students written
+     */
+    public int export(File target, Format format, Listener listener) throws IOException {
+        StudentStore students = StudentStore.getInstance();
+        List<Student> roster = department.isEmpty() ? students.getAll() : students.findByDepartment(department);
+        AttendanceStore store = AttendanceStore.getInstance();
+        List<String> dates = store.findDates(from, to);
+
+        Map<String, Integer> columns = new HashMap<>(dates.size() * 2);
+        for (int i = 0; i < dates.size(); i++) {
+            columns.put(dates.get(i), i);
+        }
+        int dateCount = Math.max(1, dates.size());
+        int blockSize = Math.max(1, Math.min(roster.size(), CELL_BUDGET / dateCount));
+        byte[] cells = new byte[blockSize * dateCount];
+
+        boolean complete = false;
+        try (SheetWriter sheet = format == Format.XLSX ? new XlsxSheetWriter(target) : new CsvSheetWriter(target)) {
+            sheet.startRow();
+            sheet.text("Student ID");
+            sheet.text("Name");
+            sheet.text("Department");
+            sheet.text("Semester");
+            for (String date : dates) {
+                sheet.text(date);
+            }
+            sheet.text("Present");
+            sheet.text("Total");
+            sheet.text("Percentage");
+            sheet.endRow();
+
+            for (int start = 0; start < roster.size(); start += blockSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("Export cancelled");
+                }
+                List<Student> block = roster.subList(start, Math.min(roster.size(), start + blockSize));
+                fillBlock(store, block, columns, dateCount, cells);
+                writeBlock(sheet, block, dates.size(), dateCount, cells);
+                listener.progress(start + block.size(), roster.size());
+            }
+            complete = true;
+        } finally {
+            if (!complete) {
+                target.delete();
+            }
+        }
+        return roster.size();
+    }
+
+    /**
+     * Scans the date range once and records each mark of the block's students.
+     */
+    private void fillBlock(AttendanceStore store, List<Student> block, Map<String, Integer> columns, int dateCount,
+            byte[] cells) throws IOException {
+        Map<String, Integer> rows = new HashMap<>(block.size() * 2);
+        for (int i = 0; i < block.size(); i++) {
+            rows.put(block.get(i).getId(), i);
+        }
+        Arrays.fill(cells, 0, block.size() * dateCount, NONE);
+
+        // Rows arrive grouped by date, so the column only changes between dates
+        int[] column = { -1 };
+        String[] currentDate = { null };
+        store.scan(from, to, record -> {
+            if (!record.getDate().equals(currentDate[0])) {
+                currentDate[0] = record.getDate();
+                Integer found = columns.get(record.getDate());
+                // Dates saved after the header was written are left out
+                column[0] = found == null ? -1 : found;
+            }
+            Integer row = rows.get(record.getStudentId());
+            if (row != null && column[0] >= 0) {
+                cells[row * dateCount + column[0]] = record.getStatus().equals("Present") ? PRESENT : ABSENT;
+            }
+        });
+    }
+
+    private static void writeBlock(SheetWriter sheet, List<Student> block, int dates, int dateCount, byte[] cells)
+            throws IOException {
+        for (int i = 0; i < block.size(); i++) {
+            Student student = block.get(i);
+            sheet.startRow();
+            sheet.text(student.getId());
+            sheet.text(student.getName());
+            sheet.text(student.getDepartment());
+            sheet.text(student.getSemester());
+
+            int present = 0;
+            int total = 0;
+            for (int d = 0; d < dates; d++) {
+                byte cell = cells[i * dateCount + d];
+                if (cell == PRESENT) {
+                    present++;
+                    total++;
+                    sheet.text("P");
+                } else if (cell == ABSENT) {
+                    total++;
+                    sheet.text("A");
+                } else {
+                    sheet.empty();
+                }
+            }
+            sheet.number(present);
+            sheet.number(total);
+            sheet.number(total == 0 ? 0 : Math.round(present * 1000.0 / total) / 10.0);
+            sheet.endRow();
+        }
+    }
+
+    /**
+     * Writes one sheet row by row.
+     */
+    private interface SheetWriter extends Closeable {
+        void startRow() throws IOException;
+
+        void text(String value) throws IOException;
+
+        void number(double value) throws IOException;
+
+        void empty() throws IOException;
+
+        void endRow() throws IOException;
+    }
+
+    private static class CsvSheetWriter implements SheetWriter {
+        private final Writer out;
+        private boolean firstCell;
+
+        CsvSheetWriter(File file) throws IOException {
+            this.out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8),
+                    BUFFER_SIZE);
+        }
+
+        @Override
+        public void startRow() {
+            firstCell = true;
+        }
+
+        @Override
+        public void text(String value) throws IOException {
+            separate();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0) {
+                out.write('"');
+                out.write(value.replace("\"", "\"\""));
+                out.write('"');
+            } else {
+                out.write(value);
+            }
+        }
+
+        @Override
+        public void number(double value) throws IOException {
+            separate();
+            out.write(formatNumber(value));
+        }
+
+        @Override
+        public void empty() throws IOException {
+            separate();
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            out.write('\n');
+        }
+
+        private void separate() throws IOException {
+            if (!firstCell) {
+                out.write(',');
+            }
+            firstCell = false;
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /**
+     * A single-sheet workbook. The sheet part is streamed; the other parts are fixed.
+     */
+    private static class XlsxSheetWriter implements SheetWriter {
+        private final ZipOutputStream zip;
+        private final Writer out;
+        private int row = 0;
+        private int column = 0;
+
+        XlsxSheetWriter(File file) throws IOException {
+            this.zip = new ZipOutputStream(new BufferedOutputStream(new FileOutputStream(file), BUFFER_SIZE));
+            this.out = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+
+            part("[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "</Types>");
+            part("_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            part("xl/workbook.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\""
+                    + " xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\">"
+                    + "<sheets><sheet name=\"Attendance\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                    + "</workbook>");
+            part("xl/_rels/workbook.xml.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "</Relationships>");
+
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n"
+                    + "<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+        }
+
+        private void part(String name, String xml) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            out.write(xml);
+            out.flush();
+            zip.closeEntry();
+        }
+
+        @Override
+        public void startRow() throws IOException {
+            row++;
+            column = 0;
+            out.write("<row r=\"" + row + "\">");
+        }
+
+        @Override
+        public void text(String value) throws IOException {
+            out.write("<c r=\"" + cellReference() + "\" t=\"inlineStr\"><is><t>");
+            writeEscaped(value);
+            out.write("</t></is></c>");
+        }
+
+        @Override
+        public void number(double value) throws IOException {
+            out.write("<c r=\"" + cellReference() + "\"><v>" + formatNumber(value) + "</v></c>");
+        }
+
+        @Override
+        public void empty() {
+            column++;
+        }
+
+        @Override
+        public void endRow() throws IOException {
+            out.write("</row>");
+        }
+
+        /**
+         * The A1-style reference of the next cell in the row.
+         */
+        private String cellReference() {
+            StringBuilder letters = new StringBuilder();
+            for (int n = ++column; n > 0; n = (n - 1) / 26) {
+                letters.insert(0, (char) ('A' + (n - 1) % 26));
+            }
+            return letters.append(row).toString();
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '&':
+                        out.write("&amp;");
+                        break;
+                    case '<':
+                        out.write("&lt;");
+                        break;
+                    case '>':
+                        out.write("&gt;");
+                        break;
+                    default:
+                        // Control characters other than tab and line breaks are not allowed in XML
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            out.write(c);
+                        }
+                }
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.write("</sheetData></worksheet>");
+            out.flush();
+            zip.closeEntry();
+            zip.close();
+        }
+    }
+
+    private static String formatNumber(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : Double.toString(value);
+    }
+}
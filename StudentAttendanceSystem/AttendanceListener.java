@@ -0,0 +1,29 @@
+import java.util.List;
+
+/**
+ * Attendance Listener - Notified When Attendance Rows Are Added or Replaced
+ *
+ * Listeners are called while the store is locked, so they must be quick and
+ * must not call back into the store.
+ */
+public interface AttendanceListener {
+
+    /**
+     * Called with the rows of each saved session, in save order.
+     */
+    void sessionSaved(List<AttendanceRecord> records);
+
+    /**
+     * Called when the stored history was replaced or shrank, so anything
+     * derived from earlier notifications must be rebuilt.
+     */
+    default void storeReset() {
+    }
+
+    /**
+     * Called after sessionSaved with the earlier marks that the saved rows
+     * replaced, so anything counted from them can be taken back out.
+     */
+    default void recordsSuperseded(List<AttendanceRecord> records) {
+    }
+}
@@ -0,0 +1,370 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.zip.CRC32;
+
+/**
+ * Attendance Log - Write-Ahead Log and Crash Recovery for Attendance Saves
+ *
+ * Every marking session is logged to data/attendance.wal before it is appended
+ * to attendance.txt. Each log record is framed as
+ *
+ *   [int payload length][int CRC32 of payload][payload]
+ *
+ * and the payload starts with a type byte:
+ *   'B' session begin  - long offset in attendance.txt, int row count
+ *   'R' one row        - the row bytes exactly as written to attendance.txt
+ *   'C' session commit - int row count
+ *
+ * On startup, recover() replays the log: committed sessions missing from or
+ * damaged in attendance.txt are rewritten, an uncommitted session is cut off,
+ * and a torn last line is removed. A checkpoint forces attendance.txt and
+ * empties the log, so it only ever holds the most recent sessions.
+ */
+public class AttendanceLog {
+    private static final byte BEGIN = 'B';
+    private static final byte ROW = 'R';
+    private static final byte COMMIT = 'C';
+    private static final int HEADER_SIZE = 8;
+
+    private final File file;
+    private final AttendanceWriter.Durability durability;
+
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+    private final CRC32 crc = new CRC32();
+
+    // Group commit state. Positions count the bytes this process has logged,
+    // not offsets in the file: another process sharing the log may append to
+    // it or checkpoint (truncate) it at any time.
+    private final Object syncLock = new Object();
+    private volatile long writtenPosition = 0;
+    private long syncedPosition = 0;
+    private boolean syncing = false;
+    private long lastSessionStart = 0;
+
+    public AttendanceLog(File file, AttendanceWriter.Durability durability) {
+        this.file = file;
+        this.durability = durability;
+    }
+
+    /**
+     * Logs one session. In BATCH mode the log is forced before this returns.
+     *
+     * @param offset   where the session will be written in attendance.txt
+     * @param rows     the encoded rows; its position is left untouched
+     * @param lineEnds end position of each row within rows
+     * @return the logical log position to pass to sync()
+     */
+    public synchronized long logSession(long offset, ByteBuffer rows, int[] lineEnds, int rowCount) throws IOException {
+        buffer.clear();
+
+        ensureCapacity(HEADER_SIZE + 13);
+        int start = beginFrame(BEGIN);
+        buffer.putLong(offset).putInt(rowCount);
+        endFrame(start);
+
+        int lineStart = rows.position();
+        for (int i = 0; i < rowCount; i++) {
+            int lineEnd = rows.position() + lineEnds[i];
+            ByteBuffer line = rows.duplicate();
+            line.position(lineStart).limit(lineEnd);
+
+            ensureCapacity(HEADER_SIZE + 1 + line.remaining());
+            start = beginFrame(ROW);
+            buffer.put(line);
+            endFrame(start);
+            lineStart = lineEnd;
+        }
+
+        ensureCapacity(HEADER_SIZE + 5);
+        start = beginFrame(COMMIT);
+        buffer.putInt(rowCount);
+        endFrame(start);
+
+        buffer.flip();
+        FileChannel out = openChannel();
+        // Another process may have written or checkpointed the log since our last write
+        lastSessionStart = out.size();
+        out.position(lastSessionStart);
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        writtenPosition += length;
+
+        if (durability == AttendanceWriter.Durability.BATCH) {
+            out.force(false);
+            synchronized (syncLock) {
+                syncedPosition = Math.max(syncedPosition, writtenPosition);
+            }
+        }
+        return writtenPosition;
+    }
+
+    /**
+     * Removes the most recently logged session, used when writing it to
+     * attendance.txt failed so that recovery does not replay it later.
+     */
+    public synchronized void rollbackLastSession() throws IOException {
+        FileChannel out = openChannel();
+        if (out.size() > lastSessionStart) {
+            out.truncate(lastSessionStart);
+        }
+    }
+
+    /**
+     * In GROUP mode, blocks until the log is on disk up to the given logical
+     * position. One caller forces on behalf of every session logged so far;
+     * the others just wait for it. A checkpoint by another process is not
+     * seen here, so the log is still forced then, which is only redundant.
+     * Does nothing in the other modes.
+     */
+    public void sync(long position) throws IOException {
+        if (durability != AttendanceWriter.Durability.GROUP) {
+            return;
+        }
+
+        synchronized (syncLock) {
+            while (syncedPosition < position && syncing) {
+                try {
+                    syncLock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while waiting for group commit");
+                }
+            }
+            if (syncedPosition >= position) {
+                return;
+            }
+            syncing = true;
+        }
+
+        long target = writtenPosition;
+        boolean forced = false;
+        try {
+            forceChannel();
+            forced = true;
+        } finally {
+            synchronized (syncLock) {
+                syncing = false;
+                if (forced) {
+                    syncedPosition = Math.max(syncedPosition, target);
+                }
+                syncLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Returns the size of the log file in bytes.
+     */
+    public synchronized long size() throws IOException {
+        return file.exists() ? openChannel().size() : 0;
+    }
+
+    /**
+     * Empties the log. The caller must have forced attendance.txt first, so
+     * every logged session is already safely on disk.
+     */
+    public synchronized void checkpoint() throws IOException {
+        FileChannel out = openChannel();
+        out.truncate(0);
+        out.force(false);
+
+        synchronized (syncLock) {
+            // The data file force covered every session this process logged
+            syncedPosition = Math.max(syncedPosition, writtenPosition);
+            syncLock.notifyAll();
+        }
+    }
+
+    /**
+     * Repairs attendance.txt from the log after a crash, then checkpoints.
+     */
+    public synchronized void recover(AttendanceWriter writer, File dataFile) throws IOException {
+        List<Session> sessions = readSessions();
+
+        for (Session session : sessions) {
+            long dataLength = dataFile.exists() ? dataFile.length() : 0;
+            if (!session.committed) {
+                // The save never finished; drop whatever part of it reached the file
+                if (dataLength > session.offset) {
+                    writer.truncate(session.offset);
+                }
+                break;
+            }
+
+            byte[] rows = session.rows.toByteArray();
+            if (!regionMatches(dataFile, session.offset, rows)) {
+                // Committed but missing or damaged in attendance.txt: write it again
+                if (dataLength > session.offset) {
+                    writer.truncate(session.offset);
+                }
+                writer.write(ByteBuffer.wrap(rows));
+            }
+        }
+
+        removeTornLine(writer, dataFile);
+        writer.force();
+        checkpoint();
+    }
+
+    /**
+     * Reads complete sessions from the log, stopping at the first torn or
+     * corrupt record. The torn tail is truncated away.
+     */
+    private List<Session> readSessions() throws IOException {
+        List<Session> sessions = new ArrayList<>();
+        if (!file.exists() || file.length() == 0) {
+            return sessions;
+        }
+
+        FileChannel in = openChannel();
+        ByteBuffer log = ByteBuffer.allocate((int) in.size());
+        in.read(log, 0);
+        log.flip();
+
+        Session current = null;
+        long validEnd = 0;
+        while (log.remaining() >= HEADER_SIZE) {
+            int length = log.getInt();
+            int checksum = log.getInt();
+            if (length <= 0 || length > log.remaining()) {
+                break;
+            }
+            byte[] payload = new byte[length];
+            log.get(payload);
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                break;
+            }
+
+            ByteBuffer record = ByteBuffer.wrap(payload);
+            byte type = record.get();
+            if (type == BEGIN) {
+                current = new Session(record.getLong(), record.getInt());
+                sessions.add(current);
+            } else if (type == ROW && current != null) {
+                current.rows.write(payload, 1, length - 1);
+                current.rowCount++;
+            } else if (type == COMMIT && current != null) {
+                current.committed = current.rowCount == record.getInt() && current.rowCount == current.expectedRows;
+                current = null;
+            }
+            validEnd = log.position();
+        }
+
+        if (validEnd < in.size()) {
+            in.truncate(validEnd);
+        }
+        return sessions;
+    }
+
+    private static boolean regionMatches(File dataFile, long offset, byte[] expected) throws IOException {
+        if (!dataFile.exists() || dataFile.length() < offset + expected.length) {
+            return false;
+        }
+        byte[] actual = new byte[expected.length];
+        try (RandomAccessFile data = new RandomAccessFile(dataFile, "r")) {
+            data.seek(offset);
+            data.readFully(actual);
+        }
+        return Arrays.equals(actual, expected);
+    }
+
+    /**
+     * Cuts a partial last line (no trailing newline) off attendance.txt.
+     */
+    private static void removeTornLine(AttendanceWriter writer, File dataFile) throws IOException {
+        if (!dataFile.exists() || dataFile.length() == 0) {
+            return;
+        }
+
+        try (RandomAccessFile data = new RandomAccessFile(dataFile, "r")) {
+            long position = data.length();
+            while (position > 0) {
+                data.seek(position - 1);
+                if (data.read() == '\n') {
+                    break;
+                }
+                position--;
+            }
+            if (position < data.length()) {
+                writer.truncate(position);
+            }
+        }
+    }
+
+    private int beginFrame(byte type) {
+        int start = buffer.position();
+        buffer.position(start + HEADER_SIZE);
+        buffer.put(type);
+        return start;
+    }
+
+    private void endFrame(int start) {
+        int end = buffer.position();
+        int length = end - start - HEADER_SIZE;
+
+        ByteBuffer payload = buffer.duplicate();
+        payload.position(start + HEADER_SIZE).limit(end);
+        crc.reset();
+        crc.update(payload);
+
+        buffer.putInt(start, length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void forceChannel() throws IOException {
+        FileChannel out;
+        synchronized (this) {
+            out = openChannel();
+        }
+        out.force(false);
+    }
+
+    private FileChannel openChannel() throws IOException {
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+
+        File dataDir = file.getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(channel.size());
+        return channel;
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+
+    /**
+     * One session read back from the log.
+     */
+    private static class Session {
+        final long offset;
+        final int expectedRows;
+        final ByteArrayOutputStream rows = new ByteArrayOutputStream();
+        int rowCount = 0;
+        boolean committed = false;
+
+        Session(long offset, int expectedRows) {
+            this.offset = offset;
+            this.expectedRows = expectedRows;
+        }
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Attendance Record - One Row of attendance.txt (date, student ID, status)
+ */
+public class AttendanceRecord {
+    private final String date;
+    private final String studentId;
+    private final String status;
+
+    public AttendanceRecord(String date, String studentId, String status) {
+        this.date = date;
+        this.studentId = studentId;
+        this.status = status;
+    }
+
+    public String getDate() {
+        return date;
+    }
+
+    public String getStudentId() {
+        return studentId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public boolean isPresent() {
+        return status.equalsIgnoreCase("Present");
+    }
+
+    /**
+     * Parses one "date,studentId,status" line, or returns null if it is malformed.
+     */
+    public static AttendanceRecord parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) {
+            return null;
+        }
+        return new AttendanceRecord(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    /**
+     * Formats the record as it is stored in attendance.txt (including the newline).
+     */
+    public String toLine() {
+        return date + "," + studentId + "," + status + "\n";
+    }
+}
@@ -0,0 +1,292 @@
+import javax.swing.*;
+import javax.swing.filechooser.FileNameExtensionFilter;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Attendance Report Frame - Per-Student and Per-Department Attendance Percentages
+ */
+public class AttendanceReportFrame extends JFrame {
+    private static final double ELIGIBILITY_PERCENT = 75.0;
+    // Students summarized per call, so a server is asked once per batch
+    private static final int REPORT_BATCH = 500;
+
+    private JTextField fromField;
+    private JTextField toField;
+    private JTextField departmentField;
+    private JTable reportTable;
+    private DefaultTableModel tableModel;
+    private JLabel summaryLabel;
+    private JButton generateButton;
+    private JButton exportButton;
+    private JButton backButton;
+    private LoadProgressPanel progressPanel;
+
+    public AttendanceReportFrame() {
+        setTitle("Attendance Report");
+        setSize(800, 550);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setResizable(true);
+
+        initComponents();
+    }
+
+    private void initComponents() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBackground(Color.WHITE);
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        // Top Panel - Title and Filters
+        JPanel topPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        topPanel.setBackground(Color.WHITE);
+
+        JLabel titleLabel = new JLabel("Attendance Report", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        topPanel.add(titleLabel);
+
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        filterPanel.setBackground(Color.WHITE);
+        filterPanel.add(new JLabel("From:"));
+        fromField = new JTextField(9);
+        filterPanel.add(fromField);
+        filterPanel.add(new JLabel("To:"));
+        toField = new JTextField(9);
+        filterPanel.add(toField);
+        filterPanel.add(new JLabel("Department:"));
+        departmentField = new JTextField(8);
+        filterPanel.add(departmentField);
+        generateButton = new JButton("Generate");
+        filterPanel.add(generateButton);
+        exportButton = new JButton("Export...");
+        // The export reads data/ itself, so it needs the data on this computer
+        if (AttendanceService.isRemote()) {
+            exportButton.setEnabled(false);
+            exportButton.setToolTipText("Export needs the data on this computer");
+        }
+        filterPanel.add(exportButton);
+        topPanel.add(filterPanel);
+
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+
+        // Center Panel - Table
+        String[] columns = { "Student ID", "Name", "Department", "Semester", "Present", "Total", "Percentage",
+                "Eligible" };
+        tableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+
+        reportTable = new JTable(tableModel);
+        reportTable.setRowHeight(25);
+
+        JScrollPane scrollPane = new JScrollPane(reportTable);
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Bottom Panel - Summary, Progress and Buttons
+        summaryLabel = new JLabel("Leave dates empty for the full history", SwingConstants.CENTER);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.setBackground(Color.WHITE);
+
+        backButton = new JButton("Back to Dashboard");
+        backButton.setPreferredSize(new Dimension(150, 35));
+        buttonPanel.add(backButton);
+
+        progressPanel = new LoadProgressPanel();
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setBackground(Color.WHITE);
+        southPanel.add(summaryLabel, BorderLayout.NORTH);
+        southPanel.add(progressPanel, BorderLayout.CENTER);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
+
+        add(mainPanel);
+
+        // Event Listeners
+        generateButton.addActionListener(e -> handleGenerate());
+        exportButton.addActionListener(e -> handleExport());
+        backButton.addActionListener(e -> backToDashboard());
+    }
+
+    private void handleGenerate() {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = parseOptionalDate(fromField.getText());
+            to = parseOptionalDate(toField.getText());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Dates must be in YYYY-MM-DD format",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String department = departmentField.getText().trim();
+
+        progressPanel.cancel();
+        tableModel.setRowCount(0);
+        summaryLabel.setText("Calculating...");
+
+        // Percentages come from running aggregates, not from the attendance rows
+        StreamingLoader<Object[]> reportLoader = new StreamingLoader<Object[]>() {
+            private AttendanceStatistics.Summary overall;
+
+            @Override
+            protected void load() throws Exception {
+                Metrics.time("report.generate", () -> {
+                    generate();
+                    return null;
+                });
+            }
+
+            private void generate() throws IOException {
+                AttendanceService service = AttendanceService.getInstance();
+                java.util.List<Student> roster = department.isEmpty()
+                        ? service.getRoster().getAll()
+                        : service.findByDepartment(department);
+
+                int present = 0;
+                int total = 0;
+                for (int start = 0; start < roster.size() && !isCancelled(); start += REPORT_BATCH) {
+                    java.util.List<Student> batch = roster.subList(start,
+                            Math.min(start + REPORT_BATCH, roster.size()));
+                    java.util.List<String> ids = new ArrayList<>(batch.size());
+                    for (Student student : batch) {
+                        ids.add(student.getId());
+                    }
+                    java.util.List<AttendanceStatistics.Summary> summaries = service.summarize(ids, from, to);
+                    for (int i = 0; i < batch.size(); i++) {
+                        Student student = batch.get(i);
+                        AttendanceStatistics.Summary summary = summaries.get(i);
+                        emit(new Object[] {
+                                student.getId(),
+                                student.getName(),
+                                student.getDepartment(),
+                                student.getSemester(),
+                                summary.getPresent(),
+                                summary.getTotal(),
+                                String.format("%.1f%%", summary.getPercentage()),
+                                summary.getTotal() == 0 ? "-"
+                                        : summary.getPercentage() >= ELIGIBILITY_PERCENT ? "Yes" : "No"
+                        });
+                        present += summary.getPresent();
+                        total += summary.getTotal();
+                    }
+                    reportProgress(start + batch.size(), roster.size());
+                }
+                overall = new AttendanceStatistics.Summary(present, total);
+            }
+
+            @Override
+            protected void onRows(java.util.List<Object[]> rows) {
+                for (Object[] row : rows) {
+                    tableModel.addRow(row);
+                }
+            }
+
+            @Override
+            protected void onFinished(int rowCount) {
+                String scope = department.isEmpty() ? "All departments" : "Department " + department;
+                summaryLabel.setText(scope + ": " + overall.getPresent() + " / " + overall.getTotal()
+                        + " present (" + String.format("%.1f%%", overall.getPercentage()) + ")");
+            }
+
+            @Override
+            protected void onFailed(Exception e) {
+                Log.error("Error generating report", e, "operation", "report.generate", "from", from, "to", to,
+                        "department", department);
+                summaryLabel.setText("Error generating report");
+            }
+        };
+        progressPanel.track(reportLoader.start());
+    }
+
+    /**
+     * Exports the students x dates sheet for the current filters to CSV or XLSX.
+     */
+    private void handleExport() {
+        LocalDate from;
+        LocalDate to;
+        try {
+            from = parseOptionalDate(fromField.getText());
+            to = parseOptionalDate(toField.getText());
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Dates must be in YYYY-MM-DD format",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String department = departmentField.getText().trim();
+
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setAcceptAllFileFilterUsed(false);
+        FileNameExtensionFilter xlsxFilter = new FileNameExtensionFilter("Excel Workbook (*.xlsx)", "xlsx");
+        FileNameExtensionFilter csvFilter = new FileNameExtensionFilter("CSV (*.csv)", "csv");
+        chooser.addChoosableFileFilter(xlsxFilter);
+        chooser.addChoosableFileFilter(csvFilter);
+        chooser.setFileFilter(xlsxFilter);
+        chooser.setSelectedFile(new File("attendance.xlsx"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        // The chosen filter decides the format when the name has no extension
+        File target = chooser.getSelectedFile();
+        String name = target.getName().toLowerCase();
+        if (!name.endsWith(".xlsx") && !name.endsWith(".csv")) {
+            target = new File(target.getPath() + (chooser.getFileFilter() == csvFilter ? ".csv" : ".xlsx"));
+        }
+        File exportFile = target;
+        AttendanceExporter exporter = new AttendanceExporter(from == null ? null : from.toString(),
+                to == null ? null : to.toString(), department);
+
+        progressPanel.cancel();
+        summaryLabel.setText("Exporting to " + exportFile.getName() + "...");
+
+        SwingWorker<Integer, Void> exportWorker = new SwingWorker<Integer, Void>() {
+            @Override
+            protected Integer doInBackground() throws Exception {
+                return Metrics.time("attendance.export", () -> exporter.export(exportFile,
+                        AttendanceExporter.Format.forFile(exportFile),
+                        (written, total) -> setProgress(total == 0 ? 100 : written * 100 / total)));
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    summaryLabel.setText("Export cancelled");
+                    return;
+                }
+                try {
+                    summaryLabel.setText("Exported " + get() + " students to " + exportFile.getPath());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Log.error("Error exporting report", e.getCause(), "operation", "attendance.export",
+                            "file", exportFile.getPath());
+                    summaryLabel.setText("Error exporting report");
+                    JOptionPane.showMessageDialog(AttendanceReportFrame.this,
+                            "Error exporting: " + e.getCause().getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        progressPanel.track(exportWorker);
+        DataAccess.execute(exportWorker);
+    }
+
+    private static LocalDate parseOptionalDate(String text) {
+        String date = text.trim();
+        return date.isEmpty() ? null : LocalDate.parse(date);
+    }
+
+    private void backToDashboard() {
+        progressPanel.cancel();
+        Navigator.showDashboard();
+    }
+}
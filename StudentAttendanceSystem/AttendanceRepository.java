@@ -0,0 +1,1383 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Attendance Repository - Date-Indexed Attendance Store
+ *
+ * Keeps a sidecar index (data/attendance.idx) that maps each date to the byte
+ * ranges of attendance.txt holding that date's rows. Each index line is
+ * "date,offset,length". A date lookup only reads those ranges, so its cost
+ * depends on the number of rows for that day rather than the whole history.
+ *
+ * The index is updated incrementally: appends made through this class add one
+ * index line per session, and rows appended by anything else are picked up by
+ * indexing only the unindexed tail of the file. If attendance.txt ever becomes
+ * shorter than the index expects, the index is rebuilt from scratch.
+ *
+ * Student history queries use per-student posting lists of row offsets, so
+ * they read only that student's rows. The lists are saved to
+ * data/postings.snap (see Snapshot) and the next start only scans rows
+ * appended after the save, unless attendance.txt was rolled meanwhile.
+ *
+ * Saving a date again is an upsert: a per-date hash index of each student's
+ * latest mark (loaded the first time the date is re-saved) means only rows
+ * whose status changed are appended, and reads keep only the latest mark.
+ *
+ * attendance.txt only holds recent saves. Once it grows past 8 MB, or enough
+ * of its rows are superseded, a low-priority background thread rolls its rows
+ * into one sealed segment per month (see AttendanceSegment), merging them
+ * with that month's existing segment and dropping superseded marks. Reads of
+ * a date take the rolled rows from its segment and the newer rows from
+ * attendance.txt; range queries skip segments by their min/max date footer.
+ * The merge runs without any lock a save needs; saves only pause while the
+ * new segments and the shortened attendance.txt are swapped in. Reads hold
+ * the lock file's read region shared, so the swap also waits for readers in
+ * other processes, which then notice the replaced file and re-index.
+ *
+ * Saves go through a write-ahead log (see AttendanceLog) so a crash part way
+ * through a save never leaves a partial session behind. Several processes may
+ * save into the same data/ directory: a save holds the stripe lock of each of
+ * its dates and, while writing, the append lock (see StripedFileLock).
+ */
+public class AttendanceRepository implements AttendanceStore {
+    private static final String ATTENDANCE_FILE = "data/attendance.txt";
+    private static final String INDEX_FILE = "data/attendance.idx";
+    private static final String LOG_FILE = "data/attendance.wal";
+    private static final String LOCK_FILE = "data/attendance.lock";
+    private static final String COMPACTION_LOCK_FILE = "data/compaction.lock";
+    private static final String SEGMENT_DIR = "data/segments";
+    private static final String POSTINGS_SNAPSHOT = "data/postings.snap";
+    private static final long CHECKPOINT_BYTES = 1024 * 1024;
+    private static final long COMPACT_MIN_BYTES = 1024 * 1024;
+    private static final double COMPACT_RATIO = 0.2;
+    private static final long ROLL_BYTES = 8 * 1024 * 1024;
+    // Posting entries keep the row offset in the low bits and the file it is in above them
+    private static final int SOURCE_SHIFT = 40;
+    private static final long OFFSET_MASK = (1L << SOURCE_SHIFT) - 1;
+
+    private static AttendanceRepository instance;
+
+    private final File dataFile;
+    private final File indexFile;
+    private final AttendanceWriter writer;
+    private final AttendanceLog log;
+    private final StripedFileLock locks;
+    private final File segmentDir;
+    private final StripedFileLock compactionLock;
+    private final File postingsSnapshot;
+
+    // month -> newest segment of rows rolled out of attendance.txt
+    private TreeMap<String, AttendanceSegment> segments = new TreeMap<>();
+
+    // date -> list of {offset, length} extents in attendance.txt
+    private final TreeMap<String, List<long[]>> dateIndex = new TreeMap<>();
+    private long indexedLength = 0;
+
+    // studentId -> locations of that student's rows; built on the first history query
+    private Map<String, LongList> postings = null;
+    // The segments posting locations refer to, by source number - 1 (source 0 is attendance.txt)
+    private List<AttendanceSegment> postingSources = null;
+    // The version and length of attendance.txt that postings.snap was last saved or loaded at
+    private String savedPostings = null;
+
+    // date -> studentId -> latest mark; a date is loaded the first time it is re-saved
+    private final Map<String, Map<String, LatestMark>> latest = new HashMap<>();
+    private long supersededBytes = 0;
+
+    // Identifies the file on disk, so a compaction by another process is noticed
+    private Object fileIdentity = null;
+    private boolean loaded = false;
+    private boolean recovered = false;
+    private final List<AttendanceListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Rolls attendance.txt into segments in the background, one roll at a time
+    private final ExecutorService compactor = Executors.newSingleThreadExecutor(task -> {
+        Thread thread = new Thread(task, "attendance-compactor");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+    private final AtomicBoolean compactionQueued = new AtomicBoolean(false);
+    private volatile CompactionReport lastCompaction = null;
+
+    private AttendanceRepository(File dataFile, File indexFile, File logFile, File lockFile,
+            File segmentDir, File compactionLockFile, File postingsSnapshot) {
+        this.dataFile = dataFile;
+        this.indexFile = indexFile;
+        this.writer = new AttendanceWriter(dataFile);
+        this.log = new AttendanceLog(logFile, AttendanceWriter.configuredDurability());
+        this.locks = new StripedFileLock(lockFile);
+        this.segmentDir = segmentDir;
+        this.compactionLock = new StripedFileLock(compactionLockFile);
+        this.postingsSnapshot = postingsSnapshot;
+    }
+
+    /**
+     * The latest mark of one student on one date and where its row is (-1 once rolled into a segment).
+     */
+    private static class LatestMark {
+        final AttendanceRecord record;
+        final long offset;
+        final int length;
+
+        LatestMark(AttendanceRecord record, long offset, int length) {
+            this.record = record;
+            this.offset = offset;
+            this.length = length;
+        }
+    }
+
+    /**
+     * What one roll of attendance.txt into segments did and how long it took.
+     */
+    public static class CompactionReport {
+        private final int segmentsWritten;
+        private final long rowsMerged;
+        private final long rowsWritten;
+        private final long bytesRead;
+        private final long bytesWritten;
+        private final long mergeMillis;
+        private final long pauseMillis;
+
+        CompactionReport(int segmentsWritten, long rowsMerged, long rowsWritten, long bytesRead,
+                long bytesWritten, long mergeMillis, long pauseMillis) {
+            this.segmentsWritten = segmentsWritten;
+            this.rowsMerged = rowsMerged;
+            this.rowsWritten = rowsWritten;
+            this.bytesRead = bytesRead;
+            this.bytesWritten = bytesWritten;
+            this.mergeMillis = mergeMillis;
+            this.pauseMillis = pauseMillis;
+        }
+
+        public int getSegmentsWritten() {
+            return segmentsWritten;
+        }
+
+        public long getRowsMerged() {
+            return rowsMerged;
+        }
+
+        /**
+         * Superseded marks left out of the new segments.
+         */
+        public long getRowsDropped() {
+            return rowsMerged - rowsWritten;
+        }
+
+        public long getBytesRead() {
+            return bytesRead;
+        }
+
+        public long getBytesWritten() {
+            return bytesWritten;
+        }
+
+        /**
+         * Time spent merging, during which saves carried on.
+         */
+        public long getMergeMillis() {
+            return mergeMillis;
+        }
+
+        /**
+         * Time saves were blocked while the new files were swapped in.
+         */
+        public long getPauseMillis() {
+            return pauseMillis;
+        }
+
+        public double getRowsPerSecond() {
+            return mergeMillis == 0 ? rowsMerged * 1000.0 : rowsMerged * 1000.0 / mergeMillis;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("merged %d rows (%.1f MB) into %d segments in %d ms (%.0f rows/s), "
+                    + "dropped %d superseded rows, saves paused %d ms", rowsMerged, bytesRead / 1048576.0,
+                    segmentsWritten, mergeMillis, getRowsPerSecond(), getRowsDropped(), pauseMillis);
+        }
+    }
+
+    public static synchronized AttendanceRepository getInstance() {
+        if (instance == null) {
+            instance = new AttendanceRepository(new File(ATTENDANCE_FILE), new File(INDEX_FILE),
+                    new File(LOG_FILE), new File(LOCK_FILE), new File(SEGMENT_DIR),
+                    new File(COMPACTION_LOCK_FILE), new File(POSTINGS_SNAPSHOT));
+        }
+        return instance;
+    }
+
+    /**
+     * Repairs attendance.txt from the write-ahead log after a crash. Runs once
+     * per process, before the file is first read or written.
+     */
+    @Override
+    public synchronized void recover() throws IOException {
+        if (recovered) {
+            return;
+        }
+        // Another process may be part way through a save; wait for it to finish
+        locks.withAppend(() -> {
+            log.recover(writer, dataFile);
+            return null;
+        });
+        recovered = true;
+    }
+
+    /**
+     * Returns true if there is any attendance data on disk.
+     */
+    @Override
+    public boolean hasRecords() {
+        if (dataFile.exists() && dataFile.length() > 0) {
+            return true;
+        }
+        File[] rolled = segmentDir.listFiles((dir, name) -> name.endsWith(".seg"));
+        return rolled != null && rolled.length > 0;
+    }
+
+    /**
+     * Returns the latest mark of each student on the given date.
+     */
+    @Override
+    public synchronized List<AttendanceRecord> findByDate(String date) throws IOException {
+        return read(() -> {
+            List<AttendanceRecord> records = new ArrayList<>();
+            readDate(date, records);
+            return AttendanceStore.latestPerStudent(records);
+        });
+    }
+
+    @Override
+    public synchronized List<AttendanceRecord> findByDateRange(String from, String to) throws IOException {
+        return read(() -> {
+            List<AttendanceRecord> records = new ArrayList<>();
+            forEachDate(from, to, records::addAll);
+            return records;
+        });
+    }
+
+    @Override
+    public synchronized List<AttendanceRecord> findByStudent(String studentId, String from, String to)
+            throws IOException {
+        return read(() -> readStudent(studentId, from, to));
+    }
+
+    /**
+     * Refreshes the index and runs the read holding the read region shared,
+     * so another process cannot swap in a roll part way through it. If a roll
+     * was swapped in just before the lock was taken, the index is refreshed
+     * again first.
+     */
+    private <T> T read(StripedFileLock.IOAction<T> action) throws IOException {
+        List<T> result = new ArrayList<>(1);
+        while (true) {
+            refresh();
+            boolean current = locks.withRead(() -> {
+                if (!Objects.equals(fileIdentity(), fileIdentity)) {
+                    return false;
+                }
+                result.add(action.run());
+                return true;
+            });
+            if (current) {
+                return result.get(0);
+            }
+        }
+    }
+
+    private List<AttendanceRecord> readStudent(String studentId, String from, String to) throws IOException {
+        if (postings == null) {
+            buildPostings();
+        }
+
+        LongList locations = postings.get(studentId);
+        if (locations == null) {
+            return new ArrayList<>();
+        }
+
+        // Segment rows come before attendance.txt rows, each in file order, so
+        // a later row for a date replaces an earlier one
+        TreeMap<String, AttendanceRecord> byDate = new TreeMap<>();
+        RandomAccessFile[] files = new RandomAccessFile[postingSources.size() + 1];
+        try {
+            byte[] buffer = new byte[128];
+            for (int i = 0; i < locations.size(); i++) {
+                int source = (int) (locations.get(i) >>> SOURCE_SHIFT);
+                if (source > 0 && !postingSources.get(source - 1).overlaps(from, to)) {
+                    continue;
+                }
+                if (files[source] == null) {
+                    files[source] = new RandomAccessFile(
+                            source == 0 ? dataFile : postingSources.get(source - 1).getFile(), "r");
+                }
+                String line = readLineAt(files[source], locations.get(i) & OFFSET_MASK, buffer);
+                Metrics.rowsScanned(1);
+                Metrics.bytesRead(line.length() + 1);
+                AttendanceRecord record = AttendanceRecord.parse(line);
+                if (record != null && inRange(record.getDate(), from, to)) {
+                    byDate.put(record.getDate(), record);
+                }
+            }
+        } finally {
+            for (RandomAccessFile file : files) {
+                if (file != null) {
+                    file.close();
+                }
+            }
+        }
+        return new ArrayList<>(byDate.values());
+    }
+
+    /**
+     * Passes the latest marks of each date between the bounds to the visitor,
+     * one date at a time in date order. Segments whose footer date range lies
+     * outside the bounds are not read at all.
+     */
+    private void forEachDate(String from, String to, Consumer<List<AttendanceRecord>> visitor)
+            throws IOException {
+        for (String date : datesBetween(from, to)) {
+            List<AttendanceRecord> day = new ArrayList<>();
+            readDate(date, day);
+            visitor.accept(AttendanceStore.latestPerStudent(day));
+        }
+    }
+
+    /**
+     * The dates between the bounds in the date index and the segment footers.
+     */
+    private TreeSet<String> datesBetween(String from, String to) {
+        // ISO dates sort as strings, so the indexes give the range in order
+        TreeSet<String> dates = new TreeSet<>(dateRange(from, to).keySet());
+        for (AttendanceSegment segment : segments.values()) {
+            if (segment.overlaps(from, to)) {
+                dates.addAll(segment.dates(from, to).keySet());
+            }
+        }
+        return dates;
+    }
+
+    /**
+     * Adds a date's rows to the list: the rolled rows from its segment first,
+     * then the newer rows from attendance.txt.
+     */
+    private void readDate(String date, List<AttendanceRecord> records) throws IOException {
+        AttendanceSegment segment = segments.get(AttendanceSegment.bucketOf(date));
+        if (segment != null) {
+            segment.read(date, records);
+        }
+        List<long[]> extents = dateIndex.get(date);
+        if (extents != null) {
+            readExtents(extents, records);
+        }
+    }
+
+    private NavigableMap<String, List<long[]>> dateRange(String from, String to) {
+        if (from == null && to == null) {
+            return dateIndex;
+        } else if (from == null) {
+            return dateIndex.headMap(to, true);
+        } else if (to == null) {
+            return dateIndex.tailMap(from, true);
+        }
+        return from.compareTo(to) > 0 ? Collections.emptyNavigableMap() : dateIndex.subMap(from, true, to, true);
+    }
+
+    private static boolean inRange(String date, String from, String to) {
+        return (from == null || date.compareTo(from) >= 0) && (to == null || date.compareTo(to) <= 0);
+    }
+
+    private void readExtents(List<long[]> extents, List<AttendanceRecord> records) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+            for (long[] extent : extents) {
+                byte[] buffer = new byte[(int) extent[1]];
+                file.seek(extent[0]);
+                file.readFully(buffer);
+
+                String chunk = new String(buffer, StandardCharsets.UTF_8);
+                int before = records.size();
+                for (String line : chunk.split("\n")) {
+                    AttendanceRecord record = AttendanceRecord.parse(line);
+                    if (record != null) {
+                        records.add(record);
+                    }
+                }
+                Metrics.rowsScanned(records.size() - before);
+                Metrics.bytesRead(buffer.length);
+            }
+        }
+    }
+
+    private static String readLineAt(RandomAccessFile file, long offset, byte[] buffer) throws IOException {
+        file.seek(offset);
+        ByteArrayOutputStream longLine = null;
+        while (true) {
+            int read = file.read(buffer);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer[i] == '\n') {
+                    if (longLine == null) {
+                        return new String(buffer, 0, i, StandardCharsets.UTF_8);
+                    }
+                    longLine.write(buffer, 0, i);
+                    return longLine.toString(StandardCharsets.UTF_8);
+                }
+            }
+            if (longLine == null) {
+                longLine = new ByteArrayOutputStream();
+            }
+            longLine.write(buffer, 0, read);
+        }
+        return longLine == null ? "" : longLine.toString(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized List<String> findDates(String from, String to) throws IOException {
+        return read(() -> new ArrayList<>(datesBetween(from, to)));
+    }
+
+    @Override
+    public synchronized void scan(String from, String to, Consumer<AttendanceRecord> visitor) throws IOException {
+        // One date at a time, so superseded marks can be dropped
+        read(() -> {
+            forEachDate(from, to, day -> day.forEach(visitor));
+            return null;
+        });
+    }
+
+    /**
+     * Scans the segments in parallel, newline-aligned chunks at a time (see
+     * ParallelScan). Segment rows are already one latest mark per student and
+     * date, except on dates re-saved since the roll: those dates, like every
+     * date with rows in attendance.txt, are left out of the parallel pass and
+     * read through readDate, which keeps only the latest marks.
+     */
+    @Override
+    public synchronized <A> A aggregate(String from, String to, ScanAggregator<A> aggregator) throws IOException {
+        A result = read(() -> {
+            NavigableMap<String, List<long[]>> recent = dateRange(from, to);
+            IntList recentDays = new IntList(recent.size());
+            for (String date : recent.keySet()) {
+                recentDays.add(ScanRow.parseDay(date));
+            }
+            int[] skippedDays = recentDays.toArray();
+            Arrays.sort(skippedDays);
+
+            // Segments hold whole dates in order, so a range is one byte span per segment
+            List<ParallelScan.Region> regions = new ArrayList<>();
+            for (AttendanceSegment segment : segments.values()) {
+                NavigableMap<String, long[]> dates = segment.dates(from, to);
+                if (!dates.isEmpty()) {
+                    long[] first = dates.firstEntry().getValue();
+                    long[] last = dates.lastEntry().getValue();
+                    regions.add(new ParallelScan.Region(segment.getFile(), first[0], last[0] + last[1]));
+                }
+            }
+            A rolled = ParallelScan.run(regions, skippedDays, aggregator);
+
+            A unrolled = aggregator.create();
+            ScanRow row = new ScanRow();
+            for (String date : recent.keySet()) {
+                List<AttendanceRecord> day = new ArrayList<>();
+                readDate(date, day);
+                for (AttendanceRecord record : AttendanceStore.latestPerStudent(day)) {
+                    if (row.set(record)) {
+                        aggregator.accept(unrolled, row);
+                    }
+                }
+            }
+            return aggregator.merge(rolled, unrolled);
+        });
+
+        // Rows another process left in a large attendance.txt scan one at a
+        // time; rolling them makes the next scan parallel
+        if (compactionDue()) {
+            scheduleCompaction();
+        }
+        return result;
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<AttendanceRecord> visitor, AttendanceListener listener)
+            throws IOException {
+        scan(visitor);
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * The identity of attendance.txt, the segments and how much of
+     * attendance.txt is indexed; any save or roll changes it.
+     */
+    @Override
+    public synchronized String getVersion() throws IOException {
+        return read(() -> postingsVersion() + "|" + indexedLength);
+    }
+
+    @Override
+    public synchronized boolean subscribeIfCurrent(String version, AttendanceListener listener)
+            throws IOException {
+        if (!version.equals(getVersion())) {
+            return false;
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+        return true;
+    }
+
+    /**
+     * Loads the index and the posting lists.
+     */
+    @Override
+    public synchronized void preload() throws IOException {
+        read(() -> {
+            if (postings == null) {
+                buildPostings();
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Saves the posting lists to postings.snap if they were built and have
+     * grown since the last save. They are copied under the lock and written
+     * without it.
+     */
+    @Override
+    public void saveSnapshot() throws IOException {
+        String version;
+        long covered;
+        Map<String, long[]> copy;
+        synchronized (this) {
+            if (postings == null) {
+                return;
+            }
+            version = postingsVersion();
+            covered = indexedLength;
+            if ((version + "@" + covered).equals(savedPostings)) {
+                return;
+            }
+            copy = new HashMap<>(postings.size() * 2);
+            for (Map.Entry<String, LongList> entry : postings.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+
+        Snapshot.write(postingsSnapshot, version, out -> {
+            out.writeLong(covered);
+            out.writeInt(copy.size());
+            for (Map.Entry<String, long[]> entry : copy.entrySet()) {
+                Snapshot.putString(out, entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (long location : entry.getValue()) {
+                    out.writeLong(location);
+                }
+            }
+        });
+        synchronized (this) {
+            savedPostings = version + "@" + covered;
+        }
+    }
+
+    /**
+     * What posting locations depend on: which attendance.txt they point
+     * into, and which segment files the source numbers stand for.
+     */
+    private String postingsVersion() {
+        StringBuilder version = new StringBuilder(String.valueOf(fileIdentity));
+        for (AttendanceSegment segment : segments.values()) {
+            version.append('|').append(segment.getFile().getName());
+        }
+        return version.toString();
+    }
+
+    /**
+     * Appends one marking session to attendance.txt and indexes it.
+     */
+    @Override
+    public void appendSession(List<AttendanceRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        Set<String> dates = new TreeSet<>();
+        for (AttendanceRecord record : records) {
+            dates.add(record.getDate());
+        }
+
+        long logPosition = locks.withStripes(dates, () -> {
+            synchronized (this) {
+                return locks.withAppend(() -> writeSession(records));
+            }
+        });
+
+        // Group commit waits outside the lock so concurrent sessions share one force
+        log.sync(logPosition);
+
+        if (compactionDue()) {
+            scheduleCompaction();
+        }
+    }
+
+    /**
+     * Writes one session under the append lock: log, data, then index.
+     *
+     * @return the log position to pass to AttendanceLog.sync
+     */
+    private long writeSession(List<AttendanceRecord> session) throws IOException {
+        // Rows other processes appended are indexed first, so our offset is right
+        refresh();
+
+        // Upsert: keep only marks that differ from the latest one on record
+        List<AttendanceRecord> records = new ArrayList<>();
+        List<LatestMark> replaced = new ArrayList<>();
+        Map<String, AttendanceRecord> unique = new LinkedHashMap<>();
+        for (AttendanceRecord record : session) {
+            unique.put(record.getDate() + "," + record.getStudentId(), record);
+        }
+        for (AttendanceRecord record : unique.values()) {
+            // A date saved for the first time has nothing to compare against
+            String date = record.getDate();
+            LatestMark current = hasRows(date) ? latestFor(date).get(record.getStudentId()) : null;
+            if (current == null) {
+                records.add(record);
+            } else if (!current.record.getStatus().equals(record.getStatus())) {
+                records.add(record);
+                replaced.add(current);
+            }
+        }
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        // The writer encodes the whole session and reports where each line ends
+        int[] lineEnds = new int[records.size()];
+        ByteBuffer bytes = writer.encode(records, lineEnds);
+        long offset = writer.size();
+
+        // Log the session first so a crash mid-write can be repaired on restart
+        long logPosition = log.logSession(offset, bytes, lineEnds, records.size());
+        try {
+            writer.write(bytes);
+        } catch (IOException e) {
+            log.rollbackLastSession();
+            throw e;
+        }
+
+        List<String> dates = new ArrayList<>();
+        List<long[]> extents = new ArrayList<>();
+        int lineStart = 0;
+        for (int i = 0; i < records.size(); i++) {
+            String date = records.get(i).getDate();
+            int length = lineEnds[i] - lineStart;
+            int last = dates.size() - 1;
+            if (last >= 0 && dates.get(last).equals(date)) {
+                extents.get(last)[1] += length;
+            } else {
+                dates.add(date);
+                extents.add(new long[] { offset + lineStart, length });
+            }
+            if (postings != null) {
+                addPosting(records.get(i).getStudentId(), offset + lineStart);
+            }
+            Map<String, LatestMark> marks = latest.get(date);
+            if (marks != null) {
+                marks.put(records.get(i).getStudentId(), new LatestMark(records.get(i), offset + lineStart, length));
+            }
+            lineStart = lineEnds[i];
+        }
+
+        for (int i = 0; i < dates.size(); i++) {
+            addExtent(dates.get(i), extents.get(i));
+        }
+        indexedLength = offset + lineStart;
+        appendIndexLines(dates, extents);
+
+        List<AttendanceRecord> superseded = new ArrayList<>();
+        for (LatestMark mark : replaced) {
+            superseded.add(mark.record);
+            supersededBytes += mark.length;
+        }
+        notifyListeners(records);
+        notifySuperseded(superseded);
+
+        if (log.size() > CHECKPOINT_BYTES) {
+            writer.force();
+            log.checkpoint();
+        }
+        return logPosition;
+    }
+
+    /**
+     * Whether the date has rows on disk, rolled or not, going by the indexes
+     * alone; the date's rows are only read when they are there to compare with.
+     */
+    private boolean hasRows(String date) {
+        if (latest.containsKey(date) || dateIndex.containsKey(date)) {
+            return true;
+        }
+        AttendanceSegment segment = segments.get(AttendanceSegment.bucketOf(date));
+        return segment != null && !segment.dates(date, date).isEmpty();
+    }
+
+    /**
+     * Returns the latest mark of each student on the date, reading the date's
+     * rows the first time it is asked for.
+     */
+    private Map<String, LatestMark> latestFor(String date) throws IOException {
+        Map<String, LatestMark> marks = latest.get(date);
+        if (marks != null) {
+            return marks;
+        }
+
+        marks = new HashMap<>();
+        AttendanceSegment segment = segments.get(AttendanceSegment.bucketOf(date));
+        if (segment != null) {
+            List<AttendanceRecord> rolled = new ArrayList<>();
+            segment.read(date, rolled);
+            for (AttendanceRecord record : rolled) {
+                marks.put(record.getStudentId(), new LatestMark(record, -1,
+                        record.toLine().getBytes(StandardCharsets.UTF_8).length));
+            }
+        }
+        List<long[]> extents = dateIndex.get(date);
+        if (extents != null) {
+            try (RandomAccessFile file = new RandomAccessFile(dataFile, "r")) {
+                for (long[] extent : extents) {
+                    byte[] buffer = new byte[(int) extent[1]];
+                    file.seek(extent[0]);
+                    file.readFully(buffer);
+
+                    int lineStart = 0;
+                    for (int i = 0; i < buffer.length; i++) {
+                        if (buffer[i] != '\n') {
+                            continue;
+                        }
+                        AttendanceRecord record = AttendanceRecord.parse(
+                                new String(buffer, lineStart, i - lineStart, StandardCharsets.UTF_8));
+                        if (record != null) {
+                            LatestMark previous = marks.put(record.getStudentId(),
+                                    new LatestMark(record, extent[0] + lineStart, i + 1 - lineStart));
+                            if (previous != null) {
+                                supersededBytes += previous.length;
+                            }
+                        }
+                        lineStart = i + 1;
+                    }
+                }
+            }
+        }
+        latest.put(date, marks);
+        return marks;
+    }
+
+    private synchronized boolean compactionDue() {
+        return indexedLength >= ROLL_BYTES
+                || (supersededBytes >= COMPACT_MIN_BYTES && supersededBytes >= indexedLength * COMPACT_RATIO);
+    }
+
+    /**
+     * Queues a roll on the compactor thread unless one is already waiting.
+     */
+    private void scheduleCompaction() {
+        if (!compactionQueued.compareAndSet(false, true)) {
+            return;
+        }
+        compactor.execute(() -> {
+            try {
+                compact();
+                CompactionReport report = lastCompaction;
+                if (report != null) {
+                    Log.info("Attendance compaction finished", "operation", "attendance.compact",
+                            "segments", report.getSegmentsWritten(), "rows", report.getRowsMerged(),
+                            "dropped", report.getRowsDropped(), "durationMs", report.getMergeMillis(),
+                            "pauseMs", report.getPauseMillis());
+                }
+            } catch (IOException e) {
+                Log.error("Attendance compaction failed", e, "operation", "attendance.compact",
+                        "file", dataFile.getPath());
+            } finally {
+                compactionQueued.set(false);
+            }
+        });
+    }
+
+    /**
+     * Returns what the most recent roll in this process did, or null if none has run.
+     */
+    public CompactionReport getLastCompaction() {
+        return lastCompaction;
+    }
+
+    @Override
+    public String describeLastCompaction() {
+        CompactionReport report = lastCompaction;
+        return report == null ? "none yet" : report.toString();
+    }
+
+    /**
+     * Rolls the rows in attendance.txt into the month segments, dropping
+     * superseded marks, and leaves attendance.txt holding only rows saved
+     * while the roll ran. Saves carry on during the merge and are only
+     * held up while the new files are swapped in.
+     */
+    @Override
+    public void compact() throws IOException {
+        recover();
+        // One roll at a time across processes; saves do not take this lock
+        compactionLock.withAppend(() -> {
+            roll();
+            return null;
+        });
+    }
+
+    private void roll() throws IOException {
+        long started = System.nanoTime();
+
+        // Rows indexed now are rolled; rows saved from here on stay in attendance.txt
+        TreeMap<String, TreeMap<String, List<long[]>>> byBucket = new TreeMap<>();
+        TreeMap<String, AttendanceSegment> base;
+        long rolledLength;
+        Object identity;
+        synchronized (this) {
+            refresh();
+            for (Map.Entry<String, List<long[]>> entry : dateIndex.entrySet()) {
+                List<long[]> extents = new ArrayList<>();
+                for (long[] extent : entry.getValue()) {
+                    extents.add(extent.clone());
+                }
+                byBucket.computeIfAbsent(AttendanceSegment.bucketOf(entry.getKey()), b -> new TreeMap<>())
+                        .put(entry.getKey(), extents);
+            }
+            base = new TreeMap<>(segments);
+            rolledLength = indexedLength;
+            identity = fileIdentity;
+        }
+        if (byBucket.isEmpty()) {
+            return;
+        }
+
+        // Merge each month's rows with its current segment into the next generation
+        segmentDir.mkdirs();
+        deleteTemporarySegments();
+        Map<File, File> written = new LinkedHashMap<>();
+        long rowsMerged = 0;
+        long rowsWritten = 0;
+        long bytesRead = 0;
+        long bytesWritten = 0;
+        try {
+            for (Map.Entry<String, TreeMap<String, List<long[]>>> bucket : byBucket.entrySet()) {
+                AttendanceSegment current = base.get(bucket.getKey());
+                TreeSet<String> dates = new TreeSet<>(bucket.getValue().keySet());
+                if (current != null) {
+                    dates.addAll(current.dates(null, null).keySet());
+                    bytesRead += current.getDataLength();
+                }
+
+                File target = AttendanceSegment.fileFor(segmentDir, bucket.getKey(),
+                        current == null ? 1 : current.getGeneration() + 1);
+                File temp = new File(target.getPath() + ".tmp");
+                written.put(temp, target);
+                try (AttendanceSegment.Writer out = new AttendanceSegment.Writer(temp)) {
+                    for (String date : dates) {
+                        List<AttendanceRecord> day = new ArrayList<>();
+                        if (current != null) {
+                            current.read(date, day);
+                        }
+                        List<long[]> extents = bucket.getValue().get(date);
+                        if (extents != null) {
+                            readExtents(extents, day);
+                            for (long[] extent : extents) {
+                                bytesRead += extent[1];
+                            }
+                        }
+                        rowsMerged += day.size();
+                        out.writeDate(date, AttendanceStore.latestPerStudent(day));
+                    }
+                    bytesWritten += out.finish();
+                    rowsWritten += out.getRows();
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            deleteTemporarySegments();
+            throw e;
+        }
+        long mergeNanos = System.nanoTime() - started;
+
+        // Swap the files in; this is the only part saves wait for
+        long[] pause = new long[1];
+        boolean swapped = locks.withAll(() -> {
+            synchronized (this) {
+                long pauseStart = System.nanoTime();
+                try {
+                    return swapInSegments(written, rolledLength, identity);
+                } finally {
+                    pause[0] = System.nanoTime() - pauseStart;
+                }
+            }
+        });
+        if (swapped) {
+            lastCompaction = new CompactionReport(written.size(), rowsMerged, rowsWritten, bytesRead,
+                    bytesWritten, mergeNanos / 1_000_000, pause[0] / 1_000_000);
+        }
+    }
+
+    /**
+     * Moves the merged segments into place and replaces attendance.txt with
+     * the rows saved since the roll began. Runs holding every lock region.
+     *
+     * @return false if attendance.txt changed under the roll, which is then abandoned
+     */
+    private boolean swapInSegments(Map<File, File> written, long rolledLength, Object identity)
+            throws IOException {
+        refresh();
+        if (!Objects.equals(identity, fileIdentity) || indexedLength < rolledLength) {
+            deleteTemporarySegments();
+            return false;
+        }
+
+        // The log refers to offsets in the old file, so checkpoint it first
+        writer.force();
+        log.checkpoint();
+
+        File temp = new File(dataFile.getPath() + ".compact");
+        try (FileChannel in = FileChannel.open(dataFile.toPath(), StandardOpenOption.READ);
+                FileOutputStream out = new FileOutputStream(temp)) {
+            long length = in.size();
+            for (long position = rolledLength; position < length; ) {
+                position += in.transferTo(position, length - position, out.getChannel());
+            }
+            out.getFD().sync();
+        }
+
+        // Readers in other processes hold offsets into the old files, so wait them out
+        locks.withReadersExcluded(() -> {
+            // Segments first: a crash before attendance.txt is replaced leaves the
+            // rolled rows in both, which reads already collapse to the latest mark
+            for (Map.Entry<File, File> entry : written.entrySet()) {
+                replace(entry.getKey(), entry.getValue());
+            }
+            // Without the old index a crash from here on just re-indexes the file
+            indexFile.delete();
+            writer.close();
+            replace(temp, dataFile);
+            for (File target : written.values()) {
+                AttendanceSegment.deleteOlderGenerations(target);
+            }
+            return null;
+        });
+
+        // The carried rows keep their index entries, moved down by the rolled length
+        List<String> dates = new ArrayList<>();
+        List<long[]> extents = new ArrayList<>();
+        for (Map.Entry<String, List<long[]>> entry : dateIndex.entrySet()) {
+            for (long[] extent : entry.getValue()) {
+                long start = Math.max(extent[0], rolledLength);
+                long end = extent[0] + extent[1];
+                if (end > start) {
+                    dates.add(entry.getKey());
+                    extents.add(new long[] { start - rolledLength, end - start });
+                }
+            }
+        }
+        dateIndex.clear();
+        for (int i = 0; i < dates.size(); i++) {
+            addExtent(dates.get(i), extents.get(i));
+        }
+        appendIndexLines(dates, extents);
+        indexedLength -= rolledLength;
+
+        // Same marks as before, so listeners have nothing to catch up on
+        segments = AttendanceSegment.openAll(segmentDir);
+        postings = null;
+        postingSources = null;
+        latest.clear();
+        supersededBytes = 0;
+        fileIdentity = fileIdentity();
+        return true;
+    }
+
+    private void deleteTemporarySegments() {
+        File[] temps = segmentDir.listFiles((dir, name) -> name.endsWith(".seg.tmp"));
+        if (temps != null) {
+            for (File temp : temps) {
+                temp.delete();
+            }
+        }
+    }
+
+    private static void replace(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * The file's inode (or creation time where there is none), which changes
+     * when another process compacts attendance.txt into a new file.
+     */
+    private Object fileIdentity() throws IOException {
+        if (!dataFile.exists()) {
+            return null;
+        }
+        BasicFileAttributes attributes = Files.readAttributes(dataFile.toPath(), BasicFileAttributes.class);
+        return attributes.fileKey() != null ? attributes.fileKey() : attributes.creationTime();
+    }
+
+    /**
+     * Brings the in-memory index up to date with the files on disk.
+     */
+    private void refresh() throws IOException {
+        recover();
+        if (!loaded) {
+            segments = AttendanceSegment.openAll(segmentDir);
+            loadIndex();
+            loaded = true;
+        }
+
+        Object identity = fileIdentity();
+        boolean replaced = fileIdentity != null && identity != null && !identity.equals(fileIdentity);
+        fileIdentity = identity;
+
+        long fileLength = dataFile.exists() ? dataFile.length() : 0;
+        if (replaced || fileLength < indexedLength) {
+            // attendance.txt was truncated or rolled; the index no longer matches
+            if (replaced) {
+                writer.close();
+            }
+            rebuildIndex();
+        } else if (fileLength > indexedLength) {
+            indexTail(fileLength, true);
+        }
+    }
+
+    private void loadIndex() throws IOException {
+        dateIndex.clear();
+        indexedLength = 0;
+        if (!indexFile.exists()) {
+            return;
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(",");
+                if (parts.length >= 3) {
+                    try {
+                        long offset = Long.parseLong(parts[1].trim());
+                        long length = Long.parseLong(parts[2].trim());
+                        if (offset < indexedLength) {
+                            // Also written by another process that indexed the same rows;
+                            // anything past indexedLength is picked up by the tail scan
+                            continue;
+                        }
+                        addExtent(parts[0].trim(), new long[] { offset, length });
+                        indexedLength = Math.max(indexedLength, offset + length);
+                    } catch (NumberFormatException e) {
+                        // Skip a torn index line; the tail scan will cover it again
+                    }
+                }
+            }
+        }
+    }
+
+    private void rebuildIndex() throws IOException {
+        for (AttendanceListener listener : listeners) {
+            listener.storeReset();
+        }
+        segments = AttendanceSegment.openAll(segmentDir);
+        dateIndex.clear();
+        postings = null;
+        postingSources = null;
+        latest.clear();
+        supersededBytes = 0;
+        indexedLength = 0;
+        if (indexFile.exists()) {
+            indexFile.delete();
+        }
+        long fileLength = dataFile.exists() ? dataFile.length() : 0;
+        if (fileLength > 0) {
+            indexTail(fileLength, false);
+        }
+
+        // Listeners start over from every latest mark, rolled or not. If yet
+        // another roll has been swapped in meanwhile, the next refresh resets them again
+        if (!listeners.isEmpty()) {
+            locks.withRead(() -> {
+                if (!Objects.equals(fileIdentity(), fileIdentity)) {
+                    return null;
+                }
+                List<AttendanceRecord> batch = new ArrayList<>();
+                forEachDate(null, null, day -> {
+                    batch.addAll(day);
+                    if (batch.size() >= 10_000) {
+                        notifyListeners(new ArrayList<>(batch));
+                        batch.clear();
+                    }
+                });
+                notifyListeners(batch);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Scans attendance.txt from the end of the indexed region up to the last
+     * complete line and records one extent per run of same-date rows. With
+     * notify set, the rows are also passed on to the listeners.
+     */
+    private void indexTail(long fileLength, boolean notify) throws IOException {
+        List<String> dates = new ArrayList<>();
+        List<long[]> extents = new ArrayList<>();
+        List<List<AttendanceRecord>> added = new ArrayList<>();
+        added.add(new ArrayList<>());
+        List<AttendanceRecord> superseded = new ArrayList<>();
+
+        long end = scanLines(dataFile, indexedLength, fileLength, (lineStart, text) -> {
+            int comma = text.indexOf(',');
+            if (comma <= 0) {
+                return;
+            }
+            String date = text.substring(0, comma).trim();
+            long length = text.getBytes(StandardCharsets.UTF_8).length + 1;
+            int last = dates.size() - 1;
+            if (last >= 0 && dates.get(last).equals(date)) {
+                extents.get(last)[1] += length;
+            } else {
+                dates.add(date);
+                extents.add(new long[] { lineStart, length });
+            }
+
+            AttendanceRecord record = AttendanceRecord.parse(text);
+            if (record == null) {
+                return;
+            }
+            if (postings != null) {
+                addPosting(record.getStudentId(), lineStart);
+            }
+            if (!notify) {
+                return;
+            }
+
+            // Re-marks saved by another process replace the latest mark we know of
+            if (!listeners.isEmpty() || latest.containsKey(date)) {
+                LatestMark previous = latestFor(date).put(record.getStudentId(),
+                        new LatestMark(record, lineStart, (int) length));
+                if (previous != null) {
+                    supersededBytes += previous.length;
+                    superseded.add(previous.record);
+                }
+            }
+
+            // Rows written by another process still reach the listeners
+            if (!listeners.isEmpty()) {
+                List<AttendanceRecord> batch = added.get(0);
+                batch.add(record);
+                if (batch.size() == 10_000) {
+                    notifyListeners(batch);
+                    notifySuperseded(superseded);
+                    added.set(0, new ArrayList<>());
+                    superseded.clear();
+                }
+            }
+        });
+        notifyListeners(added.get(0));
+        notifySuperseded(superseded);
+
+        for (int i = 0; i < dates.size(); i++) {
+            addExtent(dates.get(i), extents.get(i));
+        }
+        // Only complete lines are indexed; a partial last line is picked up later
+        indexedLength = end;
+        appendIndexLines(dates, extents);
+    }
+
+    /**
+     * Builds the per-student posting lists (locations of each student's rows)
+     * with one pass over the segments and the indexed part of attendance.txt,
+     * in that order. Appends keep them current afterwards.
+     */
+    private void buildPostings() throws IOException {
+        if (loadPostingsSnapshot()) {
+            return;
+        }
+        postings = new HashMap<>();
+        postingSources = new ArrayList<>(segments.values());
+        for (int i = 0; i < postingSources.size(); i++) {
+            AttendanceSegment segment = postingSources.get(i);
+            long source = (long) (i + 1) << SOURCE_SHIFT;
+            scanLines(segment.getFile(), 0, segment.getDataLength(), (lineStart, text) -> {
+                AttendanceRecord record = AttendanceRecord.parse(text);
+                if (record != null) {
+                    addPosting(record.getStudentId(), source | lineStart);
+                }
+            });
+        }
+        scanLines(dataFile, 0, indexedLength, (lineStart, text) -> {
+            AttendanceRecord record = AttendanceRecord.parse(text);
+            if (record != null) {
+                addPosting(record.getStudentId(), lineStart);
+            }
+        });
+    }
+
+    /**
+     * Loads the posting lists from postings.snap if it was saved from the
+     * same attendance.txt and segments, then adds the rows appended since.
+     *
+     * @return false if there is no usable snapshot
+     */
+    private boolean loadPostingsSnapshot() throws IOException {
+        Snapshot snapshot = Snapshot.read(postingsSnapshot);
+        String version = postingsVersion();
+        if (snapshot == null || !snapshot.getVersion().equals(version)) {
+            return false;
+        }
+
+        ByteBuffer in = snapshot.getBody();
+        Map<String, LongList> loaded;
+        long covered;
+        try {
+            covered = in.getLong();
+            if (covered > indexedLength) {
+                return false;
+            }
+            int students = in.getInt();
+            if (students < 0 || students > in.remaining() / 8) {
+                throw new IllegalStateException("Bad student count " + students);
+            }
+            loaded = new HashMap<>(students * 2);
+            for (int i = 0; i < students; i++) {
+                String studentId = Snapshot.getString(in);
+                int size = in.getInt();
+                if (size < 0 || size > in.remaining() / 8) {
+                    throw new IllegalStateException("Bad posting count " + size);
+                }
+                LongList locations = new LongList(size);
+                for (int j = 0; j < size; j++) {
+                    locations.add(in.getLong());
+                }
+                loaded.put(studentId, locations);
+            }
+        } catch (RuntimeException e) {
+            Log.warn("Ignoring damaged postings snapshot", e, "file", postingsSnapshot.getPath());
+            return false;
+        }
+
+        postings = loaded;
+        postingSources = new ArrayList<>(segments.values());
+        savedPostings = version + "@" + covered;
+        scanLines(dataFile, covered, indexedLength, (lineStart, text) -> {
+            AttendanceRecord record = AttendanceRecord.parse(text);
+            if (record != null) {
+                addPosting(record.getStudentId(), lineStart);
+            }
+        });
+        return true;
+    }
+
+    private void addPosting(String studentId, long offset) {
+        postings.computeIfAbsent(studentId, id -> new LongList()).add(offset);
+    }
+
+    /**
+     * Receives each complete line of a file with its byte offset.
+     */
+    private interface LineVisitor {
+        void visit(long lineStart, String text) throws IOException;
+    }
+
+    /**
+     * Visits the complete lines between two byte offsets.
+     *
+     * @return the offset just past the last complete line
+     */
+    private long scanLines(File source, long from, long to, LineVisitor visitor) throws IOException {
+        if (!source.exists() || from >= to) {
+            return from;
+        }
+
+        long position = from;
+        long lineStart = from;
+        try (RandomAccessFile file = new RandomAccessFile(source, "r")) {
+            file.seek(position);
+            BufferedInputStream in = new BufferedInputStream(new FileInputStream(file.getFD()), 64 * 1024);
+            ByteArrayOutputStream line = new ByteArrayOutputStream(64);
+            int b;
+            while (position < to && (b = in.read()) != -1) {
+                position++;
+                if (b != '\n') {
+                    line.write(b);
+                    continue;
+                }
+
+                visitor.visit(lineStart, line.toString(StandardCharsets.UTF_8));
+                line.reset();
+                lineStart = position;
+            }
+        }
+        return lineStart;
+    }
+
+    private void notifyListeners(List<AttendanceRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        for (AttendanceListener listener : listeners) {
+            listener.sessionSaved(records);
+        }
+    }
+
+    private void notifySuperseded(List<AttendanceRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        for (AttendanceListener listener : listeners) {
+            listener.recordsSuperseded(records);
+        }
+    }
+
+    private void addExtent(String date, long[] extent) {
+        List<long[]> extents = dateIndex.computeIfAbsent(date, d -> new ArrayList<>());
+        int last = extents.size() - 1;
+        if (last >= 0 && extents.get(last)[0] + extents.get(last)[1] == extent[0]) {
+            extents.get(last)[1] += extent[1];
+        } else {
+            extents.add(extent);
+        }
+    }
+
+    private void appendIndexLines(List<String> dates, List<long[]> extents) throws IOException {
+        if (dates.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (int i = 0; i < dates.size(); i++) {
+            lines.append(dates.get(i)).append(',')
+                    .append(extents.get(i)[0]).append(',')
+                    .append(extents.get(i)[1]).append('\n');
+        }
+        try (Writer writer = new FileWriter(indexFile, StandardCharsets.UTF_8, true)) {
+            writer.write(lines.toString());
+        }
+    }
+}
@@ -0,0 +1,295 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Attendance Segment - One Sealed Month of Attendance Rows
+ *
+ * When attendance.txt is rolled (see AttendanceRepository.compact) its rows
+ * move into one segment per month under data/segments/, named
+ * "attendance-YYYY-MM.<generation>.seg". A segment holds the same CSV rows as
+ * attendance.txt, sorted by date with only the latest mark of each student,
+ * followed by a footer:
+ *
+ *   #date,offset,length                          one line per date
+ *   #segment,minDate,maxDate,rows,footerOffset   always the last line
+ *
+ * Opening a segment reads only the footer, so queries can skip segments whose
+ * date range does not overlap theirs and read a date with a single seek.
+ * Segments are never modified; rolling the same month again writes the next
+ * generation and readers always use the newest one.
+ */
+public class AttendanceSegment {
+    private static final Pattern FILE_NAME = Pattern.compile("attendance-(.+)\\.(\\d+)\\.seg");
+
+    private final File file;
+    private final String bucket;
+    private final int generation;
+    private final TreeMap<String, long[]> dates;
+    private final String minDate;
+    private final String maxDate;
+    private final long rows;
+    private final long dataLength;
+
+    private AttendanceSegment(File file, String bucket, int generation, TreeMap<String, long[]> dates,
+            String minDate, String maxDate, long rows, long dataLength) {
+        this.file = file;
+        this.bucket = bucket;
+        this.generation = generation;
+        this.dates = dates;
+        this.minDate = minDate;
+        this.maxDate = maxDate;
+        this.rows = rows;
+        this.dataLength = dataLength;
+    }
+
+    /**
+     * The segment a date belongs to: its month for ISO dates ("2024-03").
+     */
+    public static String bucketOf(String date) {
+        if (date.length() >= 7 && date.charAt(4) == '-') {
+            return date.substring(0, 7);
+        }
+        return "other";
+    }
+
+    public static File fileFor(File directory, String bucket, int generation) {
+        return new File(directory, "attendance-" + bucket + "." + generation + ".seg");
+    }
+
+    /**
+     * Opens the newest generation of every segment in the directory, by bucket.
+     */
+    public static TreeMap<String, AttendanceSegment> openAll(File directory) throws IOException {
+        TreeMap<String, AttendanceSegment> segments = new TreeMap<>();
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return segments;
+        }
+
+        // Newest generation first, so older ones are only opened if it is unreadable
+        Arrays.sort(files, Comparator.comparingInt(AttendanceSegment::generationOf).reversed());
+        for (File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if (!matcher.matches() || segments.containsKey(matcher.group(1))) {
+                continue;
+            }
+            AttendanceSegment segment = open(file);
+            if (segment != null) {
+                segments.put(segment.bucket, segment);
+            }
+        }
+        return segments;
+    }
+
+    /**
+     * Reads a segment's footer, or returns null if the file is not a complete segment.
+     */
+    public static AttendanceSegment open(File file) throws IOException {
+        Matcher matcher = FILE_NAME.matcher(file.getName());
+        if (!matcher.matches()) {
+            return null;
+        }
+
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            long length = in.length();
+            byte[] tail = new byte[(int) Math.min(512, length)];
+            in.seek(length - tail.length);
+            in.readFully(tail);
+            String text = new String(tail, StandardCharsets.UTF_8);
+            int start = text.lastIndexOf("\n#segment,");
+            if (start < 0 && !text.startsWith("#segment,")) {
+                return null;
+            }
+
+            String[] trailer = text.substring(start + 1).trim().split(",");
+            if (trailer.length < 5) {
+                return null;
+            }
+            long rows = Long.parseLong(trailer[3]);
+            long footerOffset = Long.parseLong(trailer[4]);
+
+            byte[] footer = new byte[(int) (length - footerOffset)];
+            in.seek(footerOffset);
+            in.readFully(footer);
+            TreeMap<String, long[]> dates = new TreeMap<>();
+            for (String line : new String(footer, StandardCharsets.UTF_8).split("\n")) {
+                if (!line.startsWith("#") || line.startsWith("#segment,")) {
+                    continue;
+                }
+                String[] parts = line.substring(1).split(",");
+                if (parts.length == 3) {
+                    dates.put(parts[0], new long[] { Long.parseLong(parts[1]), Long.parseLong(parts[2]) });
+                }
+            }
+            return new AttendanceSegment(file, matcher.group(1), Integer.parseInt(matcher.group(2)), dates,
+                    trailer[1], trailer[2], rows, footerOffset);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the generations of the same bucket older than the given segment file.
+     */
+    public static void deleteOlderGenerations(File segmentFile) {
+        Matcher newest = FILE_NAME.matcher(segmentFile.getName());
+        File[] files = segmentFile.getParentFile().listFiles();
+        if (!newest.matches() || files == null) {
+            return;
+        }
+        for (File file : files) {
+            Matcher matcher = FILE_NAME.matcher(file.getName());
+            if (matcher.matches() && matcher.group(1).equals(newest.group(1))
+                    && Integer.parseInt(matcher.group(2)) < Integer.parseInt(newest.group(2))) {
+                file.delete();
+            }
+        }
+    }
+
+    private static int generationOf(File file) {
+        Matcher matcher = FILE_NAME.matcher(file.getName());
+        return matcher.matches() ? Integer.parseInt(matcher.group(2)) : -1;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public String getBucket() {
+        return bucket;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    public String getMinDate() {
+        return minDate;
+    }
+
+    public String getMaxDate() {
+        return maxDate;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    /**
+     * Length of the row section, i.e. where the footer starts.
+     */
+    public long getDataLength() {
+        return dataLength;
+    }
+
+    /**
+     * Returns true if any of the segment's dates can fall between the two
+     * (inclusive, either may be null); false means it can be skipped.
+     */
+    public boolean overlaps(String from, String to) {
+        return (from == null || maxDate.compareTo(from) >= 0) && (to == null || minDate.compareTo(to) <= 0);
+    }
+
+    /**
+     * The segment's dates between the two bounds, each with its {offset, length}.
+     */
+    public NavigableMap<String, long[]> dates(String from, String to) {
+        if (!overlaps(from, to) || (from != null && to != null && from.compareTo(to) > 0)) {
+            return Collections.emptyNavigableMap();
+        }
+        return dates.subMap(from == null ? "" : from, true, to == null ? "\uffff" : to, true);
+    }
+
+    /**
+     * Adds the date's rows to the list, in segment order.
+     */
+    public void read(String date, List<AttendanceRecord> records) throws IOException {
+        long[] extent = dates.get(date);
+        if (extent == null) {
+            return;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r")) {
+            read(in, extent, records);
+        }
+    }
+
+    static void read(RandomAccessFile in, long[] extent, List<AttendanceRecord> records) throws IOException {
+        byte[] buffer = new byte[(int) extent[1]];
+        in.seek(extent[0]);
+        in.readFully(buffer);
+        int before = records.size();
+        for (String line : new String(buffer, StandardCharsets.UTF_8).split("\n")) {
+            AttendanceRecord record = AttendanceRecord.parse(line);
+            if (record != null) {
+                records.add(record);
+            }
+        }
+        Metrics.rowsScanned(records.size() - before);
+        Metrics.bytesRead(buffer.length);
+    }
+
+    /**
+     * Writes a new segment date by date (dates must arrive in ascending
+     * order), then the footer. The file is forced before finish() returns.
+     */
+    public static class Writer implements Closeable {
+        private final FileOutputStream out;
+        private final BufferedOutputStream buffered;
+        private final TreeMap<String, long[]> dates = new TreeMap<>();
+        private long position = 0;
+        private long rows = 0;
+
+        public Writer(File file) throws IOException {
+            this.out = new FileOutputStream(file);
+            this.buffered = new BufferedOutputStream(out, 64 * 1024);
+        }
+
+        public void writeDate(String date, List<AttendanceRecord> records) throws IOException {
+            long start = position;
+            for (AttendanceRecord record : records) {
+                byte[] line = record.toLine().getBytes(StandardCharsets.UTF_8);
+                buffered.write(line);
+                position += line.length;
+            }
+            if (position > start) {
+                dates.put(date, new long[] { start, position - start });
+                rows += records.size();
+            }
+        }
+
+        public long getRows() {
+            return rows;
+        }
+
+        /**
+         * Writes the footer and forces the file to disk.
+         *
+         * @return the total length of the segment file
+         */
+        public long finish() throws IOException {
+            StringBuilder footer = new StringBuilder();
+            for (Map.Entry<String, long[]> entry : dates.entrySet()) {
+                footer.append('#').append(entry.getKey()).append(',')
+                        .append(entry.getValue()[0]).append(',').append(entry.getValue()[1]).append('\n');
+            }
+            String min = dates.isEmpty() ? "" : dates.firstKey();
+            String max = dates.isEmpty() ? "" : dates.lastKey();
+            footer.append("#segment,").append(min).append(',').append(max).append(',')
+                    .append(rows).append(',').append(position).append('\n');
+
+            byte[] bytes = footer.toString().getBytes(StandardCharsets.UTF_8);
+            buffered.write(bytes);
+            buffered.flush();
+            out.getFD().sync();
+            return position + bytes.length;
+        }
+
+        @Override
+        public void close() throws IOException {
+            buffered.close();
+        }
+    }
+}
@@ -0,0 +1,453 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Attendance Server - Headless HTTP/JSON API over data/
+ *
+ * Started with "java Main --server [port]" (default 8080). One server process
+ * owns data/ and its in-memory caches; the Swing clients are started with
+ * -Dattendance.server=http://host:port and call it through
+ * RemoteAttendanceService instead of opening the files themselves.
+ *
+ *   POST /api/login        {"email","password"}           -> {"token"}
+ *   POST /api/signup       {"name","email","password"}    -> {"added"}
+ *   GET  /api/sections                                     -> [{"department","semester"}]
+ *   POST /api/sections     {"department","semester"}       -> {"added"}
+ *   GET  /api/students     [?department=[&semester=]|?id=] -> [{"id","name","department","semester"}]
+ *   POST /api/students     [{"id","name","department","semester"}] -> {"skipped":[students]}
+ *   GET  /api/attendance   ?from=&to=|?studentId=[&from=][&to=] -> [{"date","studentId","status"}]
+ *   POST /api/attendance   [{"date","studentId","status"}] -> {"saved"}
+ *   POST /api/report       {"from","to","studentIds"}      -> [{"present","total"}]
+ *   GET  /api/status                                       -> {"hasRecords","students"}
+ *
+ * A date range query needs both from and to, so one request cannot pull the
+ * whole history; only one student's history may be left open-ended.
+ *
+ * Everything but login and signup needs "Authorization: Bearer <token>"; tokens last 12
+ * hours. Each request runs on its own virtual thread where the JVM has them
+ * (Java 21+), or on a pooled thread otherwise. The server listens on
+ * 127.0.0.1 unless -Dattendance.server.host says otherwise; it speaks plain
+ * HTTP, so put it behind TLS before exposing it beyond a trusted network.
+ */
+public class AttendanceServer {
+    public static final int DEFAULT_PORT = 8080;
+    private static final long TOKEN_MILLIS = 12L * 60 * 60 * 1000;
+    private static final int MAX_BODY_BYTES = 16 * 1024 * 1024;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AttendanceService service = LocalAttendanceService.getInstance();
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    private AttendanceServer(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/api/login", exchange -> handle(exchange, "api.login", false, this::login));
+        server.createContext("/api/signup", exchange -> handle(exchange, "api.signup", false, this::signup));
+        server.createContext("/api/sections", exchange -> handle(exchange, "api.sections", true, this::sections));
+        server.createContext("/api/students", exchange -> handle(exchange, "api.students", true, this::students));
+        server.createContext("/api/attendance",
+                exchange -> handle(exchange, "api.attendance", true, this::attendance));
+        server.createContext("/api/report", exchange -> handle(exchange, "api.report", true, this::report));
+        server.createContext("/api/status", exchange -> handle(exchange, "api.status", true, this::status));
+    }
+
+    /**
+     * Starts serving on the port; request threads keep the JVM running.
+     */
+    public static AttendanceServer start(int port) throws IOException {
+        String host = System.getProperty("attendance.server.host", "127.0.0.1");
+        AttendanceServer attendanceServer = new AttendanceServer(host, port);
+        attendanceServer.server.start();
+        Log.info("Attendance server started", "host", host, "port", port);
+        return attendanceServer;
+    }
+
+    public void stop() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * A thread per request: virtual threads through reflection, so this still
+     * compiles and runs on JDKs without them.
+     */
+    private static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return Executors.newCachedThreadPool(new java.util.concurrent.ThreadFactory() {
+                private int count = 0;
+
+                @Override
+                public synchronized Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "http-" + (++count));
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+    }
+
+    /**
+     * The lecturer a token was issued to and when it stops being accepted.
+     */
+    private static class Session {
+        final String email;
+        final long expiresAt;
+
+        Session(String email, long expiresAt) {
+            this.email = email;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Answers one request: returns the JSON body, or throws ApiException for
+     * an error status.
+     */
+    private interface Handler {
+        Object handle(HttpExchange exchange, String lecturer) throws Exception;
+    }
+
+    /**
+     * An error reported to the client with its HTTP status.
+     */
+    private static class ApiException extends Exception {
+        final int status;
+
+        ApiException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+    }
+
+    private void handle(HttpExchange exchange, String operation, boolean authenticated, Handler handler)
+            throws IOException {
+        int status = 200;
+        Object body;
+        try {
+            String lecturer = authenticated ? lecturerOf(exchange) : null;
+            body = Metrics.time(operation, () -> handler.handle(exchange, lecturer));
+        } catch (ApiException e) {
+            status = e.status;
+            body = error(e.getMessage());
+        } catch (IllegalArgumentException e) {
+            status = 400;
+            body = error(e.getMessage());
+        } catch (Exception e) {
+            Log.error("Error handling request", e, "operation", operation, "method", exchange.getRequestMethod(),
+                    "path", exchange.getRequestURI().getPath());
+            status = 500;
+            body = error("Internal error");
+        }
+
+        byte[] response = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, response.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(response);
+        }
+    }
+
+    private String lecturerOf(HttpExchange exchange) throws ApiException {
+        String header = exchange.getRequestHeaders().getFirst("Authorization");
+        if (header != null && header.startsWith("Bearer ")) {
+            Session session = sessions.get(header.substring(7).trim());
+            if (session != null && session.expiresAt > System.currentTimeMillis()) {
+                return session.email;
+            }
+        }
+        throw new ApiException(401, "Not logged in");
+    }
+
+    private Object login(HttpExchange exchange, String lecturer) throws Exception {
+        requireMethod(exchange, "POST");
+        Object request = readBody(exchange);
+        String email = Json.getString(request, "email");
+        String password = Json.getString(request, "password");
+        if (email == null || password == null) {
+            throw new IllegalArgumentException("email and password are required");
+        }
+        if (!service.authenticate(email, password)) {
+            throw new ApiException(401, "Invalid email or password");
+        }
+
+        long now = System.currentTimeMillis();
+        sessions.values().removeIf(session -> session.expiresAt <= now);
+        byte[] bytes = new byte[32];
+        RANDOM.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        sessions.put(token, new Session(email.trim(), now + TOKEN_MILLIS));
+        return Collections.singletonMap("token", token);
+    }
+
+    private Object signup(HttpExchange exchange, String lecturer) throws Exception {
+        requireMethod(exchange, "POST");
+        Object request = readBody(exchange);
+        String name = requireStorable(Json.getString(request, "name"), "name");
+        String email = requireStorable(Json.getString(request, "email"), "email");
+        String password = Json.getString(request, "password");
+        if (password == null || password.trim().isEmpty()) {
+            throw new IllegalArgumentException("password is required");
+        }
+        return Collections.singletonMap("added", service.signup(name, email, password.trim()));
+    }
+
+    private Object sections(HttpExchange exchange, String lecturer) throws Exception {
+        if (exchange.getRequestMethod().equals("POST")) {
+            Object request = readBody(exchange);
+            String department = requireStorable(Json.getString(request, "department"), "department");
+            String semester = requireStorable(Json.getString(request, "semester"), "semester");
+            boolean added = service.addSection(new Section(lecturer, department, semester));
+            return Collections.singletonMap("added", added);
+        }
+        requireMethod(exchange, "GET");
+        List<Map<String, Object>> sections = new ArrayList<>();
+        for (Section section : service.findSections(lecturer)) {
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("department", section.getDepartment());
+            item.put("semester", section.getSemester());
+            sections.add(item);
+        }
+        return sections;
+    }
+
+    private Object students(HttpExchange exchange, String lecturer) throws Exception {
+        if (exchange.getRequestMethod().equals("POST")) {
+            Object request = readBody(exchange);
+            if (!(request instanceof List)) {
+                throw new IllegalArgumentException("Expected an array of students");
+            }
+            List<Student> students = new ArrayList<>();
+            for (Object item : (List<?>) request) {
+                students.add(toStudent(item));
+            }
+            return Collections.singletonMap("skipped", toRows(service.addStudents(students)));
+        }
+
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        String id = query.get("id");
+        String department = query.get("department");
+        String semester = query.get("semester");
+        Collection<Student> students;
+        if (id != null) {
+            Roster roster = service.getRoster();
+            int row = roster.indexOf(id);
+            students = row < 0 ? Collections.emptyList() : Collections.singletonList(roster.get(row));
+        } else if (department != null && semester != null) {
+            students = service.findSectionRoster(department, semester);
+        } else if (department != null) {
+            students = service.findByDepartment(department);
+        } else {
+            students = service.getRoster().getAll();
+        }
+        return toRows(students);
+    }
+
+    private static List<Map<String, Object>> toRows(Collection<Student> students) {
+        List<Map<String, Object>> rows = new ArrayList<>(students.size());
+        for (Student student : students) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", student.getId());
+            row.put("name", student.getName());
+            row.put("department", student.getDepartment());
+            row.put("semester", student.getSemester());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Object attendance(HttpExchange exchange, String lecturer) throws Exception {
+        if (exchange.getRequestMethod().equals("POST")) {
+            Object request = readBody(exchange);
+            if (!(request instanceof List)) {
+                throw new IllegalArgumentException("Expected an array of records");
+            }
+            List<AttendanceRecord> records = new ArrayList<>();
+            for (Object item : (List<?>) request) {
+                records.add(toRecord(item));
+            }
+            service.saveSession(records);
+            return Collections.singletonMap("saved", records.size());
+        }
+
+        requireMethod(exchange, "GET");
+        Map<String, String> query = query(exchange);
+        String from = query.get("from");
+        String to = query.get("to");
+        String studentId = query.get("studentId");
+        boolean byDate = studentId == null || studentId.isEmpty();
+        if (byDate && (optionalDate(from, "from") == null || optionalDate(to, "to") == null)) {
+            throw new IllegalArgumentException("from and to are required unless studentId is given");
+        }
+        List<AttendanceRecord> records = byDate
+                ? service.findByDateRange(from, to)
+                : service.findByStudent(studentId, from, to);
+
+        List<Map<String, Object>> rows = new ArrayList<>(records.size());
+        for (AttendanceRecord record : records) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("date", record.getDate());
+            row.put("studentId", record.getStudentId());
+            row.put("status", record.getStatus());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Object report(HttpExchange exchange, String lecturer) throws Exception {
+        requireMethod(exchange, "POST");
+        Object request = readBody(exchange);
+        Object ids = request instanceof Map ? ((Map<?, ?>) request).get("studentIds") : null;
+        if (!(ids instanceof List)) {
+            throw new IllegalArgumentException("studentIds must be an array");
+        }
+        List<String> studentIds = new ArrayList<>();
+        for (Object id : (List<?>) ids) {
+            if (!(id instanceof String)) {
+                throw new IllegalArgumentException("studentIds must be strings");
+            }
+            studentIds.add((String) id);
+        }
+
+        List<Map<String, Object>> rows = new ArrayList<>(studentIds.size());
+        for (AttendanceStatistics.Summary summary : service.summarize(studentIds,
+                optionalDate(Json.getString(request, "from"), "from"),
+                optionalDate(Json.getString(request, "to"), "to"))) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("present", summary.getPresent());
+            row.put("total", summary.getTotal());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private Object status(HttpExchange exchange, String lecturer) throws Exception {
+        requireMethod(exchange, "GET");
+        // Students are only ever added, so the count tells clients when their roster is stale
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("hasRecords", service.hasRecords());
+        status.put("students", service.getRoster().size());
+        return status;
+    }
+
+    /**
+     * Checks one posted mark the way the bulk importer checks a CSV row.
+     */
+    private static AttendanceRecord toRecord(Object item) {
+        String date = Json.getString(item, "date");
+        String studentId = requireStorable(Json.getString(item, "studentId"), "studentId");
+        String status = Json.getString(item, "status");
+        try {
+            date = LocalDate.parse(date == null ? "" : date).toString();
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("date must be YYYY-MM-DD: " + date);
+        }
+        if ("Present".equalsIgnoreCase(status)) {
+            status = "Present";
+        } else if ("Absent".equalsIgnoreCase(status)) {
+            status = "Absent";
+        } else {
+            throw new IllegalArgumentException("status must be Present or Absent: " + status);
+        }
+        return new AttendanceRecord(date, studentId, status);
+    }
+
+    /**
+     * Checks one posted student the way AddStudentFrame and the bulk importer do.
+     */
+    private static Student toStudent(Object item) {
+        String id = requireStorable(Json.getString(item, "id"), "id");
+        String name = requireStorable(Json.getString(item, "name"), "name");
+        String department = requireStorable(Json.getString(item, "department"), "department");
+        String semester = requireStorable(Json.getString(item, "semester"), "semester");
+        try {
+            Integer.parseInt(semester);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("semester must be a number: " + semester);
+        }
+        return new Student(id, name, department, semester);
+    }
+
+    private static LocalDate optionalDate(String value, String field) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value.trim());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(field + " must be YYYY-MM-DD: " + value);
+        }
+    }
+
+    private static String requireStorable(String value, String field) {
+        if (value == null || value.trim().isEmpty()) {
+            throw new IllegalArgumentException(field + " is required");
+        }
+        if (value.indexOf(',') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException(field + " contains a comma or line break");
+        }
+        return value.trim();
+    }
+
+    private static void requireMethod(HttpExchange exchange, String method) throws ApiException {
+        if (!exchange.getRequestMethod().equals(method)) {
+            throw new ApiException(405, "Method not allowed");
+        }
+    }
+
+    private static Object readBody(HttpExchange exchange) throws IOException {
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                if (body.size() + read > MAX_BODY_BYTES) {
+                    throw new IllegalArgumentException("Request body too large");
+                }
+                body.write(buffer, 0, read);
+            }
+        }
+        return Json.parse(body.toString(StandardCharsets.UTF_8));
+    }
+
+    private static Map<String, String> query(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String raw = exchange.getRequestURI().getRawQuery();
+        if (raw == null || raw.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : raw.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            // An empty parameter is the same as a missing one (an open-ended range)
+            if (!value.isEmpty()) {
+                parameters.put(key, value);
+            }
+        }
+        return parameters;
+    }
+
+    private static Map<String, Object> error(String message) {
+        return Collections.singletonMap("error", message);
+    }
+}
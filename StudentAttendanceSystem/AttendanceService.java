@@ -0,0 +1,92 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Attendance Service - What the Screens Need From the Data
+ *
+ * The service is chosen with -Dattendance.server:
+ *   unset           - the screens read and write data/ directly (default)
+ *   http://host:port - every call goes to an AttendanceServer, which owns
+ *                     data/ and its caches for all workstations
+ *
+ * The login, signup, marking, search, add-student, import and report screens
+ * only talk to this interface, so they work the same either way. Exporting a
+ * report and the dashboard's absence alerts read data/ and are local only.
+ */
+public interface AttendanceService {
+
+    static AttendanceService getInstance() {
+        String server = System.getProperty("attendance.server", "").trim();
+        if (!server.isEmpty()) {
+            return RemoteAttendanceService.getInstance(server);
+        }
+        return LocalAttendanceService.getInstance();
+    }
+
+    /**
+     * True when the data lives in another process, so this one should not
+     * load or snapshot data/ itself.
+     */
+    static boolean isRemote() {
+        return !System.getProperty("attendance.server", "").trim().isEmpty();
+    }
+
+    /**
+     * Checks a lecturer's email and password and, on success, starts their session.
+     */
+    boolean authenticate(String email, String password) throws IOException;
+
+    /**
+     * Registers a lecturer (see LecturerStore.add).
+     *
+     * @return false if the email is already registered
+     */
+    boolean signup(String name, String email, String password) throws IOException;
+
+    List<Section> findSections(String lecturerEmail) throws IOException;
+
+    /**
+     * @return false if the lecturer already has this section
+     */
+    boolean addSection(Section section) throws IOException;
+
+    /**
+     * Returns the students of one section, in roster order.
+     */
+    List<Student> findSectionRoster(String department, String semester) throws IOException;
+
+    /**
+     * Returns the whole roster (see Roster).
+     */
+    Roster getRoster() throws IOException;
+
+    List<Student> findByDepartment(String department) throws IOException;
+
+    boolean studentExists(String studentId) throws IOException;
+
+    /**
+     * Registers students, skipping IDs already registered (see StudentStore.addAll).
+     *
+     * @return the students that were skipped as duplicates
+     */
+    List<Student> addStudents(List<Student> students) throws IOException;
+
+    boolean hasRecords() throws IOException;
+
+    /**
+     * Saves one marking session (see AttendanceStore.appendSession).
+     */
+    void saveSession(List<AttendanceRecord> records) throws IOException;
+
+    List<AttendanceRecord> findByDateRange(String from, String to) throws IOException;
+
+    List<AttendanceRecord> findByStudent(String studentId, String from, String to) throws IOException;
+
+    /**
+     * Returns each student's attendance between the two dates, in the order
+     * given; either date may be null (see AttendanceStatistics.forStudent).
+     */
+    List<AttendanceStatistics.Summary> summarize(List<String> studentIds, LocalDate from, LocalDate to)
+            throws IOException;
+}
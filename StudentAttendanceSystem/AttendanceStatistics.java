@@ -0,0 +1,548 @@
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+/**
+ * Attendance Statistics - Running Per-Student Attendance Aggregates
+ *
+ * For each student, keeps the distinct dates they were marked on (as epoch
+ * days, ascending) with prefix sums of present and total marks up to each
+ * date. A date-range query is two binary searches and a subtraction, so
+ * percentages over any range are answered without reading attendance rows.
+ *
+ * The aggregates are built from one pass over the store the first time they
+ * are needed, and from then on are updated as each session is saved. Where
+ * the store can, that pass runs on every core (see AttendanceStore.aggregate)
+ * and is kept only if no session was saved meanwhile. They
+ * are saved to data/statistics.snap (see Snapshot) with the store's version;
+ * if the store is still at that version on the next start, the snapshot is
+ * loaded instead of scanning every row.
+ */
+public class AttendanceStatistics implements AttendanceListener {
+    private static final String SNAPSHOT_FILE = "data/statistics.snap";
+
+    private static AttendanceStatistics instance;
+
+    private final Map<String, StudentTotals> totals = new HashMap<>();
+
+    // Building takes the store lock and then this object's lock, the same order
+    // the store uses when it notifies listeners, so queries build before locking
+    private final Object buildLock = new Object();
+    private volatile boolean built = false;
+    // The store version statistics.snap was last saved or loaded at
+    private volatile String savedVersion = null;
+
+    // Rows arrive grouped by date, so the last date parsed is usually the next one too
+    private String lastDate = null;
+    private Integer lastDay = null;
+
+    private AttendanceStatistics() {
+    }
+
+    public static synchronized AttendanceStatistics getInstance() {
+        if (instance == null) {
+            instance = new AttendanceStatistics();
+        }
+        return instance;
+    }
+
+    /**
+     * Present and total marks for one student or department over a date range.
+     */
+    public static class Summary {
+        private final int present;
+        private final int total;
+
+        public Summary(int present, int total) {
+            this.present = present;
+            this.total = total;
+        }
+
+        public int getPresent() {
+            return present;
+        }
+
+        public int getTotal() {
+            return total;
+        }
+
+        /**
+         * Attendance percentage, or 0 when there were no marks in the range.
+         */
+        public double getPercentage() {
+            return total == 0 ? 0.0 : present * 100.0 / total;
+        }
+    }
+
+    /**
+     * Returns a student's attendance between the two dates (inclusive).
+     * Either date may be null for an open-ended range.
+     */
+    public Summary forStudent(String studentId, LocalDate from, LocalDate to) throws IOException {
+        ensureBuilt();
+        synchronized (this) {
+            StudentTotals studentTotals = totals.get(studentId);
+            if (studentTotals == null) {
+                return new Summary(0, 0);
+            }
+            return studentTotals.range(toDay(from, Integer.MIN_VALUE), toDay(to, Integer.MAX_VALUE));
+        }
+    }
+
+    /**
+     * Returns the combined attendance of the given students between the two dates.
+     */
+    public Summary forStudents(Collection<Student> students, LocalDate from, LocalDate to) throws IOException {
+        ensureBuilt();
+        int fromDay = toDay(from, Integer.MIN_VALUE);
+        int toDay = toDay(to, Integer.MAX_VALUE);
+        int present = 0;
+        int total = 0;
+        synchronized (this) {
+            for (Student student : students) {
+                StudentTotals studentTotals = totals.get(student.getId());
+                if (studentTotals != null) {
+                    Summary summary = studentTotals.range(fromDay, toDay);
+                    present += summary.getPresent();
+                    total += summary.getTotal();
+                }
+            }
+        }
+        return new Summary(present, total);
+    }
+
+    @Override
+    public synchronized void sessionSaved(List<AttendanceRecord> records) {
+        for (AttendanceRecord record : records) {
+            add(record);
+        }
+    }
+
+    @Override
+    public synchronized void recordsSuperseded(List<AttendanceRecord> records) {
+        for (AttendanceRecord record : records) {
+            Integer day = parseDay(record.getDate());
+            StudentTotals studentTotals = totals.get(record.getStudentId());
+            if (day != null && studentTotals != null) {
+                studentTotals.remove(day, record.isPresent());
+            }
+        }
+    }
+
+    @Override
+    public synchronized void storeReset() {
+        // The store re-announces every row after a reset, so start from empty
+        totals.clear();
+    }
+
+    /**
+     * Builds the aggregates now rather than on the first query.
+     */
+    public void preload() throws IOException {
+        ensureBuilt();
+    }
+
+    /**
+     * Saves the aggregates to statistics.snap if the store changed since the
+     * last save. The version is read before the aggregates are copied, so a
+     * session saved in between makes the snapshot look stale, never current.
+     */
+    public void saveSnapshot() throws IOException {
+        if (!built) {
+            return;
+        }
+        String version = AttendanceStore.getInstance().getVersion();
+        if (version == null || version.equals(savedVersion)) {
+            return;
+        }
+
+        Map<String, StudentTotals> copy = new HashMap<>();
+        synchronized (this) {
+            for (Map.Entry<String, StudentTotals> entry : totals.entrySet()) {
+                copy.put(entry.getKey(), entry.getValue().copy());
+            }
+        }
+        Snapshot.write(new File(SNAPSHOT_FILE), version, out -> {
+            out.writeInt(copy.size());
+            for (Map.Entry<String, StudentTotals> entry : copy.entrySet()) {
+                StudentTotals studentTotals = entry.getValue();
+                Snapshot.putString(out, entry.getKey());
+                out.writeInt(studentTotals.size);
+                for (int i = 0; i < studentTotals.size; i++) {
+                    out.writeInt(studentTotals.days[i]);
+                    out.writeInt(studentTotals.presentSums[i]);
+                    out.writeInt(studentTotals.totalSums[i]);
+                }
+            }
+        });
+        savedVersion = version;
+    }
+
+    private void ensureBuilt() throws IOException {
+        synchronized (buildLock) {
+            if (built) {
+                return;
+            }
+            if (loadSnapshot() || buildInParallel()) {
+                built = true;
+                return;
+            }
+            synchronized (this) {
+                totals.clear();
+            }
+            AttendanceStore.getInstance().subscribe(record -> {
+                synchronized (this) {
+                    add(record);
+                }
+            }, this);
+            built = true;
+        }
+    }
+
+    /**
+     * Takes the aggregates from statistics.snap and subscribes to later
+     * sessions, if the store has not changed since the snapshot was saved.
+     */
+    private boolean loadSnapshot() throws IOException {
+        Snapshot snapshot = Snapshot.read(new File(SNAPSHOT_FILE));
+        if (snapshot == null) {
+            return false;
+        }
+
+        Map<String, StudentTotals> loaded = new HashMap<>();
+        try {
+            ByteBuffer in = snapshot.getBody();
+            int students = in.getInt();
+            for (int i = 0; i < students; i++) {
+                String studentId = Snapshot.getString(in);
+                int size = in.getInt();
+                if (size < 0 || size > in.remaining() / 12) {
+                    throw new IllegalStateException("Bad date count " + size);
+                }
+                StudentTotals studentTotals = new StudentTotals(size);
+                for (int j = 0; j < studentTotals.size; j++) {
+                    studentTotals.days[j] = in.getInt();
+                    studentTotals.presentSums[j] = in.getInt();
+                    studentTotals.totalSums[j] = in.getInt();
+                }
+                loaded.put(studentId, studentTotals);
+            }
+        } catch (RuntimeException e) {
+            Log.warn("Ignoring damaged statistics snapshot", e, "file", SNAPSHOT_FILE);
+            return false;
+        }
+
+        // In place before subscribing, so no session saved afterwards is missed
+        synchronized (this) {
+            totals.clear();
+            totals.putAll(loaded);
+        }
+        if (!AttendanceStore.getInstance().subscribeIfCurrent(snapshot.getVersion(), this)) {
+            return false;
+        }
+        savedVersion = snapshot.getVersion();
+        return true;
+    }
+
+    /**
+     * Builds the aggregates with the store's parallel scan and subscribes, if
+     * the store is still at the version it had before the scan; otherwise a
+     * session was saved meanwhile and the caller falls back to subscribe().
+     */
+    private boolean buildInParallel() throws IOException {
+        AttendanceStore store = AttendanceStore.getInstance();
+        String version = store.getVersion();
+        if (version == null) {
+            return false;
+        }
+
+        Map<String, StudentTotals> scanned = store.aggregate(null, null, new TotalsAggregator()).toMap();
+        synchronized (this) {
+            totals.clear();
+            totals.putAll(scanned);
+        }
+        return store.subscribeIfCurrent(version, this);
+    }
+
+    private void add(AttendanceRecord record) {
+        String date = record.getDate();
+        if (!date.equals(lastDate)) {
+            lastDay = parseDay(date);
+            lastDate = date;
+        }
+        Integer day = lastDay;
+        if (day == null) {
+            return;
+        }
+        totals.computeIfAbsent(record.getStudentId(), id -> new StudentTotals())
+                .add(day, record.isPresent());
+    }
+
+    private static Integer parseDay(String date) {
+        try {
+            return (int) LocalDate.parse(date).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static int toDay(LocalDate date, int openEnd) {
+        return date == null ? openEnd : (int) date.toEpochDay();
+    }
+
+    /**
+     * Per-student totals from part of a scan. Numeric IDs are found through
+     * an IntIntMap so rows need no String key.
+     */
+    private static class PartialTotals {
+        private final IntIntMap numeric = new IntIntMap();
+        private final Map<String, Integer> text = new HashMap<>();
+        // The numeric ID, or -(k + 1) for textIds.get(k)
+        private final IntList keys = new IntList();
+        private final List<String> textIds = new ArrayList<>();
+        private final List<StudentTotals> students = new ArrayList<>();
+
+        StudentTotals forNumeric(int studentId) {
+            int index = numeric.get(studentId);
+            if (index < 0) {
+                index = students.size();
+                numeric.put(studentId, index);
+                keys.add(studentId);
+                students.add(new StudentTotals());
+            }
+            return students.get(index);
+        }
+
+        StudentTotals forText(String studentId) {
+            Integer index = text.get(studentId);
+            if (index == null) {
+                index = students.size();
+                text.put(studentId, index);
+                keys.add(-(textIds.size() + 1));
+                textIds.add(studentId);
+                students.add(new StudentTotals());
+            }
+            return students.get(index);
+        }
+
+        void addAll(PartialTotals other) {
+            for (int i = 0; i < other.students.size(); i++) {
+                int key = other.keys.get(i);
+                StudentTotals target = key >= 0 ? forNumeric(key) : forText(other.textIds.get(-key - 1));
+                target.addAll(other.students.get(i));
+            }
+        }
+
+        Map<String, StudentTotals> toMap() {
+            Map<String, StudentTotals> map = new HashMap<>(students.size() * 2);
+            for (int i = 0; i < students.size(); i++) {
+                int key = keys.get(i);
+                map.put(key >= 0 ? Integer.toString(key) : textIds.get(-key - 1), students.get(i));
+            }
+            return map;
+        }
+    }
+
+    private static class TotalsAggregator implements ScanAggregator<PartialTotals> {
+        @Override
+        public PartialTotals create() {
+            return new PartialTotals();
+        }
+
+        @Override
+        public void accept(PartialTotals partial, ScanRow row) {
+            StudentTotals studentTotals = row.getStudentId() >= 0
+                    ? partial.forNumeric(row.getStudentId())
+                    : partial.forText(row.getStudentIdText());
+            studentTotals.add(row.getDay(), row.isPresent());
+        }
+
+        @Override
+        public PartialTotals merge(PartialTotals left, PartialTotals right) {
+            // Fold the smaller side into the larger one
+            if (left.students.size() < right.students.size()) {
+                right.addAll(left);
+                return right;
+            }
+            left.addAll(right);
+            return left;
+        }
+    }
+
+    /**
+     * One student's marked dates with running present/total counts.
+     */
+    private static class StudentTotals {
+        private int[] days = new int[8];
+        private int[] presentSums = new int[8];
+        private int[] totalSums = new int[8];
+        private int size = 0;
+
+        StudentTotals() {
+        }
+
+        StudentTotals(int size) {
+            this.days = new int[Math.max(8, size)];
+            this.presentSums = new int[days.length];
+            this.totalSums = new int[days.length];
+            this.size = size;
+        }
+
+        StudentTotals copy() {
+            StudentTotals copy = new StudentTotals(size);
+            System.arraycopy(days, 0, copy.days, 0, size);
+            System.arraycopy(presentSums, 0, copy.presentSums, 0, size);
+            System.arraycopy(totalSums, 0, copy.totalSums, 0, size);
+            return copy;
+        }
+
+        void add(int day, boolean present) {
+            int presentDelta = present ? 1 : 0;
+
+            // Usual case: the newest date for this student, appended in O(1)
+            if (size > 0 && days[size - 1] == day) {
+                presentSums[size - 1] += presentDelta;
+                totalSums[size - 1]++;
+                return;
+            }
+            if (size == 0 || days[size - 1] < day) {
+                grow();
+                days[size] = day;
+                presentSums[size] = (size > 0 ? presentSums[size - 1] : 0) + presentDelta;
+                totalSums[size] = (size > 0 ? totalSums[size - 1] : 0) + 1;
+                size++;
+                return;
+            }
+
+            // Back-dated mark: insert the date, then shift the later prefix sums
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index < 0) {
+                index = -index - 1;
+                grow();
+                System.arraycopy(days, index, days, index + 1, size - index);
+                System.arraycopy(presentSums, index, presentSums, index + 1, size - index);
+                System.arraycopy(totalSums, index, totalSums, index + 1, size - index);
+                days[index] = day;
+                presentSums[index] = index > 0 ? presentSums[index - 1] : 0;
+                totalSums[index] = index > 0 ? totalSums[index - 1] : 0;
+                size++;
+            }
+            for (int i = index; i < size; i++) {
+                presentSums[i] += presentDelta;
+                totalSums[i]++;
+            }
+        }
+
+        /**
+         * Adds another set of totals for the same student, merging the two
+         * date lists in one pass. Chunks are scanned in date order, so usually
+         * the other dates all come later and are simply appended.
+         */
+        void addAll(StudentTotals other) {
+            if (other.size == 0) {
+                return;
+            }
+            if (size == 0 || days[size - 1] < other.days[0]) {
+                int presentBase = size > 0 ? presentSums[size - 1] : 0;
+                int totalBase = size > 0 ? totalSums[size - 1] : 0;
+                if (size + other.size > days.length) {
+                    int capacity = Math.max(days.length * 2, size + other.size);
+                    days = Arrays.copyOf(days, capacity);
+                    presentSums = Arrays.copyOf(presentSums, capacity);
+                    totalSums = Arrays.copyOf(totalSums, capacity);
+                }
+                System.arraycopy(other.days, 0, days, size, other.size);
+                for (int i = 0; i < other.size; i++) {
+                    presentSums[size + i] = presentBase + other.presentSums[i];
+                    totalSums[size + i] = totalBase + other.totalSums[i];
+                }
+                size += other.size;
+                return;
+            }
+            int capacity = size + other.size;
+            int[] mergedDays = new int[Math.max(8, capacity)];
+            int[] mergedPresent = new int[mergedDays.length];
+            int[] mergedTotal = new int[mergedDays.length];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < size || j < other.size) {
+                int day;
+                int present = 0;
+                int total = 0;
+                boolean mine = j == other.size || (i < size && days[i] <= other.days[j]);
+                boolean theirs = i == size || (j < other.size && other.days[j] <= days[i]);
+                if (mine) {
+                    day = days[i];
+                    present += presentAt(i);
+                    total += totalAt(i);
+                    i++;
+                } else {
+                    day = other.days[j];
+                }
+                if (theirs) {
+                    present += other.presentAt(j);
+                    total += other.totalAt(j);
+                    j++;
+                }
+                mergedDays[count] = day;
+                mergedPresent[count] = (count > 0 ? mergedPresent[count - 1] : 0) + present;
+                mergedTotal[count] = (count > 0 ? mergedTotal[count - 1] : 0) + total;
+                count++;
+            }
+            days = mergedDays;
+            presentSums = mergedPresent;
+            totalSums = mergedTotal;
+            size = count;
+        }
+
+        private int presentAt(int index) {
+            return presentSums[index] - (index > 0 ? presentSums[index - 1] : 0);
+        }
+
+        private int totalAt(int index) {
+            return totalSums[index] - (index > 0 ? totalSums[index - 1] : 0);
+        }
+
+        void remove(int day, boolean present) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            if (index < 0) {
+                return;
+            }
+            // The date stays, possibly with no marks left; later sums shift down
+            int presentDelta = present ? 1 : 0;
+            for (int i = index; i < size; i++) {
+                presentSums[i] -= presentDelta;
+                totalSums[i]--;
+            }
+        }
+
+        Summary range(int fromDay, int toDay) {
+            // Last entry on or before toDay, and last entry before fromDay
+            int upper = lastIndexAtOrBefore(toDay);
+            int lower = fromDay == Integer.MIN_VALUE ? -1 : lastIndexAtOrBefore(fromDay - 1);
+            if (upper < 0 || upper <= lower) {
+                return new Summary(0, 0);
+            }
+            int present = presentSums[upper] - (lower >= 0 ? presentSums[lower] : 0);
+            int total = totalSums[upper] - (lower >= 0 ? totalSums[lower] : 0);
+            return new Summary(present, total);
+        }
+
+        private int lastIndexAtOrBefore(int day) {
+            int index = Arrays.binarySearch(days, 0, size, day);
+            return index >= 0 ? index : -index - 2;
+        }
+
+        private void grow() {
+            if (size == days.length) {
+                days = Arrays.copyOf(days, size * 2);
+                presentSums = Arrays.copyOf(presentSums, size * 2);
+                totalSums = Arrays.copyOf(totalSums, size * 2);
+            }
+        }
+    }
+}
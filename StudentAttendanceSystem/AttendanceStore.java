@@ -0,0 +1,173 @@
+import java.io.IOException;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * Attendance Store - Storage Engine Behind the Attendance Read and Write Paths
+ *
+ * The engine is chosen with -Dattendance.store:
+ *   text     - CSV rows in attendance.txt with a date index (default)
+ *   columnar - binary date blocks in attendance.col, read through a memory map
+ *
+ * With -Dstorage.backend=jdbc the marks are kept in an embedded database
+ * instead (JdbcAttendanceStore, see Database) and -Dattendance.store is ignored.
+ *
+ * A student has at most one mark per date. Saving a date again replaces the
+ * earlier marks (upsert): only rows whose status changed are written, reads
+ * return the latest mark, and compaction later drops the superseded rows.
+ */
+public interface AttendanceStore {
+
+    static AttendanceStore getInstance() {
+        if (Database.isConfigured()) {
+            return JdbcAttendanceStore.getInstance();
+        }
+        String engine = System.getProperty("attendance.store", "text").trim();
+        if (engine.equalsIgnoreCase("columnar")) {
+            return ColumnarAttendanceStore.getInstance();
+        }
+        return AttendanceRepository.getInstance();
+    }
+
+    /**
+     * Repairs the store after a crash. Safe to call more than once.
+     */
+    void recover() throws IOException;
+
+    /**
+     * Returns true if there is any attendance data on disk.
+     */
+    boolean hasRecords();
+
+    /**
+     * Returns the marks recorded for the given date, in the order they were first saved.
+     */
+    List<AttendanceRecord> findByDate(String date) throws IOException;
+
+    /**
+     * Returns all rows dated between the two ISO dates (inclusive), ordered by
+     * date. Either bound may be null for an open-ended range.
+     */
+    List<AttendanceRecord> findByDateRange(String from, String to) throws IOException;
+
+    /**
+     * Returns one student's rows between the two ISO dates (inclusive), ordered
+     * by date. Either bound may be null for an open-ended range.
+     */
+    List<AttendanceRecord> findByStudent(String studentId, String from, String to) throws IOException;
+
+    /**
+     * Saves one marking session, replacing any earlier marks for the same date
+     * and student. Rows whose status is unchanged are not written again.
+     */
+    void appendSession(List<AttendanceRecord> records) throws IOException;
+
+    /**
+     * Rewrites the store without superseded rows. Saves trigger this on their
+     * own once enough rows have been superseded (or, for the text store, once
+     * attendance.txt is due to be rolled into segments).
+     */
+    void compact() throws IOException;
+
+    /**
+     * Returns the dates with marks between the two ISO dates (inclusive), in
+     * order, from the indexes alone. Either bound may be null.
+     */
+    List<String> findDates(String from, String to) throws IOException;
+
+    /**
+     * Visits the latest mark of every student on every date, ordered by date.
+     */
+    default void scan(Consumer<AttendanceRecord> visitor) throws IOException {
+        scan(null, null, visitor);
+    }
+
+    /**
+     * Visits the latest marks dated between the two ISO dates (inclusive),
+     * ordered by date, without collecting them into a list. Either bound may
+     * be null for an open-ended range.
+     */
+    void scan(String from, String to, Consumer<AttendanceRecord> visitor) throws IOException;
+
+    /**
+     * Folds the latest marks dated between the two ISO dates (inclusive) into
+     * one result, for queries no index answers. Either bound may be null.
+     * Stores that can split their data into independent chunks aggregate them
+     * in parallel (see ParallelScan); by default this is one pass of scan().
+     */
+    default <A> A aggregate(String from, String to, ScanAggregator<A> aggregator) throws IOException {
+        A partial = aggregator.create();
+        ScanRow row = new ScanRow();
+        scan(from, to, record -> {
+            if (row.set(record)) {
+                aggregator.accept(partial, row);
+            }
+        });
+        return partial;
+    }
+
+    /**
+     * Visits every stored row and then registers the listener for sessions
+     * saved afterwards, with no gap or overlap between the two.
+     */
+    void subscribe(Consumer<AttendanceRecord> visitor, AttendanceListener listener) throws IOException;
+
+    /**
+     * Describes the rows stored right now, so state derived from them and
+     * saved earlier (see Snapshot) can be checked for staleness. Returns null
+     * if the store cannot tell.
+     */
+    default String getVersion() throws IOException {
+        return null;
+    }
+
+    /**
+     * Registers the listener without visiting any rows, but only if the store
+     * is still at the given version, i.e. the caller already holds state that
+     * reflects every stored row.
+     *
+     * @return false if the store has moved on; the caller must use subscribe()
+     */
+    default boolean subscribeIfCurrent(String version, AttendanceListener listener) throws IOException {
+        return false;
+    }
+
+    /**
+     * Builds the indexes queries would otherwise build on first use.
+     */
+    default void preload() throws IOException {
+        recover();
+    }
+
+    /**
+     * Saves indexes that are slow to rebuild, if they changed since the last save.
+     */
+    default void saveSnapshot() throws IOException {
+    }
+
+    /**
+     * Describes the most recent roll into segments in this process, or
+     * returns null if the store does not roll its rows into segments.
+     */
+    default String describeLastCompaction() {
+        return null;
+    }
+
+    /**
+     * Keeps the last mark of each student from rows that all share one date,
+     * at the position of that student's first mark.
+     */
+    static List<AttendanceRecord> latestPerStudent(List<AttendanceRecord> sameDate) {
+        Map<String, Integer> positions = new HashMap<>();
+        List<AttendanceRecord> latest = new ArrayList<>(sameDate.size());
+        for (AttendanceRecord record : sameDate) {
+            Integer position = positions.putIfAbsent(record.getStudentId(), latest.size());
+            if (position == null) {
+                latest.add(record);
+            } else {
+                latest.set(position, record);
+            }
+        }
+        return latest;
+    }
+}
@@ -0,0 +1,95 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+/**
+ * Attendance Table Model - Read-Only View Over Attendance Search Results
+ *
+ * Rows are kept as three int columns instead of AttendanceRecord objects:
+ * the date and status as dictionary codes and the student as a Roster row,
+ * so a million-row result holds 12 bytes per row and the strings only once.
+ * Names are looked up in the roster when a cell is drawn. Students missing
+ * from the roster keep their ID as a negative code. Rows arrive in chunks,
+ * each added with one table event.
+ */
+public class AttendanceTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = { "Date", "Student ID", "Student Name", "Status" };
+
+    private Roster roster = new Roster();
+    private StringDictionary dates = new StringDictionary();
+    private StringDictionary statuses = new StringDictionary();
+    // IDs of students not in the roster, as -(code + 1) in the student column
+    private StringDictionary unknownIds = new StringDictionary();
+    private final IntList dateColumn = new IntList();
+    private final IntList studentColumn = new IntList();
+    private final IntList statusColumn = new IntList();
+    private int presentCount = 0;
+
+    /**
+     * Clears the table and sets the roster used to look up names.
+     */
+    public void reset(Roster roster) {
+        this.roster = roster;
+        dates = new StringDictionary();
+        statuses = new StringDictionary();
+        unknownIds = new StringDictionary();
+        dateColumn.clear();
+        studentColumn.clear();
+        statusColumn.clear();
+        presentCount = 0;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Appends a chunk of records with a single table event.
+     */
+    public void addRecords(List<AttendanceRecord> chunk) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        int first = dateColumn.size();
+        for (AttendanceRecord record : chunk) {
+            int row = roster.indexOf(record.getStudentId());
+            dateColumn.add(dates.encode(record.getDate()));
+            studentColumn.add(row >= 0 ? row : -(unknownIds.encode(record.getStudentId()) + 1));
+            statusColumn.add(statuses.encode(record.getStatus()));
+            if (record.isPresent()) {
+                presentCount++;
+            }
+        }
+        fireTableRowsInserted(first, dateColumn.size() - 1);
+    }
+
+    public int getPresentCount() {
+        return presentCount;
+    }
+
+    @Override
+    public int getRowCount() {
+        return dateColumn.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        int student = studentColumn.get(row);
+        switch (column) {
+            case 0:
+                return dates.decode(dateColumn.get(row));
+            case 1:
+                return student >= 0 ? roster.getId(student) : unknownIds.decode(-student - 1);
+            case 2:
+                return student >= 0 ? roster.getName(student) : "Unknown";
+            default:
+                return statuses.decode(statusColumn.get(row));
+        }
+    }
+}
@@ -0,0 +1,159 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Attendance Writer - Batched Appends to attendance.txt
+ *
+ * A whole marking session is encoded into one reusable direct ByteBuffer and
+ * written with a single FileChannel write, instead of one small write per row.
+ *
+ * Durability is chosen with -Dattendance.durability and is enforced by the
+ * write-ahead log (see AttendanceLog); attendance.txt itself is only forced at
+ * checkpoints:
+ *   none  - leave flushing to the operating system
+ *   batch - force the log after every session (default)
+ *   group - sessions saved at the same time share one force (group commit)
+ */
+public class AttendanceWriter {
+    public enum Durability {
+        NONE, BATCH, GROUP
+    }
+
+    private final File file;
+
+    private FileChannel channel;
+    private ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+    public AttendanceWriter(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Reads the durability mode from the attendance.durability system property.
+     */
+    public static Durability configuredDurability() {
+        String mode = System.getProperty("attendance.durability", "batch");
+        try {
+            return Durability.valueOf(mode.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Durability.BATCH;
+        }
+    }
+
+    /**
+     * Encodes the records into the writer's reusable buffer, ready to write.
+     *
+     * Callers must hold their own lock until the buffer has been written, since
+     * the next call reuses it.
+     *
+     * @param lineEnds receives the end position of each encoded line within the buffer
+     */
+    public synchronized ByteBuffer encode(List<AttendanceRecord> records, int[] lineEnds) {
+        buffer.clear();
+        for (int i = 0; i < records.size(); i++) {
+            encodeLine(records.get(i).toLine());
+            lineEnds[i] = buffer.position();
+        }
+        buffer.flip();
+        return buffer;
+    }
+
+    /**
+     * Appends the encoded bytes in one write.
+     *
+     * @return the file offset at which the bytes were written
+     */
+    public synchronized long write(ByteBuffer bytes) throws IOException {
+        FileChannel out = openChannel();
+        long offset = out.size();
+        while (bytes.hasRemaining()) {
+            out.write(bytes);
+        }
+        return offset;
+    }
+
+    /**
+     * Returns the current length of attendance.txt, i.e. where the next write lands.
+     */
+    public synchronized long size() throws IOException {
+        return file.exists() ? openChannel().size() : 0;
+    }
+
+    /**
+     * Forces everything written so far to disk.
+     */
+    public synchronized void force() throws IOException {
+        if (file.exists()) {
+            openChannel().force(false);
+        }
+    }
+
+    /**
+     * Cuts the file back to the given length, dropping anything after it.
+     */
+    public synchronized void truncate(long length) throws IOException {
+        FileChannel out = openChannel();
+        if (out.size() > length) {
+            out.truncate(length);
+        }
+    }
+
+    /**
+     * Closes the channel, e.g. before attendance.txt is replaced by a new file.
+     */
+    public synchronized void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    /**
+     * Opens the channel, reopening it if attendance.txt was replaced or truncated.
+     */
+    private FileChannel openChannel() throws IOException {
+        if (channel != null && channel.isOpen() && file.exists() && channel.size() == file.length()) {
+            return channel;
+        }
+        if (channel != null) {
+            channel.close();
+        }
+
+        File dataDir = file.getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        return channel;
+    }
+
+    private void encodeLine(String line) {
+        ensureCapacity(line.length() * 3);
+        int start = buffer.position();
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c >= 0x80) {
+                // Non-ASCII text: fall back to the full UTF-8 encoder for this line
+                buffer.position(start);
+                buffer.put(line.getBytes(StandardCharsets.UTF_8));
+                return;
+            }
+            buffer.put((byte) c);
+        }
+    }
+
+    private void ensureCapacity(int needed) {
+        if (buffer.remaining() >= needed) {
+            return;
+        }
+        ByteBuffer larger = ByteBuffer.allocateDirect(Math.max(buffer.capacity() * 2, buffer.position() + needed));
+        buffer.flip();
+        larger.put(buffer);
+        buffer = larger;
+    }
+}
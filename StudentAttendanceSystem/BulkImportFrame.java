@@ -0,0 +1,276 @@
+import javax.swing.*;
+import java.awt.*;
+import java.io.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Bulk Import Frame - Import Students or Attendance from a CSV File
+ */
+public class BulkImportFrame extends JFrame {
+    private JComboBox<String> kindCombo;
+    private JTextField fileField;
+    private JButton browseButton;
+    private JButton importButton;
+    private JButton cancelButton;
+    private JButton saveReportButton;
+    private JButton backButton;
+    private JProgressBar progressBar;
+    private JLabel summaryLabel;
+    private JTextArea errorArea;
+
+    private BulkImporter importer;
+    private BulkImporter.Summary lastSummary;
+
+    public BulkImportFrame() {
+        setTitle("Bulk Import");
+        setSize(700, 550);
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setResizable(true);
+
+        initComponents();
+    }
+
+    private void initComponents() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBackground(Color.WHITE);
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        // Top Panel - Title and File Selection
+        JPanel topPanel = new JPanel(new GridBagLayout());
+        topPanel.setBackground(Color.WHITE);
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+
+        JLabel titleLabel = new JLabel("Bulk Import from CSV", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
+        gbc.gridx = 0;
+        gbc.gridy = 0;
+        gbc.gridwidth = 3;
+        topPanel.add(titleLabel, gbc);
+
+        // Import type
+        gbc.gridwidth = 1;
+        gbc.gridy = 1;
+        topPanel.add(new JLabel("Import:"), gbc);
+        kindCombo = new JComboBox<>(new String[] {
+                "Students (id,name,department,semester)",
+                "Attendance (date,studentId,status)" });
+        gbc.gridx = 1;
+        gbc.gridwidth = 2;
+        topPanel.add(kindCombo, gbc);
+
+        // CSV file
+        gbc.gridx = 0;
+        gbc.gridy = 2;
+        gbc.gridwidth = 1;
+        topPanel.add(new JLabel("CSV File:"), gbc);
+        fileField = new JTextField(30);
+        gbc.gridx = 1;
+        gbc.weightx = 1;
+        topPanel.add(fileField, gbc);
+        browseButton = new JButton("Browse...");
+        gbc.gridx = 2;
+        gbc.weightx = 0;
+        topPanel.add(browseButton, gbc);
+
+        // Progress
+        JPanel progressPanel = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        progressPanel.setBackground(Color.WHITE);
+        importButton = new JButton("Import");
+        importButton.setBackground(new Color(0, 123, 255));
+        importButton.setForeground(Color.WHITE);
+        progressPanel.add(importButton);
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setPreferredSize(new Dimension(250, 20));
+        progressPanel.add(progressBar);
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        progressPanel.add(cancelButton);
+        gbc.gridx = 0;
+        gbc.gridy = 3;
+        gbc.gridwidth = 3;
+        topPanel.add(progressPanel, gbc);
+
+        summaryLabel = new JLabel(" ", SwingConstants.CENTER);
+        summaryLabel.setFont(new Font("Arial", Font.PLAIN, 14));
+        gbc.gridy = 4;
+        topPanel.add(summaryLabel, gbc);
+
+        mainPanel.add(topPanel, BorderLayout.NORTH);
+
+        // Center Panel - Rejected Rows
+        errorArea = new JTextArea();
+        errorArea.setEditable(false);
+        errorArea.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        JScrollPane scrollPane = new JScrollPane(errorArea);
+        scrollPane.setBorder(BorderFactory.createTitledBorder("Rejected Rows"));
+        mainPanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Bottom Panel - Buttons
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.setBackground(Color.WHITE);
+
+        saveReportButton = new JButton("Save Error Report");
+        saveReportButton.setPreferredSize(new Dimension(150, 35));
+        saveReportButton.setEnabled(false);
+        buttonPanel.add(saveReportButton);
+
+        backButton = new JButton("Back to Dashboard");
+        backButton.setPreferredSize(new Dimension(150, 35));
+        buttonPanel.add(backButton);
+
+        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+
+        add(mainPanel);
+
+        // Event Listeners
+        browseButton.addActionListener(e -> chooseFile());
+        importButton.addActionListener(e -> handleImport());
+        cancelButton.addActionListener(e -> cancelImport());
+        saveReportButton.addActionListener(e -> saveErrorReport());
+        backButton.addActionListener(e -> backToDashboard());
+    }
+
+    private void chooseFile() {
+        JFileChooser chooser = new JFileChooser(fileField.getText().trim().isEmpty() ? "." : fileField.getText());
+        if (chooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+            fileField.setText(chooser.getSelectedFile().getPath());
+        }
+    }
+
+    private void handleImport() {
+        File csv = new File(fileField.getText().trim());
+        if (fileField.getText().trim().isEmpty() || !csv.isFile()) {
+            JOptionPane.showMessageDialog(this, "Please choose a CSV file to import",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+
+        BulkImporter.Kind kind = kindCombo.getSelectedIndex() == 0
+                ? BulkImporter.Kind.STUDENTS : BulkImporter.Kind.ATTENDANCE;
+        BulkImporter current = new BulkImporter(kind);
+        importer = current;
+        lastSummary = null;
+        errorArea.setText("");
+        summaryLabel.setText("Importing " + csv.getName() + "...");
+        progressBar.setValue(0);
+        setRunning(true);
+
+        // Import in the background; counts are published after every batch
+        SwingWorker<BulkImporter.Summary, BulkImporter.Summary> worker =
+                new SwingWorker<BulkImporter.Summary, BulkImporter.Summary>() {
+            @Override
+            protected BulkImporter.Summary doInBackground() throws Exception {
+                return Metrics.time("bulk.import", () -> current.run(csv, (bytesRead, totalBytes, summary) -> {
+                    setProgress(totalBytes == 0 ? 100 : (int) Math.min(100, bytesRead * 100 / totalBytes));
+                    publish(summary);
+                }));
+            }
+
+            @Override
+            protected void process(List<BulkImporter.Summary> chunks) {
+                summaryLabel.setText(describe(chunks.get(chunks.size() - 1)));
+            }
+
+            @Override
+            protected void done() {
+                setRunning(false);
+                try {
+                    showSummary(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    Log.error("Error importing", cause, "operation", "bulk.import", "file", csv.getPath(),
+                            "kind", kind);
+                    summaryLabel.setText("Import failed; batches already imported were kept");
+                    JOptionPane.showMessageDialog(BulkImportFrame.this, "Error importing: " + cause.getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        };
+        worker.addPropertyChangeListener(evt -> {
+            if ("progress".equals(evt.getPropertyName())) {
+                progressBar.setValue((Integer) evt.getNewValue());
+            }
+        });
+        DataAccess.execute(worker);
+    }
+
+    private void cancelImport() {
+        if (importer != null) {
+            importer.cancel();
+            cancelButton.setEnabled(false);
+            summaryLabel.setText("Cancelling...");
+        }
+    }
+
+    private void setRunning(boolean running) {
+        importButton.setEnabled(!running);
+        browseButton.setEnabled(!running);
+        kindCombo.setEnabled(!running);
+        cancelButton.setEnabled(running);
+        backButton.setEnabled(!running);
+        saveReportButton.setEnabled(false);
+    }
+
+    private void showSummary(BulkImporter.Summary summary) {
+        lastSummary = summary;
+        summaryLabel.setText((summary.isCancelled() ? "Cancelled - " : "Done - ") + describe(summary));
+
+        StringBuilder text = new StringBuilder();
+        for (BulkImporter.ImportError error : summary.getErrors()) {
+            text.append(error).append('\n');
+        }
+        if (summary.isErrorListTruncated()) {
+            text.append("... only the first ").append(summary.getErrors().size()).append(" rejected rows are listed\n");
+        }
+        errorArea.setText(text.toString());
+        errorArea.setCaretPosition(0);
+        saveReportButton.setEnabled(!summary.getErrors().isEmpty());
+    }
+
+    private static String describe(BulkImporter.Summary summary) {
+        return String.format("Rows: %,d | Imported: %,d | Duplicates: %,d | Invalid: %,d",
+                summary.getRowsRead(), summary.getImported(), summary.getDuplicates(), summary.getInvalid());
+    }
+
+    /**
+     * Writes the rejected rows to a CSV file of line,message.
+     */
+    private void saveErrorReport() {
+        if (lastSummary == null) {
+            return;
+        }
+        JFileChooser chooser = new JFileChooser(".");
+        chooser.setSelectedFile(new File("import-errors.csv"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+
+        List<BulkImporter.ImportError> errors = lastSummary.getErrors();
+        File target = chooser.getSelectedFile();
+        DataAccess.run(() -> {
+            try (BufferedWriter writer = new BufferedWriter(new FileWriter(target))) {
+                writer.write("line,message\n");
+                for (BulkImporter.ImportError error : errors) {
+                    writer.write(error.getLine() + ",\"" + error.getMessage().replace("\"", "\"\"") + "\"\n");
+                }
+            }
+            return target;
+        }, saved -> JOptionPane.showMessageDialog(this, "Error report saved to " + saved.getPath(),
+                "Success", JOptionPane.INFORMATION_MESSAGE), e -> {
+            Log.error("Error saving import error report", e, "file", target.getPath(), "rows", errors.size());
+            JOptionPane.showMessageDialog(this, "Error saving report: " + e.getMessage(),
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    private void backToDashboard() {
+        Navigator.showDashboard();
+    }
+}
@@ -0,0 +1,455 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Bulk Importer - Streaming CSV Import of Students and Attendance
+ *
+ * Reads a CSV file once, front to back, with CsvTokenizer:
+ *
+ *   students    id,name,department,semester
+ *   attendance  date,studentId,status   (date as YYYY-MM-DD, Present/Absent)
+ *
+ * A header row is skipped if there is one. Rows are handed out in chunks to
+ * a pool of validator threads; validated chunks are taken back in file order,
+ * de-duplicated against the roster and earlier rows, and committed in
+ * batches through AttendanceService (addStudents, saveSession), so with a
+ * server configured the rows go to the server. Only a few chunks are in
+ * flight at a time, so memory stays flat however large the file is.
+ * Attendance for a date and student already on record replaces the earlier
+ * mark, the same as marking it again by hand.
+ *
+ * Rows that fail validation are skipped and listed in the summary with
+ * their line numbers. Batches already committed stay if the import is
+ * cancelled or fails part way through.
+ */
+public class BulkImporter {
+    private static final int CHUNK_ROWS = 2_000;
+    private static final int BATCH_ROWS = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 10_000;
+
+    public enum Kind {
+        STUDENTS, ATTENDANCE
+    }
+
+    /**
+     * Receives progress after every committed batch, on the importing thread.
+     */
+    public interface Listener {
+        void progress(long bytesRead, long totalBytes, Summary summary);
+    }
+
+    /**
+     * One rejected row.
+     */
+    public static class ImportError {
+        private final long line;
+        private final String message;
+
+        public ImportError(long line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        public long getLine() {
+            return line;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + message;
+        }
+    }
+
+    /**
+     * Counts for an import so far, plus the first rejected rows.
+     */
+    public static class Summary {
+        private long rowsRead;
+        private long imported;
+        private long duplicates;
+        private long invalid;
+        private boolean cancelled;
+        private final List<ImportError> errors;
+
+        Summary(List<ImportError> errors) {
+            this.errors = errors;
+        }
+
+        public long getRowsRead() {
+            return rowsRead;
+        }
+
+        public long getImported() {
+            return imported;
+        }
+
+        public long getDuplicates() {
+            return duplicates;
+        }
+
+        public long getInvalid() {
+            return invalid;
+        }
+
+        public boolean isCancelled() {
+            return cancelled;
+        }
+
+        /**
+         * Rejected rows in file order; only the first 10,000 are kept.
+         */
+        public List<ImportError> getErrors() {
+            return errors;
+        }
+
+        /**
+         * Returns true if more rows were rejected than getErrors() lists.
+         */
+        public boolean isErrorListTruncated() {
+            return duplicates + invalid > errors.size();
+        }
+
+        /**
+         * A copy of the counts (without the error list) for another thread.
+         */
+        Summary countsOnly() {
+            Summary copy = new Summary(Collections.emptyList());
+            copy.rowsRead = rowsRead;
+            copy.imported = imported;
+            copy.duplicates = duplicates;
+            copy.invalid = invalid;
+            copy.cancelled = cancelled;
+            return copy;
+        }
+
+        void reject(long line, String message, boolean duplicate) {
+            if (duplicate) {
+                duplicates++;
+            } else {
+                invalid++;
+            }
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+    }
+
+    /**
+     * Raw rows as read from the file, with their line numbers.
+     */
+    private static class Chunk {
+        final long[] lines = new long[CHUNK_ROWS];
+        final String[][] rows = new String[CHUNK_ROWS][];
+        int size = 0;
+    }
+
+    /**
+     * A chunk after validation: the parsed rows and the rejected ones, both in file order.
+     */
+    private static class Validated<T> {
+        final List<T> rows = new ArrayList<>();
+        final LongList lines = new LongList(CHUNK_ROWS);
+        final List<ImportError> errors = new ArrayList<>();
+    }
+
+    private final Kind kind;
+    private final AtomicBoolean cancelled = new AtomicBoolean(false);
+
+    public BulkImporter(Kind kind) {
+        this.kind = kind;
+    }
+
+    /**
+     * Stops the import after the batch in progress. Safe to call from any thread.
+     */
+    public void cancel() {
+        cancelled.set(true);
+    }
+
+    /**
+     * Imports the file and returns what happened.
+     */
+    public Summary run(File csv, Listener listener) throws IOException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService validators = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            private int count = 0;
+
+            @Override
+            public synchronized Thread newThread(Runnable task) {
+                Thread thread = new Thread(task, "import-validator-" + (++count));
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+
+        try {
+            if (kind == Kind.STUDENTS) {
+                return new Run<Student>(csv, listener, validators, threads) {
+                    private final Roster roster = AttendanceService.getInstance().getRoster();
+                    private final Set<String> seen = new HashSet<>();
+
+                    @Override
+                    boolean isHeader(String[] fields) {
+                        String first = fields[0].toLowerCase().replace(" ", "").replace("_", "");
+                        return first.equals("id") || first.equals("studentid");
+                    }
+
+                    @Override
+                    Student validate(String[] fields) {
+                        if (fields.length != 4) {
+                            throw new IllegalArgumentException("Expected 4 columns (id,name,department,semester), found "
+                                    + fields.length);
+                        }
+                        for (String field : fields) {
+                            if (field.isEmpty()) {
+                                throw new IllegalArgumentException("Empty field");
+                            }
+                            checkStorable(field);
+                        }
+                        try {
+                            Integer.parseInt(fields[3]);
+                        } catch (NumberFormatException e) {
+                            throw new IllegalArgumentException("Semester must be a number: " + fields[3]);
+                        }
+                        return new Student(fields[0], fields[1], fields[2], fields[3]);
+                    }
+
+                    @Override
+                    String duplicateOf(Student student) {
+                        if (!seen.add(student.getId())) {
+                            return "Student ID " + student.getId() + " appears earlier in the file";
+                        }
+                        if (roster.indexOf(student.getId()) >= 0) {
+                            return "Student ID " + student.getId() + " already exists";
+                        }
+                        return null;
+                    }
+
+                    @Override
+                    int commit(List<Student> batch) throws IOException {
+                        return batch.size() - AttendanceService.getInstance().addStudents(batch).size();
+                    }
+                }.run();
+            }
+
+            return new Run<AttendanceRecord>(csv, listener, validators, threads) {
+                private final Roster roster = AttendanceService.getInstance().getRoster();
+
+                @Override
+                boolean isHeader(String[] fields) {
+                    return fields[0].equalsIgnoreCase("date");
+                }
+
+                @Override
+                AttendanceRecord validate(String[] fields) {
+                    if (fields.length != 3) {
+                        throw new IllegalArgumentException("Expected 3 columns (date,studentId,status), found "
+                                + fields.length);
+                    }
+                    String date;
+                    try {
+                        date = LocalDate.parse(fields[0]).toString();
+                    } catch (DateTimeParseException e) {
+                        throw new IllegalArgumentException("Date must be YYYY-MM-DD: " + fields[0]);
+                    }
+                    if (roster.indexOf(fields[1]) < 0) {
+                        throw new IllegalArgumentException("Unknown student ID: " + fields[1]);
+                    }
+                    String status;
+                    if (fields[2].equalsIgnoreCase("Present")) {
+                        status = "Present";
+                    } else if (fields[2].equalsIgnoreCase("Absent")) {
+                        status = "Absent";
+                    } else {
+                        throw new IllegalArgumentException("Status must be Present or Absent: " + fields[2]);
+                    }
+                    return new AttendanceRecord(date, fields[1], status);
+                }
+
+                @Override
+                String duplicateOf(AttendanceRecord record) {
+                    // A repeated date and student is an update, as when re-marking by hand
+                    return null;
+                }
+
+                @Override
+                int commit(List<AttendanceRecord> batch) throws IOException {
+                    AttendanceService.getInstance().saveSession(batch);
+                    return batch.size();
+                }
+            }.run();
+        } finally {
+            validators.shutdownNow();
+        }
+    }
+
+    /**
+     * Rejects values that students.txt and attendance.txt cannot hold.
+     */
+    private static void checkStorable(String field) {
+        if (field.indexOf(',') >= 0 || field.indexOf('\n') >= 0 || field.indexOf('\r') >= 0) {
+            throw new IllegalArgumentException("Field contains a comma or line break: " + field);
+        }
+    }
+
+    /**
+     * One pass over the file for one kind of row.
+     */
+    private abstract class Run<T> {
+        private final File csv;
+        private final Listener listener;
+        private final ExecutorService validators;
+        private final int maxInFlight;
+        private final Summary summary = new Summary(new ArrayList<>());
+        private final List<T> batch = new ArrayList<>(BATCH_ROWS);
+        private long bytesRead = 0;
+
+        Run(File csv, Listener listener, ExecutorService validators, int threads) {
+            this.csv = csv;
+            this.listener = listener;
+            this.validators = validators;
+            this.maxInFlight = threads * 2;
+        }
+
+        /** Returns true if the first row is a header rather than data. */
+        abstract boolean isHeader(String[] fields);
+
+        /** Parses one row, throwing IllegalArgumentException if it is invalid. Runs on a validator thread. */
+        abstract T validate(String[] fields);
+
+        /** Returns why the row duplicates one already imported or on record, or null. */
+        abstract String duplicateOf(T row);
+
+        /** Writes one batch and returns how many rows were actually added. */
+        abstract int commit(List<T> rows) throws IOException;
+
+        Summary run() throws IOException {
+            long totalBytes = csv.length();
+            ArrayDeque<Future<Validated<T>>> inFlight = new ArrayDeque<>();
+            try (CsvTokenizer tokenizer = new CsvTokenizer(new FileInputStream(csv))) {
+                Chunk chunk = new Chunk();
+                boolean first = true;
+                while (!cancelled.get() && tokenizer.next()) {
+                    if (tokenizer.isBlank()) {
+                        continue;
+                    }
+                    String[] fields = tokenizer.fields();
+                    if (first) {
+                        first = false;
+                        if (isHeader(fields)) {
+                            continue;
+                        }
+                    }
+
+                    summary.rowsRead++;
+                    chunk.lines[chunk.size] = tokenizer.lineNumber();
+                    chunk.rows[chunk.size] = fields;
+                    chunk.size++;
+                    if (chunk.size == CHUNK_ROWS) {
+                        inFlight.add(submit(chunk));
+                        chunk = new Chunk();
+                        bytesRead = tokenizer.bytesRead();
+                    }
+                    // Take results back in order; this also bounds the rows held in memory
+                    while (inFlight.size() >= maxInFlight) {
+                        accept(await(inFlight.poll()), totalBytes);
+                    }
+                }
+                if (chunk.size > 0 && !cancelled.get()) {
+                    inFlight.add(submit(chunk));
+                }
+                bytesRead = tokenizer.bytesRead();
+
+                while (!inFlight.isEmpty() && !cancelled.get()) {
+                    accept(await(inFlight.poll()), totalBytes);
+                }
+                if (!cancelled.get()) {
+                    flush(totalBytes);
+                }
+            } finally {
+                for (Future<Validated<T>> pending : inFlight) {
+                    pending.cancel(true);
+                }
+            }
+
+            summary.cancelled = cancelled.get();
+            listener.progress(bytesRead, totalBytes, summary.countsOnly());
+            return summary;
+        }
+
+        private Future<Validated<T>> submit(Chunk chunk) {
+            return validators.submit(() -> {
+                Validated<T> validated = new Validated<>();
+                for (int i = 0; i < chunk.size; i++) {
+                    try {
+                        validated.rows.add(validate(chunk.rows[i]));
+                        validated.lines.add(chunk.lines[i]);
+                    } catch (IllegalArgumentException e) {
+                        validated.errors.add(new ImportError(chunk.lines[i], e.getMessage()));
+                    }
+                }
+                return validated;
+            });
+        }
+
+        private Validated<T> await(Future<Validated<T>> future) throws IOException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Import interrupted");
+            } catch (ExecutionException e) {
+                throw new IOException("Validation failed", e.getCause());
+            }
+        }
+
+        /**
+         * Takes one validated chunk in file order: merges its errors and its
+         * rows, in line order, and commits whenever a batch fills up.
+         */
+        private void accept(Validated<T> validated, long totalBytes) throws IOException {
+            int error = 0;
+            for (int i = 0; i < validated.rows.size(); i++) {
+                long line = validated.lines.get(i);
+                while (error < validated.errors.size() && validated.errors.get(error).getLine() < line) {
+                    ImportError rejected = validated.errors.get(error++);
+                    summary.reject(rejected.getLine(), rejected.getMessage(), false);
+                }
+
+                T row = validated.rows.get(i);
+                String duplicate = duplicateOf(row);
+                if (duplicate != null) {
+                    summary.reject(line, duplicate, true);
+                    continue;
+                }
+                batch.add(row);
+                if (batch.size() == BATCH_ROWS) {
+                    flush(totalBytes);
+                }
+            }
+            while (error < validated.errors.size()) {
+                ImportError rejected = validated.errors.get(error++);
+                summary.reject(rejected.getLine(), rejected.getMessage(), false);
+            }
+        }
+
+        private void flush(long totalBytes) throws IOException {
+            if (!batch.isEmpty()) {
+                int added = commit(batch);
+                summary.imported += added;
+                // Taken by another writer after the roster was read
+                summary.duplicates += batch.size() - added;
+                batch.clear();
+            }
+            listener.progress(bytesRead, totalBytes, summary.countsOnly());
+        }
+    }
+}
@@ -0,0 +1,675 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Columnar Attendance Store - Compact Binary Attendance Format
+ *
+ * data/attendance.col is a sequence of blocks, one per date in each saved
+ * session:
+ *
+ *   [int epoch day][int row count][int student code x rows][long status bits x ceil(rows / 64)]
+ *
+ * Student IDs are dictionary-encoded: data/attendance.dict holds one ID per
+ * line and a student's code is its line number. Status is one bit per row
+ * (set = Present). Dates, IDs and statuses are never repeated as text, so the
+ * file is several times smaller than attendance.txt.
+ *
+ * Reads go through a read-only memory map. Block offsets per date are found
+ * once by walking the block headers, so a date lookup touches only that
+ * date's blocks and does no text parsing at all. Student history queries use
+ * per-student posting lists of code positions, built on first use.
+ *
+ * Re-saving a date only writes the marks that changed (checked against a
+ * per-day map of the latest marks); reads keep the latest block's mark, and
+ * compact() rewrites the file with one block per date once enough rows are
+ * superseded.
+ */
+public class ColumnarAttendanceStore implements AttendanceStore {
+    private static final String COLUMN_FILE = "data/attendance.col";
+    private static final String DICTIONARY_FILE = "data/attendance.dict";
+    private static final int MAGIC = 0x41544331; // "ATC1"
+    private static final int FILE_HEADER_SIZE = 4;
+    private static final int BLOCK_HEADER_SIZE = 8;
+    private static final long COMPACT_MIN_ROWS = 250_000;
+    private static final double COMPACT_RATIO = 0.2;
+
+    private static ColumnarAttendanceStore instance;
+
+    private final File columnFile;
+    private final File dictionaryFile;
+    // Present while attendance.txt is being converted; removed once it is done
+    private final File convertingMarker;
+    private final AttendanceWriter.Durability durability;
+
+    // Dictionary: code -> student ID and student ID -> code
+    private final List<String> studentIds = new ArrayList<>();
+    private final Map<String, Integer> studentCodes = new HashMap<>();
+
+    // epoch day -> offsets of that day's blocks
+    private final TreeMap<Integer, List<Long>> blockIndex = new TreeMap<>();
+    // offsets of every block, in file (save) order
+    private final LongList blockOffsets = new LongList(64);
+    // student code -> file positions of that student's code entries; built on first history query
+    private Map<Integer, LongList> postings = null;
+    private long indexedLength = FILE_HEADER_SIZE;
+
+    // epoch day -> studentId -> latest mark; a day is loaded the first time it is re-saved
+    private final Map<Integer, Map<String, AttendanceRecord>> latest = new HashMap<>();
+    private long totalRows = 0;
+    private long supersededRows = 0;
+
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private boolean opened = false;
+    private final List<AttendanceListener> listeners = new CopyOnWriteArrayList<>();
+
+    private ColumnarAttendanceStore(File columnFile, File dictionaryFile) {
+        this.columnFile = columnFile;
+        this.dictionaryFile = dictionaryFile;
+        this.convertingMarker = new File(columnFile.getPath() + ".converting");
+        this.durability = AttendanceWriter.configuredDurability();
+    }
+
+    public static synchronized ColumnarAttendanceStore getInstance() {
+        if (instance == null) {
+            instance = new ColumnarAttendanceStore(new File(COLUMN_FILE), new File(DICTIONARY_FILE));
+        }
+        return instance;
+    }
+
+    @Override
+    public synchronized void recover() throws IOException {
+        open();
+    }
+
+    @Override
+    public synchronized boolean hasRecords() {
+        if (!opened) {
+            // Cheap check; the first real read converts the text store if needed
+            return columnFile.length() > FILE_HEADER_SIZE || AttendanceRepository.getInstance().hasRecords();
+        }
+        return !blockIndex.isEmpty();
+    }
+
+    @Override
+    public synchronized List<AttendanceRecord> findByDate(String date) throws IOException {
+        open();
+
+        List<AttendanceRecord> records = new ArrayList<>();
+        Integer epochDay = toEpochDay(date);
+        List<Long> blocks = epochDay == null ? null : blockIndex.get(epochDay);
+        if (blocks == null) {
+            return records;
+        }
+
+        ByteBuffer view = mappedView();
+        for (long offset : blocks) {
+            decodeBlock(view, (int) offset, date, records::add);
+        }
+        return AttendanceStore.latestPerStudent(records);
+    }
+
+    @Override
+    public synchronized List<AttendanceRecord> findByDateRange(String from, String to) throws IOException {
+        open();
+
+        List<AttendanceRecord> records = new ArrayList<>();
+        int fromDay = from == null ? Integer.MIN_VALUE : requireDay(from);
+        int toDay = to == null ? Integer.MAX_VALUE : requireDay(to);
+        if (fromDay > toDay) {
+            return records;
+        }
+
+        ByteBuffer view = mappedView();
+        for (Map.Entry<Integer, List<Long>> entry : blockIndex.subMap(fromDay, true, toDay, true).entrySet()) {
+            String date = LocalDate.ofEpochDay(entry.getKey()).toString();
+            List<AttendanceRecord> day = new ArrayList<>();
+            for (long offset : entry.getValue()) {
+                decodeBlock(view, (int) offset, date, day::add);
+            }
+            records.addAll(AttendanceStore.latestPerStudent(day));
+        }
+        return records;
+    }
+
+    @Override
+    public synchronized List<AttendanceRecord> findByStudent(String studentId, String from, String to)
+            throws IOException {
+        open();
+        if (postings == null) {
+            buildPostings();
+        }
+
+        Integer code = studentCodes.get(studentId);
+        LongList positions = code == null ? null : postings.get(code);
+        if (positions == null) {
+            return new ArrayList<>();
+        }
+
+        // Positions are in save order, so a later block's mark for a day wins
+        TreeMap<Integer, AttendanceRecord> byDay = new TreeMap<>();
+        int fromDay = from == null ? Integer.MIN_VALUE : requireDay(from);
+        int toDay = to == null ? Integer.MAX_VALUE : requireDay(to);
+        ByteBuffer view = mappedView();
+        for (int i = 0; i < positions.size(); i++) {
+            int position = (int) positions.get(i);
+            int block = (int) blockContaining(position);
+            int day = view.getInt(block);
+            if (day < fromDay || day > toDay) {
+                continue;
+            }
+            int rows = view.getInt(block + 4);
+            int row = (position - block - BLOCK_HEADER_SIZE) / 4;
+            long word = view.getLong(block + BLOCK_HEADER_SIZE + rows * 4 + (row >>> 6) * 8);
+            boolean present = (word & (1L << (row & 63))) != 0;
+            byDay.put(day, new AttendanceRecord(LocalDate.ofEpochDay(day).toString(), studentId,
+                    present ? "Present" : "Absent"));
+        }
+        return new ArrayList<>(byDay.values());
+    }
+
+    /**
+     * Records where each student's code entries sit, with one pass over the
+     * mapped blocks. Appends keep the lists current afterwards.
+     */
+    private void buildPostings() throws IOException {
+        postings = new HashMap<>();
+        ByteBuffer view = mappedView();
+        for (int b = 0; b < blockOffsets.size(); b++) {
+            addPostings(view, (int) blockOffsets.get(b));
+        }
+    }
+
+    private void addPostings(ByteBuffer view, int block) {
+        int rows = view.getInt(block + 4);
+        int codes = block + BLOCK_HEADER_SIZE;
+        for (int i = 0; i < rows; i++) {
+            postings.computeIfAbsent(view.getInt(codes + i * 4), c -> new LongList()).add(codes + i * 4);
+        }
+    }
+
+    /**
+     * Finds the start of the block holding the given file position.
+     */
+    private long blockContaining(long position) {
+        int low = 0;
+        int high = blockOffsets.size() - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (blockOffsets.get(mid) <= position) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return blockOffsets.get(low);
+    }
+
+    @Override
+    public synchronized List<String> findDates(String from, String to) throws IOException {
+        open();
+
+        List<String> dates = new ArrayList<>();
+        int fromDay = from == null ? Integer.MIN_VALUE : requireDay(from);
+        int toDay = to == null ? Integer.MAX_VALUE : requireDay(to);
+        if (fromDay <= toDay) {
+            for (int day : blockIndex.subMap(fromDay, true, toDay, true).keySet()) {
+                dates.add(LocalDate.ofEpochDay(day).toString());
+            }
+        }
+        return dates;
+    }
+
+    @Override
+    public synchronized void scan(String from, String to, Consumer<AttendanceRecord> visitor) throws IOException {
+        open();
+
+        int fromDay = from == null ? Integer.MIN_VALUE : requireDay(from);
+        int toDay = to == null ? Integer.MAX_VALUE : requireDay(to);
+        if (fromDay > toDay) {
+            return;
+        }
+
+        // One day at a time, so superseded marks can be dropped
+        ByteBuffer view = mappedView();
+        for (Map.Entry<Integer, List<Long>> entry : blockIndex.subMap(fromDay, true, toDay, true).entrySet()) {
+            String date = LocalDate.ofEpochDay(entry.getKey()).toString();
+            List<AttendanceRecord> day = new ArrayList<>();
+            for (long offset : entry.getValue()) {
+                decodeBlock(view, (int) offset, date, day::add);
+            }
+            AttendanceStore.latestPerStudent(day).forEach(visitor);
+        }
+    }
+
+    @Override
+    public synchronized void subscribe(Consumer<AttendanceRecord> visitor, AttendanceListener listener)
+            throws IOException {
+        scan(visitor);
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    private void decodeBlock(ByteBuffer view, int position, String date, Consumer<AttendanceRecord> visitor) {
+        int rows = view.getInt(position + 4);
+        Metrics.rowsScanned(rows);
+        Metrics.bytesRead(BLOCK_HEADER_SIZE + rows * 4L + ((rows + 63) / 64) * 8L);
+        int codes = position + BLOCK_HEADER_SIZE;
+        int bits = codes + rows * 4;
+        for (int i = 0; i < rows; i++) {
+            String studentId = studentIds.get(view.getInt(codes + i * 4));
+            long word = view.getLong(bits + (i >>> 6) * 8);
+            boolean present = (word & (1L << (i & 63))) != 0;
+            visitor.accept(new AttendanceRecord(date, studentId, present ? "Present" : "Absent"));
+        }
+    }
+
+    @Override
+    public synchronized void appendSession(List<AttendanceRecord> session) throws IOException {
+        if (session.isEmpty()) {
+            return;
+        }
+        open();
+
+        // Upsert: group the changed marks by date; each date becomes one block
+        Map<Integer, Map<String, AttendanceRecord>> unique = new LinkedHashMap<>();
+        for (AttendanceRecord record : session) {
+            Integer epochDay = toEpochDay(record.getDate());
+            if (epochDay == null) {
+                throw new IOException("Invalid date (expected YYYY-MM-DD): " + record.getDate());
+            }
+            unique.computeIfAbsent(epochDay, d -> new LinkedHashMap<>()).put(record.getStudentId(), record);
+        }
+
+        List<AttendanceRecord> records = new ArrayList<>();
+        List<AttendanceRecord> superseded = new ArrayList<>();
+        Map<Integer, List<AttendanceRecord>> byDay = new LinkedHashMap<>();
+        for (Map.Entry<Integer, Map<String, AttendanceRecord>> entry : unique.entrySet()) {
+            Map<String, AttendanceRecord> marks = latestFor(entry.getKey());
+            for (AttendanceRecord record : entry.getValue().values()) {
+                AttendanceRecord current = marks.put(record.getStudentId(), record);
+                if (current != null && current.getStatus().equals(record.getStatus())) {
+                    continue;
+                }
+                if (current != null) {
+                    superseded.add(current);
+                }
+                records.add(record);
+                byDay.computeIfAbsent(entry.getKey(), d -> new ArrayList<>()).add(record);
+            }
+        }
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // New student IDs go to the dictionary before any block refers to them
+        List<String> newIds = new ArrayList<>();
+        for (AttendanceRecord record : records) {
+            if (!studentCodes.containsKey(record.getStudentId())) {
+                studentCodes.put(record.getStudentId(), studentIds.size());
+                studentIds.add(record.getStudentId());
+                newIds.add(record.getStudentId());
+            }
+        }
+        appendDictionary(newIds);
+
+        int size = 0;
+        for (List<AttendanceRecord> rows : byDay.values()) {
+            size += blockSize(rows.size());
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(size);
+        List<long[]> written = new ArrayList<>();
+        // Past the last whole block, not the file's end, which a failed write may have moved
+        long offset = indexedLength;
+        for (Map.Entry<Integer, List<AttendanceRecord>> entry : byDay.entrySet()) {
+            written.add(new long[] { entry.getKey(), offset + buffer.position() });
+            encodeBlock(buffer, entry.getKey(), entry.getValue());
+        }
+        buffer.flip();
+
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, offset + buffer.position());
+            }
+            if (durability != AttendanceWriter.Durability.NONE) {
+                channel.force(false);
+            }
+        } catch (IOException e) {
+            // The latest marks were updated ahead of the write; reload them on demand
+            latest.clear();
+            try {
+                channel.truncate(indexedLength);
+            } catch (IOException truncateFailed) {
+                e.addSuppressed(truncateFailed);
+            }
+            throw e;
+        }
+
+        for (long[] block : written) {
+            blockIndex.computeIfAbsent((int) block[0], d -> new ArrayList<>()).add(block[1]);
+            blockOffsets.add(block[1]);
+        }
+        indexedLength = offset + size;
+
+        if (postings != null) {
+            ByteBuffer view = mappedView();
+            for (long[] block : written) {
+                addPostings(view, (int) block[1]);
+            }
+        }
+
+        totalRows += records.size();
+        supersededRows += superseded.size();
+        for (AttendanceListener listener : listeners) {
+            listener.sessionSaved(records);
+            if (!superseded.isEmpty()) {
+                listener.recordsSuperseded(superseded);
+            }
+        }
+
+        if (supersededRows >= COMPACT_MIN_ROWS && supersededRows >= totalRows * COMPACT_RATIO) {
+            compact();
+        }
+    }
+
+    private void encodeBlock(ByteBuffer buffer, int epochDay, List<AttendanceRecord> rows) {
+        buffer.putInt(epochDay).putInt(rows.size());
+        for (AttendanceRecord row : rows) {
+            buffer.putInt(studentCodes.get(row.getStudentId()));
+        }
+        long[] bits = new long[(rows.size() + 63) / 64];
+        for (int i = 0; i < rows.size(); i++) {
+            if (rows.get(i).isPresent()) {
+                bits[i >>> 6] |= 1L << (i & 63);
+            }
+        }
+        for (long word : bits) {
+            buffer.putLong(word);
+        }
+    }
+
+    /**
+     * Returns the latest mark of each student on the day, decoding the day's
+     * blocks the first time it is asked for.
+     */
+    private Map<String, AttendanceRecord> latestFor(int epochDay) throws IOException {
+        Map<String, AttendanceRecord> marks = latest.get(epochDay);
+        if (marks != null) {
+            return marks;
+        }
+
+        Map<String, AttendanceRecord> loaded = new HashMap<>();
+        List<Long> blocks = blockIndex.get(epochDay);
+        if (blocks != null) {
+            ByteBuffer view = mappedView();
+            String date = LocalDate.ofEpochDay(epochDay).toString();
+            for (long offset : blocks) {
+                decodeBlock(view, (int) offset, date, record -> {
+                    if (loaded.put(record.getStudentId(), record) != null) {
+                        supersededRows++;
+                    }
+                });
+            }
+        }
+        latest.put(epochDay, loaded);
+        return loaded;
+    }
+
+    /**
+     * Rewrites attendance.col with one block per day holding only each
+     * student's latest mark, then reopens it.
+     */
+    @Override
+    public synchronized void compact() throws IOException {
+        open();
+
+        File temp = new File(columnFile.getPath() + ".compact");
+        ByteBuffer view = mappedView();
+        try (FileChannel out = FileChannel.open(temp.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC);
+            header.flip();
+            out.write(header);
+
+            for (Map.Entry<Integer, List<Long>> entry : blockIndex.entrySet()) {
+                String date = LocalDate.ofEpochDay(entry.getKey()).toString();
+                List<AttendanceRecord> day = new ArrayList<>();
+                for (long offset : entry.getValue()) {
+                    decodeBlock(view, (int) offset, date, day::add);
+                }
+                List<AttendanceRecord> rows = AttendanceStore.latestPerStudent(day);
+                ByteBuffer block = ByteBuffer.allocate(blockSize(rows.size()));
+                encodeBlock(block, entry.getKey(), rows);
+                block.flip();
+                while (block.hasRemaining()) {
+                    out.write(block);
+                }
+            }
+            out.force(false);
+        }
+
+        channel.close();
+        map = null;
+        try {
+            java.nio.file.Files.move(temp.toPath(), columnFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            java.nio.file.Files.move(temp.toPath(), columnFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        // Same marks as before, so listeners have nothing to catch up on
+        clearIndex();
+        open();
+    }
+
+    private void clearIndex() {
+        blockIndex.clear();
+        blockOffsets.clear();
+        postings = null;
+        latest.clear();
+        totalRows = 0;
+        supersededRows = 0;
+        opened = false;
+    }
+
+    /**
+     * Opens the files on first use: loads the dictionary, walks the block
+     * headers, and cuts off a torn block left by a crash. If the columnar file
+     * does not exist yet, the rows in attendance.txt are converted into it; a
+     * marker file is kept for the length of the conversion, and one left over
+     * from a failed or interrupted conversion makes it start again from empty.
+     */
+    private void open() throws IOException {
+        if (opened) {
+            return;
+        }
+
+        File dataDir = columnFile.getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        boolean converting = convertingMarker.exists();
+        boolean created = converting || !columnFile.exists() || columnFile.length() < FILE_HEADER_SIZE;
+        if (converting) {
+            java.nio.file.Files.deleteIfExists(dictionaryFile.toPath());
+        }
+
+        loadDictionary();
+        channel = FileChannel.open(columnFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (created) {
+            convertingMarker.createNewFile();
+            channel.truncate(0);
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE).putInt(MAGIC);
+            header.flip();
+            channel.write(header, 0);
+        } else {
+            ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+            channel.read(header, 0);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(columnFile + " is not a columnar attendance file");
+            }
+            indexBlocks();
+        }
+        opened = true;
+
+        if (created) {
+            try {
+                importTextStore();
+            } catch (IOException | RuntimeException e) {
+                // Leave the marker, so the next open converts from scratch
+                channel.close();
+                map = null;
+                clearIndex();
+                for (AttendanceListener listener : listeners) {
+                    listener.storeReset();
+                }
+                throw e;
+            }
+            java.nio.file.Files.deleteIfExists(convertingMarker.toPath());
+        }
+    }
+
+    private void indexBlocks() throws IOException {
+        long fileLength = channel.size();
+        long position = FILE_HEADER_SIZE;
+        ByteBuffer header = ByteBuffer.allocate(BLOCK_HEADER_SIZE);
+        while (position + BLOCK_HEADER_SIZE <= fileLength) {
+            header.clear();
+            channel.read(header, position);
+            int epochDay = header.getInt(0);
+            int rows = header.getInt(4);
+            long end = position + blockSize(rows);
+            if (rows <= 0 || end > fileLength) {
+                break;
+            }
+            blockIndex.computeIfAbsent(epochDay, d -> new ArrayList<>()).add(position);
+            blockOffsets.add(position);
+            totalRows += rows;
+            position = end;
+        }
+
+        if (position < fileLength) {
+            // A save was interrupted part way through a block
+            channel.truncate(position);
+        }
+        indexedLength = position;
+    }
+
+    /**
+     * Copies the latest marks from the text store (attendance.txt and its
+     * rolled segments) into a newly created columnar file.
+     */
+    private void importTextStore() throws IOException {
+        AttendanceRepository text = AttendanceRepository.getInstance();
+        if (!text.hasRecords()) {
+            return;
+        }
+
+        List<AttendanceRecord> batch = new ArrayList<>();
+        try {
+            text.scan(record -> {
+                if (toEpochDay(record.getDate()) == null) {
+                    return;
+                }
+                batch.add(record);
+                if (batch.size() == 100_000) {
+                    try {
+                        appendSession(new ArrayList<>(batch));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    batch.clear();
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        appendSession(batch);
+    }
+
+    private void loadDictionary() throws IOException {
+        studentIds.clear();
+        studentCodes.clear();
+        if (!dictionaryFile.exists()) {
+            return;
+        }
+
+        byte[] bytes = java.nio.file.Files.readAllBytes(dictionaryFile.toPath());
+        int lineStart = 0;
+        for (int i = 0; i < bytes.length; i++) {
+            if (bytes[i] == '\n') {
+                String id = new String(bytes, lineStart, i - lineStart, StandardCharsets.UTF_8);
+                studentCodes.putIfAbsent(id, studentIds.size());
+                studentIds.add(id);
+                lineStart = i + 1;
+            }
+        }
+
+        if (lineStart < bytes.length) {
+            // Drop a torn last entry; no block can refer to it yet
+            try (FileChannel out = FileChannel.open(dictionaryFile.toPath(), StandardOpenOption.WRITE)) {
+                out.truncate(lineStart);
+            }
+        }
+    }
+
+    private void appendDictionary(List<String> newIds) throws IOException {
+        if (newIds.isEmpty()) {
+            return;
+        }
+
+        StringBuilder lines = new StringBuilder();
+        for (String id : newIds) {
+            lines.append(id).append('\n');
+        }
+        try (FileOutputStream out = new FileOutputStream(dictionaryFile, true)) {
+            out.write(lines.toString().getBytes(StandardCharsets.UTF_8));
+            if (durability != AttendanceWriter.Durability.NONE) {
+                out.getFD().sync();
+            }
+        }
+    }
+
+    /**
+     * Returns a read-only view of the mapped file, remapping it if it has grown.
+     */
+    private ByteBuffer mappedView() throws IOException {
+        if (map == null || map.capacity() < indexedLength) {
+            map = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexedLength);
+        }
+        return map.duplicate();
+    }
+
+    private static int blockSize(int rows) {
+        return BLOCK_HEADER_SIZE + rows * 4 + ((rows + 63) / 64) * 8;
+    }
+
+    private static int requireDay(String date) throws IOException {
+        Integer day = toEpochDay(date);
+        if (day == null) {
+            throw new IOException("Invalid date (expected YYYY-MM-DD): " + date);
+        }
+        return day;
+    }
+
+    private static Integer toEpochDay(String date) {
+        try {
+            return (int) LocalDate.parse(date.trim()).toEpochDay();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,296 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * CSV Tokenizer - Byte-Level Streaming CSV Reader
+ *
+ * Splits a CSV stream into records and fields directly in its read buffer:
+ * each field is just a start and end offset, so no line String is built and
+ * nothing is split. A field becomes a String only when field(i) is called.
+ *
+ * Handles quoted fields (with "" for a quote, and commas or line breaks
+ * inside quotes), CRLF line endings and a leading UTF-8 byte order mark.
+ * Unquoted fields are trimmed, like the rest of the application does.
+ */
+public class CsvTokenizer implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final InputStream in;
+    private byte[] buffer = new byte[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private boolean eof = false;
+
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private boolean[] escaped = new boolean[8];
+    private int fieldCount = 0;
+    private int recordBreaks = 0;
+
+    private long consumed = 0;
+    private long lineNumber = 0;
+    private long nextLineNumber = 1;
+    private boolean bomChecked = false;
+
+    public CsvTokenizer(InputStream in) {
+        this.in = in;
+    }
+
+    /**
+     * Advances to the next record.
+     *
+     * @return false at the end of the input
+     */
+    public boolean next() throws IOException {
+        fieldCount = 0;
+        if (position >= limit && !fill(position)) {
+            return false;
+        }
+        if (!bomChecked) {
+            bomChecked = true;
+            // A short first read may have split the mark
+            while (limit - position < 3 && fill(position)) {
+            }
+            if (startsWithBom()) {
+                position += 3;
+                consumed += 3;
+                if (position >= limit && !fill(position)) {
+                    return false;
+                }
+            }
+        }
+
+        lineNumber = nextLineNumber;
+        while (true) {
+            int end = scanRecord();
+            if (end < 0 && !fill(position)) {
+                // The last record has no line break after it
+                end = scanLast();
+            }
+            if (end >= 0) {
+                consumed += end - position;
+                position = end;
+                nextLineNumber += recordBreaks + 1;
+                unescape();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Number of fields in the current record (1 for a blank line).
+     */
+    public int fieldCount() {
+        return fieldCount;
+    }
+
+    /**
+     * Returns true if the current record is an empty line.
+     */
+    public boolean isBlank() {
+        return fieldCount == 1 && starts[0] == ends[0];
+    }
+
+    /**
+     * Decodes one field of the current record.
+     */
+    public String field(int index) {
+        return new String(buffer, starts[index], ends[index] - starts[index], StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Copies the current record's fields into a new array.
+     */
+    public String[] fields() {
+        String[] fields = new String[fieldCount];
+        for (int i = 0; i < fieldCount; i++) {
+            fields[i] = field(i);
+        }
+        return fields;
+    }
+
+    /**
+     * The line the current record starts on, counting from 1.
+     */
+    public long lineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Bytes consumed so far, for progress reporting.
+     */
+    public long bytesRead() {
+        return consumed;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Splits one record starting at position into fields, without changing
+     * the buffer, so it can be scanned again after more bytes are read.
+     *
+     * @return the offset just past the record's line break, or -1 if the
+     *         buffer ends before the record does
+     */
+    private int scanRecord() {
+        fieldCount = 0;
+        recordBreaks = 0;
+        int i = position;
+        while (true) {
+            if (i >= limit) {
+                return -1;
+            }
+            int start;
+            int end;
+            boolean quoted = buffer[i] == '"';
+            boolean hasEscapes = false;
+            if (quoted) {
+                start = i + 1;
+                i = start;
+                while (true) {
+                    if (i + 1 >= limit) {
+                        return -1;
+                    }
+                    if (buffer[i] == '"') {
+                        if (buffer[i + 1] != '"') {
+                            break;
+                        }
+                        hasEscapes = true;
+                        i += 2;
+                        continue;
+                    }
+                    if (buffer[i] == '\n') {
+                        recordBreaks++;
+                    }
+                    i++;
+                }
+                end = i;
+                // Skip anything between the closing quote and the separator
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n') {
+                    i++;
+                }
+            } else {
+                start = i;
+                while (i < limit && buffer[i] != ',' && buffer[i] != '\n') {
+                    i++;
+                }
+                end = i;
+            }
+            if (i >= limit) {
+                return -1;
+            }
+
+            if (!quoted) {
+                while (start < end && (buffer[start] & 0xFF) <= ' ') {
+                    start++;
+                }
+                while (end > start && (buffer[end - 1] & 0xFF) <= ' ') {
+                    end--;
+                }
+            }
+            addField(start, end, hasEscapes);
+            if (buffer[i] == '\n') {
+                return i + 1;
+            }
+            i++;
+        }
+    }
+
+    /**
+     * Splits the final record, which has no line break after it.
+     *
+     * @return the offset just past the record
+     */
+    private int scanLast() {
+        // Scan it as if it ended with a line break
+        if (limit == buffer.length) {
+            grow();
+        }
+        buffer[limit] = '\n';
+        limit++;
+        int end = scanRecord();
+        limit--;
+        if (end < 0) {
+            // An unclosed quote: keep the rest as one field
+            fieldCount = 0;
+            addField(position, limit, false);
+        }
+        return limit;
+    }
+
+    /**
+     * Turns "" back into " in the current record's quoted fields. Each field
+     * only gets shorter, so this happens in place.
+     */
+    private void unescape() {
+        for (int f = 0; f < fieldCount; f++) {
+            if (!escaped[f]) {
+                continue;
+            }
+            int write = starts[f];
+            for (int read = starts[f]; read < ends[f]; read++) {
+                buffer[write++] = buffer[read];
+                if (buffer[read] == '"') {
+                    read++;
+                }
+            }
+            ends[f] = write;
+        }
+    }
+
+    private void addField(int start, int end, boolean hasEscapes) {
+        if (fieldCount == starts.length) {
+            starts = Arrays.copyOf(starts, fieldCount * 2);
+            ends = Arrays.copyOf(ends, fieldCount * 2);
+            escaped = Arrays.copyOf(escaped, fieldCount * 2);
+        }
+        starts[fieldCount] = start;
+        ends[fieldCount] = end;
+        escaped[fieldCount] = hasEscapes;
+        fieldCount++;
+    }
+
+    private boolean startsWithBom() {
+        return limit - position >= 3 && (buffer[position] & 0xFF) == 0xEF
+                && (buffer[position + 1] & 0xFF) == 0xBB && (buffer[position + 2] & 0xFF) == 0xBF;
+    }
+
+    /**
+     * Keeps the unread bytes from keepFrom on, moved to the front, and reads
+     * more after them, growing the buffer if a single record fills it.
+     *
+     * @return false if no more bytes could be read
+     */
+    private boolean fill(int keepFrom) throws IOException {
+        if (eof) {
+            return false;
+        }
+        int kept = limit - keepFrom;
+        if (keepFrom > 0) {
+            System.arraycopy(buffer, keepFrom, buffer, 0, kept);
+        } else if (kept == buffer.length) {
+            grow();
+        }
+        position = 0;
+        limit = kept;
+
+        int read = in.read(buffer, limit, buffer.length - limit);
+        while (read == 0) {
+            read = in.read(buffer, limit, buffer.length - limit);
+        }
+        if (read < 0) {
+            eof = true;
+            return false;
+        }
+        limit += read;
+        return true;
+    }
+
+    private void grow() {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+    }
+}
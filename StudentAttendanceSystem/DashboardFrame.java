@@ -1,16 +1,27 @@
 import javax.swing.*;
 import java.awt.*;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Dashboard Frame - Main Navigation
+ *
+ * Below the buttons, the Absence Alerts panel lists the students the latest
+ * saves flagged (see AbsenceAlerts). It is refreshed each time the dashboard
+ * is shown, so it is up to date as soon as a session has been saved.
  */
-public class DashboardFrame extends JFrame {
+public class DashboardFrame extends JFrame implements Navigator.Screen {
     private String lecturerEmail;
+    private JPanel alertsPanel;
+    private JLabel alertsLabel;
+    private DefaultListModel<String> alertsModel;
 
     public DashboardFrame(String email) {
         this.lecturerEmail = email;
         setTitle("Student Attendance System - Dashboard");
-        setSize(500, 400);
+        setSize(500, 720);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setResizable(true);
@@ -59,41 +70,125 @@ public class DashboardFrame extends JFrame {
         gbc.gridy = 4;
         mainPanel.add(viewAttendanceBtn, gbc);
 
+        // Attendance Report Button
+        JButton reportBtn = new JButton("Attendance Report");
+        reportBtn.setPreferredSize(new Dimension(200, 40));
+        reportBtn.setFont(new Font("Arial", Font.PLAIN, 16));
+        gbc.gridy = 5;
+        mainPanel.add(reportBtn, gbc);
+
+        // Bulk Import Button
+        JButton bulkImportBtn = new JButton("Bulk Import");
+        bulkImportBtn.setPreferredSize(new Dimension(200, 40));
+        bulkImportBtn.setFont(new Font("Arial", Font.PLAIN, 16));
+        gbc.gridy = 6;
+        mainPanel.add(bulkImportBtn, gbc);
+
         // Logout Button
         JButton logoutBtn = new JButton("Logout");
         logoutBtn.setPreferredSize(new Dimension(200, 40));
         logoutBtn.setFont(new Font("Arial", Font.PLAIN, 16));
         logoutBtn.setBackground(new Color(220, 53, 69));
         logoutBtn.setForeground(Color.WHITE);
-        gbc.gridy = 5;
+        gbc.gridy = 7;
         mainPanel.add(logoutBtn, gbc);
 
+        // Absence Alerts Panel, only where this process holds the data
+        alertsPanel = new JPanel(new BorderLayout(5, 5));
+        alertsPanel.setBackground(Color.WHITE);
+        alertsPanel.setBorder(BorderFactory.createTitledBorder("Absence Alerts"));
+        alertsLabel = new JLabel("Loading...");
+        alertsPanel.add(alertsLabel, BorderLayout.NORTH);
+        alertsModel = new DefaultListModel<>();
+        JScrollPane alertsScroll = new JScrollPane(new JList<>(alertsModel));
+        alertsScroll.setPreferredSize(new Dimension(420, 140));
+        alertsPanel.add(alertsScroll, BorderLayout.CENTER);
+        alertsPanel.setVisible(!AttendanceService.isRemote());
+        gbc.gridy = 8;
+        gbc.insets = new Insets(5, 15, 15, 15);
+        mainPanel.add(alertsPanel, gbc);
+
         add(mainPanel);
 
         // Event Listeners
         addStudentBtn.addActionListener(e -> openAddStudent());
         markAttendanceBtn.addActionListener(e -> openMarkAttendance());
         viewAttendanceBtn.addActionListener(e -> openViewAttendance());
+        reportBtn.addActionListener(e -> openAttendanceReport());
+        bulkImportBtn.addActionListener(e -> openBulkImport());
         logoutBtn.addActionListener(e -> logout());
+
+        // Hidden shortcut to the diagnostics window
+        getRootPane().getInputMap(JComponent.WHEN_IN_FOCUSED_WINDOW).put(
+                KeyStroke.getKeyStroke(KeyEvent.VK_D, InputEvent.CTRL_DOWN_MASK | InputEvent.SHIFT_DOWN_MASK),
+                "diagnostics");
+        getRootPane().getActionMap().put("diagnostics", new AbstractAction() {
+            @Override
+            public void actionPerformed(java.awt.event.ActionEvent e) {
+                DiagnosticsFrame.showDiagnostics();
+            }
+        });
+    }
+
+    @Override
+    public void onShow() {
+        refreshAlerts();
+    }
+
+    /**
+     * Reads the current alerts in the background; the counters are built on
+     * the first call and only updated by saves after that.
+     */
+    private void refreshAlerts() {
+        if (AttendanceService.isRemote()) {
+            return;
+        }
+        DataAccess.run(() -> {
+            AbsenceAlerts alerts = AbsenceAlerts.getInstance();
+            alerts.preload();
+            Roster roster = StudentStore.getInstance().getRoster();
+            List<String> lines = new ArrayList<>();
+            for (AbsenceAlerts.Alert alert : alerts.getRecent()) {
+                int row = roster.indexOf(alert.getStudentId());
+                String name = row >= 0 ? roster.getName(row) : "Unknown";
+                lines.add(alert.getDate() + "  " + name + " (" + alert.getStudentId() + "): " + alert.getReason());
+            }
+            lines.add(0, alerts.getFlaggedCount() + " student(s) below " + AbsenceAlerts.MIN_PERCENTAGE
+                    + "% or absent " + AbsenceAlerts.STREAK_LIMIT + "+ sessions in a row");
+            return lines;
+        }, lines -> {
+            alertsLabel.setText(lines.get(0));
+            alertsModel.clear();
+            for (String line : lines.subList(1, lines.size())) {
+                alertsModel.addElement(line);
+            }
+        }, e -> {
+            Log.error("Error loading absence alerts", e, "operation", "alerts.load");
+            alertsLabel.setText("Alerts unavailable");
+        });
     }
 
     private void openAddStudent() {
-        this.dispose();
-        new AddStudentFrame(lecturerEmail).setVisible(true);
+        Navigator.showAddStudent();
     }
 
     private void openMarkAttendance() {
-        this.dispose();
-        new MarkAttendanceFrame(lecturerEmail).setVisible(true);
+        Navigator.showMarkAttendance();
     }
 
     private void openViewAttendance() {
-        this.dispose();
-        new ViewAttendanceFrame(lecturerEmail).setVisible(true);
+        Navigator.showViewAttendance();
+    }
+
+    private void openAttendanceReport() {
+        Navigator.showAttendanceReport();
+    }
+
+    private void openBulkImport() {
+        Navigator.showBulkImport();
     }
 
     private void logout() {
-        this.dispose();
-        new LoginFrame().setVisible(true);
+        Navigator.logout();
     }
 }
@@ -0,0 +1,61 @@
+import javax.swing.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+/**
+ * Data Access - Runs File I/O Off the Event Dispatch Thread
+ *
+ * All loads and saves go through a small shared pool of daemon threads so the
+ * Swing UI never blocks on disk. Results are handed back on the EDT.
+ */
+public final class DataAccess {
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(2, new ThreadFactory() {
+        private int count = 0;
+
+        @Override
+        public synchronized Thread newThread(Runnable task) {
+            Thread thread = new Thread(task, "data-access-" + (++count));
+            thread.setDaemon(true);
+            return thread;
+        }
+    });
+
+    private DataAccess() {
+    }
+
+    /**
+     * Runs a SwingWorker on the shared data-access pool.
+     */
+    public static void execute(SwingWorker<?, ?> worker) {
+        EXECUTOR.execute(worker);
+    }
+
+    /**
+     * Runs a single background call and delivers its result (or failure) on the EDT.
+     */
+    public static <T> SwingWorker<T, Void> run(Callable<T> task, Consumer<T> onSuccess, Consumer<Exception> onError) {
+        SwingWorker<T, Void> worker = new SwingWorker<T, Void>() {
+            @Override
+            protected T doInBackground() throws Exception {
+                return task.call();
+            }
+
+            @Override
+            protected void done() {
+                if (isCancelled()) {
+                    return;
+                }
+                try {
+                    onSuccess.accept(get());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    onError.accept(cause instanceof Exception ? (Exception) cause : e);
+                }
+            }
+        };
+        execute(worker);
+        return worker;
+    }
+}
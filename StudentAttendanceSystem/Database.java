@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Database - Connections and Schema for the Embedded SQL Backend
+ *
+ * With -Dstorage.backend=jdbc, students, lecturers and attendance are kept in
+ * an embedded (in-process) database instead of the text files in data/. The
+ * database is given by -Djdbc.url (default jdbc:h2:./data/attendance, an H2
+ * file database; a jdbc:sqlite: URL works too, so the SQL sticks to what
+ * both accept), -Djdbc.user and -Djdbc.password. The driver jar must be on
+ * the classpath:
+ *
+ *   java -cp .:h2.jar -Dstorage.backend=jdbc Main
+ *
+ * The tables and their indexes are created on first use. Connections are
+ * reused from a small idle pool; one that failed is closed, not reused.
+ */
+public final class Database {
+    private static final String BACKEND = System.getProperty("storage.backend", "files").trim();
+    private static final String URL = System.getProperty("jdbc.url", "jdbc:h2:./data/attendance");
+    private static final String USER = System.getProperty("jdbc.user", "sa");
+    private static final String PASSWORD = System.getProperty("jdbc.password", "");
+    private static final int MAX_IDLE = 8;
+
+    private static final String[] SCHEMA = {
+        "CREATE TABLE IF NOT EXISTS students ("
+                + "id VARCHAR(64) PRIMARY KEY, seq BIGINT NOT NULL, name VARCHAR(255) NOT NULL, "
+                + "department VARCHAR(128) NOT NULL, department_key VARCHAR(128) NOT NULL, "
+                + "semester VARCHAR(32) NOT NULL)",
+        "CREATE INDEX IF NOT EXISTS students_seq ON students (seq)",
+        "CREATE INDEX IF NOT EXISTS students_section ON students (department_key, semester)",
+        "CREATE INDEX IF NOT EXISTS students_semester ON students (semester)",
+        "CREATE TABLE IF NOT EXISTS lecturers ("
+                + "email_key VARCHAR(255) PRIMARY KEY, name VARCHAR(255) NOT NULL, "
+                + "email VARCHAR(255) NOT NULL, credential VARCHAR(512) NOT NULL)",
+        "CREATE TABLE IF NOT EXISTS attendance ("
+                + "mark_date VARCHAR(32) NOT NULL, student_id VARCHAR(64) NOT NULL, "
+                + "status VARCHAR(16) NOT NULL, seq BIGINT NOT NULL, PRIMARY KEY (mark_date, student_id))",
+        "CREATE INDEX IF NOT EXISTS attendance_student ON attendance (student_id, mark_date)",
+        "CREATE INDEX IF NOT EXISTS attendance_order ON attendance (mark_date, seq)",
+    };
+
+    private static final Deque<Connection> idle = new ArrayDeque<>();
+    private static boolean schemaReady = false;
+
+    private Database() {
+    }
+
+    /**
+     * Runs SQL against a connection.
+     */
+    public interface SqlAction<T> {
+        T run(Connection connection) throws SQLException;
+    }
+
+    /**
+     * True if -Dstorage.backend=jdbc selects this backend.
+     */
+    public static boolean isConfigured() {
+        return BACKEND.equalsIgnoreCase("jdbc");
+    }
+
+    /**
+     * Runs the action on a pooled connection, with auto-commit on. SQL errors
+     * are reported as IOExceptions, like the file backends' errors.
+     */
+    public static <T> T withConnection(SqlAction<T> action) throws IOException {
+        Connection connection = borrow();
+        boolean healthy = false;
+        try {
+            T result = action.run(connection);
+            healthy = true;
+            return result;
+        } catch (SQLException e) {
+            throw new IOException("Database error: " + e.getMessage(), e);
+        } finally {
+            release(connection, healthy);
+        }
+    }
+
+    /**
+     * Runs the action in one transaction, rolled back if it throws.
+     */
+    public static <T> T inTransaction(SqlAction<T> action) throws IOException {
+        return withConnection(connection -> {
+            connection.setAutoCommit(false);
+            try {
+                T result = action.run(connection);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        });
+    }
+
+    /**
+     * The next value for a table's seq column; call inside the transaction
+     * that inserts, while holding the store's lock.
+     */
+    public static long nextSeq(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet result = statement.executeQuery("SELECT MAX(seq) FROM " + table)) {
+            return result.next() ? result.getLong(1) + 1 : 1;
+        }
+    }
+
+    private static Connection borrow() throws IOException {
+        synchronized (idle) {
+            Connection connection = idle.pollFirst();
+            if (connection != null) {
+                return connection;
+            }
+        }
+        try {
+            Connection connection = DriverManager.getConnection(URL, USER, PASSWORD);
+            ensureSchema(connection);
+            return connection;
+        } catch (SQLException e) {
+            throw new IOException("Cannot open database " + URL + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static void release(Connection connection, boolean healthy) {
+        if (healthy) {
+            synchronized (idle) {
+                if (idle.size() < MAX_IDLE) {
+                    idle.addFirst(connection);
+                    return;
+                }
+            }
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            Log.warn("Error closing database connection", e, "url", URL);
+        }
+    }
+
+    private static synchronized void ensureSchema(Connection connection) throws SQLException {
+        if (schemaReady) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA) {
+                statement.execute(sql);
+            }
+        }
+        schemaReady = true;
+        Log.info("Database ready", "url", URL);
+    }
+}
@@ -0,0 +1,145 @@
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+import java.awt.*;
+
+/**
+ * Diagnostics Frame - Live Operation Metrics
+ *
+ * Opened from the dashboard with Ctrl+Shift+D. Shows the latency
+ * percentiles, rows scanned, bytes read and allocation of every operation
+ * recorded by Metrics, refreshed every second, plus the last compaction
+ * when the attendance store rolls its rows into segments.
+ */
+public class DiagnosticsFrame extends JFrame {
+    private static DiagnosticsFrame open;
+
+    private DefaultTableModel tableModel;
+    private JLabel memoryLabel;
+    private JLabel compactionLabel;
+    private Timer refreshTimer;
+
+    /**
+     * Shows the diagnostics window, reusing it if it is already open.
+     */
+    public static void showDiagnostics() {
+        if (open == null) {
+            open = new DiagnosticsFrame();
+        }
+        open.setVisible(true);
+        open.toFront();
+    }
+
+    private DiagnosticsFrame() {
+        setTitle("Diagnostics");
+        setSize(950, 400);
+        setDefaultCloseOperation(JFrame.DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(null);
+        setResizable(true);
+
+        initComponents();
+        refresh();
+
+        refreshTimer = new Timer(1000, e -> refresh());
+        refreshTimer.start();
+    }
+
+    private void initComponents() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBackground(Color.WHITE);
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
+
+        JLabel titleLabel = new JLabel("Operation Metrics", SwingConstants.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 20));
+        mainPanel.add(titleLabel, BorderLayout.NORTH);
+
+        // Center Panel - One row per operation
+        String[] columns = { "Operation", "Count", "Errors", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms",
+                "Rows Scanned", "Bytes Read", "Alloc/op" };
+        tableModel = new DefaultTableModel(columns, 0) {
+            @Override
+            public boolean isCellEditable(int row, int column) {
+                return false;
+            }
+        };
+        JTable table = new JTable(tableModel);
+        table.setRowHeight(22);
+        mainPanel.add(new JScrollPane(table), BorderLayout.CENTER);
+
+        // Bottom Panel - JVM and compaction status, buttons
+        JPanel statusPanel = new JPanel(new GridLayout(2, 1));
+        statusPanel.setBackground(Color.WHITE);
+        memoryLabel = new JLabel(" ");
+        compactionLabel = new JLabel(" ");
+        statusPanel.add(memoryLabel);
+        statusPanel.add(compactionLabel);
+
+        JPanel buttonPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        buttonPanel.setBackground(Color.WHITE);
+        JButton resetButton = new JButton("Reset");
+        buttonPanel.add(resetButton);
+        JButton closeButton = new JButton("Close");
+        buttonPanel.add(closeButton);
+
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setBackground(Color.WHITE);
+        southPanel.add(statusPanel, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.SOUTH);
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
+
+        add(mainPanel);
+
+        // Event Listeners
+        resetButton.addActionListener(e -> {
+            Metrics.resetAll();
+            refresh();
+        });
+        closeButton.addActionListener(e -> dispose());
+    }
+
+    private void refresh() {
+        tableModel.setRowCount(0);
+        for (Metrics.Operation operation : Metrics.getOperations()) {
+            long count = operation.getCount();
+            tableModel.addRow(new Object[] {
+                    operation.getName(),
+                    count,
+                    operation.getErrors(),
+                    String.format("%.2f", operation.getMeanMillis()),
+                    String.format("%.2f", operation.getP50Millis()),
+                    String.format("%.2f", operation.getP90Millis()),
+                    String.format("%.2f", operation.getP99Millis()),
+                    String.format("%.2f", operation.getMaxMillis()),
+                    operation.getRowsScanned(),
+                    formatBytes(operation.getBytesRead()),
+                    formatBytes(count == 0 ? 0 : operation.getAllocatedBytes() / count)
+            });
+        }
+
+        Runtime runtime = Runtime.getRuntime();
+        memoryLabel.setText("Heap used: " + formatBytes(runtime.totalMemory() - runtime.freeMemory())
+                + " of " + formatBytes(runtime.maxMemory()));
+        // A client of a server has no store of its own to report on
+        String compaction = AttendanceService.isRemote() ? null
+                : AttendanceStore.getInstance().describeLastCompaction();
+        compactionLabel.setVisible(compaction != null);
+        if (compaction != null) {
+            compactionLabel.setText("Last compaction: " + compaction);
+        }
+    }
+
+    private static String formatBytes(long bytes) {
+        if (bytes < 1024) {
+            return bytes + " B";
+        } else if (bytes < 1024 * 1024) {
+            return String.format("%.1f KB", bytes / 1024.0);
+        }
+        return String.format("%.1f MB", bytes / (1024.0 * 1024.0));
+    }
+
+    @Override
+    public void dispose() {
+        refreshTimer.stop();
+        open = null;
+        super.dispose();
+    }
+}
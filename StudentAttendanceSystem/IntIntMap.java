@@ -0,0 +1,117 @@
+import java.util.Arrays;
+
+/**
+ * Int Int Map - Open-Addressing Hash Map from int Keys to int Values
+ *
+ * Keys and values sit in two flat arrays probed linearly, so a lookup is a
+ * few array reads with no boxing and no entry objects. Keys must not be
+ * negative (-1 marks an empty slot); get() returns -1 for a missing key.
+ * There is no remove, which the roster does not need; clear() empties the map.
+ */
+public class IntIntMap {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] values;
+    private int size = 0;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(8, expected * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    private IntIntMap(IntIntMap other) {
+        keys = other.keys.clone();
+        values = other.values.clone();
+        size = other.size;
+    }
+
+    /**
+     * Returns the value for the key, or -1 if there is none.
+     */
+    public int get(int key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key, mask); ; slot = (slot + 1) & mask) {
+            int stored = keys[slot];
+            if (stored == key) {
+                return values[slot];
+            }
+            if (stored == EMPTY) {
+                return EMPTY;
+            }
+        }
+    }
+
+    public boolean containsKey(int key) {
+        return get(key) != EMPTY;
+    }
+
+    public void put(int key, int value) {
+        if (key < 0) {
+            throw new IllegalArgumentException("Negative key " + key);
+        }
+        // At most half full, so probe runs stay short
+        if ((size + 1) * 2 > keys.length) {
+            grow();
+        }
+        int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == EMPTY) {
+            keys[slot] = key;
+            size++;
+        }
+        values[slot] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes every key, keeping the capacity.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    public IntIntMap copy() {
+        return new IntIntMap(this);
+    }
+
+    private void grow() {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = slotOf(oldKeys[i], mask);
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * Sequential IDs would otherwise fill one run of neighbouring slots.
+     */
+    private static int slotOf(int key, int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
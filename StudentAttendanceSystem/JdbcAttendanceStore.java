@@ -0,0 +1,276 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * JDBC Attendance Store - Attendance Marks in an Embedded Database Table
+ *
+ * One row per student per date, keyed on (mark_date, student_id), so the
+ * upsert is an UPDATE of rows whose status changed and an INSERT of new ones,
+ * both in the same transaction. seq keeps the order marks were first saved
+ * in. Nothing is superseded in place, so there is nothing to compact.
+ */
+public class JdbcAttendanceStore implements AttendanceStore {
+    private static JdbcAttendanceStore instance;
+
+    private final List<AttendanceListener> listeners = new ArrayList<>();
+
+    private JdbcAttendanceStore() {
+    }
+
+    public static synchronized JdbcAttendanceStore getInstance() {
+        if (instance == null) {
+            instance = new JdbcAttendanceStore();
+        }
+        return instance;
+    }
+
+    /**
+     * Transactions leave nothing to repair; this only makes sure the tables exist.
+     */
+    @Override
+    public void recover() throws IOException {
+        Database.withConnection(connection -> null);
+    }
+
+    @Override
+    public boolean hasRecords() {
+        try {
+            return Database.withConnection(connection -> {
+                try (Statement statement = connection.createStatement();
+                        ResultSet result = statement.executeQuery(
+                                "SELECT CASE WHEN EXISTS (SELECT 1 FROM attendance) THEN 1 ELSE 0 END")) {
+                    return result.next() && result.getInt(1) == 1;
+                }
+            });
+        } catch (IOException e) {
+            Log.warn("Cannot check for attendance rows", e);
+            return false;
+        }
+    }
+
+    @Override
+    public List<AttendanceRecord> findByDate(String date) throws IOException {
+        List<AttendanceRecord> records = new ArrayList<>();
+        query("SELECT mark_date, student_id, status FROM attendance WHERE mark_date = ? ORDER BY seq",
+                records::add, date);
+        return records;
+    }
+
+    @Override
+    public List<AttendanceRecord> findByDateRange(String from, String to) throws IOException {
+        List<AttendanceRecord> records = new ArrayList<>();
+        scan(from, to, records::add);
+        return records;
+    }
+
+    @Override
+    public List<AttendanceRecord> findByStudent(String studentId, String from, String to) throws IOException {
+        List<String> parameters = new ArrayList<>();
+        parameters.add(studentId);
+        String sql = "SELECT mark_date, student_id, status FROM attendance WHERE student_id = ?"
+                + between(from, to, parameters, " AND ") + " ORDER BY mark_date";
+        List<AttendanceRecord> records = new ArrayList<>();
+        query(sql, records::add, parameters.toArray(new String[0]));
+        return records;
+    }
+
+    /**
+     * Saves the session in one transaction: the marks already stored for its
+     * dates are read first, then changed statuses are updated and new marks
+     * inserted in two batches. Listeners hear about it after the commit.
+     */
+    @Override
+    public synchronized void appendSession(List<AttendanceRecord> records) throws IOException {
+        if (records.isEmpty()) {
+            return;
+        }
+
+        // The last mark for a student and date wins, as in the file stores
+        Map<String, List<AttendanceRecord>> byDate = new TreeMap<>();
+        for (AttendanceRecord record : records) {
+            byDate.computeIfAbsent(record.getDate(), d -> new ArrayList<>()).add(record);
+        }
+
+        List<AttendanceRecord> changed = new ArrayList<>();
+        List<AttendanceRecord> superseded = new ArrayList<>();
+        Database.inTransaction(connection -> {
+            changed.clear();
+            superseded.clear();
+            List<AttendanceRecord> inserts = new ArrayList<>();
+            List<AttendanceRecord> updates = new ArrayList<>();
+            for (Map.Entry<String, List<AttendanceRecord>> day : byDate.entrySet()) {
+                Map<String, String> stored = statusesOn(connection, day.getKey());
+                for (AttendanceRecord record : AttendanceStore.latestPerStudent(day.getValue())) {
+                    String status = stored.get(record.getStudentId());
+                    if (status == null) {
+                        inserts.add(record);
+                        changed.add(record);
+                    } else if (!status.equals(record.getStatus())) {
+                        updates.add(record);
+                        changed.add(record);
+                        superseded.add(new AttendanceRecord(record.getDate(), record.getStudentId(), status));
+                    }
+                }
+            }
+            insert(connection, inserts);
+            update(connection, updates);
+            return null;
+        });
+
+        notifyListeners(changed, superseded);
+    }
+
+    /**
+     * Rows are updated in place, so there are no superseded rows to drop.
+     */
+    @Override
+    public void compact() {
+    }
+
+    @Override
+    public List<String> findDates(String from, String to) throws IOException {
+        List<String> parameters = new ArrayList<>();
+        String sql = "SELECT DISTINCT mark_date FROM attendance" + between(from, to, parameters, " WHERE ")
+                + " ORDER BY mark_date";
+        return Database.withConnection(connection -> {
+            try (PreparedStatement statement = prepare(connection, sql, parameters.toArray(new String[0]));
+                    ResultSet result = statement.executeQuery()) {
+                List<String> dates = new ArrayList<>();
+                while (result.next()) {
+                    dates.add(result.getString(1));
+                }
+                return dates;
+            }
+        });
+    }
+
+    @Override
+    public void scan(String from, String to, Consumer<AttendanceRecord> visitor) throws IOException {
+        List<String> parameters = new ArrayList<>();
+        String sql = "SELECT mark_date, student_id, status FROM attendance" + between(from, to, parameters, " WHERE ")
+                + " ORDER BY mark_date, seq";
+        query(sql, visitor, parameters.toArray(new String[0]));
+    }
+
+    /**
+     * Holds the store's lock for the scan so no session is saved between the
+     * rows visited and the listener being registered.
+     */
+    @Override
+    public synchronized void subscribe(Consumer<AttendanceRecord> visitor, AttendanceListener listener)
+            throws IOException {
+        scan(visitor);
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    private static Map<String, String> statusesOn(Connection connection, String date) throws SQLException {
+        Map<String, String> statuses = new HashMap<>();
+        try (PreparedStatement statement = prepare(connection,
+                "SELECT student_id, status FROM attendance WHERE mark_date = ?", date);
+                ResultSet result = statement.executeQuery()) {
+            while (result.next()) {
+                statuses.put(result.getString(1), result.getString(2));
+            }
+        }
+        return statuses;
+    }
+
+    private static void insert(Connection connection, List<AttendanceRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        long seq = Database.nextSeq(connection, "attendance");
+        try (PreparedStatement statement = connection.prepareStatement(
+                "INSERT INTO attendance (mark_date, student_id, status, seq) VALUES (?, ?, ?, ?)")) {
+            for (AttendanceRecord record : records) {
+                statement.setString(1, record.getDate());
+                statement.setString(2, record.getStudentId());
+                statement.setString(3, record.getStatus());
+                statement.setLong(4, seq++);
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static void update(Connection connection, List<AttendanceRecord> records) throws SQLException {
+        if (records.isEmpty()) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement(
+                "UPDATE attendance SET status = ? WHERE mark_date = ? AND student_id = ?")) {
+            for (AttendanceRecord record : records) {
+                statement.setString(1, record.getStatus());
+                statement.setString(2, record.getDate());
+                statement.setString(3, record.getStudentId());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    /**
+     * Streams the rows of a query to the visitor without collecting them.
+     */
+    private static void query(String sql, Consumer<AttendanceRecord> visitor, String... parameters)
+            throws IOException {
+        Database.withConnection(connection -> {
+            long rows = 0;
+            try (PreparedStatement statement = prepare(connection, sql, parameters);
+                    ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    visitor.accept(new AttendanceRecord(result.getString(1), result.getString(2),
+                            result.getString(3)));
+                    rows++;
+                }
+            }
+            Metrics.rowsScanned(rows);
+            return null;
+        });
+    }
+
+    private static PreparedStatement prepare(Connection connection, String sql, String... parameters)
+            throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < parameters.length; i++) {
+            statement.setString(i + 1, parameters[i]);
+        }
+        return statement;
+    }
+
+    /**
+     * The date-range condition for the given bounds, which may be null; the
+     * bounds used are added to the parameters.
+     */
+    private static String between(String from, String to, List<String> parameters, String prefix) {
+        List<String> conditions = new ArrayList<>();
+        if (from != null) {
+            conditions.add("mark_date >= ?");
+            parameters.add(from);
+        }
+        if (to != null) {
+            conditions.add("mark_date <= ?");
+            parameters.add(to);
+        }
+        return conditions.isEmpty() ? "" : prefix + String.join(" AND ", conditions);
+    }
+
+    private void notifyListeners(List<AttendanceRecord> changed, List<AttendanceRecord> superseded) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        for (AttendanceListener listener : listeners) {
+            listener.sessionSaved(changed);
+        }
+        if (superseded.isEmpty()) {
+            return;
+        }
+        for (AttendanceListener listener : listeners) {
+            listener.recordsSuperseded(superseded);
+        }
+    }
+}
@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.Locale;
+
+/**
+ * JDBC Lecturer Store - Lecturer Accounts in an Embedded Database Table
+ *
+ * Keyed by normalized (trimmed, lower-case) email like LecturerRepository.
+ * Passwords are checked against their PBKDF2 hashes outside any lock, and an
+ * outdated hash is replaced on the next successful login.
+ */
+public class JdbcLecturerStore implements LecturerStore {
+    private static JdbcLecturerStore instance;
+
+    // Unknown emails are checked against this so they take as long as real ones
+    private String dummyCredential;
+
+    private JdbcLecturerStore() {
+    }
+
+    public static synchronized JdbcLecturerStore getInstance() {
+        if (instance == null) {
+            instance = new JdbcLecturerStore();
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean exists(String email) throws IOException {
+        return findByEmail(email) != null;
+    }
+
+    @Override
+    public Lecturer findByEmail(String email) throws IOException {
+        return Database.withConnection(connection -> find(connection, normalize(email)));
+    }
+
+    @Override
+    public boolean authenticate(String email, String password) throws IOException {
+        Lecturer lecturer = findByEmail(email);
+        if (lecturer == null) {
+            PasswordHasher.verify(password, dummyCredential());
+            return false;
+        }
+
+        String credential = lecturer.getCredential();
+        if (!PasswordHasher.verify(password, credential)) {
+            return false;
+        }
+        if (PasswordHasher.needsRehash(credential)) {
+            String upgraded = PasswordHasher.hash(password);
+            // Only if nobody changed it meanwhile
+            Database.withConnection(connection -> {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE lecturers SET credential = ? WHERE email_key = ? AND credential = ?")) {
+                    statement.setString(1, upgraded);
+                    statement.setString(2, normalize(email));
+                    statement.setString(3, credential);
+                    return statement.executeUpdate();
+                }
+            });
+        }
+        return true;
+    }
+
+    @Override
+    public boolean add(String name, String email, String password) throws IOException {
+        // Hash before taking the lock; a lost race just wastes one hash
+        String credential = PasswordHasher.hash(password);
+        synchronized (this) {
+            return Database.inTransaction(connection -> {
+                if (find(connection, normalize(email)) != null) {
+                    return false;
+                }
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "INSERT INTO lecturers (email_key, name, email, credential) VALUES (?, ?, ?, ?)")) {
+                    statement.setString(1, normalize(email));
+                    statement.setString(2, name);
+                    statement.setString(3, email);
+                    statement.setString(4, credential);
+                    statement.executeUpdate();
+                }
+                return true;
+            });
+        }
+    }
+
+    /**
+     * Nothing is cached, so there is nothing to refresh.
+     */
+    @Override
+    public void refresh() {
+    }
+
+    private static Lecturer find(Connection connection, String key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT name, email, credential FROM lecturers WHERE email_key = ?")) {
+            statement.setString(1, key);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next()
+                        ? new Lecturer(result.getString(1), result.getString(2), result.getString(3))
+                        : null;
+            }
+        }
+    }
+
+    private synchronized String dummyCredential() {
+        if (dummyCredential == null) {
+            dummyCredential = PasswordHasher.hash("unused");
+        }
+        return dummyCredential;
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,146 @@
+import java.io.IOException;
+import java.sql.*;
+import java.util.*;
+
+/**
+ * JDBC Student Store - The Roster in an Embedded Database Table
+ *
+ * Every lookup is an indexed query (by ID, by department and semester, or
+ * in registration order by seq), so nothing is held in memory. Writes check
+ * for taken IDs and insert in one transaction, in batches for addAll().
+ */
+public class JdbcStudentStore implements StudentStore {
+    private static final String COLUMNS = "id, name, department, semester";
+
+    private static JdbcStudentStore instance;
+
+    private JdbcStudentStore() {
+    }
+
+    public static synchronized JdbcStudentStore getInstance() {
+        if (instance == null) {
+            instance = new JdbcStudentStore();
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean exists(String studentId) throws IOException {
+        return Database.withConnection(connection -> exists(connection, studentId));
+    }
+
+    @Override
+    public Roster getRoster() throws IOException {
+        return Roster.of(getAll());
+    }
+
+    @Override
+    public List<Student> getAll() throws IOException {
+        return query("SELECT " + COLUMNS + " FROM students ORDER BY seq");
+    }
+
+    @Override
+    public List<Student> findByDepartment(String department) throws IOException {
+        return query("SELECT " + COLUMNS + " FROM students WHERE department_key = ? ORDER BY seq",
+                departmentKey(department));
+    }
+
+    @Override
+    public List<Student> findBySemester(String semester) throws IOException {
+        return query("SELECT " + COLUMNS + " FROM students WHERE semester = ? ORDER BY seq", semester.trim());
+    }
+
+    @Override
+    public List<Student> findBySection(String department, String semester) throws IOException {
+        return query("SELECT " + COLUMNS + " FROM students WHERE department_key = ? AND semester = ? ORDER BY seq",
+                departmentKey(department), semester.trim());
+    }
+
+    @Override
+    public synchronized boolean add(Student student) throws IOException {
+        return Database.inTransaction(connection -> {
+            if (exists(connection, student.getId())) {
+                return false;
+            }
+            insert(connection, Collections.singletonList(student));
+            return true;
+        });
+    }
+
+    @Override
+    public synchronized List<Student> addAll(List<Student> batch) throws IOException {
+        return Database.inTransaction(connection -> {
+            List<Student> added = new ArrayList<>(batch.size());
+            List<Student> duplicates = new ArrayList<>();
+            Set<String> batchIds = new HashSet<>();
+            for (Student student : batch) {
+                if (!batchIds.add(student.getId()) || exists(connection, student.getId())) {
+                    duplicates.add(student);
+                } else {
+                    added.add(student);
+                }
+            }
+            insert(connection, added);
+            return duplicates;
+        });
+    }
+
+    /**
+     * Nothing is cached, so there is nothing to refresh.
+     */
+    @Override
+    public void refresh() {
+    }
+
+    private static boolean exists(Connection connection, String studentId) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT 1 FROM students WHERE id = ?")) {
+            statement.setString(1, studentId);
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next();
+            }
+        }
+    }
+
+    private static void insert(Connection connection, List<Student> students) throws SQLException {
+        if (students.isEmpty()) {
+            return;
+        }
+        long seq = Database.nextSeq(connection, "students");
+        try (PreparedStatement statement = connection.prepareStatement("INSERT INTO students "
+                + "(id, seq, name, department, department_key, semester) VALUES (?, ?, ?, ?, ?, ?)")) {
+            for (Student student : students) {
+                statement.setString(1, student.getId());
+                statement.setLong(2, seq++);
+                statement.setString(3, student.getName());
+                statement.setString(4, student.getDepartment());
+                statement.setString(5, departmentKey(student.getDepartment()));
+                statement.setString(6, student.getSemester().trim());
+                statement.addBatch();
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private static List<Student> query(String sql, String... parameters) throws IOException {
+        return Database.withConnection(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                for (int i = 0; i < parameters.length; i++) {
+                    statement.setString(i + 1, parameters[i]);
+                }
+                List<Student> students = new ArrayList<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        students.add(new Student(result.getString(1), result.getString(2),
+                                result.getString(3), result.getString(4)));
+                    }
+                }
+                Metrics.rowsScanned(students.size());
+                return students;
+            }
+        });
+    }
+
+    private static String departmentKey(String department) {
+        return department.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,47 @@
+/**
+ * Lecturer - One Row of lecturers.txt (name, email, stored password)
+ *
+ * The stored password is a PBKDF2 hash written by PasswordHasher, or the
+ * plaintext password of an account created before hashing was introduced.
+ */
+public class Lecturer {
+    private final String name;
+    private final String email;
+    private final String credential;
+
+    public Lecturer(String name, String email, String credential) {
+        this.name = name;
+        this.email = email;
+        this.credential = credential;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getCredential() {
+        return credential;
+    }
+
+    /**
+     * Parses one "name,email,password" line, or returns null if it is malformed.
+     */
+    public static Lecturer parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) {
+            return null;
+        }
+        return new Lecturer(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    /**
+     * Formats the lecturer as it is stored in lecturers.txt (including the newline).
+     */
+    public String toLine() {
+        return name + "," + email + "," + credential + "\n";
+    }
+}
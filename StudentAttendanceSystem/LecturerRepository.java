@@ -0,0 +1,284 @@
+import java.io.*;
+import java.nio.file.*;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.*;
+
+/**
+ * Lecturer Repository - Hashed Lecturer Credentials Indexed by Email
+ *
+ * Holds lecturers.txt in memory keyed by normalized (trimmed, lower-case)
+ * email, so login and signup checks are one hash lookup whatever the number
+ * of lecturers. The file is reloaded only when its modification time or size
+ * changes.
+ *
+ * Passwords are verified against salted PBKDF2 hashes (see PasswordHasher).
+ * Accounts still holding a plaintext password, or a hash at an old cost, are
+ * re-hashed on their next successful login. A successful login is remembered
+ * for -Dlecturer.session.minutes (default 30) as a cheap salted digest, so
+ * logging in again within that time does not pay the PBKDF2 cost again.
+ */
+public class LecturerRepository implements LecturerStore {
+    private static final String LECTURERS_FILE = "data/lecturers.txt";
+    private static final String LOCK_FILE = "data/lecturers.lock";
+    private static final int MAX_SESSIONS = 256;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private static LecturerRepository instance;
+
+    private final File file;
+    private final StripedFileLock locks;
+
+    private Map<String, Lecturer> byEmail = new HashMap<>();
+    private List<Lecturer> lecturers = new ArrayList<>();
+
+    // Recently verified logins, least recently used first
+    private final Map<String, Session> sessions = new LinkedHashMap<String, Session>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Session> eldest) {
+            return size() > MAX_SESSIONS;
+        }
+    };
+
+    // Unknown emails are checked against this so they take as long as real ones
+    private String dummyCredential;
+
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    private LecturerRepository(File file, File lockFile) {
+        this.file = file;
+        this.locks = new StripedFileLock(lockFile);
+    }
+
+    public static synchronized LecturerRepository getInstance() {
+        if (instance == null) {
+            instance = new LecturerRepository(new File(LECTURERS_FILE), new File(LOCK_FILE));
+        }
+        return instance;
+    }
+
+    /**
+     * A verified login: the credential it was checked against and a salted digest of the password.
+     */
+    private static class Session {
+        final String credential;
+        final byte[] salt;
+        final byte[] digest;
+        final long expiresAt;
+
+        Session(String credential, byte[] salt, byte[] digest, long expiresAt) {
+            this.credential = credential;
+            this.salt = salt;
+            this.digest = digest;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Returns true if a lecturer with this email is already registered. O(1).
+     */
+    @Override
+    public synchronized boolean exists(String email) throws IOException {
+        refresh();
+        return byEmail.containsKey(normalize(email));
+    }
+
+    @Override
+    public synchronized Lecturer findByEmail(String email) throws IOException {
+        refresh();
+        return byEmail.get(normalize(email));
+    }
+
+    /**
+     * Checks an email and password. The PBKDF2 work runs outside the lock, so
+     * concurrent logins do not queue behind each other.
+     */
+    @Override
+    public boolean authenticate(String email, String password) throws IOException {
+        String key = normalize(email);
+        Lecturer lecturer;
+        Session session;
+        String dummy;
+        synchronized (this) {
+            refresh();
+            lecturer = byEmail.get(key);
+            session = sessions.get(key);
+            if (dummyCredential == null) {
+                dummyCredential = PasswordHasher.hash("unused");
+            }
+            dummy = dummyCredential;
+        }
+
+        if (lecturer == null) {
+            PasswordHasher.verify(password, dummy);
+            return false;
+        }
+
+        String credential = lecturer.getCredential();
+        if (session != null && session.credential.equals(credential)
+                && session.expiresAt > System.currentTimeMillis()) {
+            return MessageDigest.isEqual(PasswordHasher.quickDigest(password, session.salt), session.digest);
+        }
+
+        if (!PasswordHasher.verify(password, credential)) {
+            return false;
+        }
+        if (PasswordHasher.needsRehash(credential)) {
+            String upgraded = PasswordHasher.hash(password);
+            if (!upgrade(key, credential, upgraded)) {
+                // Replaced from elsewhere meanwhile; do not cache the old password
+                return true;
+            }
+            credential = upgraded;
+        }
+        remember(key, credential, password);
+        return true;
+    }
+
+    /**
+     * Appends the lecturer to lecturers.txt with a hashed password, unless the
+     * email is already registered. The check runs under the email's stripe
+     * lock after re-reading the file, so two signups for one email cannot
+     * both succeed, even from different processes.
+     *
+     * @return false if a lecturer with the same email already exists
+     */
+    @Override
+    public boolean add(String name, String email, String password) throws IOException {
+        // Hash before taking the locks; a lost race just wastes one hash
+        String credential = PasswordHasher.hash(password);
+        return locks.withStripe(normalize(email), () -> {
+            synchronized (this) {
+                refresh();
+                if (byEmail.containsKey(normalize(email))) {
+                    return false;
+                }
+
+                File dataDir = file.getParentFile();
+                if (dataDir != null && !dataDir.exists()) {
+                    dataDir.mkdirs();
+                }
+
+                Lecturer lecturer = new Lecturer(name, email, credential);
+                long[] written = locks.withAppend(() -> {
+                    long before = file.length();
+                    try (FileWriter writer = new FileWriter(file, true)) {
+                        writer.write(lecturer.toLine());
+                    }
+                    // Read under the append lock, before another process can add to it
+                    return before == loadedSize ? new long[] { file.lastModified(), file.length() } : null;
+                });
+
+                index(lecturer);
+                // Our own write must not count as an external change, but lines
+                // another process appended before it still trigger a reload
+                if (written != null) {
+                    loadedModified = written[0];
+                    loadedSize = written[1];
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reloads the lecturers if lecturers.txt changed since it was last read.
+     */
+    @Override
+    public synchronized void refresh() throws IOException {
+        long modified = file.exists() ? file.lastModified() : 0;
+        long size = file.exists() ? file.length() : 0;
+        if (modified == loadedModified && size == loadedSize) {
+            return;
+        }
+
+        byEmail = new HashMap<>();
+        lecturers = new ArrayList<>();
+        if (file.exists()) {
+            long rows = 0;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows++;
+                    Lecturer lecturer = Lecturer.parse(line);
+                    if (lecturer != null && !byEmail.containsKey(normalize(lecturer.getEmail()))) {
+                        index(lecturer);
+                    }
+                }
+            }
+            Metrics.rowsScanned(rows);
+            Metrics.bytesRead(size);
+        }
+
+        loadedModified = modified;
+        loadedSize = size;
+    }
+
+    /**
+     * Replaces a lecturer's stored password with a new hash and rewrites the file.
+     *
+     * @return false if the stored password changed since it was verified
+     */
+    private boolean upgrade(String key, String oldCredential, String newCredential) {
+        try {
+            // The whole file is rewritten, so no other writer may run meanwhile
+            return locks.withAll(() -> {
+                synchronized (this) {
+                    refresh();
+                    Lecturer current = byEmail.get(key);
+                    if (current == null || !current.getCredential().equals(oldCredential)) {
+                        return false;
+                    }
+
+                    Lecturer upgraded = new Lecturer(current.getName(), current.getEmail(), newCredential);
+                    lecturers.set(lecturers.indexOf(current), upgraded);
+                    byEmail.put(key, upgraded);
+                    rewrite();
+                    return true;
+                }
+            });
+        } catch (IOException e) {
+            // The login itself succeeded; the upgrade is retried next time
+            Log.warn("Could not upgrade password hash", e, "operation", "login", "file", file.getPath());
+            return false;
+        }
+    }
+
+    /**
+     * Writes all lecturers to a temporary file and moves it over lecturers.txt.
+     */
+    private void rewrite() throws IOException {
+        Path target = file.toPath();
+        Path temp = target.resolveSibling(file.getName() + ".tmp");
+        try (Writer writer = new BufferedWriter(new FileWriter(temp.toFile()))) {
+            for (Lecturer lecturer : lecturers) {
+                writer.write(lecturer.toLine());
+            }
+        }
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+        loadedModified = file.lastModified();
+        loadedSize = file.length();
+    }
+
+    private synchronized void remember(String key, String credential, String password) {
+        byte[] salt = new byte[16];
+        RANDOM.nextBytes(salt);
+        long minutes = Long.getLong("lecturer.session.minutes", 30);
+        sessions.put(key, new Session(credential, salt, PasswordHasher.quickDigest(password, salt),
+                System.currentTimeMillis() + minutes * 60_000));
+    }
+
+    private void index(Lecturer lecturer) {
+        byEmail.put(normalize(lecturer.getEmail()), lecturer);
+        lecturers.add(lecturer);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,47 @@
+import java.io.IOException;
+
+/**
+ * Lecturer Store - Where Lecturer Accounts Are Kept
+ *
+ * The backend is chosen with -Dstorage.backend (see Database):
+ *   files - lecturers.txt with an in-memory index (LecturerRepository, default)
+ *   jdbc  - a table in an embedded database (JdbcLecturerStore)
+ *
+ * Either way passwords are stored as PBKDF2 hashes (see PasswordHasher).
+ */
+public interface LecturerStore {
+
+    static LecturerStore getInstance() {
+        if (Database.isConfigured()) {
+            return JdbcLecturerStore.getInstance();
+        }
+        return LecturerRepository.getInstance();
+    }
+
+    /**
+     * Returns true if a lecturer with this email is already registered.
+     */
+    boolean exists(String email) throws IOException;
+
+    /**
+     * Returns the lecturer with this email (case-insensitive), or null.
+     */
+    Lecturer findByEmail(String email) throws IOException;
+
+    /**
+     * Checks an email and password.
+     */
+    boolean authenticate(String email, String password) throws IOException;
+
+    /**
+     * Registers a lecturer with a hashed password unless the email is taken.
+     *
+     * @return false if a lecturer with the same email already exists
+     */
+    boolean add(String name, String email, String password) throws IOException;
+
+    /**
+     * Brings any in-memory copy of the accounts up to date with storage.
+     */
+    void refresh() throws IOException;
+}
@@ -0,0 +1,64 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Load Progress Panel - Progress Bar and Cancel Button for Background Loads
+ */
+public class LoadProgressPanel extends JPanel {
+    private JProgressBar progressBar;
+    private JButton cancelButton;
+    private SwingWorker<?, ?> worker;
+
+    public LoadProgressPanel() {
+        setLayout(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        setBackground(Color.WHITE);
+
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setPreferredSize(new Dimension(250, 20));
+        add(progressBar);
+
+        cancelButton = new JButton("Cancel");
+        cancelButton.addActionListener(e -> cancel());
+        add(cancelButton);
+
+        setVisible(false);
+    }
+
+    /**
+     * Shows progress for the given worker until it finishes or is cancelled.
+     */
+    public void track(SwingWorker<?, ?> worker) {
+        cancel();
+        this.worker = worker;
+        // Indeterminate until the worker reports real progress
+        progressBar.setValue(0);
+        progressBar.setIndeterminate(true);
+        setVisible(true);
+
+        worker.addPropertyChangeListener(evt -> {
+            if (worker != this.worker) {
+                return;
+            }
+            if ("progress".equals(evt.getPropertyName())) {
+                progressBar.setIndeterminate(false);
+                progressBar.setValue((Integer) evt.getNewValue());
+            } else if ("state".equals(evt.getPropertyName())
+                    && evt.getNewValue() == SwingWorker.StateValue.DONE) {
+                this.worker = null;
+                setVisible(false);
+            }
+        });
+    }
+
+    /**
+     * Cancels the tracked worker, if any.
+     */
+    public void cancel() {
+        if (worker != null) {
+            worker.cancel(true);
+            worker = null;
+        }
+        setVisible(false);
+    }
+}
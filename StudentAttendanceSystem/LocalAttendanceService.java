@@ -0,0 +1,99 @@
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Local Attendance Service - The Service Backed Directly by data/
+ *
+ * Used by the screens when no server is configured, and by AttendanceServer
+ * to answer its clients.
+ */
+public class LocalAttendanceService implements AttendanceService {
+    private static LocalAttendanceService instance;
+
+    private LocalAttendanceService() {
+    }
+
+    public static synchronized LocalAttendanceService getInstance() {
+        if (instance == null) {
+            instance = new LocalAttendanceService();
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean authenticate(String email, String password) throws IOException {
+        return LecturerStore.getInstance().authenticate(email, password);
+    }
+
+    @Override
+    public boolean signup(String name, String email, String password) throws IOException {
+        return LecturerStore.getInstance().add(name, email, password);
+    }
+
+    @Override
+    public List<Section> findSections(String lecturerEmail) throws IOException {
+        return SectionRepository.getInstance().findByLecturer(lecturerEmail);
+    }
+
+    @Override
+    public boolean addSection(Section section) throws IOException {
+        return SectionRepository.getInstance().add(section);
+    }
+
+    @Override
+    public List<Student> findSectionRoster(String department, String semester) throws IOException {
+        return StudentStore.getInstance().findBySection(department, semester);
+    }
+
+    @Override
+    public Roster getRoster() throws IOException {
+        return StudentStore.getInstance().getRoster();
+    }
+
+    @Override
+    public List<Student> findByDepartment(String department) throws IOException {
+        return StudentStore.getInstance().findByDepartment(department);
+    }
+
+    @Override
+    public boolean studentExists(String studentId) throws IOException {
+        return StudentStore.getInstance().exists(studentId);
+    }
+
+    @Override
+    public List<Student> addStudents(List<Student> students) throws IOException {
+        return StudentStore.getInstance().addAll(students);
+    }
+
+    @Override
+    public boolean hasRecords() {
+        return AttendanceStore.getInstance().hasRecords();
+    }
+
+    @Override
+    public void saveSession(List<AttendanceRecord> records) throws IOException {
+        AttendanceStore.getInstance().appendSession(records);
+    }
+
+    @Override
+    public List<AttendanceRecord> findByDateRange(String from, String to) throws IOException {
+        return AttendanceStore.getInstance().findByDateRange(from, to);
+    }
+
+    @Override
+    public List<AttendanceRecord> findByStudent(String studentId, String from, String to) throws IOException {
+        return AttendanceStore.getInstance().findByStudent(studentId, from, to);
+    }
+
+    @Override
+    public List<AttendanceStatistics.Summary> summarize(List<String> studentIds, LocalDate from, LocalDate to)
+            throws IOException {
+        AttendanceStatistics statistics = AttendanceStatistics.getInstance();
+        List<AttendanceStatistics.Summary> summaries = new ArrayList<>(studentIds.size());
+        for (String studentId : studentIds) {
+            summaries.add(statistics.forStudent(studentId, from, to));
+        }
+        return summaries;
+    }
+}
@@ -0,0 +1,277 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log - Asynchronous Structured Logging
+ *
+ * Callers only drop an entry into a fixed-size ring buffer, which never
+ * blocks and does no I/O; a single "log-writer" thread formats the entries
+ * and appends them to logs/attendance.log. Each entry carries key=value
+ * context after the message:
+ *
+ *   2024-03-01 10:15:30.123 ERROR [data-access-1] Error saving attendance operation=attendance.save rows=40 lecturer=a@b.com
+ *
+ * The file is rolled when it passes 10 MB, keeping attendance.log.1 to .5.
+ * Warnings and errors are echoed to stderr as well. If the buffer is full
+ * the entry is dropped and counted rather than making the caller wait.
+ *
+ * The minimum level is set with -Dlog.level (DEBUG, INFO, WARN or ERROR;
+ * INFO by default) and the directory with -Dlog.dir.
+ */
+public final class Log {
+    private static final int CAPACITY = 8192;
+    private static final long MAX_FILE_BYTES = 10L * 1024 * 1024;
+    private static final int MAX_FILES = 5;
+    private static final long IDLE_PARK_NANOS = 50_000_000L;
+    private static final DateTimeFormatter TIMESTAMP =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    public enum Level {
+        DEBUG, INFO, WARN, ERROR
+    }
+
+    private static final Level MIN_LEVEL = parseLevel(System.getProperty("log.level", "INFO"));
+    private static final File LOG_FILE = new File(System.getProperty("log.dir", "logs"), "attendance.log");
+
+    // Multi-producer, single-consumer ring: producers claim a sequence with a
+    // CAS on tail and publish the slot; the writer thread owns head
+    private static final AtomicReferenceArray<Entry> SLOTS = new AtomicReferenceArray<>(CAPACITY);
+    private static final AtomicLong TAIL = new AtomicLong();
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile long head = 0;
+
+    // Attached to every entry while a lecturer is logged in
+    private static volatile String lecturer;
+
+    private static final Thread WRITER = startWriter();
+
+    private Log() {
+    }
+
+    private static class Entry {
+        final long timestamp = System.currentTimeMillis();
+        final String thread = Thread.currentThread().getName();
+        final Level level;
+        final String message;
+        final Throwable error;
+        final Object[] context;
+        final String lecturer;
+
+        Entry(Level level, String message, Throwable error, Object[] context, String lecturer) {
+            this.level = level;
+            this.message = message;
+            this.error = error;
+            this.context = context;
+            this.lecturer = lecturer;
+        }
+    }
+
+    /**
+     * Sets the lecturer attached to later entries, or clears it with null.
+     */
+    public static void setLecturer(String email) {
+        lecturer = email;
+    }
+
+    public static boolean isEnabled(Level level) {
+        return level.compareTo(MIN_LEVEL) >= 0;
+    }
+
+    /**
+     * Logs a message; context is alternating keys and values.
+     */
+    public static void debug(String message, Object... context) {
+        log(Level.DEBUG, message, null, context);
+    }
+
+    public static void info(String message, Object... context) {
+        log(Level.INFO, message, null, context);
+    }
+
+    public static void warn(String message, Throwable error, Object... context) {
+        log(Level.WARN, message, error, context);
+    }
+
+    public static void error(String message, Throwable error, Object... context) {
+        log(Level.ERROR, message, error, context);
+    }
+
+    public static void log(Level level, String message, Throwable error, Object... context) {
+        if (!isEnabled(level)) {
+            return;
+        }
+        Entry entry = new Entry(level, message, error, context, lecturer);
+        while (true) {
+            long sequence = TAIL.get();
+            if (sequence - head >= CAPACITY) {
+                DROPPED.incrementAndGet();
+                return;
+            }
+            if (TAIL.compareAndSet(sequence, sequence + 1)) {
+                SLOTS.set((int) (sequence % CAPACITY), entry);
+                return;
+            }
+        }
+    }
+
+    private static Thread startWriter() {
+        Thread writer = new Thread(Log::drainLoop, "log-writer");
+        writer.setDaemon(true);
+        writer.setPriority(Thread.MIN_PRIORITY);
+        writer.start();
+
+        // Write out what is still buffered when the application exits
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            writer.interrupt();
+            try {
+                writer.join(2000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }, "log-shutdown"));
+        return writer;
+    }
+
+    private static void drainLoop() {
+        Writer out = null;
+        long fileSize = 0;
+        boolean stopping = false;
+        while (true) {
+            StringBuilder batch = new StringBuilder();
+            boolean errors = false;
+            long dropped = DROPPED.getAndSet(0);
+            if (dropped > 0) {
+                batch.append(TIMESTAMP.format(Instant.now())).append(" WARN  [log-writer] Log buffer full, dropped=")
+                        .append(dropped).append('\n');
+            }
+
+            // Take every published entry; a claimed slot that is not yet set ends the batch
+            long sequence = head;
+            while (sequence < TAIL.get()) {
+                int slot = (int) (sequence % CAPACITY);
+                Entry entry = SLOTS.get(slot);
+                if (entry == null) {
+                    break;
+                }
+                SLOTS.set(slot, null);
+                sequence++;
+                head = sequence;
+                int start = batch.length();
+                format(entry, batch);
+                if (entry.level.compareTo(Level.WARN) >= 0) {
+                    System.err.print(batch.substring(start));
+                    errors = true;
+                }
+            }
+
+            if (batch.length() > 0) {
+                try {
+                    if (out == null || fileSize >= MAX_FILE_BYTES) {
+                        if (out != null) {
+                            out.close();
+                            roll();
+                        }
+                        LOG_FILE.getParentFile().mkdirs();
+                        fileSize = LOG_FILE.length();
+                        out = new BufferedWriter(new OutputStreamWriter(
+                                new FileOutputStream(LOG_FILE, true), StandardCharsets.UTF_8), 64 * 1024);
+                    }
+                    out.write(batch.toString());
+                    out.flush();
+                    fileSize += batch.length();
+                } catch (IOException e) {
+                    // Nowhere else to report it; keep going with stderr only
+                    System.err.print(batch);
+                    if (!errors) {
+                        e.printStackTrace();
+                    }
+                    out = null;
+                }
+                continue;
+            }
+
+            if (stopping) {
+                break;
+            }
+            if (Thread.interrupted()) {
+                // One more pass picks up anything logged just before exit
+                stopping = true;
+                continue;
+            }
+            LockSupport.parkNanos(IDLE_PARK_NANOS);
+        }
+
+        if (out != null) {
+            try {
+                out.close();
+            } catch (IOException ignored) {
+                // Exiting anyway
+            }
+        }
+    }
+
+    private static void format(Entry entry, StringBuilder line) {
+        line.append(TIMESTAMP.format(Instant.ofEpochMilli(entry.timestamp))).append(' ');
+        line.append(entry.level);
+        for (int i = entry.level.name().length(); i < 5; i++) {
+            line.append(' ');
+        }
+        line.append(" [").append(entry.thread).append("] ").append(entry.message);
+
+        Object[] context = entry.context;
+        for (int i = 0; context != null && i + 1 < context.length; i += 2) {
+            line.append(' ').append(context[i]).append('=');
+            appendValue(line, context[i + 1]);
+        }
+        if (entry.lecturer != null) {
+            line.append(" lecturer=");
+            appendValue(line, entry.lecturer);
+        }
+        line.append('\n');
+
+        if (entry.error != null) {
+            StringWriter trace = new StringWriter();
+            entry.error.printStackTrace(new PrintWriter(trace));
+            line.append(trace);
+        }
+    }
+
+    private static void appendValue(StringBuilder line, Object value) {
+        String text = String.valueOf(value);
+        if (text.isEmpty() || text.indexOf(' ') >= 0 || text.indexOf('"') >= 0 || text.indexOf('=') >= 0) {
+            line.append('"').append(text.replace("\"", "\\\"")).append('"');
+        } else {
+            line.append(text);
+        }
+    }
+
+    /**
+     * Shifts attendance.log.N up by one, dropping the oldest, and moves
+     * attendance.log to attendance.log.1.
+     */
+    private static void roll() {
+        File oldest = new File(LOG_FILE.getPath() + "." + MAX_FILES);
+        oldest.delete();
+        for (int i = MAX_FILES - 1; i >= 1; i--) {
+            File file = new File(LOG_FILE.getPath() + "." + i);
+            if (file.exists()) {
+                file.renameTo(new File(LOG_FILE.getPath() + "." + (i + 1)));
+            }
+        }
+        LOG_FILE.renameTo(new File(LOG_FILE.getPath() + ".1"));
+    }
+
+    private static Level parseLevel(String name) {
+        try {
+            return Level.valueOf(name.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return Level.INFO;
+        }
+    }
+}
@@ -6,7 +6,7 @@ import java.io.*;
 /**
  * Login Frame - Lecturer Authentication
  */
-public class LoginFrame extends JFrame {
+public class LoginFrame extends JFrame implements Navigator.Screen {
     private JTextField emailField;
     private JPasswordField passwordField;
     private JButton loginButton;
@@ -87,6 +87,13 @@ public class LoginFrame extends JFrame {
         passwordField.addActionListener(e -> handleLogin());
     }
 
+    @Override
+    public void onShow() {
+        // Coming back after a logout leaves nothing of the last password
+        passwordField.setText("");
+        loginButton.setEnabled(true);
+    }
+
     private void handleLogin() {
         String email = emailField.getText().trim();
         String password = new String(passwordField.getPassword()).trim();
@@ -97,44 +104,28 @@ public class LoginFrame extends JFrame {
             return;
         }
 
-        if (authenticateLecturer(email, password)) {
-            JOptionPane.showMessageDialog(this, "Login Successful!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-            this.dispose();
-            new DashboardFrame(email).setVisible(true);
-        } else {
-            JOptionPane.showMessageDialog(this, "Invalid email or password",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private boolean authenticateLecturer(String email, String password) {
-        File file = new File("data/lecturers.txt");
-        if (!file.exists()) {
-            return false;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3) {
-                    String storedEmail = parts[1].trim();
-                    String storedPassword = parts[2].trim();
-                    if (storedEmail.equals(email) && storedPassword.equals(password)) {
-                        return true;
-                    }
-                }
+        // Check credentials in the background so the window stays responsive
+        loginButton.setEnabled(false);
+        DataAccess.run(() -> Metrics.time("login",
+                () -> AttendanceService.getInstance().authenticate(email, password)), authenticated -> {
+            loginButton.setEnabled(true);
+            if (authenticated) {
+                JOptionPane.showMessageDialog(this, "Login Successful!",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                Navigator.login(email);
+            } else {
+                JOptionPane.showMessageDialog(this, "Invalid email or password",
+                        "Error", JOptionPane.ERROR_MESSAGE);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return false;
+        }, e -> {
+            Log.error("Error checking credentials", e, "operation", "login", "email", email);
+            loginButton.setEnabled(true);
+            JOptionPane.showMessageDialog(this, "Error checking credentials",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     private void openSignupFrame() {
-        this.dispose();
-        new SignupFrame().setVisible(true);
+        Navigator.showSignup();
     }
 }
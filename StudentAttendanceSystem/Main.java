@@ -1,22 +1,101 @@
 import javax.swing.*;
+import java.io.IOException;
 
 /**
  * Main Entry Point for Student Attendance Management System
  * Pure Java Swing Desktop Application
+ *
+ * The login screen is shown straight away while a low-priority thread loads
+ * the data (lecturers, roster, attendance indexes, statistics) in the
+ * background, so the screens after login open from memory. The slow-to-build
+ * indexes are saved as snapshots after loading and again on exit, which makes
+ * this loading quick from the second start on.
+ *
+ * "java Main --server [port]" runs no window at all: it loads the data and
+ * serves it to the other workstations over HTTP (see AttendanceServer).
+ * Workstations started with -Dattendance.server=http://host:port leave the
+ * loading to that server.
  */
 public class Main {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--server")) {
+            startServer(args);
+            return;
+        }
+
         // Set look and feel to system default
         try {
             UIManager.setLookAndFeel(UIManager.getSystemLookAndFeelClassName());
         } catch (Exception e) {
-            e.printStackTrace();
+            Log.warn("Could not set the system look and feel", e);
+        }
+
+        // Warm the caches while the lecturer logs in, unless a server holds them
+        if (!AttendanceService.isRemote()) {
+            Thread warmUp = new Thread(Main::warmUp, "warm-up");
+            warmUp.setDaemon(true);
+            warmUp.setPriority(Thread.MIN_PRIORITY);
+            warmUp.start();
+            Runtime.getRuntime().addShutdownHook(new Thread(Main::saveSnapshots, "snapshot-writer"));
         }
 
         // Launch Login Frame on Event Dispatch Thread
-        SwingUtilities.invokeLater(() -> {
-            LoginFrame loginFrame = new LoginFrame();
-            loginFrame.setVisible(true);
-        });
+        SwingUtilities.invokeLater(Navigator::showLogin);
+    }
+
+    private static void startServer(String[] args) {
+        int port = AttendanceServer.DEFAULT_PORT;
+        if (args.length > 1) {
+            try {
+                port = Integer.parseInt(args[1]);
+            } catch (NumberFormatException e) {
+                System.err.println("Usage: java Main --server [port]");
+                System.exit(2);
+            }
+        }
+
+        // Load everything before accepting requests, then keep snapshots fresh on exit
+        warmUp();
+        Runtime.getRuntime().addShutdownHook(new Thread(Main::saveSnapshots, "snapshot-writer"));
+        try {
+            AttendanceServer.start(port);
+        } catch (IOException e) {
+            Log.error("Could not start the attendance server", e, "port", port);
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Repairs attendance data left by an interrupted save, then loads
+     * everything the first screens read.
+     */
+    private static void warmUp() {
+        try {
+            Metrics.time("startup.warmup", () -> {
+                AttendanceStore store = AttendanceStore.getInstance();
+                store.recover();
+                LecturerStore.getInstance().refresh();
+                StudentStore.getInstance().refresh();
+                store.preload();
+                AttendanceStatistics.getInstance().preload();
+                // Listening from here on, so saved sessions update the alerts
+                AbsenceAlerts.getInstance().preload();
+                return null;
+            });
+        } catch (Exception e) {
+            Log.error("Error loading data", e, "operation", "startup.warmup");
+            return;
+        }
+        saveSnapshots();
+    }
+
+    private static void saveSnapshots() {
+        try {
+            StudentStore.getInstance().saveSnapshot();
+            AttendanceStore.getInstance().saveSnapshot();
+            AttendanceStatistics.getInstance().saveSnapshot();
+        } catch (IOException e) {
+            Log.warn("Could not save data snapshots", e);
+        }
     }
 }
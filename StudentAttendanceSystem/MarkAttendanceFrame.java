@@ -1,31 +1,50 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.*;
 import java.text.SimpleDateFormat;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
  * Mark Attendance Frame - Record Daily Attendance
+ *
+ * The lecturer picks one of their sections (see Section) and only that
+ * section's students are loaded, marked and saved.
  */
-public class MarkAttendanceFrame extends JFrame {
+public class MarkAttendanceFrame extends JFrame implements Navigator.Screen {
     private String lecturerEmail;
+    private JComboBox<Section> sectionCombo;
+    private JButton newSectionButton;
+    private boolean updatingSections = false;
     private JTextField dateField;
     private JTable studentTable;
-    private DefaultTableModel tableModel;
+    private RosterTableModel tableModel;
     private JButton saveButton;
     private JButton backButton;
+    private LoadProgressPanel progressPanel;
+    private SwingWorker<java.util.List<Student>, Void> studentLoader;
 
     public MarkAttendanceFrame(String email) {
         this.lecturerEmail = email;
         setTitle("Mark Attendance");
-        setSize(700, 500);
+        setSize(700, 550);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setResizable(true);
 
         initComponents();
-        loadStudents();
+    }
+
+    /**
+     * Starts a new session each time the screen is opened: today's date and
+     * the current roster of the selected section, all marked Present.
+     */
+    @Override
+    public void onShow() {
+        dateField.setText(new SimpleDateFormat("yyyy-MM-dd").format(new Date()));
+        saveButton.setEnabled(true);
+        loadSections((Section) sectionCombo.getSelectedItem());
     }
 
     private void initComponents() {
@@ -34,35 +53,38 @@ public class MarkAttendanceFrame extends JFrame {
         mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         // Top Panel - Title and Date
-        JPanel topPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        JPanel topPanel = new JPanel(new GridLayout(3, 1, 5, 5));
         topPanel.setBackground(Color.WHITE);
 
         JLabel titleLabel = new JLabel("Mark Attendance", SwingConstants.CENTER);
         titleLabel.setFont(new Font("Arial", Font.BOLD, 24));
         topPanel.add(titleLabel);
 
+        JPanel sectionPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        sectionPanel.setBackground(Color.WHITE);
+        sectionPanel.add(new JLabel("Section:"));
+        sectionCombo = new JComboBox<>();
+        sectionCombo.setPreferredSize(new Dimension(250, 25));
+        sectionPanel.add(sectionCombo);
+        newSectionButton = new JButton("New Section...");
+        sectionPanel.add(newSectionButton);
+        topPanel.add(sectionPanel);
+
         JPanel datePanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         datePanel.setBackground(Color.WHITE);
         datePanel.add(new JLabel("Date (YYYY-MM-DD):"));
         dateField = new JTextField(15);
-        dateField.setText(new SimpleDateFormat("yyyy-MM-dd").format(new Date()));
         datePanel.add(dateField);
         topPanel.add(datePanel);
 
         mainPanel.add(topPanel, BorderLayout.NORTH);
 
         // Center Panel - Table
-        String[] columns = { "Student ID", "Name", "Department", "Semester", "Status" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return column == 4; // Only Status column is editable
-            }
-        };
+        tableModel = new RosterTableModel();
 
         studentTable = new JTable(tableModel);
         studentTable.setRowHeight(25);
-        studentTable.getColumnModel().getColumn(4).setCellEditor(
+        studentTable.getColumnModel().getColumn(RosterTableModel.STATUS_COLUMN).setCellEditor(
                 new DefaultCellEditor(new JComboBox<>(new String[] { "Present", "Absent" })));
 
         JScrollPane scrollPane = new JScrollPane(studentTable);
@@ -80,82 +102,212 @@ public class MarkAttendanceFrame extends JFrame {
         backButton.setPreferredSize(new Dimension(150, 35));
         buttonPanel.add(backButton);
 
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        // Progress of background loads sits above the buttons
+        progressPanel = new LoadProgressPanel();
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setBackground(Color.WHITE);
+        southPanel.add(progressPanel, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
 
         add(mainPanel);
 
         // Event Listeners
+        sectionCombo.addActionListener(e -> {
+            if (!updatingSections) {
+                loadStudents();
+            }
+        });
+        newSectionButton.addActionListener(e -> addSection());
         saveButton.addActionListener(e -> handleSave());
         backButton.addActionListener(e -> backToDashboard());
     }
 
+    /**
+     * Lists the lecturer's sections, keeping the given one selected if it is
+     * still there, and loads the selected section's roster.
+     */
+    private void loadSections(Section selected) {
+        DataAccess.run(() -> AttendanceService.getInstance().findSections(lecturerEmail), sections -> {
+            updatingSections = true;
+            sectionCombo.removeAllItems();
+            for (Section section : sections) {
+                sectionCombo.addItem(section);
+                if (selected != null && section.getKey().equals(selected.getKey())) {
+                    sectionCombo.setSelectedItem(section);
+                }
+            }
+            updatingSections = false;
+
+            if (sections.isEmpty()) {
+                tableModel.setStudents(new ArrayList<>());
+                JOptionPane.showMessageDialog(this,
+                        "You have no sections yet. Use \"New Section...\" to add the department and semester you teach.",
+                        "Info", JOptionPane.INFORMATION_MESSAGE);
+            } else {
+                loadStudents();
+            }
+        }, e -> {
+            Log.error("Error loading sections", e, "operation", "sections.load", "file", "data/sections.txt");
+            JOptionPane.showMessageDialog(this, "Error loading sections",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
     private void loadStudents() {
-        File file = new File("data/students.txt");
-        if (!file.exists()) {
-            JOptionPane.showMessageDialog(this, "No students found. Please add students first.",
-                    "Info", JOptionPane.INFORMATION_MESSAGE);
+        Section section = (Section) sectionCombo.getSelectedItem();
+        if (section == null) {
+            progressPanel.cancel();
+            tableModel.setStudents(new ArrayList<>());
             return;
         }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 4) {
-                    tableModel.addRow(new Object[] {
-                            parts[0].trim(), // Student ID
-                            parts[1].trim(), // Name
-                            parts[2].trim(), // Department
-                            parts[3].trim(), // Semester
-                            "Present" // Default status
-                    });
-                }
+        // Only the section's students, from the roster's section index, in one table event
+        studentLoader = DataAccess.run(() -> Metrics.time("roster.load",
+                () -> AttendanceService.getInstance().findSectionRoster(section.getDepartment(),
+                        section.getSemester())),
+                students -> {
+            tableModel.setStudents(students);
+            if (students.isEmpty()) {
+                JOptionPane.showMessageDialog(this, "No students found in " + section + ". Please add students first.",
+                        "Info", JOptionPane.INFORMATION_MESSAGE);
             }
-        } catch (IOException e) {
-            e.printStackTrace();
+        }, e -> {
+            Log.error("Error loading students", e, "operation", "roster.load", "section", section.getKey());
+            JOptionPane.showMessageDialog(this, "Error loading students",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
+        progressPanel.track(studentLoader);
+    }
+
+    private void addSection() {
+        JTextField departmentField = new JTextField(15);
+        JTextField semesterField = new JTextField(15);
+        JPanel panel = new JPanel(new GridLayout(2, 2, 5, 5));
+        panel.add(new JLabel("Department:"));
+        panel.add(departmentField);
+        panel.add(new JLabel("Semester:"));
+        panel.add(semesterField);
+        if (JOptionPane.showConfirmDialog(this, panel, "New Section", JOptionPane.OK_CANCEL_OPTION,
+                JOptionPane.PLAIN_MESSAGE) != JOptionPane.OK_OPTION) {
+            return;
+        }
+
+        String department = departmentField.getText().trim();
+        String semester = semesterField.getText().trim();
+        if (department.isEmpty() || semester.isEmpty() || department.contains(",") || semester.contains(",")) {
+            JOptionPane.showMessageDialog(this, "Please enter a department and semester (without commas)",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
         }
+
+        Section section = new Section(lecturerEmail, department, semester);
+        DataAccess.run(() -> AttendanceService.getInstance().addSection(section), added -> loadSections(section),
+                e -> {
+            Log.error("Error saving section", e, "operation", "sections.add", "section", section.getKey(),
+                    "file", "data/sections.txt");
+            JOptionPane.showMessageDialog(this, "Error saving section",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+        });
     }
 
     private void handleSave() {
-        String date = dateField.getText().trim();
+        String input = dateField.getText().trim();
 
-        if (date.isEmpty()) {
+        if (input.isEmpty()) {
             JOptionPane.showMessageDialog(this, "Please enter a date",
                     "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
+        // Stored in ISO form, as the importer and the server store it
+        String date;
+        try {
+            date = LocalDate.parse(input).toString();
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid date as YYYY-MM-DD",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        dateField.setText(date);
+
+        if (studentLoader != null && !studentLoader.isDone()) {
+            JOptionPane.showMessageDialog(this, "Students are still loading, please wait",
+                    "Info", JOptionPane.INFORMATION_MESSAGE);
+            return;
+        }
+
         if (tableModel.getRowCount() == 0) {
             JOptionPane.showMessageDialog(this, "No students to mark attendance",
                     "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        File dataDir = new File("data");
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
+        // Commit any status still being edited before reading the model
+        if (studentTable.isEditing()) {
+            studentTable.getCellEditor().stopCellEditing();
         }
 
-        try (FileWriter writer = new FileWriter("data/attendance.txt", true)) {
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                String studentId = tableModel.getValueAt(i, 0).toString();
-                String status = tableModel.getValueAt(i, 4).toString();
-                writer.write(date + "," + studentId + "," + status + "\n");
-            }
+        java.util.List<AttendanceRecord> records = new ArrayList<>(tableModel.getRowCount());
+        for (int i = 0; i < tableModel.getRowCount(); i++) {
+            String studentId = tableModel.getStudent(i).getId();
+            records.add(new AttendanceRecord(date, studentId, tableModel.getStatus(i)));
+        }
 
-            JOptionPane.showMessageDialog(this, "Attendance saved successfully!",
+        // Write the session in the background; keep the button disabled meanwhile
+        saveButton.setEnabled(false);
+        DataAccess.run(() -> {
+            Metrics.time("attendance.save", () -> {
+                AttendanceService.getInstance().saveSession(records);
+                return null;
+            });
+            return AttendanceService.isRemote() ? 0 : countFlagged(date, records);
+        }, flagged -> {
+            String message = "Attendance saved successfully!";
+            if (flagged > 0) {
+                message += "\n" + flagged + " student(s) flagged for absences, see the dashboard.";
+            }
+            JOptionPane.showMessageDialog(this, message,
                     "Success", JOptionPane.INFORMATION_MESSAGE);
             backToDashboard();
-
-        } catch (IOException e) {
-            e.printStackTrace();
+        }, e -> {
+            Log.error("Error saving attendance", e, "operation", "attendance.save", "date", date,
+                    "rows", records.size());
+            saveButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error saving attendance",
                     "Error", JOptionPane.ERROR_MESSAGE);
+        });
+    }
+
+    /**
+     * Counts the saved students the absence alerts now flag. The session is
+     * already saved, so a failure here is only logged.
+     */
+    private static int countFlagged(String date, java.util.List<AttendanceRecord> records) {
+        AbsenceAlerts alerts = AbsenceAlerts.getInstance();
+        try {
+            // Students marked for a date before their latest one are rebuilt here
+            alerts.preload();
+        } catch (IOException | RuntimeException e) {
+            Log.warn("Could not update absence alerts", e, "operation", "alerts.update", "date", date);
+            return 0;
+        }
+        Set<String> marked = new HashSet<>();
+        for (AttendanceRecord record : records) {
+            marked.add(record.getStudentId());
+        }
+        int flagged = 0;
+        for (AbsenceAlerts.Alert alert : alerts.getRecent()) {
+            if (alert.getDate().equals(date) && marked.contains(alert.getStudentId())) {
+                flagged++;
+            }
         }
+        return flagged;
     }
 
     private void backToDashboard() {
-        this.dispose();
-        new DashboardFrame(lecturerEmail).setVisible(true);
+        progressPanel.cancel();
+        Navigator.showDashboard();
     }
 }
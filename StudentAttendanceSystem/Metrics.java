@@ -0,0 +1,349 @@
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import javax.management.*;
+
+/**
+ * Metrics - Latency, Rows, Bytes and Allocation per Data-Access Operation
+ *
+ * Frames wrap their background calls in Metrics.time("roster.load", ...).
+ * Each call is timed into a log-linear latency histogram (HdrHistogram-style,
+ * within 1% of the true value), along with the bytes the calling thread
+ * allocated. While an operation runs, the repositories report what they read
+ * through rowsScanned() and bytesRead(), and it is credited to that operation.
+ *
+ * Every operation is registered as a JMX MBean named
+ * "StudentAttendanceSystem:type=Operation,name=<operation>", so jconsole can
+ * watch it, and the DiagnosticsFrame shows the same numbers in the app.
+ */
+public final class Metrics {
+    private static final String DOMAIN = "StudentAttendanceSystem";
+    private static final Map<String, Operation> OPERATIONS = new ConcurrentHashMap<>();
+    private static final ThreadLocal<Call> CURRENT = new ThreadLocal<>();
+    // Operations slower than this are logged as warnings
+    private static final long SLOW_MICROS = 1_000_000;
+
+    private Metrics() {
+    }
+
+    /**
+     * Runs the call as the named operation and records how long it took,
+     * whether it failed, and what it read and allocated.
+     */
+    public static <T> T time(String name, Callable<T> call) throws Exception {
+        Operation operation = operation(name);
+        Call outer = CURRENT.get();
+        Call current = new Call();
+        CURRENT.set(current);
+        long allocatedBefore = allocatedBytes();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            T result = call.call();
+            failed = false;
+            return result;
+        } finally {
+            long micros = (System.nanoTime() - start) / 1000;
+            long allocated = allocatedBefore < 0 ? 0 : Math.max(0, allocatedBytes() - allocatedBefore);
+            operation.record(micros, allocated, failed);
+            operation.rowsScanned.add(current.rows);
+            operation.bytesRead.add(current.bytes);
+            if (outer == null) {
+                CURRENT.remove();
+            } else {
+                // What a nested operation read also counts for the one around it
+                outer.rows += current.rows;
+                outer.bytes += current.bytes;
+                CURRENT.set(outer);
+            }
+
+            Log.log(micros >= SLOW_MICROS ? Log.Level.WARN : Log.Level.INFO,
+                    micros >= SLOW_MICROS ? "Slow operation" : "Operation finished", null,
+                    "operation", name, "durationMs", micros / 1000.0, "rows", current.rows,
+                    "bytes", current.bytes, "failed", failed);
+        }
+    }
+
+    /**
+     * Credits rows read from disk to the operation running on this thread, if any.
+     */
+    public static void rowsScanned(long rows) {
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.rows += rows;
+        }
+    }
+
+    /**
+     * Credits bytes read from disk to the operation running on this thread, if any.
+     */
+    public static void bytesRead(long bytes) {
+        Call call = CURRENT.get();
+        if (call != null) {
+            call.bytes += bytes;
+        }
+    }
+
+    /**
+     * Every operation recorded so far, by name.
+     */
+    public static List<Operation> getOperations() {
+        List<Operation> operations = new ArrayList<>(OPERATIONS.values());
+        operations.sort(Comparator.comparing(Operation::getName));
+        return operations;
+    }
+
+    public static void resetAll() {
+        for (Operation operation : OPERATIONS.values()) {
+            operation.reset();
+        }
+    }
+
+    private static Operation operation(String name) {
+        Operation operation = OPERATIONS.get(name);
+        if (operation != null) {
+            return operation;
+        }
+        return OPERATIONS.computeIfAbsent(name, n -> {
+            Operation created = new Operation(n);
+            register(created);
+            return created;
+        });
+    }
+
+    private static void register(Operation operation) {
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=Operation,name="
+                    + ObjectName.quote(operation.getName()));
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new StandardMBean(operation, OperationMBean.class), objectName);
+            }
+        } catch (JMException e) {
+            Log.warn("Could not register MBean", e, "operation", operation.getName());
+        }
+    }
+
+    /**
+     * Bytes allocated by the current thread so far, or -1 if the JVM cannot tell.
+     */
+    private static long allocatedBytes() {
+        java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            return ((com.sun.management.ThreadMXBean) threads)
+                    .getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+        return -1;
+    }
+
+    /**
+     * What one running call has read so far; only its own thread touches it.
+     */
+    private static class Call {
+        long rows;
+        long bytes;
+    }
+
+    /**
+     * The JMX view of one operation. Latencies are in milliseconds.
+     */
+    public interface OperationMBean {
+        long getCount();
+
+        long getErrors();
+
+        double getMeanMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        double getMaxMillis();
+
+        long getRowsScanned();
+
+        long getBytesRead();
+
+        long getAllocatedBytes();
+
+        void reset();
+    }
+
+    /**
+     * Counters and the latency histogram for one named operation.
+     */
+    public static class Operation implements OperationMBean {
+        private final String name;
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder rowsScanned = new LongAdder();
+        private final LongAdder bytesRead = new LongAdder();
+        private final LongAdder allocatedBytes = new LongAdder();
+
+        Operation(String name) {
+            this.name = name;
+        }
+
+        void record(long micros, long allocated, boolean failed) {
+            latency.record(micros);
+            allocatedBytes.add(allocated);
+            if (failed) {
+                errors.increment();
+            }
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        @Override
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            return latency.getMean() / 1000.0;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return latency.getPercentile(50) / 1000.0;
+        }
+
+        @Override
+        public double getP90Millis() {
+            return latency.getPercentile(90) / 1000.0;
+        }
+
+        @Override
+        public double getP99Millis() {
+            return latency.getPercentile(99) / 1000.0;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return latency.getMax() / 1000.0;
+        }
+
+        @Override
+        public long getRowsScanned() {
+            return rowsScanned.sum();
+        }
+
+        @Override
+        public long getBytesRead() {
+            return bytesRead.sum();
+        }
+
+        @Override
+        public long getAllocatedBytes() {
+            return allocatedBytes.sum();
+        }
+
+        @Override
+        public void reset() {
+            latency.reset();
+            errors.reset();
+            rowsScanned.reset();
+            bytesRead.reset();
+            allocatedBytes.reset();
+        }
+    }
+
+    /**
+     * A log-linear histogram of microsecond values: every power of two is
+     * split into 128 equal buckets, so any recorded value is reported within
+     * 1% of the truth, with fixed memory and lock-free recording.
+     */
+    static class LatencyHistogram {
+        private static final int SUB_BITS = 7;
+        private static final int SUB_BUCKETS = 1 << SUB_BITS;
+        // Up to 2^42 microseconds, about 50 days
+        private static final int MAX_BITS = 42;
+        private static final long MAX_VALUE = (1L << MAX_BITS) - 1;
+
+        private final AtomicLongArray counts = new AtomicLongArray((MAX_BITS - SUB_BITS + 1) * SUB_BUCKETS);
+        private final LongAdder count = new LongAdder();
+        private final LongAdder total = new LongAdder();
+        private final AtomicLong max = new AtomicLong();
+
+        void record(long value) {
+            long clamped = Math.max(0, Math.min(MAX_VALUE, value));
+            counts.incrementAndGet(indexOf(clamped));
+            count.increment();
+            total.add(clamped);
+            max.accumulateAndGet(clamped, Math::max);
+        }
+
+        long getCount() {
+            return count.sum();
+        }
+
+        double getMean() {
+            long n = count.sum();
+            return n == 0 ? 0 : (double) total.sum() / n;
+        }
+
+        long getMax() {
+            return max.get();
+        }
+
+        /**
+         * The value below which the given percentage of recorded values fall.
+         */
+        long getPercentile(double percent) {
+            long n = count.sum();
+            if (n == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(percent / 100.0 * n));
+            long seen = 0;
+            for (int i = 0; i < counts.length(); i++) {
+                seen += counts.get(i);
+                if (seen >= rank) {
+                    return Math.min(max.get(), highestValueIn(i));
+                }
+            }
+            return max.get();
+        }
+
+        void reset() {
+            for (int i = 0; i < counts.length(); i++) {
+                counts.set(i, 0);
+            }
+            count.reset();
+            total.reset();
+            max.set(0);
+        }
+
+        static int indexOf(long value) {
+            if (value < SUB_BUCKETS) {
+                return (int) value;
+            }
+            int magnitude = 63 - Long.numberOfLeadingZeros(value);
+            int shift = magnitude - SUB_BITS;
+            return (shift + 1) * SUB_BUCKETS + (int) ((value >> shift) - SUB_BUCKETS);
+        }
+
+        static long highestValueIn(int index) {
+            if (index < SUB_BUCKETS) {
+                return index;
+            }
+            int shift = index / SUB_BUCKETS - 1;
+            long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+            return lowest + (1L << shift) - 1;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+import javax.swing.*;
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Navigator - Switches Between the Application's Windows
+ *
+ * Each window is built the first time it is opened and kept, hidden, until
+ * the lecturer logs out, so going back and forth between the dashboard and
+ * a screen only hides one frame and shows another instead of rebuilding its
+ * components. A frame that needs to refresh itself when it comes back (the
+ * roster, cleared form fields) implements Screen.
+ */
+public final class Navigator {
+    private static final Map<Class<? extends JFrame>, JFrame> frames = new HashMap<>();
+    private static JFrame current;
+    private static String lecturerEmail;
+
+    private Navigator() {
+    }
+
+    /**
+     * A frame that is told each time it is shown.
+     */
+    public interface Screen {
+        void onShow();
+    }
+
+    public static void showLogin() {
+        show(LoginFrame.class, LoginFrame::new);
+    }
+
+    public static void showSignup() {
+        show(SignupFrame.class, SignupFrame::new);
+    }
+
+    /**
+     * Starts a session for the lecturer and opens the dashboard.
+     */
+    public static void login(String email) {
+        lecturerEmail = email;
+        Log.setLecturer(email);
+        showDashboard();
+    }
+
+    /**
+     * Ends the session: the lecturer's windows are disposed, not kept.
+     */
+    public static void logout() {
+        showLogin();
+        for (Iterator<JFrame> it = frames.values().iterator(); it.hasNext();) {
+            JFrame frame = it.next();
+            if (!(frame instanceof LoginFrame) && !(frame instanceof SignupFrame)) {
+                frame.dispose();
+                it.remove();
+            }
+        }
+        lecturerEmail = null;
+        Log.setLecturer(null);
+    }
+
+    public static void showDashboard() {
+        show(DashboardFrame.class, () -> new DashboardFrame(lecturerEmail));
+    }
+
+    public static void showAddStudent() {
+        show(AddStudentFrame.class, () -> new AddStudentFrame(lecturerEmail));
+    }
+
+    public static void showMarkAttendance() {
+        show(MarkAttendanceFrame.class, () -> new MarkAttendanceFrame(lecturerEmail));
+    }
+
+    public static void showViewAttendance() {
+        show(ViewAttendanceFrame.class, ViewAttendanceFrame::new);
+    }
+
+    public static void showAttendanceReport() {
+        show(AttendanceReportFrame.class, AttendanceReportFrame::new);
+    }
+
+    public static void showBulkImport() {
+        show(BulkImportFrame.class, BulkImportFrame::new);
+    }
+
+    private static void show(Class<? extends JFrame> type, Supplier<? extends JFrame> factory) {
+        JFrame frame = frames.get(type);
+        if (frame == null) {
+            frame = factory.get();
+            frames.put(type, frame);
+        }
+        if (frame instanceof Screen) {
+            ((Screen) frame).onShow();
+        }
+        if (current != null && current != frame) {
+            current.setVisible(false);
+        }
+        current = frame;
+        frame.setVisible(true);
+    }
+}
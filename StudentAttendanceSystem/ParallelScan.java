@@ -0,0 +1,250 @@
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Parallel Scan - Multi-Core Pass Over Attendance Rows in Files
+ *
+ * Memory-maps byte regions of CSV attendance files, cuts them into chunks
+ * that end on a newline (about four per core, at least 1 MB each) and parses
+ * the chunks on a ForkJoinPool. Each chunk is copied through a 64 KB block,
+ * parsed from there into a reused ScanRow and folded into its own partial
+ * result, and the partials are merged back in file order (see
+ * ScanAggregator), so no lock is shared and nothing is allocated per row.
+ *
+ * Every row is counted once, so the regions must not hold marks that a later
+ * row supersedes: AttendanceRepository scans the sealed segments this way and
+ * reads dates still in attendance.txt through its upsert-aware path.
+ */
+public final class ParallelScan {
+    private static final int MIN_CHUNK = 1024 * 1024;
+    private static final int CHUNKS_PER_CORE = 4;
+    private static final int BLOCK = 64 * 1024;
+    // Mappings stay well under the 2 GB a ByteBuffer can address
+    private static final int MAX_MAPPING = 1 << 30;
+
+    private static ForkJoinPool pool;
+
+    private ParallelScan() {
+    }
+
+    /**
+     * A byte range of a file holding whole "date,studentId,status" lines.
+     */
+    public static class Region {
+        private final File file;
+        private final long start;
+        private final long end;
+
+        public Region(File file, long start, long end) {
+            this.file = file;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * One newline-aligned piece of a mapping.
+     */
+    private static class Chunk {
+        private final MappedByteBuffer bytes;
+        private final int start;
+        private final int end;
+
+        Chunk(MappedByteBuffer bytes, int start, int end) {
+            this.bytes = bytes;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /**
+     * Aggregates every row in the regions except those dated on one of the
+     * skipped days (epoch days, sorted ascending).
+     */
+    public static <A> A run(List<Region> regions, int[] skippedDays, ScanAggregator<A> aggregator)
+            throws IOException {
+        long total = 0;
+        for (Region region : regions) {
+            total += region.end - region.start;
+        }
+        if (total == 0) {
+            return aggregator.create();
+        }
+
+        ForkJoinPool workers = pool();
+        long target = Math.max(MIN_CHUNK, total / ((long) workers.getParallelism() * CHUNKS_PER_CORE));
+        List<Chunk> chunks = new ArrayList<>();
+        for (Region region : regions) {
+            split(region, (int) Math.min(target, MAX_MAPPING), chunks);
+        }
+        if (chunks.isEmpty()) {
+            return aggregator.create();
+        }
+
+        AtomicLong rows = new AtomicLong();
+        A result = workers.invoke(new ScanTask<>(chunks, 0, chunks.size(), skippedDays, aggregator, rows));
+        // Reported here, since Metrics tracks the calling thread
+        Metrics.rowsScanned(rows.get());
+        Metrics.bytesRead(total);
+        return result;
+    }
+
+    private static synchronized ForkJoinPool pool() {
+        if (pool == null) {
+            pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), factory -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(factory);
+                thread.setName("attendance-scan-" + thread.getPoolIndex());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+        return pool;
+    }
+
+    /**
+     * Maps the region, at most MAX_MAPPING bytes at a time, and cuts each
+     * mapping into chunks of about the target size that end just past a newline.
+     */
+    private static void split(Region region, int target, List<Chunk> chunks) throws IOException {
+        try (RandomAccessFile file = new RandomAccessFile(region.file, "r");
+                FileChannel channel = file.getChannel()) {
+            long position = region.start;
+            long end = Math.min(region.end, channel.size());
+            while (position < end) {
+                int length = (int) Math.min(end - position, MAX_MAPPING);
+                MappedByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                // A mapping that stops mid-file ends at its last newline; the rest goes in the next one
+                int usable = position + length < end ? lastLineEnd(bytes, length) : length;
+                if (usable == 0) {
+                    throw new IOException("Line longer than " + MAX_MAPPING + " bytes in " + region.file);
+                }
+
+                int chunkStart = 0;
+                while (chunkStart < usable) {
+                    int chunkEnd = chunkStart + target >= usable
+                            ? usable
+                            : nextLineEnd(bytes, chunkStart + target, usable);
+                    chunks.add(new Chunk(bytes, chunkStart, chunkEnd));
+                    chunkStart = chunkEnd;
+                }
+                position += usable;
+            }
+        }
+    }
+
+    /**
+     * The position just past the first newline at or after from, or limit.
+     */
+    private static int nextLineEnd(MappedByteBuffer bytes, int from, int limit) {
+        for (int i = from; i < limit; i++) {
+            if (bytes.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return limit;
+    }
+
+    private static int lastLineEnd(MappedByteBuffer bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Scans a run of chunks: one chunk directly, more by splitting the run in
+     * half, forking the left half and merging the two results in order.
+     */
+    private static class ScanTask<A> extends RecursiveTask<A> {
+        private final List<Chunk> chunks;
+        private final int from;
+        private final int to;
+        private final int[] skippedDays;
+        private final ScanAggregator<A> aggregator;
+        private final AtomicLong rows;
+
+        ScanTask(List<Chunk> chunks, int from, int to, int[] skippedDays, ScanAggregator<A> aggregator,
+                AtomicLong rows) {
+            this.chunks = chunks;
+            this.from = from;
+            this.to = to;
+            this.skippedDays = skippedDays;
+            this.aggregator = aggregator;
+            this.rows = rows;
+        }
+
+        @Override
+        protected A compute() {
+            if (to - from == 1) {
+                return scan(chunks.get(from));
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask<A> left = new ScanTask<>(chunks, from, middle, skippedDays, aggregator, rows);
+            left.fork();
+            A right = new ScanTask<>(chunks, middle, to, skippedDays, aggregator, rows).compute();
+            return aggregator.merge(left.join(), right);
+        }
+
+        /**
+         * Copies the chunk into a block array a piece at a time (bulk copies
+         * beat one get() per byte) and parses the complete lines in each
+         * piece; a line cut off at the end of a piece moves to the front.
+         */
+        private A scan(Chunk chunk) {
+            A partial = aggregator.create();
+            ScanRow row = new ScanRow();
+            ByteBuffer source = chunk.bytes.duplicate();
+            source.position(chunk.start).limit(chunk.end);
+            byte[] block = new byte[BLOCK];
+            int filled = 0;
+            long count = 0;
+            while (source.hasRemaining()) {
+                if (filled == block.length) {
+                    // One line fills the whole block
+                    block = Arrays.copyOf(block, block.length * 2);
+                }
+                int read = Math.min(block.length - filled, source.remaining());
+                source.get(block, filled, read);
+                filled += read;
+
+                int lineStart = 0;
+                for (int i = 0; i < filled; i++) {
+                    if (block[i] == '\n') {
+                        count += accept(partial, row, block, lineStart, i);
+                        lineStart = i + 1;
+                    }
+                }
+                System.arraycopy(block, lineStart, block, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+            // Only the last chunk of a region can end without a newline
+            if (filled > 0) {
+                count += accept(partial, row, block, 0, filled);
+            }
+            rows.addAndGet(count);
+            return partial;
+        }
+
+        private int accept(A partial, ScanRow row, byte[] block, int start, int end) {
+            if (!row.parse(block, start, end)) {
+                return 0;
+            }
+            if (skippedDays.length > 0 && Arrays.binarySearch(skippedDays, row.getDay()) >= 0) {
+                return 0;
+            }
+            aggregator.accept(partial, row);
+            return 1;
+        }
+    }
+}
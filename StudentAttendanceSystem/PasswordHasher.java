@@ -0,0 +1,114 @@
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+
+/**
+ * Password Hasher - Salted PBKDF2 Password Hashes
+ *
+ * Hashes are stored as "pbkdf2$iterations$salt$hash" (Base64 salt and hash),
+ * so the cost can be raised later without breaking existing accounts. The
+ * cost for new hashes comes from -Dlecturer.hash.iterations (default 120000);
+ * verification always uses the cost recorded in the hash itself.
+ */
+public class PasswordHasher {
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final int DEFAULT_ITERATIONS = 120_000;
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private PasswordHasher() {
+    }
+
+    /**
+     * Reads the PBKDF2 cost for new hashes from the lecturer.hash.iterations property.
+     */
+    public static int configuredIterations() {
+        try {
+            return Math.max(1, Integer.parseInt(
+                    System.getProperty("lecturer.hash.iterations", String.valueOf(DEFAULT_ITERATIONS)).trim()));
+        } catch (NumberFormatException e) {
+            return DEFAULT_ITERATIONS;
+        }
+    }
+
+    /**
+     * Hashes the password with a fresh random salt at the configured cost.
+     */
+    public static String hash(String password) {
+        byte[] salt = new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        int iterations = configuredIterations();
+        Base64.Encoder base64 = Base64.getEncoder();
+        return PREFIX + iterations + "$" + base64.encodeToString(salt) + "$"
+                + base64.encodeToString(derive(password, salt, iterations));
+    }
+
+    /**
+     * Returns true if the stored value is a hash rather than a legacy plaintext password.
+     */
+    public static boolean isHashed(String stored) {
+        return stored.startsWith(PREFIX);
+    }
+
+    /**
+     * Returns true if the stored value should be re-hashed at the configured cost.
+     */
+    public static boolean needsRehash(String stored) {
+        String[] parts = stored.split("\\$");
+        return !isHashed(stored) || parts.length != 4 || !parts[1].equals(String.valueOf(configuredIterations()));
+    }
+
+    /**
+     * Checks a password against a stored hash (or legacy plaintext) in constant time.
+     */
+    public static boolean verify(String password, String stored) {
+        if (!isHashed(stored)) {
+            return MessageDigest.isEqual(password.getBytes(StandardCharsets.UTF_8),
+                    stored.getBytes(StandardCharsets.UTF_8));
+        }
+
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            int iterations = Integer.parseInt(parts[1]);
+            byte[] salt = Base64.getDecoder().decode(parts[2]);
+            byte[] expected = Base64.getDecoder().decode(parts[3]);
+            return MessageDigest.isEqual(derive(password, salt, iterations), expected);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    /**
+     * A cheap salted digest of the password, used to re-check a recently verified login.
+     */
+    static byte[] quickDigest(String password, byte[] salt) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(salt);
+            return digest.digest(password.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] derive(String password, byte[] salt, int iterations) {
+        PBEKeySpec spec = new PBEKeySpec(password.toCharArray(), salt, iterations, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+}
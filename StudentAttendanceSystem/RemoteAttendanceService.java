@@ -0,0 +1,259 @@
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Remote Attendance Service - The Service Backed by an AttendanceServer
+ *
+ * Each call is one HTTP request to the server's JSON API. The token from a
+ * successful login is sent with every later request; a failed or expired
+ * one surfaces as an IOException, like a failed file read would.
+ *
+ * The roster is kept between calls and downloaded again only when the
+ * server's student count changes or students are added from here, much as
+ * the local roster is reloaded only when students.txt changes.
+ */
+public class RemoteAttendanceService implements AttendanceService {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    private static RemoteAttendanceService instance;
+
+    private final String baseUrl;
+    private final HttpClient client;
+    private volatile String token;
+    private Roster roster;
+
+    private RemoteAttendanceService(String baseUrl) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    }
+
+    public static synchronized RemoteAttendanceService getInstance(String baseUrl) {
+        if (instance == null) {
+            instance = new RemoteAttendanceService(baseUrl);
+        }
+        return instance;
+    }
+
+    @Override
+    public boolean authenticate(String email, String password) throws IOException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("email", email);
+        request.put("password", password);
+        HttpResponse<String> response = send("POST", "/api/login", Json.write(request));
+        if (response.statusCode() == 401) {
+            return false;
+        }
+        token = Json.getString(parse(response), "token");
+        return token != null;
+    }
+
+    @Override
+    public boolean signup(String name, String email, String password) throws IOException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("name", name);
+        request.put("email", email);
+        request.put("password", password);
+        Object response = call("POST", "/api/signup", Json.write(request));
+        return Boolean.TRUE.equals(((Map<?, ?>) response).get("added"));
+    }
+
+    @Override
+    public List<Section> findSections(String lecturerEmail) throws IOException {
+        List<Section> sections = new ArrayList<>();
+        for (Object item : list(call("GET", "/api/sections", null))) {
+            sections.add(new Section(lecturerEmail, Json.getString(item, "department"),
+                    Json.getString(item, "semester")));
+        }
+        return sections;
+    }
+
+    @Override
+    public boolean addSection(Section section) throws IOException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("department", section.getDepartment());
+        request.put("semester", section.getSemester());
+        Object response = call("POST", "/api/sections", Json.write(request));
+        return Boolean.TRUE.equals(((Map<?, ?>) response).get("added"));
+    }
+
+    @Override
+    public List<Student> findSectionRoster(String department, String semester) throws IOException {
+        return toStudents(call("GET", "/api/students?department=" + encode(department)
+                + "&semester=" + encode(semester), null));
+    }
+
+    @Override
+    public Roster getRoster() throws IOException {
+        int students = number(call("GET", "/api/status", null), "students");
+        synchronized (this) {
+            if (roster != null && roster.size() == students) {
+                return roster;
+            }
+        }
+        Roster fetched = Roster.of(toStudents(call("GET", "/api/students", null)));
+        synchronized (this) {
+            roster = fetched;
+        }
+        return fetched;
+    }
+
+    @Override
+    public List<Student> findByDepartment(String department) throws IOException {
+        return toStudents(call("GET", "/api/students?department=" + encode(department), null));
+    }
+
+    @Override
+    public boolean studentExists(String studentId) throws IOException {
+        return !list(call("GET", "/api/students?id=" + encode(studentId), null)).isEmpty();
+    }
+
+    @Override
+    public List<Student> addStudents(List<Student> students) throws IOException {
+        synchronized (this) {
+            roster = null;
+        }
+        Object response = call("POST", "/api/students", Json.write(toRows(students)));
+        return toStudents(((Map<?, ?>) response).get("skipped"));
+    }
+
+    @Override
+    public boolean hasRecords() throws IOException {
+        Object response = call("GET", "/api/status", null);
+        return Boolean.TRUE.equals(((Map<?, ?>) response).get("hasRecords"));
+    }
+
+    @Override
+    public void saveSession(List<AttendanceRecord> records) throws IOException {
+        List<Map<String, Object>> rows = new ArrayList<>(records.size());
+        for (AttendanceRecord record : records) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("date", record.getDate());
+            row.put("studentId", record.getStudentId());
+            row.put("status", record.getStatus());
+            rows.add(row);
+        }
+        call("POST", "/api/attendance", Json.write(rows));
+    }
+
+    @Override
+    public List<AttendanceRecord> findByDateRange(String from, String to) throws IOException {
+        return toRecords(call("GET", "/api/attendance?from=" + encode(from) + "&to=" + encode(to), null));
+    }
+
+    @Override
+    public List<AttendanceRecord> findByStudent(String studentId, String from, String to) throws IOException {
+        return toRecords(call("GET", "/api/attendance?studentId=" + encode(studentId)
+                + "&from=" + encode(from) + "&to=" + encode(to), null));
+    }
+
+    @Override
+    public List<AttendanceStatistics.Summary> summarize(List<String> studentIds, LocalDate from, LocalDate to)
+            throws IOException {
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("from", from == null ? null : from.toString());
+        request.put("to", to == null ? null : to.toString());
+        request.put("studentIds", studentIds);
+        List<AttendanceStatistics.Summary> summaries = new ArrayList<>(studentIds.size());
+        for (Object item : list(call("POST", "/api/report", Json.write(request)))) {
+            summaries.add(new AttendanceStatistics.Summary(number(item, "present"), number(item, "total")));
+        }
+        return summaries;
+    }
+
+    /**
+     * Sends an authenticated request and returns the parsed body of a successful response.
+     */
+    private Object call(String method, String path, String body) throws IOException {
+        HttpResponse<String> response = send(method, path, body);
+        if (response.statusCode() != 200) {
+            String message = Json.getString(parse(response), "error");
+            throw new IOException("Server returned " + response.statusCode()
+                    + (message == null ? "" : ": " + message));
+        }
+        return parse(response);
+    }
+
+    private HttpResponse<String> send(String method, String path, String body) throws IOException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(TIMEOUT)
+                .header("Content-Type", "application/json; charset=utf-8")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8));
+        String current = token;
+        if (current != null) {
+            request.header("Authorization", "Bearer " + current);
+        }
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted calling " + path, e);
+        }
+    }
+
+    private static Object parse(HttpResponse<String> response) throws IOException {
+        try {
+            return Json.parse(response.body());
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Unreadable response from server: " + e.getMessage(), e);
+        }
+    }
+
+    private static List<?> list(Object value) throws IOException {
+        if (!(value instanceof List)) {
+            throw new IOException("Expected a list from the server");
+        }
+        return (List<?>) value;
+    }
+
+    private static int number(Object item, String field) throws IOException {
+        Object value = item instanceof Map ? ((Map<?, ?>) item).get(field) : null;
+        if (!(value instanceof Number)) {
+            throw new IOException("Expected a number for " + field + " from the server");
+        }
+        return ((Number) value).intValue();
+    }
+
+    private static List<Map<String, Object>> toRows(List<Student> students) {
+        List<Map<String, Object>> rows = new ArrayList<>(students.size());
+        for (Student student : students) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", student.getId());
+            row.put("name", student.getName());
+            row.put("department", student.getDepartment());
+            row.put("semester", student.getSemester());
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    private static List<Student> toStudents(Object value) throws IOException {
+        List<Student> students = new ArrayList<>();
+        for (Object item : list(value)) {
+            students.add(new Student(Json.getString(item, "id"), Json.getString(item, "name"),
+                    Json.getString(item, "department"), Json.getString(item, "semester")));
+        }
+        return students;
+    }
+
+    private static List<AttendanceRecord> toRecords(Object value) throws IOException {
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (Object item : list(value)) {
+            records.add(new AttendanceRecord(Json.getString(item, "date"), Json.getString(item, "studentId"),
+                    Json.getString(item, "status")));
+        }
+        return records;
+    }
+
+    private static String encode(String value) {
+        return value == null ? "" : URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,249 @@
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Roster - Compact Column Store of Registered Students
+ *
+ * Each student is a row number. IDs are numeric in practice, so they are kept
+ * as ints and looked up through an IntIntMap; any other ID (letters, leading
+ * zeros, too long for an int) goes to a small String map instead. Departments
+ * and semesters are dictionary-encoded and names are packed as UTF-8 into one
+ * byte array, so a row costs a few ints plus its name's bytes rather than a
+ * Student object with four Strings, and resolving an ID or comparing a
+ * department allocates nothing.
+ *
+ * Rows are only ever appended. StudentRepository keeps one Roster under its
+ * lock and hands out copy()s, which never change.
+ */
+public class Roster {
+    private int size = 0;
+    // The numeric ID, or -(k + 1) for textIds.get(k)
+    private int[] ids;
+    // Row r's name is nameBytes[nameEnds[r - 1] .. nameEnds[r])
+    private byte[] nameBytes;
+    private int[] nameEnds;
+    private int[] departments;
+    private int[] semesters;
+
+    private final IntIntMap numericRows;
+    private final Map<String, Integer> textRows;
+    private final List<String> textIds;
+
+    private final StringDictionary departmentNames;
+    private final StringDictionary departmentKeys;
+    // Department code -> code of its normalized (case-insensitive) key
+    private final IntList keyOfDepartment;
+    private final StringDictionary semesterNames;
+
+    public Roster() {
+        this(16);
+    }
+
+    public Roster(int expected) {
+        int capacity = Math.max(1, expected);
+        ids = new int[capacity];
+        nameBytes = new byte[capacity * 16];
+        nameEnds = new int[capacity];
+        departments = new int[capacity];
+        semesters = new int[capacity];
+        numericRows = new IntIntMap(expected);
+        textRows = new HashMap<>();
+        textIds = new ArrayList<>();
+        departmentNames = new StringDictionary();
+        departmentKeys = new StringDictionary();
+        keyOfDepartment = new IntList();
+        semesterNames = new StringDictionary();
+    }
+
+    private Roster(Roster other) {
+        size = other.size;
+        ids = Arrays.copyOf(other.ids, size);
+        nameBytes = Arrays.copyOf(other.nameBytes, size == 0 ? 0 : other.nameEnds[size - 1]);
+        nameEnds = Arrays.copyOf(other.nameEnds, size);
+        departments = Arrays.copyOf(other.departments, size);
+        semesters = Arrays.copyOf(other.semesters, size);
+        numericRows = other.numericRows.copy();
+        textRows = new HashMap<>(other.textRows);
+        textIds = new ArrayList<>(other.textIds);
+        departmentNames = other.departmentNames.copy();
+        departmentKeys = other.departmentKeys.copy();
+        keyOfDepartment = new IntList(other.keyOfDepartment.size());
+        for (int i = 0; i < other.keyOfDepartment.size(); i++) {
+            keyOfDepartment.add(other.keyOfDepartment.get(i));
+        }
+        semesterNames = other.semesterNames.copy();
+    }
+
+    public static Roster of(Collection<Student> students) {
+        Roster roster = new Roster(students.size());
+        for (Student student : students) {
+            if (roster.indexOf(student.getId()) < 0) {
+                roster.add(student);
+            }
+        }
+        return roster;
+    }
+
+    /**
+     * Appends the student; the caller checks the ID is not taken yet.
+     *
+     * @return the student's row
+     */
+    public int add(Student student) {
+        if (size == ids.length) {
+            int capacity = Math.max(16, size * 2);
+            ids = Arrays.copyOf(ids, capacity);
+            nameEnds = Arrays.copyOf(nameEnds, capacity);
+            departments = Arrays.copyOf(departments, capacity);
+            semesters = Arrays.copyOf(semesters, capacity);
+        }
+
+        int row = size;
+        String id = student.getId();
+        int numeric = numericId(id);
+        if (numeric >= 0) {
+            ids[row] = numeric;
+            numericRows.put(numeric, row);
+        } else {
+            ids[row] = -(textIds.size() + 1);
+            textIds.add(id);
+            textRows.put(id, row);
+        }
+        byte[] name = student.getName().getBytes(StandardCharsets.UTF_8);
+        int start = nameStart(row);
+        if (start + name.length > nameBytes.length) {
+            nameBytes = Arrays.copyOf(nameBytes, Math.max(nameBytes.length * 2, start + name.length));
+        }
+        System.arraycopy(name, 0, nameBytes, start, name.length);
+        nameEnds[row] = start + name.length;
+        departments[row] = encodeDepartment(student.getDepartment());
+        semesters[row] = semesterNames.encode(student.getSemester());
+        size++;
+        return row;
+    }
+
+    /**
+     * Returns the row of the student with this ID, or -1.
+     */
+    public int indexOf(String id) {
+        int numeric = numericId(id);
+        if (numeric >= 0) {
+            return numericRows.get(numeric);
+        }
+        Integer row = textRows.get(id);
+        return row == null ? -1 : row;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public String getId(int row) {
+        int id = ids[checkRow(row)];
+        return id >= 0 ? Integer.toString(id) : textIds.get(-id - 1);
+    }
+
+    public String getName(int row) {
+        int start = nameStart(checkRow(row));
+        return new String(nameBytes, start, nameEnds[row] - start, StandardCharsets.UTF_8);
+    }
+
+    public String getDepartment(int row) {
+        return departmentNames.decode(departments[checkRow(row)]);
+    }
+
+    public String getSemester(int row) {
+        return semesterNames.decode(semesters[checkRow(row)]);
+    }
+
+    /**
+     * Builds a Student for the row; rows are not stored as objects.
+     */
+    public Student get(int row) {
+        return new Student(getId(row), getName(row), getDepartment(row), getSemester(row));
+    }
+
+    public List<Student> getAll() {
+        List<Student> students = new ArrayList<>(size);
+        for (int row = 0; row < size; row++) {
+            students.add(get(row));
+        }
+        return students;
+    }
+
+    /**
+     * The code of the row's department, ignoring case and surrounding spaces.
+     */
+    public int departmentKeyOf(int row) {
+        return keyOfDepartment.get(departments[checkRow(row)]);
+    }
+
+    /**
+     * The code departmentKeyOf() returns for this department, or -1 if no
+     * student is in it.
+     */
+    public int findDepartmentKey(String department) {
+        return departmentKeys.find(departmentKey(department));
+    }
+
+    public int semesterOf(int row) {
+        return semesters[checkRow(row)];
+    }
+
+    /**
+     * The code semesterOf() returns for this semester, or -1 if no student is in it.
+     */
+    public int findSemester(String semester) {
+        return semesterNames.find(semester);
+    }
+
+    /**
+     * Returns a copy holding the rows added so far, unaffected by later adds.
+     */
+    public Roster copy() {
+        return new Roster(this);
+    }
+
+    private int encodeDepartment(String department) {
+        int code = departmentNames.encode(department);
+        if (code == keyOfDepartment.size()) {
+            keyOfDepartment.add(departmentKeys.encode(departmentKey(department)));
+        }
+        return code;
+    }
+
+    private int nameStart(int row) {
+        return row == 0 ? 0 : nameEnds[row - 1];
+    }
+
+    private int checkRow(int row) {
+        if (row < 0 || row >= size) {
+            throw new IndexOutOfBoundsException("Row " + row + " out of bounds for size " + size);
+        }
+        return row;
+    }
+
+    private static String departmentKey(String department) {
+        return department.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The ID as an int if it is written the way Integer.toString() would
+     * write it back, otherwise -1. Parsed in place, without allocating.
+     */
+    static int numericId(String id) {
+        int length = id.length();
+        if (length == 0 || length > 9 || (length > 1 && id.charAt(0) == '0')) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = 0; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,84 @@
+import javax.swing.table.AbstractTableModel;
+import java.util.*;
+
+/**
+ * Roster Table Model - Students to Mark, with an Editable Status Column
+ *
+ * Rows are Student objects built from the roster cache and statuses are
+ * kept in a BitSet, so no per-row Object[] is allocated. Cell values are
+ * produced only when the table asks for them, i.e. for visible rows.
+ */
+public class RosterTableModel extends AbstractTableModel {
+    private static final String[] COLUMNS = { "Student ID", "Name", "Department", "Semester", "Status" };
+    public static final int STATUS_COLUMN = 4;
+
+    private List<Student> students = Collections.emptyList();
+    // Set bit = Absent, so a fresh roster defaults to Present
+    private final BitSet absent = new BitSet();
+
+    /**
+     * Replaces all rows at once with a single table event.
+     */
+    public void setStudents(List<Student> students) {
+        this.students = students;
+        absent.clear();
+        fireTableDataChanged();
+    }
+
+    public Student getStudent(int row) {
+        return students.get(row);
+    }
+
+    public boolean isPresent(int row) {
+        return !absent.get(row);
+    }
+
+    public String getStatus(int row) {
+        return absent.get(row) ? "Absent" : "Present";
+    }
+
+    @Override
+    public int getRowCount() {
+        return students.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column == STATUS_COLUMN; // Only Status column is editable
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        Student student = students.get(row);
+        switch (column) {
+            case 0:
+                return student.getId();
+            case 1:
+                return student.getName();
+            case 2:
+                return student.getDepartment();
+            case 3:
+                return student.getSemester();
+            default:
+                return getStatus(row);
+        }
+    }
+
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (column == STATUS_COLUMN) {
+            absent.set(row, !"Present".equals(value));
+            fireTableCellUpdated(row, column);
+        }
+    }
+}
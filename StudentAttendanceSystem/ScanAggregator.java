@@ -0,0 +1,26 @@
+/**
+ * Scan Aggregator - Folds Attendance Rows Into a Result, Chunk by Chunk
+ *
+ * A full scan (see AttendanceStore.aggregate) gives each chunk of the data
+ * its own partial result from create(), feeds it that chunk's rows, and then
+ * merges the partials pairwise, earlier chunks on the left. accept() and
+ * merge() never see the same partial from two threads at once.
+ */
+public interface ScanAggregator<A> {
+
+    /**
+     * A new, empty partial result.
+     */
+    A create();
+
+    /**
+     * Adds one row. The row object is reused for the next row, so copy any
+     * field that must be kept.
+     */
+    void accept(A partial, ScanRow row);
+
+    /**
+     * Combines two partials; may return either one, updated.
+     */
+    A merge(A left, A right);
+}
@@ -0,0 +1,231 @@
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Scan Row - One Attendance Row as Plain Fields, Reused From Row to Row
+ *
+ * ParallelScan parses each "date,studentId,status" line straight from the
+ * file's bytes into one ScanRow per chunk: the date as an epoch day, a
+ * numeric student ID as an int and the status as a flag. Nothing is
+ * allocated per row unless an aggregator asks for a non-numeric ID's text.
+ */
+public final class ScanRow {
+    private static final byte[] PRESENT = "present".getBytes(StandardCharsets.US_ASCII);
+
+    private int day;
+    private int studentId;
+    private boolean present;
+
+    // Where a non-numeric ID is: in the line's bytes, or already a String
+    private byte[] buffer;
+    private int idStart;
+    private int idEnd;
+    private String idText;
+
+    /**
+     * The row's date as days since 1970-01-01 (LocalDate.toEpochDay()).
+     */
+    public int getDay() {
+        return day;
+    }
+
+    /**
+     * The student ID if it is numeric (as Roster stores it), otherwise -1.
+     */
+    public int getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * The student ID as text. Allocates, so aggregators call it only when
+     * getStudentId() is -1.
+     */
+    public String getStudentIdText() {
+        if (studentId >= 0) {
+            return Integer.toString(studentId);
+        }
+        if (idText == null) {
+            idText = new String(buffer, idStart, idEnd - idStart, StandardCharsets.UTF_8);
+        }
+        return idText;
+    }
+
+    public boolean isPresent() {
+        return present;
+    }
+
+    /**
+     * Fills the row from the line between two array positions (without the
+     * newline), trimming spaces around each field like AttendanceRecord.parse.
+     *
+     * @return false if the line is not a valid row
+     */
+    boolean parse(byte[] bytes, int start, int end) {
+        int dateEnd = indexOf(bytes, start, end, (byte) ',');
+        int idFieldEnd = indexOf(bytes, dateEnd + 1, end, (byte) ',');
+        if (dateEnd >= end || idFieldEnd >= end) {
+            return false;
+        }
+
+        int dateStart = skipSpaces(bytes, start, dateEnd);
+        int dateStop = trimEnd(bytes, dateStart, dateEnd);
+        day = parseDay(bytes, dateStart, dateStop);
+        if (day == Integer.MIN_VALUE) {
+            return false;
+        }
+
+        idStart = skipSpaces(bytes, dateEnd + 1, idFieldEnd);
+        idEnd = trimEnd(bytes, idStart, idFieldEnd);
+        if (idStart == idEnd) {
+            return false;
+        }
+        buffer = bytes;
+        idText = null;
+        studentId = parseId(bytes, idStart, idEnd);
+
+        // Anything after a third comma is ignored, as by AttendanceRecord.parse
+        int statusEnd = indexOf(bytes, idFieldEnd + 1, end, (byte) ',');
+        int statusStart = skipSpaces(bytes, idFieldEnd + 1, statusEnd);
+        present = isPresent(bytes, statusStart, trimEnd(bytes, statusStart, statusEnd));
+        return true;
+    }
+
+    /**
+     * Fills the row from a record read some other way.
+     *
+     * @return false if the record's date is not a valid ISO date
+     */
+    boolean set(AttendanceRecord record) {
+        day = parseDay(record.getDate());
+        if (day == Integer.MIN_VALUE) {
+            return false;
+        }
+        buffer = null;
+        idText = record.getStudentId();
+        studentId = Roster.numericId(idText);
+        present = record.isPresent();
+        return true;
+    }
+
+    /**
+     * The epoch day of an ISO date ("2024-03-01"), or Integer.MIN_VALUE if it
+     * is not one.
+     */
+    static int parseDay(String date) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') {
+            return Integer.MIN_VALUE;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            year = year * 10 + digit(date.charAt(i));
+        }
+        int month = digit(date.charAt(5)) * 10 + digit(date.charAt(6));
+        int dayOfMonth = digit(date.charAt(8)) * 10 + digit(date.charAt(9));
+        return epochDay(year, month, dayOfMonth);
+    }
+
+    private static int parseDay(byte[] bytes, int start, int end) {
+        if (end - start != 10 || bytes[start + 4] != '-' || bytes[start + 7] != '-') {
+            return Integer.MIN_VALUE;
+        }
+        int year = 0;
+        for (int i = 0; i < 4; i++) {
+            year = year * 10 + digit(bytes[start + i]);
+        }
+        int month = digit(bytes[start + 5]) * 10 + digit(bytes[start + 6]);
+        int dayOfMonth = digit(bytes[start + 8]) * 10 + digit(bytes[start + 9]);
+        return epochDay(year, month, dayOfMonth);
+    }
+
+    /**
+     * Days since 1970-01-01 for a valid date, computed without LocalDate;
+     * Integer.MIN_VALUE if the fields do not make a real date.
+     */
+    private static int epochDay(int year, int month, int dayOfMonth) {
+        if (year < 0 || month < 1 || month > 12 || dayOfMonth < 1 || dayOfMonth > lengthOfMonth(year, month)) {
+            return Integer.MIN_VALUE;
+        }
+        // Days from civil, counting years from March so the leap day comes last
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + dayOfMonth - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        if (month == 2) {
+            boolean leap = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+            return leap ? 29 : 28;
+        }
+        return month == 4 || month == 6 || month == 9 || month == 11 ? 30 : 31;
+    }
+
+    /**
+     * The digit's value, or a large negative number that no valid date field
+     * can absorb if it is not a digit.
+     */
+    private static int digit(int c) {
+        return c >= '0' && c <= '9' ? c - '0' : -100_000;
+    }
+
+    /**
+     * Same rule as Roster.numericId: the int if Integer.toString() would
+     * write it back the same way, otherwise -1.
+     */
+    private static int parseId(byte[] bytes, int start, int end) {
+        int length = end - start;
+        if (length > 9 || (length > 1 && bytes[start] == '0')) {
+            return -1;
+        }
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            byte b = bytes[i];
+            if (b < '0' || b > '9') {
+                return -1;
+            }
+            value = value * 10 + (b - '0');
+        }
+        return value;
+    }
+
+    private static boolean isPresent(byte[] bytes, int start, int end) {
+        if (end - start != PRESENT.length) {
+            return false;
+        }
+        for (int i = 0; i < PRESENT.length; i++) {
+            // ASCII letters only, so setting the 0x20 bit lower-cases them
+            if ((bytes[start + i] | 0x20) != PRESENT[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int start, int end, byte value) {
+        for (int i = start; i < end; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return end;
+    }
+
+    private static int skipSpaces(byte[] bytes, int start, int end) {
+        while (start < end && isSpace(bytes[start])) {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] bytes, int start, int end) {
+        while (end > start && isSpace(bytes[end - 1])) {
+            end--;
+        }
+        return end;
+    }
+
+    private static boolean isSpace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,66 @@
+import java.util.Locale;
+
+/**
+ * Section - One Row of sections.txt (lecturer email, department, semester)
+ *
+ * A section is the class a lecturer teaches: every student registered in the
+ * department for the semester. Department names match case-insensitively,
+ * the same way the roster's department index does.
+ */
+public class Section {
+    private final String lecturerEmail;
+    private final String department;
+    private final String semester;
+
+    public Section(String lecturerEmail, String department, String semester) {
+        this.lecturerEmail = lecturerEmail;
+        this.department = department;
+        this.semester = semester;
+    }
+
+    public String getLecturerEmail() {
+        return lecturerEmail;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    /**
+     * Identifies the students of a section: "department|semester", normalized.
+     */
+    public String getKey() {
+        return keyOf(department, semester);
+    }
+
+    public static String keyOf(String department, String semester) {
+        return department.trim().toLowerCase(Locale.ROOT) + "|" + semester.trim();
+    }
+
+    /**
+     * Parses one "email,department,semester" line, or returns null if it is malformed.
+     */
+    public static Section parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 3) {
+            return null;
+        }
+        return new Section(parts[0].trim(), parts[1].trim(), parts[2].trim());
+    }
+
+    /**
+     * Formats the section as it is stored in sections.txt (including the newline).
+     */
+    public String toLine() {
+        return lecturerEmail + "," + department + "," + semester + "\n";
+    }
+
+    @Override
+    public String toString() {
+        return department + " - Semester " + semester;
+    }
+}
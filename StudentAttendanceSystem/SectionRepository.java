@@ -0,0 +1,130 @@
+import java.io.*;
+import java.util.*;
+
+/**
+ * Section Repository - Which Sections Each Lecturer Teaches
+ *
+ * Holds sections.txt in memory keyed by normalized lecturer email. The file
+ * is reloaded only when its modification time or size changes. The students
+ * of a section come from the roster's section index (see
+ * StudentRepository.findBySection), not from this file.
+ */
+public class SectionRepository {
+    private static final String SECTIONS_FILE = "data/sections.txt";
+    private static final String LOCK_FILE = "data/sections.lock";
+
+    private static SectionRepository instance;
+
+    private final File file;
+    private final StripedFileLock locks;
+
+    private Map<String, List<Section>> byLecturer = new HashMap<>();
+
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+
+    private SectionRepository(File file, File lockFile) {
+        this.file = file;
+        this.locks = new StripedFileLock(lockFile);
+    }
+
+    public static synchronized SectionRepository getInstance() {
+        if (instance == null) {
+            instance = new SectionRepository(new File(SECTIONS_FILE), new File(LOCK_FILE));
+        }
+        return instance;
+    }
+
+    /**
+     * Returns the lecturer's sections in the order they were assigned.
+     */
+    public synchronized List<Section> findByLecturer(String email) throws IOException {
+        refresh();
+        return new ArrayList<>(byLecturer.getOrDefault(normalize(email), Collections.emptyList()));
+    }
+
+    /**
+     * Assigns the section to its lecturer unless they already teach it. Like
+     * the other repositories, the check runs under the lecturer's stripe lock
+     * after re-reading the file.
+     *
+     * @return false if the lecturer already has this section
+     */
+    public boolean add(Section section) throws IOException {
+        String key = normalize(section.getLecturerEmail());
+        return locks.withStripe(key, () -> {
+            synchronized (this) {
+                refresh();
+                for (Section existing : byLecturer.getOrDefault(key, Collections.emptyList())) {
+                    if (existing.getKey().equals(section.getKey())) {
+                        return false;
+                    }
+                }
+
+                File dataDir = file.getParentFile();
+                if (dataDir != null && !dataDir.exists()) {
+                    dataDir.mkdirs();
+                }
+
+                long[] written = locks.withAppend(() -> {
+                    long before = file.length();
+                    try (FileWriter writer = new FileWriter(file, true)) {
+                        writer.write(section.toLine());
+                    }
+                    // Read under the append lock, before another process can add to it
+                    return before == loadedSize ? new long[] { file.lastModified(), file.length() } : null;
+                });
+
+                index(section);
+                if (written != null) {
+                    loadedModified = written[0];
+                    loadedSize = written[1];
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Reloads the sections if sections.txt changed since it was last read.
+     */
+    public synchronized void refresh() throws IOException {
+        long modified = file.exists() ? file.lastModified() : 0;
+        long size = file.exists() ? file.length() : 0;
+        if (modified == loadedModified && size == loadedSize) {
+            return;
+        }
+
+        byLecturer = new HashMap<>();
+        if (file.exists()) {
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    Section section = Section.parse(line);
+                    if (section != null) {
+                        index(section);
+                    }
+                }
+            }
+            Metrics.bytesRead(size);
+        }
+
+        loadedModified = modified;
+        loadedSize = size;
+    }
+
+    private void index(Section section) {
+        List<Section> sections = byLecturer.computeIfAbsent(normalize(section.getLecturerEmail()),
+                k -> new ArrayList<>());
+        for (Section existing : sections) {
+            if (existing.getKey().equals(section.getKey())) {
+                return;
+            }
+        }
+        sections.add(section);
+    }
+
+    private static String normalize(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -5,7 +5,7 @@ import java.io.*;
 /**
  * Signup Frame - Lecturer Registration
  */
-public class SignupFrame extends JFrame {
+public class SignupFrame extends JFrame implements Navigator.Screen {
     private JTextField nameField;
     private JTextField emailField;
     private JPasswordField passwordField;
@@ -107,60 +107,37 @@ public class SignupFrame extends JFrame {
             return;
         }
 
-        if (emailExists(email)) {
-            JOptionPane.showMessageDialog(this, "Email already registered",
-                    "Error", JOptionPane.ERROR_MESSAGE);
-            return;
-        }
-
-        if (saveLecturer(name, email, password)) {
-            JOptionPane.showMessageDialog(this, "Account created successfully!",
-                    "Success", JOptionPane.INFORMATION_MESSAGE);
-            backToLogin();
-        } else {
+        // Check for duplicates and save in the background
+        signupButton.setEnabled(false);
+        DataAccess.run(() -> {
+            // The password is stored as a salted hash; add refuses a taken email
+            return AttendanceService.getInstance().signup(name, email, password) ? "saved" : "exists";
+        }, result -> {
+            signupButton.setEnabled(true);
+            if (result.equals("exists")) {
+                JOptionPane.showMessageDialog(this, "Email already registered",
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            } else {
+                JOptionPane.showMessageDialog(this, "Account created successfully!",
+                        "Success", JOptionPane.INFORMATION_MESSAGE);
+                backToLogin();
+            }
+        }, e -> {
+            Log.error("Error creating account", e, "operation", "signup", "file", "data/lecturers.txt");
+            signupButton.setEnabled(true);
             JOptionPane.showMessageDialog(this, "Error creating account",
                     "Error", JOptionPane.ERROR_MESSAGE);
-        }
-    }
-
-    private boolean emailExists(String email) {
-        File file = new File("data/lecturers.txt");
-        if (!file.exists()) {
-            return false;
-        }
-
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2 && parts[1].trim().equals(email)) {
-                    return true;
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
-
-        return false;
+        });
     }
 
-    private boolean saveLecturer(String name, String email, String password) {
-        File dataDir = new File("data");
-        if (!dataDir.exists()) {
-            dataDir.mkdirs();
-        }
-
-        try (FileWriter writer = new FileWriter("data/lecturers.txt", true)) {
-            writer.write(name + "," + email + "," + password + "\n");
-            return true;
-        } catch (IOException e) {
-            e.printStackTrace();
-            return false;
-        }
+    @Override
+    public void onShow() {
+        nameField.setText("");
+        emailField.setText("");
+        passwordField.setText("");
     }
 
     private void backToLogin() {
-        this.dispose();
-        new LoginFrame().setVisible(true);
+        Navigator.showLogin();
     }
 }
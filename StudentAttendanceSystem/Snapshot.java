@@ -0,0 +1,116 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+
+/**
+ * Snapshot - Binary Copy of an In-Memory Index, Loaded Through a Memory Map
+ *
+ * Indexes that take seconds to build from the text files (the roster, the
+ * student postings, the attendance statistics) are saved as a snapshot:
+ *
+ *   [int magic][int format][int version length][version, UTF-8][body]
+ *
+ * The version describes the source files the index was built from (sizes,
+ * identities, segment names). An owner only uses a snapshot whose version
+ * matches the files on disk now, and otherwise rebuilds from the text and
+ * saves a new one. Snapshots are written to a temporary file and moved into
+ * place, so a reader never sees half of one.
+ */
+public final class Snapshot {
+    private static final int MAGIC = 0x534E4150; // "SNAP"
+    private static final int FORMAT = 1;
+
+    private final String version;
+    private final ByteBuffer body;
+
+    private Snapshot(String version, ByteBuffer body) {
+        this.version = version;
+        this.body = body;
+    }
+
+    /**
+     * Writes the body of a snapshot.
+     */
+    public interface BodyWriter {
+        void write(DataOutputStream out) throws IOException;
+    }
+
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * The body, positioned at its start and read with getString() and the
+     * ByteBuffer getters.
+     */
+    public ByteBuffer getBody() {
+        return body;
+    }
+
+    /**
+     * Maps a snapshot file, or returns null if there is none or it is not a
+     * snapshot of this format.
+     */
+    public static Snapshot read(File file) {
+        if (!file.isFile() || file.length() < 12) {
+            return null;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                return null;
+            }
+            String version = getString(buffer);
+            Metrics.bytesRead(buffer.capacity());
+            return new Snapshot(version, buffer.slice());
+        } catch (IOException | RuntimeException e) {
+            // A damaged snapshot is just rebuilt
+            Log.warn("Ignoring unreadable snapshot", e, "file", file.getPath());
+            return null;
+        }
+    }
+
+    /**
+     * Writes a snapshot and moves it over the file.
+     */
+    public static void write(File file, String version, BodyWriter body) throws IOException {
+        File directory = file.getAbsoluteFile().getParentFile();
+        directory.mkdirs();
+        Path temp = Files.createTempFile(directory.toPath(), file.getName(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                putString(out, version);
+                body.write(out);
+            }
+            try {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static void putString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String getString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalStateException("Bad string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,74 @@
+import javax.swing.*;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Streaming Loader - Background Load That Streams Rows to the UI in Chunks
+ *
+ * Subclasses read their data in load() and call emit() for every row. Swing
+ * coalesces emitted rows into chunks that arrive on the EDT through onRows(),
+ * so table models fill progressively instead of all at once. Long loads should
+ * check isCancelled() and call reportProgress() as they go.
+ */
+public abstract class StreamingLoader<T> extends SwingWorker<Integer, T> {
+    private int rowCount = 0;
+
+    /** Reads the data on a background thread. */
+    protected abstract void load() throws Exception;
+
+    /** Receives a chunk of emitted rows on the EDT. */
+    protected abstract void onRows(List<T> rows);
+
+    /** Called on the EDT once all rows have been delivered. */
+    protected void onFinished(int rowCount) {
+    }
+
+    /** Called on the EDT if load() throws. */
+    protected void onFailed(Exception e) {
+        Log.error("Background load failed", e, "loader", getClass().getName());
+    }
+
+    public StreamingLoader<T> start() {
+        DataAccess.execute(this);
+        return this;
+    }
+
+    protected final void emit(T row) {
+        rowCount++;
+        publish(row);
+    }
+
+    protected final void reportProgress(long done, long total) {
+        if (total > 0) {
+            setProgress((int) Math.min(100, done * 100 / total));
+        }
+    }
+
+    @Override
+    protected final Integer doInBackground() throws Exception {
+        load();
+        return rowCount;
+    }
+
+    @Override
+    protected final void process(List<T> rows) {
+        if (!isCancelled()) {
+            onRows(rows);
+        }
+    }
+
+    @Override
+    protected final void done() {
+        if (isCancelled()) {
+            return;
+        }
+        try {
+            onFinished(get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            onFailed(cause instanceof Exception ? (Exception) cause : e);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+import java.util.*;
+
+/**
+ * String Dictionary - Encodes Repeated Values as Small int Codes
+ *
+ * Departments, semesters, statuses and dates repeat across many rows, so
+ * rows store the code and the dictionary keeps each distinct string once.
+ * Codes are handed out in first-seen order starting at 0.
+ */
+public class StringDictionary {
+    private final Map<String, Integer> codes = new HashMap<>();
+    private final List<String> values = new ArrayList<>();
+
+    public StringDictionary() {
+    }
+
+    private StringDictionary(StringDictionary other) {
+        codes.putAll(other.codes);
+        values.addAll(other.values);
+    }
+
+    /**
+     * Returns the value's code, adding it if it is new.
+     */
+    public int encode(String value) {
+        Integer code = codes.get(value);
+        if (code == null) {
+            code = values.size();
+            codes.put(value, code);
+            values.add(value);
+        }
+        return code;
+    }
+
+    /**
+     * Returns the value's code, or -1 if it was never encoded.
+     */
+    public int find(String value) {
+        Integer code = codes.get(value);
+        return code == null ? -1 : code;
+    }
+
+    public String decode(int code) {
+        return values.get(code);
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    public StringDictionary copy() {
+        return new StringDictionary(this);
+    }
+}
@@ -0,0 +1,261 @@
+import java.io.*;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Striped File Lock - Coordinates Writers Across Threads and Processes
+ *
+ * Several copies of the application may share one data/ directory (e.g. on a
+ * network drive). Each data file gets a sidecar lock file whose bytes are used
+ * as lock regions with FileChannel.lock:
+ *
+ *   byte 0          the append region, held only while bytes are written
+ *   bytes 1..N      stripes, chosen by hashing a key (email, student ID, date)
+ *   byte N+1        the read region, held shared by readers and exclusively
+ *                   by a writer that replaces files readers may have open
+ *
+ * A writer takes the stripe for its key, re-reads what other processes added,
+ * checks, and then takes the append region for the write itself. Writers with
+ * different keys only ever wait for each other's appends.
+ *
+ * FileChannel locks are held per process, so every region also has an
+ * in-process ReentrantLock; the file lock is taken by the outermost holder.
+ * For the same reason the kernel's deadlock check can refuse a lock between
+ * two multithreaded processes that are not deadlocked, so that is retried.
+ */
+public class StripedFileLock {
+    private static final int STRIPES = 64;
+    private static final int APPEND_REGION = 0;
+    private static final int READ_REGION = STRIPES + 1;
+    private static final long MAX_BACKOFF_MILLIS = 50;
+
+    /**
+     * Work done while holding a lock.
+     */
+    public interface IOAction<T> {
+        T run() throws IOException;
+    }
+
+    private final File lockFile;
+    private final ReentrantLock[] locks = new ReentrantLock[STRIPES + 1];
+    private final FileLock[] fileLocks = new FileLock[STRIPES + 1];
+    private FileChannel channel;
+
+    // The read region: shared file lock held while any thread here is reading
+    private final ReentrantReadWriteLock readLock = new ReentrantReadWriteLock();
+    private final Object readersLock = new Object();
+    private int readers = 0;
+    private FileLock sharedReadLock;
+
+    public StripedFileLock(File lockFile) {
+        this.lockFile = lockFile;
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Runs the action holding the stripe for one key.
+     */
+    public <T> T withStripe(String key, IOAction<T> action) throws IOException {
+        return withStripes(Collections.singletonList(key), action);
+    }
+
+    /**
+     * Runs the action holding the stripes for all the keys, taken in ascending
+     * order so two writers can never deadlock.
+     */
+    public <T> T withStripes(Collection<String> keys, IOAction<T> action) throws IOException {
+        TreeSet<Integer> regions = new TreeSet<>();
+        for (String key : keys) {
+            regions.add(1 + Math.floorMod(key.hashCode(), STRIPES));
+        }
+
+        List<Integer> held = new ArrayList<>();
+        try {
+            for (int region : regions) {
+                acquire(region);
+                held.add(region);
+            }
+            return action.run();
+        } finally {
+            for (int i = held.size() - 1; i >= 0; i--) {
+                release(held.get(i));
+            }
+        }
+    }
+
+    /**
+     * Runs the action holding the append region.
+     */
+    public <T> T withAppend(IOAction<T> action) throws IOException {
+        acquire(APPEND_REGION);
+        try {
+            return action.run();
+        } finally {
+            release(APPEND_REGION);
+        }
+    }
+
+    /**
+     * Runs the action holding every region, e.g. to rewrite the whole file.
+     * Must not be called while this thread already holds a region.
+     */
+    public <T> T withAll(IOAction<T> action) throws IOException {
+        // Stripes before the append region, the same order single writers use
+        for (int i = 1; i < locks.length; i++) {
+            locks[i].lock();
+        }
+        locks[APPEND_REGION].lock();
+        FileLock whole = null;
+        try {
+            whole = lockRegion(0, locks.length, false);
+            return action.run();
+        } finally {
+            try {
+                if (whole != null && whole.isValid()) {
+                    whole.release();
+                }
+            } finally {
+                locks[APPEND_REGION].unlock();
+                for (int i = locks.length - 1; i >= 1; i--) {
+                    locks[i].unlock();
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs the action holding the read region shared. Any number of readers,
+     * in any process, may hold it at once.
+     */
+    public <T> T withRead(IOAction<T> action) throws IOException {
+        readLock.readLock().lock();
+        try {
+            synchronized (readersLock) {
+                if (readers == 0) {
+                    sharedReadLock = lockRegion(READ_REGION, 1, true);
+                }
+                readers++;
+            }
+            try {
+                return action.run();
+            } finally {
+                synchronized (readersLock) {
+                    readers--;
+                    if (readers == 0 && sharedReadLock != null) {
+                        FileLock fileLock = sharedReadLock;
+                        sharedReadLock = null;
+                        if (fileLock.isValid()) {
+                            fileLock.release();
+                        }
+                    }
+                }
+            }
+        } finally {
+            readLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Runs the action holding the read region exclusively, after every reader
+     * in every process has finished. Must not be called while holding it shared.
+     */
+    public <T> T withReadersExcluded(IOAction<T> action) throws IOException {
+        readLock.writeLock().lock();
+        FileLock fileLock = null;
+        try {
+            fileLock = lockRegion(READ_REGION, 1, false);
+            return action.run();
+        } finally {
+            try {
+                if (fileLock != null && fileLock.isValid()) {
+                    fileLock.release();
+                }
+            } finally {
+                readLock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void acquire(int region) throws IOException {
+        ReentrantLock lock = locks[region];
+        lock.lock();
+        if (lock.getHoldCount() > 1) {
+            return;
+        }
+        try {
+            fileLocks[region] = lockRegion(region, 1, false);
+        } catch (IOException | RuntimeException e) {
+            lock.unlock();
+            throw e;
+        }
+    }
+
+    private void release(int region) throws IOException {
+        ReentrantLock lock = locks[region];
+        try {
+            if (lock.getHoldCount() == 1 && fileLocks[region] != null) {
+                FileLock fileLock = fileLocks[region];
+                fileLocks[region] = null;
+                if (fileLock.isValid()) {
+                    fileLock.release();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Blocks until this process holds the given byte range of the lock file.
+     */
+    private FileLock lockRegion(long position, long size, boolean shared) throws IOException {
+        long backoffMillis = 1;
+        while (true) {
+            try {
+                return openChannel().lock(position, size, shared);
+            } catch (IOException e) {
+                if (!isDeadlockAvoided(e)) {
+                    throw e;
+                }
+            }
+
+            // The kernel sees one owner per process, so a thread here waiting
+            // on another process that waits on a different thread here looks
+            // like a deadlock (EDEADLK) when it is not; back off and try again
+            try {
+                Thread.sleep(ThreadLocalRandom.current().nextLong(backoffMillis) + 1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for a file lock");
+            }
+            backoffMillis = Math.min(backoffMillis * 2, MAX_BACKOFF_MILLIS);
+        }
+    }
+
+    private static boolean isDeadlockAvoided(IOException e) {
+        String message = e.getMessage();
+        return message != null && message.contains("deadlock");
+    }
+
+    private synchronized FileChannel openChannel() throws IOException {
+        // An interrupted lock() closes the channel, so reopen it when needed
+        if (channel != null && channel.isOpen()) {
+            return channel;
+        }
+
+        File dataDir = lockFile.getParentFile();
+        if (dataDir != null && !dataDir.exists()) {
+            dataDir.mkdirs();
+        }
+        channel = FileChannel.open(lockFile.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return channel;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Student - One Row of students.txt (ID, name, department, semester)
+ */
+public class Student {
+    private final String id;
+    private final String name;
+    private final String department;
+    private final String semester;
+
+    public Student(String id, String name, String department, String semester) {
+        this.id = id;
+        this.name = name;
+        this.department = department;
+        this.semester = semester;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getDepartment() {
+        return department;
+    }
+
+    public String getSemester() {
+        return semester;
+    }
+
+    /**
+     * Parses one "id,name,department,semester" line, or returns null if it is malformed.
+     */
+    public static Student parse(String line) {
+        String[] parts = line.split(",");
+        if (parts.length < 4) {
+            return null;
+        }
+        return new Student(parts[0].trim(), parts[1].trim(), parts[2].trim(), parts[3].trim());
+    }
+
+    /**
+     * Formats the student as it is stored in students.txt (including the newline).
+     */
+    public String toLine() {
+        return id + "," + name + "," + department + "," + semester + "\n";
+    }
+}
@@ -0,0 +1,424 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+
+/**
+ * Student Repository - Shared In-Memory Roster Cache
+ *
+ * Holds students.txt in memory as a compact Roster (int IDs, dictionary-encoded
+ * departments and semesters) indexed by department, semester and section
+ * (department + semester, see Section) as lists of rows, so duplicate checks
+ * and roster loads never re-parse the file.
+ * The roster is reloaded only when the file's modification time or size
+ * changes. A WatchService thread reloads it in the background as soon as
+ * another process touches the file, so the next lookup finds it fresh.
+ *
+ * The parsed roster and its section -> students index are also saved to
+ * data/students.snap (see Snapshot) and loaded from there at startup while
+ * students.txt keeps the same size and modification time.
+ */
+public class StudentRepository implements StudentStore {
+    private static final String STUDENTS_FILE = "data/students.txt";
+    private static final String LOCK_FILE = "data/students.lock";
+    private static final String SNAPSHOT_FILE = "data/students.snap";
+    // Part of the snapshot version, so a snapshot in an older layout is not read
+    private static final String SNAPSHOT_LAYOUT = "sections";
+
+    private static StudentRepository instance;
+
+    private final File file;
+    private final StripedFileLock locks;
+    private final File snapshotFile;
+
+    private Roster roster = new Roster();
+    private Map<String, IntList> byDepartment = new HashMap<>();
+    private Map<String, IntList> bySemester = new HashMap<>();
+    private Map<String, IntList> bySection = new HashMap<>();
+    // Copy of the roster handed to readers, until the next add or reload
+    private Roster published = null;
+
+    private long loadedModified = -1;
+    private long loadedSize = -1;
+    // The version of students.txt the snapshot was last saved or loaded at
+    private String savedVersion = null;
+
+    private StudentRepository(File file, File lockFile, File snapshotFile) {
+        this.file = file;
+        this.locks = new StripedFileLock(lockFile);
+        this.snapshotFile = snapshotFile;
+    }
+
+    public static synchronized StudentRepository getInstance() {
+        if (instance == null) {
+            instance = new StudentRepository(new File(STUDENTS_FILE), new File(LOCK_FILE),
+                    new File(SNAPSHOT_FILE));
+            instance.startWatcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns true if a student with this ID is already registered. O(1).
+     */
+    @Override
+    public synchronized boolean exists(String studentId) throws IOException {
+        refresh();
+        return roster.indexOf(studentId) >= 0;
+    }
+
+    /**
+     * Returns the roster as it is now. The copy is shared until the next
+     * change, so repeated calls cost nothing.
+     */
+    @Override
+    public synchronized Roster getRoster() throws IOException {
+        refresh();
+        if (published == null) {
+            published = roster.copy();
+        }
+        return published;
+    }
+
+    /**
+     * Returns every student in file order.
+     */
+    @Override
+    public synchronized List<Student> getAll() throws IOException {
+        refresh();
+        return roster.getAll();
+    }
+
+    @Override
+    public synchronized List<Student> findByDepartment(String department) throws IOException {
+        refresh();
+        return studentsAt(byDepartment.get(departmentKey(department)));
+    }
+
+    @Override
+    public synchronized List<Student> findBySemester(String semester) throws IOException {
+        refresh();
+        return studentsAt(bySemester.get(semester.trim()));
+    }
+
+    /**
+     * Returns the students of one section (department + semester), in file order.
+     */
+    @Override
+    public synchronized List<Student> findBySection(String department, String semester) throws IOException {
+        refresh();
+        return studentsAt(bySection.get(Section.keyOf(department, semester)));
+    }
+
+    /**
+     * Appends the student to students.txt unless the ID is already taken.
+     * The check runs under the ID's stripe lock after re-reading the file, so
+     * another process cannot register the same ID in between.
+     *
+     * @return false if a student with the same ID already exists
+     */
+    @Override
+    public boolean add(Student student) throws IOException {
+        return locks.withStripe(student.getId(), () -> {
+            synchronized (this) {
+                refresh();
+                if (roster.indexOf(student.getId()) >= 0) {
+                    return false;
+                }
+
+                File dataDir = file.getParentFile();
+                if (dataDir != null && !dataDir.exists()) {
+                    dataDir.mkdirs();
+                }
+
+                long[] written = locks.withAppend(() -> {
+                    long before = file.length();
+                    try (FileWriter writer = new FileWriter(file, true)) {
+                        writer.write(student.toLine());
+                    }
+                    // Read under the append lock, before another process can add to it
+                    return before == loadedSize ? new long[] { file.lastModified(), file.length() } : null;
+                });
+
+                index(student);
+                // Our own write must not count as an external change, but rows
+                // another process appended before it still trigger a reload
+                if (written != null) {
+                    loadedModified = written[0];
+                    loadedSize = written[1];
+                }
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Appends a batch of students with a single write, skipping IDs that are
+     * already registered or repeated within the batch. Like add(), the check
+     * runs under the IDs' stripe locks after re-reading the file.
+     *
+     * @return the students that were skipped as duplicates
+     */
+    @Override
+    public List<Student> addAll(List<Student> batch) throws IOException {
+        List<String> ids = new ArrayList<>(batch.size());
+        for (Student student : batch) {
+            ids.add(student.getId());
+        }
+
+        return locks.withStripes(ids, () -> {
+            synchronized (this) {
+                refresh();
+                List<Student> added = new ArrayList<>(batch.size());
+                List<Student> duplicates = new ArrayList<>();
+                Set<String> batchIds = new HashSet<>();
+                StringBuilder lines = new StringBuilder();
+                for (Student student : batch) {
+                    if (roster.indexOf(student.getId()) >= 0 || !batchIds.add(student.getId())) {
+                        duplicates.add(student);
+                    } else {
+                        added.add(student);
+                        lines.append(student.toLine());
+                    }
+                }
+                if (added.isEmpty()) {
+                    return duplicates;
+                }
+
+                File dataDir = file.getParentFile();
+                if (dataDir != null && !dataDir.exists()) {
+                    dataDir.mkdirs();
+                }
+
+                long[] written = locks.withAppend(() -> {
+                    long before = file.length();
+                    try (Writer writer = new BufferedWriter(new FileWriter(file, true))) {
+                        writer.write(lines.toString());
+                    }
+                    // Read under the append lock, before another process can add to it
+                    return before == loadedSize ? new long[] { file.lastModified(), file.length() } : null;
+                });
+
+                for (Student student : added) {
+                    index(student);
+                }
+                if (written != null) {
+                    loadedModified = written[0];
+                    loadedSize = written[1];
+                }
+                return duplicates;
+            }
+        });
+    }
+
+    /**
+     * Reloads the roster if students.txt changed since it was last read.
+     */
+    @Override
+    public synchronized void refresh() throws IOException {
+        long modified = file.exists() ? file.lastModified() : 0;
+        long size = file.exists() ? file.length() : 0;
+        if (modified == loadedModified && size == loadedSize) {
+            return;
+        }
+
+        clear();
+
+        if (file.exists() && !loadSnapshot(modified, size)) {
+            long rows = 0;
+            try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    rows++;
+                    Student student = Student.parse(line);
+                    if (student != null && roster.indexOf(student.getId()) < 0) {
+                        index(student);
+                    }
+                }
+            }
+            Metrics.rowsScanned(rows);
+            Metrics.bytesRead(size);
+        }
+
+        loadedModified = modified;
+        loadedSize = size;
+    }
+
+    /**
+     * Saves the roster to students.snap if students.txt changed since the last save.
+     */
+    @Override
+    public void saveSnapshot() throws IOException {
+        String version;
+        Roster rows;
+        Map<String, int[]> sections;
+        synchronized (this) {
+            version = snapshotVersion(loadedModified, loadedSize);
+            if (loadedSize <= 0 || version.equals(savedVersion)) {
+                return;
+            }
+            rows = roster.copy();
+            sections = new HashMap<>();
+            for (Map.Entry<String, IntList> entry : bySection.entrySet()) {
+                sections.put(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+
+        // The roster in file order, then each section as rows in it
+        Snapshot.write(snapshotFile, version, out -> {
+            out.writeInt(rows.size());
+            for (int row = 0; row < rows.size(); row++) {
+                Snapshot.putString(out, rows.getId(row));
+                Snapshot.putString(out, rows.getName(row));
+                Snapshot.putString(out, rows.getDepartment(row));
+                Snapshot.putString(out, rows.getSemester(row));
+            }
+            out.writeInt(sections.size());
+            for (Map.Entry<String, int[]> entry : sections.entrySet()) {
+                Snapshot.putString(out, entry.getKey());
+                out.writeInt(entry.getValue().length);
+                for (int row : entry.getValue()) {
+                    out.writeInt(row);
+                }
+            }
+        });
+        synchronized (this) {
+            savedVersion = version;
+        }
+    }
+
+    /**
+     * Indexes the roster from students.snap if it was saved from students.txt
+     * at this size and modification time.
+     *
+     * @return false if there is no usable snapshot
+     */
+    private boolean loadSnapshot(long modified, long size) {
+        String version = snapshotVersion(modified, size);
+        Snapshot snapshot = Snapshot.read(snapshotFile);
+        if (snapshot == null || !snapshot.getVersion().equals(version)) {
+            return false;
+        }
+
+        try {
+            ByteBuffer in = snapshot.getBody();
+            int count = in.getInt();
+            for (int i = 0; i < count; i++) {
+                indexRow(new Student(Snapshot.getString(in), Snapshot.getString(in),
+                        Snapshot.getString(in), Snapshot.getString(in)));
+            }
+            int sections = in.getInt();
+            for (int i = 0; i < sections; i++) {
+                String key = Snapshot.getString(in);
+                int members = in.getInt();
+                if (members < 0 || members > in.remaining() / 4) {
+                    throw new IllegalStateException("Bad section size " + members);
+                }
+                IntList section = new IntList(members);
+                for (int j = 0; j < members; j++) {
+                    int row = in.getInt();
+                    if (row < 0 || row >= roster.size()) {
+                        throw new IllegalStateException("Bad section row " + row);
+                    }
+                    section.add(row);
+                }
+                bySection.put(key, section);
+            }
+        } catch (RuntimeException e) {
+            Log.warn("Ignoring damaged roster snapshot", e, "file", snapshotFile.getPath());
+            clear();
+            return false;
+        }
+        savedVersion = version;
+        return true;
+    }
+
+    private static String snapshotVersion(long modified, long size) {
+        return SNAPSHOT_LAYOUT + ":" + size + ":" + modified;
+    }
+
+    private void index(Student student) {
+        int row = indexRow(student);
+        bySection.computeIfAbsent(Section.keyOf(student.getDepartment(), student.getSemester()),
+                k -> new IntList()).add(row);
+    }
+
+    /**
+     * Indexes the student everywhere except by section.
+     *
+     * @return the student's row in the roster
+     */
+    private int indexRow(Student student) {
+        int row = roster.add(student);
+        byDepartment.computeIfAbsent(departmentKey(student.getDepartment()), k -> new IntList()).add(row);
+        bySemester.computeIfAbsent(student.getSemester(), k -> new IntList()).add(row);
+        published = null;
+        return row;
+    }
+
+    private void clear() {
+        roster = new Roster();
+        byDepartment = new HashMap<>();
+        bySemester = new HashMap<>();
+        bySection = new HashMap<>();
+        published = null;
+    }
+
+    private List<Student> studentsAt(IntList rows) {
+        if (rows == null) {
+            return new ArrayList<>();
+        }
+        List<Student> students = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            students.add(roster.get(rows.get(i)));
+        }
+        return students;
+    }
+
+    private static String departmentKey(String department) {
+        return department.trim().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Watches the data directory and reloads the roster when students.txt changes.
+     */
+    private void startWatcher() {
+        File dataDir = file.getAbsoluteFile().getParentFile();
+        if (dataDir == null || !dataDir.isDirectory()) {
+            return;
+        }
+
+        Thread watcher = new Thread(() -> {
+            try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+                dataDir.toPath().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                while (true) {
+                    WatchKey key = watchService.take();
+                    boolean changed = false;
+                    for (WatchEvent<?> event : key.pollEvents()) {
+                        Object context = event.context();
+                        if (context != null && context.toString().equals(file.getName())) {
+                            changed = true;
+                        }
+                    }
+                    if (changed) {
+                        try {
+                            refresh();
+                        } catch (IOException e) {
+                            Log.error("Error reloading students", e, "file", file.getPath());
+                        }
+                    }
+                    if (!key.reset()) {
+                        return;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                Log.error("Students watcher stopped", e, "file", file.getPath());
+            }
+        }, "students-watcher");
+        watcher.setDaemon(true);
+        watcher.start();
+    }
+}
@@ -0,0 +1,70 @@
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Student Store - Where the Roster Is Kept
+ *
+ * The backend is chosen with -Dstorage.backend (see Database):
+ *   files - students.txt with an in-memory index (StudentRepository, default)
+ *   jdbc  - an indexed table in an embedded database (JdbcStudentStore)
+ */
+public interface StudentStore {
+
+    static StudentStore getInstance() {
+        if (Database.isConfigured()) {
+            return JdbcStudentStore.getInstance();
+        }
+        return StudentRepository.getInstance();
+    }
+
+    /**
+     * Returns true if a student with this ID is already registered.
+     */
+    boolean exists(String studentId) throws IOException;
+
+    /**
+     * Returns the whole roster as a Roster, which resolves IDs to rows
+     * without allocating. It does not change after it is returned.
+     */
+    Roster getRoster() throws IOException;
+
+    /**
+     * Returns every student in the order they were registered.
+     */
+    List<Student> getAll() throws IOException;
+
+    List<Student> findByDepartment(String department) throws IOException;
+
+    List<Student> findBySemester(String semester) throws IOException;
+
+    /**
+     * Returns the students of one section (department + semester), in registration order.
+     */
+    List<Student> findBySection(String department, String semester) throws IOException;
+
+    /**
+     * Registers the student unless the ID is already taken.
+     *
+     * @return false if a student with the same ID already exists
+     */
+    boolean add(Student student) throws IOException;
+
+    /**
+     * Registers a batch of students, skipping IDs that are already registered
+     * or repeated within the batch.
+     *
+     * @return the students that were skipped as duplicates
+     */
+    List<Student> addAll(List<Student> batch) throws IOException;
+
+    /**
+     * Brings any in-memory copy of the roster up to date with storage.
+     */
+    void refresh() throws IOException;
+
+    /**
+     * Saves indexes that are slow to rebuild, if they changed since the last save.
+     */
+    default void saveSnapshot() throws IOException {
+    }
+}
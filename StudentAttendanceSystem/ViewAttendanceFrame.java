@@ -1,24 +1,31 @@
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
 import java.io.*;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 
 /**
  * View Attendance Frame - Display Attendance Records
  */
 public class ViewAttendanceFrame extends JFrame {
-    private String lecturerEmail;
+    // Filter code for an empty field; -1 (not on the roster) matches nothing
+    private static final int ANY = -2;
+
     private JTextField dateField;
+    private JTextField toDateField;
+    private JTextField studentIdField;
+    private JTextField departmentField;
+    private JTextField semesterField;
     private JTable attendanceTable;
-    private DefaultTableModel tableModel;
+    private AttendanceTableModel tableModel;
     private JButton searchButton;
     private JButton backButton;
+    private LoadProgressPanel progressPanel;
 
-    public ViewAttendanceFrame(String email) {
-        this.lecturerEmail = email;
+    public ViewAttendanceFrame() {
         setTitle("View Attendance");
-        setSize(700, 500);
+        setSize(800, 550);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
         setLocationRelativeTo(null);
         setResizable(true);
@@ -32,7 +39,7 @@ public class ViewAttendanceFrame extends JFrame {
         mainPanel.setBorder(BorderFactory.createEmptyBorder(15, 15, 15, 15));
 
         // Top Panel - Title and Search
-        JPanel topPanel = new JPanel(new GridLayout(2, 1, 5, 5));
+        JPanel topPanel = new JPanel(new GridLayout(3, 1, 5, 5));
         topPanel.setBackground(Color.WHITE);
 
         JLabel titleLabel = new JLabel("View Attendance Records", SwingConstants.CENTER);
@@ -42,22 +49,33 @@ public class ViewAttendanceFrame extends JFrame {
         JPanel searchPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         searchPanel.setBackground(Color.WHITE);
         searchPanel.add(new JLabel("Date (YYYY-MM-DD):"));
-        dateField = new JTextField(15);
+        dateField = new JTextField(10);
         searchPanel.add(dateField);
-        searchButton = new JButton("Search");
-        searchPanel.add(searchButton);
+        searchPanel.add(new JLabel("To (optional):"));
+        toDateField = new JTextField(10);
+        searchPanel.add(toDateField);
         topPanel.add(searchPanel);
 
+        // Filters - a student ID shows that student's history
+        JPanel filterPanel = new JPanel(new FlowLayout(FlowLayout.CENTER));
+        filterPanel.setBackground(Color.WHITE);
+        filterPanel.add(new JLabel("Student ID:"));
+        studentIdField = new JTextField(6);
+        filterPanel.add(studentIdField);
+        filterPanel.add(new JLabel("Department:"));
+        departmentField = new JTextField(6);
+        filterPanel.add(departmentField);
+        filterPanel.add(new JLabel("Semester:"));
+        semesterField = new JTextField(4);
+        filterPanel.add(semesterField);
+        searchButton = new JButton("Search");
+        filterPanel.add(searchButton);
+        topPanel.add(filterPanel);
+
         mainPanel.add(topPanel, BorderLayout.NORTH);
 
         // Center Panel - Table
-        String[] columns = { "Student ID", "Student Name", "Status" };
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new AttendanceTableModel();
 
         attendanceTable = new JTable(tableModel);
         attendanceTable.setRowHeight(25);
@@ -73,7 +91,14 @@ public class ViewAttendanceFrame extends JFrame {
         backButton.setPreferredSize(new Dimension(150, 35));
         buttonPanel.add(backButton);
 
-        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        // Progress of background searches sits above the buttons
+        progressPanel = new LoadProgressPanel();
+        JPanel southPanel = new JPanel(new BorderLayout());
+        southPanel.setBackground(Color.WHITE);
+        southPanel.add(progressPanel, BorderLayout.NORTH);
+        southPanel.add(buttonPanel, BorderLayout.CENTER);
+
+        mainPanel.add(southPanel, BorderLayout.SOUTH);
 
         add(mainPanel);
 
@@ -84,91 +109,150 @@ public class ViewAttendanceFrame extends JFrame {
 
     private void handleSearch() {
         String date = dateField.getText().trim();
+        String toDate = toDateField.getText().trim();
+        String studentId = studentIdField.getText().trim();
+        String department = departmentField.getText().trim();
+        String semester = semesterField.getText().trim();
 
-        if (date.isEmpty()) {
-            JOptionPane.showMessageDialog(this, "Please enter a date",
+        if (date.isEmpty() && studentId.isEmpty()) {
+            JOptionPane.showMessageDialog(this, "Please enter a date or a student ID",
                     "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
 
-        // Clear existing data
-        tableModel.setRowCount(0);
-
-        // Load student names map
-        Map<String, String> studentNames = loadStudentNames();
-
-        // Load attendance records
-        File file = new File("data/attendance.txt");
-        if (!file.exists()) {
-            JOptionPane.showMessageDialog(this, "No attendance records found",
-                    "Info", JOptionPane.INFORMATION_MESSAGE);
+        // Compared and queried in ISO form, as the save and the importer store dates
+        LocalDate start;
+        LocalDate end;
+        try {
+            start = date.isEmpty() ? null : LocalDate.parse(date);
+            end = toDate.isEmpty() ? null : LocalDate.parse(toDate);
+        } catch (DateTimeParseException e) {
+            JOptionPane.showMessageDialog(this, "Please enter a valid date as YYYY-MM-DD",
+                    "Error", JOptionPane.ERROR_MESSAGE);
             return;
         }
+        if (start != null && end != null && start.isAfter(end)) {
+            JOptionPane.showMessageDialog(this, "Please enter a \"To\" date on or after the first date",
+                    "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        String from = start == null ? null : start.toString();
+        dateField.setText(from == null ? "" : from);
+        toDateField.setText(end == null ? "" : end.toString());
+
+        // A single date unless a "to" date is given; a student's history may be open-ended
+        String to = end != null ? end.toString() : (studentId.isEmpty() ? from : null);
+        String description = describeQuery(from, to, studentId);
+
+        // Stop any search still running, then clear existing data
+        progressPanel.cancel();
+        tableModel.reset(new Roster());
+
+        // Search in the background and stream matching rows into the table
+        AttendanceService service = AttendanceService.getInstance();
+        StreamingLoader<AttendanceRecord> searchLoader = new StreamingLoader<AttendanceRecord>() {
+            private Roster roster;
+            private boolean noRecords = false;
 
-        int recordCount = 0;
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 3 && parts[0].trim().equals(date)) {
-                    String studentId = parts[1].trim();
-                    String status = parts[2].trim();
-                    String studentName = studentNames.getOrDefault(studentId, "Unknown");
-
-                    tableModel.addRow(new Object[] { studentId, studentName, status });
-                    recordCount++;
+            @Override
+            protected void load() throws Exception {
+                if (!service.hasRecords()) {
+                    noRecords = true;
+                    return;
+                }
+
+                // Student names come from the shared roster cache; the filters
+                // become dictionary codes so each row is matched on ints
+                roster = Metrics.time("roster.names", service::getRoster);
+                int departmentKey = department.isEmpty() ? ANY : roster.findDepartmentKey(department);
+                int semesterCode = semester.isEmpty() ? ANY : roster.findSemester(semester);
+
+                java.util.List<AttendanceRecord> records = Metrics.time("attendance.search",
+                        () -> studentId.isEmpty()
+                                ? service.findByDateRange(from, to)
+                                : service.findByStudent(studentId, from, to));
+                for (int i = 0; i < records.size() && !isCancelled(); i++) {
+                    AttendanceRecord record = records.get(i);
+                    if (matchesFilters(roster, roster.indexOf(record.getStudentId()), departmentKey, semesterCode)) {
+                        emit(record);
+                    }
+                    reportProgress(i + 1, records.size());
                 }
             }
-        } catch (IOException e) {
-            e.printStackTrace();
-        }
 
-        if (recordCount == 0) {
-            JOptionPane.showMessageDialog(this, "No attendance records found for " + date,
-                    "Info", JOptionPane.INFORMATION_MESSAGE);
-        } else {
-            // Calculate statistics
-            int present = 0, absent = 0;
-            for (int i = 0; i < tableModel.getRowCount(); i++) {
-                String status = tableModel.getValueAt(i, 2).toString();
-                if (status.equalsIgnoreCase("Present")) {
-                    present++;
-                } else {
-                    absent++;
+            @Override
+            protected void onRows(java.util.List<AttendanceRecord> rows) {
+                if (tableModel.getRowCount() == 0) {
+                    tableModel.reset(roster);
                 }
+                tableModel.addRecords(rows);
             }
 
-            JOptionPane.showMessageDialog(this,
-                    "Total: " + recordCount + " | Present: " + present + " | Absent: " + absent,
-                    "Statistics", JOptionPane.INFORMATION_MESSAGE);
-        }
-    }
+            @Override
+            protected void onFinished(int recordCount) {
+                if (noRecords) {
+                    JOptionPane.showMessageDialog(ViewAttendanceFrame.this, "No attendance records found",
+                            "Info", JOptionPane.INFORMATION_MESSAGE);
+                    return;
+                }
+                showStatistics(description, recordCount);
+            }
 
-    private Map<String, String> loadStudentNames() {
-        Map<String, String> studentNames = new HashMap<>();
-        File file = new File("data/students.txt");
+            @Override
+            protected void onFailed(Exception e) {
+                Log.error("Error searching attendance", e, "operation", "attendance.search", "from", from,
+                        "to", to, "studentId", studentId);
+                JOptionPane.showMessageDialog(ViewAttendanceFrame.this, "Error searching: " + e.getMessage(),
+                        "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        };
+        progressPanel.track(searchLoader.start());
+    }
 
-        if (!file.exists()) {
-            return studentNames;
+    /**
+     * Matches a roster row (-1 if the student is not on the roster) against
+     * the department and semester codes, either of which may be ANY.
+     */
+    private static boolean matchesFilters(Roster roster, int row, int departmentKey, int semesterCode) {
+        if (departmentKey == ANY && semesterCode == ANY) {
+            return true;
+        }
+        if (row < 0) {
+            return false;
         }
+        return (departmentKey == ANY || roster.departmentKeyOf(row) == departmentKey)
+                && (semesterCode == ANY || roster.semesterOf(row) == semesterCode);
+    }
 
-        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                String[] parts = line.split(",");
-                if (parts.length >= 2) {
-                    studentNames.put(parts[0].trim(), parts[1].trim());
-                }
-            }
-        } catch (IOException e) {
-            e.printStackTrace();
+    private static String describeQuery(String from, String to, String studentId) {
+        String range;
+        if (from == null && to == null) {
+            range = "all dates";
+        } else if (from != null && from.equals(to)) {
+            range = from;
+        } else {
+            range = (from == null ? "the beginning" : from) + " to " + (to == null ? "today" : to);
         }
+        return studentId.isEmpty() ? range : "student " + studentId + " (" + range + ")";
+    }
 
-        return studentNames;
+    private void showStatistics(String description, int recordCount) {
+        if (recordCount == 0) {
+            JOptionPane.showMessageDialog(this, "No attendance records found for " + description,
+                    "Info", JOptionPane.INFORMATION_MESSAGE);
+        } else {
+            // Present count is kept by the table model as rows arrive
+            int present = tableModel.getPresentCount();
+            int absent = recordCount - present;
+
+            JOptionPane.showMessageDialog(this,
+                    "Total: " + recordCount + " | Present: " + present + " | Absent: " + absent,
+                    "Statistics", JOptionPane.INFORMATION_MESSAGE);
+        }
     }
 
     private void backToDashboard() {
-        this.dispose();
-        new DashboardFrame(lecturerEmail).setVisible(true);
+        progressPanel.cancel();
+        Navigator.showDashboard();
     }
 }
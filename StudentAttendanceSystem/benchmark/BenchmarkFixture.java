@@ -0,0 +1,172 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Benchmark Fixture - The Application Calls Behind the JMH Benchmarks
+ *
+ * Implements jmh.Fixture over a data set made by DataGenerator, which must be
+ * in data/ under the working directory since the application resolves data/
+ * against it. The JMH classes (in package jmh) cannot see the application's
+ * classes directly, so every benchmarked call is made here.
+ *
+ * Also rolls a data set's attendance.txt into monthly segments before a run:
+ *
+ *   cd bench-1m
+ *   java -cp ../benchmark/target/benchmarks.jar BenchmarkFixture --compact
+ */
+public class BenchmarkFixture implements jmh.Fixture {
+    private static final int SESSION_SIZE = 60;
+
+    private AttendanceStore store;
+    private LecturerRepository lecturerRepository;
+    private int lecturers;
+    private List<Student> roster;
+    private long firstSession;
+    private long lastSession;
+    private String credential;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1 || !args[0].equals("--compact")) {
+            System.err.println("Usage: java BenchmarkFixture --compact");
+            System.exit(2);
+        }
+        AttendanceStore store = AttendanceStore.getInstance();
+        long start = System.nanoTime();
+        store.compact();
+        System.out.println("Compacted in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+        if (store instanceof AttendanceRepository) {
+            System.out.println("Compaction: " + ((AttendanceRepository) store).getLastCompaction());
+        }
+        System.exit(0);
+    }
+
+    @Override
+    public void open() throws Exception {
+        store = AttendanceStore.getInstance();
+        if (!new File("data/students.txt").exists() || !store.hasRecords()) {
+            throw new IllegalStateException("No data/ folder in " + new File("").getAbsolutePath()
+                    + "; generate one with DataGenerator first");
+        }
+        store.recover();
+        lecturerRepository = LecturerRepository.getInstance();
+        lecturers = countLines(new File("data/lecturers.txt"));
+        roster = StudentRepository.getInstance().getAll();
+        List<String> dates = store.findDates(null, null);
+        firstSession = sessionOf(dates.get(0));
+        lastSession = sessionOf(dates.get(dates.size() - 1));
+        credential = lecturerRepository.findByEmail(DataGenerator.lecturerEmail(0)).getCredential();
+    }
+
+    @Override
+    public int lecturers() {
+        return lecturers;
+    }
+
+    @Override
+    public int students() {
+        return roster.size();
+    }
+
+    @Override
+    public long firstSession() {
+        return firstSession;
+    }
+
+    @Override
+    public long lastSession() {
+        return lastSession;
+    }
+
+    @Override
+    public boolean loginLookup(int lecturer) throws Exception {
+        return lecturerRepository.authenticate(DataGenerator.lecturerEmail(lecturer),
+                DataGenerator.lecturerPassword());
+    }
+
+    @Override
+    public boolean passwordHash() {
+        return PasswordHasher.verify(DataGenerator.lecturerPassword(), credential);
+    }
+
+    @Override
+    public boolean signupEmailCheck(int lecturer) throws Exception {
+        return lecturerRepository.exists(DataGenerator.lecturerEmail(lecturer));
+    }
+
+    @Override
+    public boolean duplicateIdCheck(int student) throws Exception {
+        return StudentRepository.getInstance().exists(DataGenerator.studentId(student));
+    }
+
+    @Override
+    public Object rosterLoad() throws Exception {
+        return StudentRepository.getInstance().getAll();
+    }
+
+    @Override
+    public Object dateSearch(long session) throws Exception {
+        return AttendanceStore.getInstance().findByDate(DataGenerator.sessionDate(session).toString());
+    }
+
+    @Override
+    public long[] fullScan() throws Exception {
+        return store.aggregate(null, null, new ScanAggregator<long[]>() {
+            @Override
+            public long[] create() {
+                return new long[2];
+            }
+
+            @Override
+            public void accept(long[] counts, ScanRow row) {
+                counts[0] += row.isPresent() ? 1 : 0;
+                counts[1]++;
+            }
+
+            @Override
+            public long[] merge(long[] left, long[] right) {
+                left[0] += right[0];
+                left[1] += right[1];
+                return left;
+            }
+        });
+    }
+
+    @Override
+    public Object saveSession(long session, int presentPercent) throws Exception {
+        String date = DataGenerator.sessionDate(session).toString();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<AttendanceRecord> records = new ArrayList<>(SESSION_SIZE);
+        for (int i = 0; i < SESSION_SIZE && i < roster.size(); i++) {
+            records.add(new AttendanceRecord(date, roster.get(i).getId(),
+                    random.nextInt(100) < presentPercent ? "Present" : "Absent"));
+        }
+        store.appendSession(records);
+        return records;
+    }
+
+    @Override
+    public boolean addStudent(String id) throws Exception {
+        return StudentRepository.getInstance().add(new Student(id, "bench", "cse", "1"));
+    }
+
+    @Override
+    public void recover() throws Exception {
+        AttendanceStore.getInstance().recover();
+    }
+
+    private static int countLines(File file) throws IOException {
+        int lines = 0;
+        try (BufferedReader reader = new BufferedReader(new FileReader(file))) {
+            while (reader.readLine() != null) {
+                lines++;
+            }
+        }
+        return lines;
+    }
+
+    private static long sessionOf(String date) {
+        return LocalDate.parse(date).toEpochDay() - DataGenerator.sessionDate(0).toEpochDay();
+    }
+}
@@ -0,0 +1,112 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+
+/**
+ * Data Generator - Synthetic Data Set for the Benchmarks
+ *
+ * Writes lecturers.txt, students.txt and attendance.txt in the application's
+ * own formats. Attendance is generated as whole marking sessions (every
+ * student on each date), sized to the requested number of attendance rows:
+ *
+ *   java DataGenerator 10000 bench-10k
+ *   java DataGenerator 1000000 bench-1m
+ *   java DataGenerator 100000000 bench-100m
+ *
+ * The roster grows with the data set (rows / 50, between 100 and 1,000,000
+ * students) and the same seed always produces the same files. Lecturers all
+ * share one password, hashed once at the configured PBKDF2 cost.
+ */
+public class DataGenerator {
+    private static final String[] DEPARTMENTS = { "cse", "ece", "mech", "civil", "eee", "ise" };
+    private static final LocalDate FIRST_DATE = LocalDate.of(2020, 1, 1);
+    private static final long SEED = 42L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: java DataGenerator <attendance rows> [output dir]");
+            System.exit(1);
+        }
+        long rows = Long.parseLong(args[0].replace("_", ""));
+        File dataDir = new File(args.length > 1 ? args[1] : ".", "data");
+        dataDir.mkdirs();
+
+        int students = studentCount(rows);
+        int lecturers = lecturerCount(rows);
+        long start = System.nanoTime();
+
+        writeLecturers(new File(dataDir, "lecturers.txt"), lecturers);
+        writeStudents(new File(dataDir, "students.txt"), students);
+        long written = writeAttendance(new File(dataDir, "attendance.txt"), students, rows);
+
+        System.out.println("Wrote " + lecturers + " lecturers, " + students + " students and "
+                + written + " attendance rows to " + dataDir.getPath() + " in "
+                + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    static int studentCount(long rows) {
+        return (int) Math.max(100, Math.min(1_000_000, rows / 50));
+    }
+
+    static int lecturerCount(long rows) {
+        return (int) Math.max(10, Math.min(100_000, rows / 1000));
+    }
+
+    static String lecturerEmail(int index) {
+        return "lecturer" + index + "@example.com";
+    }
+
+    static String lecturerPassword() {
+        return "bench-password";
+    }
+
+    static String studentId(int index) {
+        return Integer.toString(index + 1);
+    }
+
+    static LocalDate sessionDate(long session) {
+        return FIRST_DATE.plusDays(session);
+    }
+
+    private static void writeLecturers(File file, int count) throws IOException {
+        String credential = PasswordHasher.hash(lecturerPassword());
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(new Lecturer("Lecturer " + i, lecturerEmail(i), credential).toLine());
+            }
+        }
+    }
+
+    private static void writeStudents(File file, int count) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED);
+        try (Writer writer = open(file)) {
+            for (int i = 0; i < count; i++) {
+                writer.write(studentId(i) + ",student" + i + ","
+                        + DEPARTMENTS[random.nextInt(DEPARTMENTS.length)] + ","
+                        + (1 + random.nextInt(8)) + "\n");
+            }
+        }
+    }
+
+    private static long writeAttendance(File file, int students, long rows) throws IOException {
+        SplittableRandom random = new SplittableRandom(SEED + 1);
+        long written = 0;
+        try (Writer writer = open(file)) {
+            for (long session = 0; written < rows; session++) {
+                String date = sessionDate(session).toString();
+                for (int i = 0; i < students && written < rows; i++, written++) {
+                    // Roughly 85% attendance, like a typical class
+                    writer.write(date + "," + studentId(i) + ","
+                            + (random.nextInt(100) < 85 ? "Present" : "Absent") + "\n");
+                }
+            }
+        }
+        return written;
+    }
+
+    private static Writer open(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8),
+                1 << 20);
+    }
+}
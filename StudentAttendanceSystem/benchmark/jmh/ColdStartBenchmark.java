@@ -0,0 +1,42 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Cold Start Benchmark - First Loads After the Application Starts
+ *
+ * Each measurement is the first call in a freshly forked JVM, so it includes
+ * reading the files (or their snapshots) and class loading, as a lecturer
+ * waits for it after starting the application.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(5)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void create() throws Exception {
+        fixture = Fixture.create();
+    }
+
+    @Benchmark
+    public void recover() throws Exception {
+        fixture.recover();
+    }
+
+    @Benchmark
+    public Object rosterLoad() throws Exception {
+        return fixture.rosterLoad();
+    }
+
+    @Benchmark
+    public Object dateSearch() throws Exception {
+        return fixture.dateSearch(0);
+    }
+}
@@ -0,0 +1,74 @@
+package jmh;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Data Access Benchmark - Throughput of the Read Paths
+ *
+ * Each benchmark runs against the data set in the working directory (see
+ * Fixture), opened once per fork so the caches are warm. Results are
+ * returned to JMH, which keeps them from being optimised away. Run with
+ * -prof gc for the allocation rate per operation:
+ *
+ *   cd bench-1m
+ *   java -jar ../benchmark/target/benchmarks.jar DataAccess -prof gc -rf json -rff results.json
+ *
+ * Nothing here writes; the write paths are in SaveBenchmark.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class DataAccessBenchmark {
+    private Fixture fixture;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        fixture = Fixture.load();
+    }
+
+    @Benchmark
+    public boolean loginLookup() throws Exception {
+        return fixture.loginLookup(ThreadLocalRandom.current().nextInt(fixture.lecturers()));
+    }
+
+    @Benchmark
+    public boolean passwordHash() throws Exception {
+        return fixture.passwordHash();
+    }
+
+    @Benchmark
+    public boolean signupEmailCheck() throws Exception {
+        // Half the emails are taken, half are new
+        return fixture.signupEmailCheck(ThreadLocalRandom.current().nextInt(fixture.lecturers() * 2));
+    }
+
+    @Benchmark
+    public boolean duplicateIdCheck() throws Exception {
+        return fixture.duplicateIdCheck(ThreadLocalRandom.current().nextInt(fixture.students() * 2));
+    }
+
+    @Benchmark
+    public Object rosterLoad() throws Exception {
+        return fixture.rosterLoad();
+    }
+
+    @Benchmark
+    public Object dateSearch() throws Exception {
+        // Generated dates only; saved benchmark sessions are dated before them
+        return fixture.dateSearch(ThreadLocalRandom.current().nextLong(fixture.lastSession() + 1));
+    }
+
+    /**
+     * One pass over the whole history; rolled segments are scanned on every core.
+     */
+    @Benchmark
+    public long[] fullScan() throws Exception {
+        return fixture.fullScan();
+    }
+}
@@ -0,0 +1,76 @@
+package jmh;
+
+/**
+ * Fixture - The Benchmarked Calls, as Seen From the JMH Classes
+ *
+ * JMH only accepts benchmark classes in a named package, and a named package
+ * cannot import the application's classes, which live in the default one. So
+ * the calls go through this interface, implemented by BenchmarkFixture in the
+ * default package and created once per trial by load(). The benchmarks pick
+ * the lecturer, student or session number; the fixture turns it into the same
+ * keys DataGenerator wrote.
+ */
+public interface Fixture {
+
+    /**
+     * Opens the data set in the working directory: the data/ folder made by
+     * DataGenerator. Fails if there is none.
+     */
+    static Fixture load() throws Exception {
+        Fixture fixture = create();
+        fixture.open();
+        return fixture;
+    }
+
+    /**
+     * A fixture that has not loaded anything yet, for cold-start measurements.
+     */
+    static Fixture create() throws Exception {
+        return (Fixture) Class.forName("BenchmarkFixture").getDeclaredConstructor().newInstance();
+    }
+
+    void open() throws Exception;
+
+    int lecturers();
+
+    int students();
+
+    /**
+     * Session numbers of the first and last stored dates; session n is n days
+     * after DataGenerator's first date, so saved benchmark sessions, which go
+     * before the first date, are negative.
+     */
+    long firstSession();
+
+    long lastSession();
+
+    boolean loginLookup(int lecturer) throws Exception;
+
+    boolean passwordHash() throws Exception;
+
+    boolean signupEmailCheck(int lecturer) throws Exception;
+
+    boolean duplicateIdCheck(int student) throws Exception;
+
+    Object rosterLoad() throws Exception;
+
+    Object dateSearch(long session) throws Exception;
+
+    /**
+     * Present and total marks over the whole history.
+     */
+    long[] fullScan() throws Exception;
+
+    /**
+     * Saves one session of the first students on the session's date, each present
+     * with the given odds (out of 100).
+     */
+    Object saveSession(long session, int presentPercent) throws Exception;
+
+    boolean addStudent(String id) throws Exception;
+
+    /**
+     * Repairs the attendance store after a crash (see AttendanceStore.recover).
+     */
+    void recover() throws Exception;
+}
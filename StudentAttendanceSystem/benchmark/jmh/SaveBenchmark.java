@@ -0,0 +1,64 @@
+package jmh;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.*;
+
+/**
+ * Save Benchmark - Throughput of the Write Paths, Alone and Contended
+ *
+ * Saves sessions and adds students to the data set in the working directory
+ * (see Fixture), so run it on a copy if the data set is to be reused, and
+ * apart from DataAccessBenchmark, whose roster and history it grows:
+ *
+ *   cp -r bench-1m bench-1m-save && cd bench-1m-save
+ *   java -jar ../benchmark/target/benchmarks.jar Save -prof gc -rf json -rff results.json
+ *
+ * Saved sessions are dated before the data set's first date, one new date
+ * per save counting back from there, so every save is a new session and
+ * later searches keep hitting the generated dates.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Benchmark)
+public class SaveBenchmark {
+    private Fixture fixture;
+    private AtomicLong nextSession;
+    private AtomicLong nextStudent;
+    private String idPrefix;
+
+    @Setup(Level.Trial)
+    public void open() throws Exception {
+        fixture = Fixture.load();
+        nextSession = new AtomicLong(Math.min(0, fixture.firstSession()) - 1);
+        nextStudent = new AtomicLong();
+        // New in every fork, so added students never clash with earlier runs
+        idPrefix = "C" + Long.toHexString(System.nanoTime()) + "-";
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object bulkSave() throws Exception {
+        return fixture.saveSession(nextSession.getAndDecrement(), 85);
+    }
+
+    /**
+     * Many writers at once: each session has its own date, so writers only
+     * contend for the short append lock.
+     */
+    @Benchmark
+    @Threads(8)
+    public Object concurrentSave() throws Exception {
+        return fixture.saveSession(nextSession.getAndDecrement(), 100);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public boolean concurrentAddStudent() throws Exception {
+        return fixture.addStudent(idPrefix + nextStudent.getAndIncrement());
+    }
+}
@@ -0,0 +1,133 @@
+import java.io.*;
+import java.nio.file.Files;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Absence Alerts Test - Streaks, the Marks Window and Re-Saved Dates
+ *
+ * Sessions are saved through the configured AttendanceStore in an empty
+ * data/ directory, and the alerts are read back as the dashboard reads them.
+ * Each test marks its own student, so the alerts raised by one test do not
+ * affect another.
+ */
+public class AbsenceAlertsTest {
+    private final File dataDir = new File("data");
+    private AbsenceAlerts alerts;
+
+    @BeforeEach
+    void emptyDataDirectory() throws IOException {
+        if (dataDir.exists()) {
+            Files.walk(dataDir.toPath())
+                    .sorted(Comparator.reverseOrder())
+                    .map(java.nio.file.Path::toFile)
+                    .forEach(File::delete);
+        }
+        assertTrue(dataDir.mkdirs());
+
+        // The store notices the emptied directory first, then the alerts are
+        // built over it, so every later save is announced
+        AttendanceStore.getInstance().preload();
+        alerts = AbsenceAlerts.getInstance();
+        alerts.preload();
+    }
+
+    @Test
+    void flagsAStreakOfAbsencesUntilThePresentMark() throws IOException {
+        // Enough present marks first that the absences stay above 75%
+        for (int day = 1; day <= 9; day++) {
+            save(String.format("2030-01-%02d", day), "101", "Present");
+        }
+        save("2030-01-10", "101", "Absent");
+        save("2030-01-11", "101", "Absent");
+        assertNull(alertFor("101"), "two absences are not a streak yet");
+
+        save("2030-01-12", "101", "Absent");
+        AbsenceAlerts.Alert alert = alertFor("101");
+        assertNotNull(alert);
+        assertTrue(alert.isStreak());
+        assertFalse(alert.isLowAttendance());
+        assertEquals(AbsenceAlerts.STREAK_LIMIT, alert.getStreak());
+        assertEquals("2030-01-12", alert.getDate());
+
+        save("2030-01-13", "101", "Present");
+        assertNull(alertFor("101"), "a present mark ends the streak");
+    }
+
+    @Test
+    void countsOnlyTheLastTwentyMarks() throws IOException {
+        int day = 1;
+        for (int i = 0; i < AbsenceAlerts.WINDOW; i++) {
+            save(date(day++), "102", "Present");
+        }
+        // A, A, P twice: 16 of the last 20 present, 80%
+        for (int i = 0; i < 2; i++) {
+            save(date(day++), "102", "Absent");
+            save(date(day++), "102", "Absent");
+            save(date(day++), "102", "Present");
+        }
+        assertNull(alertFor("102"));
+
+        // Two more absences push two present marks out of the window: 14 of 20,
+        // although 22 of all 28 marks (79%) are present
+        save(date(day++), "102", "Absent");
+        save(date(day++), "102", "Absent");
+        AbsenceAlerts.Alert alert = alertFor("102");
+        assertNotNull(alert);
+        assertFalse(alert.isStreak());
+        assertTrue(alert.isLowAttendance());
+        assertEquals(14, alert.getPresent());
+        assertEquals(AbsenceAlerts.WINDOW, alert.getTotal());
+    }
+
+    @Test
+    void savingADateAgainReplacesItsMark() throws IOException {
+        save("2030-03-01", "103", "Absent");
+        save("2030-03-02", "103", "Absent");
+        save("2030-03-03", "103", "Absent");
+        assertEquals(3, alertFor("103").getStreak());
+
+        save("2030-03-03", "103", "Present");
+        assertNull(alertFor("103"), "the replaced absence no longer counts");
+
+        // Back to the streak before the replaced mark, not one longer
+        save("2030-03-03", "103", "Absent");
+        assertEquals(3, alertFor("103").getStreak());
+    }
+
+    @Test
+    void rebuildsAStudentAfterABackDatedMark() throws IOException {
+        save("2030-04-02", "104", "Absent");
+        save("2030-04-03", "104", "Absent");
+        save("2030-04-01", "104", "Absent");
+        assertNull(alertFor("104"), "back-dated marks count after the next preload");
+
+        alerts.preload();
+        AbsenceAlerts.Alert alert = alertFor("104");
+        assertNotNull(alert);
+        assertEquals(3, alert.getStreak());
+        assertEquals("2030-04-01", alert.getDate());
+    }
+
+    private static void save(String date, String studentId, String status) throws IOException {
+        AttendanceStore.getInstance().appendSession(
+                Collections.singletonList(new AttendanceRecord(date, studentId, status)));
+    }
+
+    private static String date(int day) {
+        return java.time.LocalDate.of(2030, 2, 1).plusDays(day).toString();
+    }
+
+    private AbsenceAlerts.Alert alertFor(String studentId) {
+        for (AbsenceAlerts.Alert alert : alerts.getRecent()) {
+            if (alert.getStudentId().equals(studentId)) {
+                return alert;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,174 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Attendance Log Test - Write-Ahead Log Positions and Crash Recovery
+ *
+ * Two AttendanceLog instances on one file stand in for two processes that
+ * share data/attendance.wal. The recovery cases leave the log and
+ * attendance.txt as a crash would, then recover with a fresh log and writer,
+ * as the next start of the application does.
+ */
+public class AttendanceLogTest {
+    @TempDir
+    File dir;
+
+    @Test
+    void positionsKeepGrowingWhenAnotherProcessCheckpoints() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        AttendanceWriter writer = new AttendanceWriter(new File(dir, "attendance.txt"));
+        AttendanceLog ours = new AttendanceLog(wal, AttendanceWriter.Durability.GROUP);
+        AttendanceLog theirs = new AttendanceLog(wal, AttendanceWriter.Durability.GROUP);
+
+        long first = logSession(ours, writer, 0, "2024-01-01", "1", "2", "3");
+        ours.sync(first);
+
+        // The other process logs a session of its own and empties the log
+        logSession(theirs, writer, 1000, "2024-01-02", "1");
+        theirs.checkpoint();
+        assertEquals(0, wal.length());
+
+        // A position at or below the synced one would let sync() skip its force
+        long second = logSession(ours, writer, 2000, "2024-01-03", "4");
+        assertTrue(second > first, "position went back from " + first + " to " + second);
+        ours.sync(second);
+    }
+
+    @Test
+    void recoverIgnoresATornLogTail() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        File data = new File(dir, "attendance.txt");
+        AttendanceWriter writer = new AttendanceWriter(data);
+        save(new AttendanceLog(wal, AttendanceWriter.Durability.BATCH), writer, "2024-01-01", "1", "2");
+
+        // A frame header promising 100 payload bytes, followed by only 3
+        ByteBuffer torn = ByteBuffer.allocate(11).putInt(100).putInt(0);
+        torn.position(torn.capacity()).flip();
+        try (FileChannel out = FileChannel.open(wal.toPath(), StandardOpenOption.APPEND)) {
+            out.write(torn);
+        }
+
+        recover(wal, data);
+        assertEquals(lines("2024-01-01", "1", "2"), read(data));
+        assertEquals(0, wal.length());
+    }
+
+    @Test
+    void recoverCutsAnUncommittedSession() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        File data = new File(dir, "attendance.txt");
+        AttendanceWriter writer = new AttendanceWriter(data);
+        AttendanceLog log = new AttendanceLog(wal, AttendanceWriter.Durability.BATCH);
+        save(log, writer, "2024-01-01", "1", "2");
+        long committed = wal.length();
+        save(log, writer, "2024-01-02", "1", "2");
+
+        // The crash came before the second session's commit record reached the log
+        try (FileChannel out = FileChannel.open(wal.toPath(), StandardOpenOption.WRITE)) {
+            out.truncate(wal.length() - 3);
+        }
+        assertTrue(wal.length() > committed);
+
+        recover(wal, data);
+        assertEquals(lines("2024-01-01", "1", "2"), read(data));
+        assertEquals(0, wal.length());
+    }
+
+    @Test
+    void recoverRewritesACommittedSessionMissingFromTheData() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        File data = new File(dir, "attendance.txt");
+        AttendanceWriter writer = new AttendanceWriter(data);
+        AttendanceLog log = new AttendanceLog(wal, AttendanceWriter.Durability.BATCH);
+        save(log, writer, "2024-01-01", "1", "2");
+        // Logged and committed, but the crash came before the append
+        logSession(log, writer, writer.size(), "2024-01-02", "3", "4");
+
+        recover(wal, data);
+        assertEquals(lines("2024-01-01", "1", "2") + lines("2024-01-02", "3", "4"), read(data));
+        assertEquals(0, wal.length());
+    }
+
+    @Test
+    void recoverRewritesACommittedSessionDamagedInTheData() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        File data = new File(dir, "attendance.txt");
+        AttendanceWriter writer = new AttendanceWriter(data);
+        AttendanceLog log = new AttendanceLog(wal, AttendanceWriter.Durability.BATCH);
+        save(log, writer, "2024-01-01", "1", "2");
+        save(log, writer, "2024-01-02", "3", "4");
+
+        // The second session reached the disk only in part
+        String damaged = read(data).replace("2024-01-02,4,Present", "2024-01-02,4,Presxxx");
+        Files.write(data.toPath(), damaged.getBytes(StandardCharsets.UTF_8));
+
+        recover(wal, data);
+        assertEquals(lines("2024-01-01", "1", "2") + lines("2024-01-02", "3", "4"), read(data));
+    }
+
+    @Test
+    void recoverRemovesATornLastLine() throws IOException {
+        File wal = new File(dir, "attendance.wal");
+        File data = new File(dir, "attendance.txt");
+        AttendanceWriter writer = new AttendanceWriter(data);
+        save(new AttendanceLog(wal, AttendanceWriter.Durability.BATCH), writer, "2024-01-01", "1", "2");
+        writer.write(ByteBuffer.wrap("2024-01-02,3,Pre".getBytes(StandardCharsets.UTF_8)));
+
+        recover(wal, data);
+        assertEquals(lines("2024-01-01", "1", "2"), read(data));
+    }
+
+    /**
+     * Recovers with a new log and writer, then closes the writer.
+     */
+    private static void recover(File wal, File data) throws IOException {
+        AttendanceWriter writer = new AttendanceWriter(data);
+        new AttendanceLog(wal, AttendanceWriter.Durability.BATCH).recover(writer, data);
+        writer.close();
+    }
+
+    /**
+     * Logs a session and then appends it to attendance.txt, as a save does.
+     */
+    private static void save(AttendanceLog log, AttendanceWriter writer, String date, String... studentIds)
+            throws IOException {
+        logSession(log, writer, writer.size(), date, studentIds);
+        writer.write(ByteBuffer.wrap(lines(date, studentIds).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static String lines(String date, String... studentIds) {
+        StringBuilder lines = new StringBuilder();
+        for (String studentId : studentIds) {
+            lines.append(new AttendanceRecord(date, studentId, "Present").toLine());
+        }
+        return lines.toString();
+    }
+
+    private static String read(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Logs one session of Present marks for the students on the date.
+     */
+    private static long logSession(AttendanceLog log, AttendanceWriter writer, long offset, String date,
+            String... studentIds) throws IOException {
+        List<AttendanceRecord> records = new ArrayList<>();
+        for (String studentId : studentIds) {
+            records.add(new AttendanceRecord(date, studentId, "Present"));
+        }
+        int[] lineEnds = new int[records.size()];
+        ByteBuffer rows = writer.encode(records, lineEnds);
+        return log.logSession(offset, rows, lineEnds, records.size());
+    }
+}
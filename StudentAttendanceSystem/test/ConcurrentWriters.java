@@ -0,0 +1,168 @@
+import java.io.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Concurrent Writers - Signups, Student Adds and Saves From Many Threads
+ *
+ * The workload ConcurrentWritersTest runs in its own JVM and, through main(),
+ * in a second one against the same data/ directory. Every thread tries to
+ * sign up the same lecturers and add the same students, in its own order, so
+ * only the stripe locks keep them from registering one twice. Each thread
+ * also saves sessions on dates no other thread uses, and all of them keep
+ * re-saving one shared date.
+ */
+public class ConcurrentWriters {
+    static final int LECTURERS = 16;
+    static final int STUDENTS = 400;
+    static final int SESSIONS_PER_THREAD = 25;
+    static final int SESSION_SIZE = 40;
+    static final String SHARED_DATE = "2030-01-01";
+    private static final LocalDate FIRST_DATE = LocalDate.of(2000, 1, 1);
+
+    /**
+     * What one JVM's writers did.
+     */
+    static class Result {
+        int lecturersAdded;
+        int studentsAdded;
+        int sessionsSaved;
+        long elapsedNanos;
+
+        /**
+         * The form the second JVM prints on its last line of output.
+         */
+        String toLine() {
+            return lecturersAdded + "," + studentsAdded + "," + sessionsSaved + "," + elapsedNanos;
+        }
+
+        static Result parse(String line) {
+            String[] fields = line.trim().split(",");
+            Result result = new Result();
+            result.lecturersAdded = Integer.parseInt(fields[0]);
+            result.studentsAdded = Integer.parseInt(fields[1]);
+            result.sessionsSaved = Integer.parseInt(fields[2]);
+            result.elapsedNanos = Long.parseLong(fields[3]);
+            return result;
+        }
+    }
+
+    static String email(int lecturer) {
+        return "lecturer" + lecturer + "@example.com";
+    }
+
+    static String studentId(int student) {
+        return Integer.toString(student + 1);
+    }
+
+    /**
+     * The date of one thread's own session; process and thread numbers keep
+     * every writer's dates apart.
+     */
+    static String sessionDate(int process, int thread, int session) {
+        return FIRST_DATE.plusDays(process * 10_000L + thread * 100L + session).toString();
+    }
+
+    /**
+     * Runs the workload on the given number of threads and waits for them.
+     */
+    static Result run(int process, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Result>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                start.await();
+                return runThread(process, thread);
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        Result total = new Result();
+        try {
+            for (Future<Result> future : futures) {
+                Result result = future.get();
+                total.lecturersAdded += result.lecturersAdded;
+                total.studentsAdded += result.studentsAdded;
+                total.sessionsSaved += result.sessionsSaved;
+            }
+        } finally {
+            executor.shutdown();
+        }
+        total.elapsedNanos = System.nanoTime() - begin;
+        return total;
+    }
+
+    private static Result runThread(int process, int thread) throws IOException {
+        Random random = new Random(process * 1000L + thread);
+        Result result = new Result();
+
+        List<Integer> lecturers = shuffled(LECTURERS, random);
+        List<Integer> students = shuffled(STUDENTS, random);
+        for (int i = 0; i < Math.max(LECTURERS, STUDENTS); i++) {
+            if (i < LECTURERS) {
+                int lecturer = lecturers.get(i);
+                if (LecturerStore.getInstance().add("Lecturer " + lecturer, email(lecturer), "password")) {
+                    result.lecturersAdded++;
+                }
+            }
+            int student = students.get(i);
+            if (StudentStore.getInstance().add(new Student(studentId(student), "Student " + student,
+                    "cse", "1"))) {
+                result.studentsAdded++;
+            }
+        }
+
+        AttendanceStore store = AttendanceStore.getInstance();
+        for (int session = 0; session < SESSIONS_PER_THREAD; session++) {
+            String date = sessionDate(process, thread, session);
+            List<AttendanceRecord> records = new ArrayList<>(SESSION_SIZE);
+            for (int i = 0; i < SESSION_SIZE; i++) {
+                records.add(new AttendanceRecord(date, studentId(i), random.nextBoolean() ? "Present" : "Absent"));
+            }
+            store.appendSession(records);
+            result.sessionsSaved++;
+
+            // Everyone re-marks the same date too, with their own statuses
+            List<AttendanceRecord> shared = new ArrayList<>(SESSION_SIZE);
+            for (int i = 0; i < SESSION_SIZE; i++) {
+                shared.add(new AttendanceRecord(SHARED_DATE, studentId(i),
+                        random.nextBoolean() ? "Present" : "Absent"));
+            }
+            store.appendSession(shared);
+        }
+        return result;
+    }
+
+    private static List<Integer> shuffled(int count, Random random) {
+        List<Integer> values = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            values.add(i);
+        }
+        Collections.shuffle(values, random);
+        return values;
+    }
+
+    /**
+     * Second-JVM entry point: "java ConcurrentWriters <process> <threads>",
+     * run in the directory holding data/. Prints "ready", waits for a line on
+     * standard input so both JVMs start together, and prints its Result.
+     */
+    public static void main(String[] args) throws Exception {
+        int process = Integer.parseInt(args[0]);
+        int threads = Integer.parseInt(args[1]);
+        // Loaded before the start signal, so class loading is not in the race
+        AttendanceStore.getInstance().recover();
+        LecturerStore.getInstance().refresh();
+        StudentStore.getInstance().refresh();
+        System.out.println("ready");
+        System.out.flush();
+        new BufferedReader(new InputStreamReader(System.in)).readLine();
+
+        System.out.println(run(process, threads).toLine());
+        System.exit(0);
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Concurrent Writers Test - Many Writers in Two JVMs on One data/ Directory
+ *
+ * Runs ConcurrentWriters on WRITER_THREADS threads here and at the same time
+ * in a second JVM, against an empty data/ directory in the working directory
+ * Maven gives the tests (target/concurrency-test). The files are then read as
+ * raw lines to check that no append was torn, interleaved or lost, no
+ * lecturer email or student ID was registered twice, and every session is
+ * there. The throughput of both JVMs is printed. A second case runs both
+ * writers in child JVMs with group commit (-Dattendance.durability=group),
+ * where the two processes checkpoint the shared log under each other.
+ */
+public class ConcurrentWritersTest {
+    private static final int WRITER_THREADS = 8;
+    private static final Pattern ATTENDANCE_LINE =
+            Pattern.compile("\\d{4}-\\d{2}-\\d{2},\\d+,(Present|Absent)");
+
+    private final File dataDir = new File("data");
+
+    @BeforeEach
+    void emptyDataDirectory() throws IOException {
+        if (dataDir.exists()) {
+            Files.walk(dataDir.toPath())
+                    .sorted(Comparator.reverseOrder())
+                    .map(java.nio.file.Path::toFile)
+                    .forEach(File::delete);
+        }
+        assertTrue(dataDir.mkdirs());
+    }
+
+    @Test
+    void writersInTwoProcessesNeitherLoseNorDuplicateRows() throws Exception {
+        Process other = startJvm(1, null);
+        BufferedReader otherOutput = awaitReady(other);
+
+        // Both JVMs go at once
+        go(other);
+        ConcurrentWriters.Result here = ConcurrentWriters.run(0, WRITER_THREADS);
+        ConcurrentWriters.Result there = awaitResult(other, otherOutput);
+
+        report("this JVM", here);
+        report("second JVM", there);
+        assertFiles(here, there);
+
+        // The shared date was re-saved by everyone but holds one mark per student
+        List<AttendanceRecord> shared = AttendanceStore.getInstance().findByDate(ConcurrentWriters.SHARED_DATE);
+        Set<String> sharedStudents = new HashSet<>();
+        for (AttendanceRecord record : shared) {
+            assertTrue(sharedStudents.add(record.getStudentId()), "two marks for " + record.getStudentId());
+        }
+        assertEquals(ConcurrentWriters.SESSION_SIZE, sharedStudents.size());
+    }
+
+    @Test
+    void groupCommitWritersInTwoProcessesNeitherLoseNorDuplicateRows() throws Exception {
+        Process first = startJvm(0, "group");
+        Process second = startJvm(1, "group");
+        BufferedReader firstOutput = awaitReady(first);
+        BufferedReader secondOutput = awaitReady(second);
+
+        go(first);
+        go(second);
+        ConcurrentWriters.Result firstResult = awaitResult(first, firstOutput);
+        ConcurrentWriters.Result secondResult = awaitResult(second, secondOutput);
+
+        report("group 0", firstResult);
+        report("group 1", secondResult);
+        assertFiles(firstResult, secondResult);
+    }
+
+    /**
+     * Checks the raw files after both JVMs' writers have finished.
+     */
+    private void assertFiles(ConcurrentWriters.Result here, ConcurrentWriters.Result there) throws IOException {
+        // Each lecturer and student was registered by exactly one writer
+        assertEquals(ConcurrentWriters.LECTURERS, here.lecturersAdded + there.lecturersAdded);
+        assertEquals(ConcurrentWriters.STUDENTS, here.studentsAdded + there.studentsAdded);
+        assertNoDuplicates(new File(dataDir, "lecturers.txt"), 1, ConcurrentWriters.LECTURERS);
+        assertNoDuplicates(new File(dataDir, "students.txt"), 0, ConcurrentWriters.STUDENTS);
+
+        // Every row is whole, and every session a thread saved is there in full
+        Map<String, Integer> rowsPerDate = new HashMap<>();
+        for (String row : readLines(new File(dataDir, "attendance.txt"))) {
+            assertTrue(ATTENDANCE_LINE.matcher(row).matches(), "torn or interleaved row: " + row);
+            rowsPerDate.merge(row.substring(0, row.indexOf(',')), 1, Integer::sum);
+        }
+        for (int process = 0; process < 2; process++) {
+            for (int thread = 0; thread < WRITER_THREADS; thread++) {
+                for (int session = 0; session < ConcurrentWriters.SESSIONS_PER_THREAD; session++) {
+                    String date = ConcurrentWriters.sessionDate(process, thread, session);
+                    assertEquals(ConcurrentWriters.SESSION_SIZE, rowsPerDate.getOrDefault(date, 0),
+                            "rows saved on " + date);
+                }
+            }
+        }
+    }
+
+    /**
+     * Starts ConcurrentWriters as the given process number in a child JVM,
+     * with the given durability mode, or the default one if null.
+     */
+    private Process startJvm(int process, String durability) throws IOException {
+        String classPath = location(Main.class) + File.pathSeparator + location(ConcurrentWriters.class);
+        List<String> command = new ArrayList<>(Arrays.asList(
+                new File(System.getProperty("java.home"), "bin/java").getPath(), "-cp", classPath));
+        String iterations = System.getProperty("lecturer.hash.iterations");
+        if (iterations != null) {
+            command.add("-Dlecturer.hash.iterations=" + iterations);
+        }
+        if (durability != null) {
+            command.add("-Dattendance.durability=" + durability);
+        }
+        command.addAll(Arrays.asList("ConcurrentWriters", String.valueOf(process), String.valueOf(WRITER_THREADS)));
+        return new ProcessBuilder(command)
+                .directory(new File("").getAbsoluteFile())
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+    }
+
+    private static BufferedReader awaitReady(Process process) throws IOException {
+        BufferedReader output = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8));
+        assertEquals("ready", output.readLine(), "child JVM did not start");
+        return output;
+    }
+
+    private static void go(Process process) throws IOException {
+        process.getOutputStream().write('\n');
+        process.getOutputStream().flush();
+    }
+
+    private static ConcurrentWriters.Result awaitResult(Process process, BufferedReader output) throws Exception {
+        String line = output.readLine();
+        assertTrue(process.waitFor(2, TimeUnit.MINUTES), "child JVM did not finish");
+        assertEquals(0, process.exitValue(), "child JVM failed");
+        assertNotNull(line, "child JVM printed no result");
+        return ConcurrentWriters.Result.parse(line);
+    }
+
+    private static String location(Class<?> type) {
+        try {
+            return new File(type.getProtectionDomain().getCodeSource().getLocation().toURI()).getPath();
+        } catch (java.net.URISyntaxException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Checks that the given comma-separated field is different on every line
+     * and that there are the expected number of lines.
+     */
+    private static void assertNoDuplicates(File file, int field, int expected) throws IOException {
+        Set<String> keys = new HashSet<>();
+        List<String> lines = readLines(file);
+        for (String line : lines) {
+            String[] fields = line.split(",");
+            assertTrue(fields.length > field, "torn line in " + file + ": " + line);
+            assertTrue(keys.add(fields[field].trim().toLowerCase()), "duplicate in " + file + ": " + line);
+        }
+        assertEquals(expected, lines.size(), "lines in " + file);
+    }
+
+    private static List<String> readLines(File file) throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
+            if (!line.trim().isEmpty()) {
+                lines.add(line);
+            }
+        }
+        return lines;
+    }
+
+    private static void report(String name, ConcurrentWriters.Result result) {
+        double seconds = result.elapsedNanos / 1e9;
+        System.out.printf("%-10s %d threads: %d lecturers, %d students, %d sessions in %.2f s"
+                        + " (%.0f sessions/s, %.0f student add attempts/s)%n",
+                name, WRITER_THREADS, result.lecturersAdded, result.studentsAdded, result.sessionsSaved,
+                seconds, result.sessionsSaved * 2 / seconds, ConcurrentWriters.STUDENTS * WRITER_THREADS / seconds);
+    }
+}
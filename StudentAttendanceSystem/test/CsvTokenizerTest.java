@@ -0,0 +1,126 @@
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * CSV Tokenizer Test - Quoting, Line Endings and Buffer Refills
+ *
+ * Most cases are read from a byte array and again through a stream that hands
+ * out one byte per read, so every record also has to survive being split
+ * across refills at every possible point.
+ */
+public class CsvTokenizerTest {
+
+    @Test
+    void readsQuotedFields() throws IOException {
+        String csv = "\"Smith, Jo\",\"say \"\"hi\"\"\",\"first\nsecond\",plain\n"
+                + "next,row\n";
+        List<String[]> records = readBoth(csv);
+        assertArrayEquals(new String[] { "Smith, Jo", "say \"hi\"", "first\nsecond", "plain" }, records.get(0));
+        assertArrayEquals(new String[] { "next", "row" }, records.get(1));
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    void countsLinesInsideQuotedFields() throws IOException {
+        try (CsvTokenizer tokenizer = tokenizer("a,\"b\nc\nd\"\ne,f\n".getBytes(StandardCharsets.UTF_8))) {
+            assertTrue(tokenizer.next());
+            assertEquals(1, tokenizer.lineNumber());
+            assertTrue(tokenizer.next());
+            assertEquals(4, tokenizer.lineNumber());
+            assertArrayEquals(new String[] { "e", "f" }, tokenizer.fields());
+            assertFalse(tokenizer.next());
+        }
+    }
+
+    @Test
+    void handlesCrlfAndAByteOrderMark() throws IOException {
+        String csv = "\uFEFFid,name\r\n1, Ada \r\n2,\"Grace\"\r\n\r\n";
+        List<String[]> records = readBoth(csv);
+        assertArrayEquals(new String[] { "id", "name" }, records.get(0));
+        assertArrayEquals(new String[] { "1", "Ada" }, records.get(1));
+        assertArrayEquals(new String[] { "2", "Grace" }, records.get(2));
+        assertArrayEquals(new String[] { "" }, records.get(3));
+        assertEquals(4, records.size());
+    }
+
+    @Test
+    void readsARecordAcrossABufferRefill() throws IOException {
+        // The first record ends a few bytes short of the 64 KB buffer, so the
+        // quoted field of the second one is cut by the refill
+        StringBuilder csv = new StringBuilder();
+        char[] filler = new char[64 * 1024 - 10];
+        Arrays.fill(filler, 'x');
+        csv.append(filler).append('\n');
+        csv.append("1,\"a \"\"quoted\"\", long\nvalue\",end\n");
+        // And a record longer than the whole buffer
+        char[] wide = new char[150 * 1024];
+        Arrays.fill(wide, 'y');
+        csv.append("2,").append(wide).append(",3\n");
+
+        try (CsvTokenizer tokenizer = tokenizer(csv.toString().getBytes(StandardCharsets.UTF_8))) {
+            assertTrue(tokenizer.next());
+            assertEquals(new String(filler), tokenizer.field(0));
+            assertTrue(tokenizer.next());
+            assertArrayEquals(new String[] { "1", "a \"quoted\", long\nvalue", "end" }, tokenizer.fields());
+            assertTrue(tokenizer.next());
+            assertArrayEquals(new String[] { "2", new String(wide), "3" }, tokenizer.fields());
+            assertFalse(tokenizer.next());
+            assertEquals(csv.length(), tokenizer.bytesRead());
+        }
+    }
+
+    @Test
+    void readsAFinalLineWithoutALineBreak() throws IOException {
+        List<String[]> records = readBoth("a,b\n1,\"2\"");
+        assertArrayEquals(new String[] { "a", "b" }, records.get(0));
+        assertArrayEquals(new String[] { "1", "2" }, records.get(1));
+        assertEquals(2, records.size());
+    }
+
+    @Test
+    void keepsTheRestOfTheInputAfterAnUnclosedQuote() throws IOException {
+        List<String[]> records = readBoth("a,b\n1,\"open, still\nopen");
+        assertArrayEquals(new String[] { "a", "b" }, records.get(0));
+        assertArrayEquals(new String[] { "1,\"open, still\nopen" }, records.get(1));
+        assertEquals(2, records.size());
+    }
+
+    /**
+     * Reads every record from a byte array and from a one-byte-per-read
+     * stream, checks both give the same fields, and returns them.
+     */
+    private static List<String[]> readBoth(String csv) throws IOException {
+        byte[] bytes = csv.getBytes(StandardCharsets.UTF_8);
+        List<String[]> whole = readAll(tokenizer(bytes));
+        List<String[]> trickled = readAll(new CsvTokenizer(new ByteArrayInputStream(bytes) {
+            @Override
+            public synchronized int read(byte[] b, int off, int len) {
+                return super.read(b, off, Math.min(len, 1));
+            }
+        }));
+        assertEquals(whole.size(), trickled.size());
+        for (int i = 0; i < whole.size(); i++) {
+            assertArrayEquals(whole.get(i), trickled.get(i), "record " + i + " read one byte at a time");
+        }
+        return whole;
+    }
+
+    private static List<String[]> readAll(CsvTokenizer tokenizer) throws IOException {
+        List<String[]> records = new ArrayList<>();
+        try (CsvTokenizer in = tokenizer) {
+            while (in.next()) {
+                records.add(in.fields());
+            }
+        }
+        return records;
+    }
+
+    private static CsvTokenizer tokenizer(byte[] bytes) {
+        return new CsvTokenizer(new ByteArrayInputStream(bytes));
+    }
+}
@@ -0,0 +1,117 @@
+import java.io.IOException;
+import java.sql.Statement;
+import java.util.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC Attendance Store Test - Upserts, Notifications and Scan Order
+ *
+ * Runs against the in-memory H2 database the build points -Djdbc.url at, so
+ * the SQL is exercised without a database on disk. The table is emptied
+ * before each test.
+ */
+public class JdbcAttendanceStoreTest {
+    private final JdbcAttendanceStore store = JdbcAttendanceStore.getInstance();
+
+    @BeforeEach
+    void emptyTable() throws IOException {
+        Database.withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate("DELETE FROM attendance");
+            }
+        });
+    }
+
+    @Test
+    void savingADateAgainReplacesOnlyTheChangedMarks() throws IOException {
+        store.appendSession(Arrays.asList(
+                mark("2024-03-01", "1", "Present"),
+                mark("2024-03-01", "2", "Absent")));
+        Recorder recorder = subscribe();
+
+        store.appendSession(Arrays.asList(
+                mark("2024-03-01", "1", "Present"),
+                mark("2024-03-01", "2", "Present"),
+                mark("2024-03-01", "3", "Absent")));
+
+        // One row per student, still in the order they were first saved
+        assertEquals(Arrays.asList("2024-03-01,1,Present", "2024-03-01,2,Present", "2024-03-01,3,Absent"),
+                lines(store.findByDate("2024-03-01")));
+
+        // The unchanged mark is neither written again nor announced
+        assertEquals(Arrays.asList("2024-03-01,2,Present", "2024-03-01,3,Absent"), lines(recorder.saved));
+        assertEquals(Collections.singletonList("2024-03-01,2,Absent"), lines(recorder.superseded));
+    }
+
+    @Test
+    void theLastMarkForAStudentInOneSessionWins() throws IOException {
+        Recorder recorder = subscribe();
+        store.appendSession(Arrays.asList(
+                mark("2024-03-02", "1", "Absent"),
+                mark("2024-03-02", "1", "Present")));
+
+        assertEquals(Collections.singletonList("2024-03-02,1,Present"), lines(store.findByDate("2024-03-02")));
+        assertEquals(Collections.singletonList("2024-03-02,1,Present"), lines(recorder.saved));
+        assertTrue(recorder.superseded.isEmpty());
+    }
+
+    @Test
+    void scansInDateOrderThenSaveOrder() throws IOException {
+        store.appendSession(Arrays.asList(mark("2024-03-05", "5", "Present"), mark("2024-03-05", "4", "Absent")));
+        store.appendSession(Collections.singletonList(mark("2024-03-04", "3", "Present")));
+        store.appendSession(Collections.singletonList(mark("2024-03-05", "6", "Present")));
+        store.appendSession(Collections.singletonList(mark("2024-03-06", "4", "Present")));
+
+        List<AttendanceRecord> scanned = new ArrayList<>();
+        store.scan(scanned::add);
+        assertEquals(Arrays.asList("2024-03-04,3,Present", "2024-03-05,5,Present", "2024-03-05,4,Absent",
+                "2024-03-05,6,Present", "2024-03-06,4,Present"), lines(scanned));
+
+        // Both bounds are inclusive
+        assertEquals(Arrays.asList("2024-03-05,5,Present", "2024-03-05,4,Absent", "2024-03-05,6,Present",
+                "2024-03-06,4,Present"), lines(store.findByDateRange("2024-03-05", null)));
+        assertEquals(Arrays.asList("2024-03-05,4,Absent", "2024-03-06,4,Present"),
+                lines(store.findByStudent("4", "2024-03-05", "2024-03-06")));
+        assertEquals(Arrays.asList("2024-03-04", "2024-03-05"), store.findDates(null, "2024-03-05"));
+    }
+
+    /**
+     * Collects what the store announces after the call.
+     */
+    private static class Recorder implements AttendanceListener {
+        final List<AttendanceRecord> saved = new ArrayList<>();
+        final List<AttendanceRecord> superseded = new ArrayList<>();
+
+        @Override
+        public void sessionSaved(List<AttendanceRecord> records) {
+            saved.addAll(records);
+        }
+
+        @Override
+        public void recordsSuperseded(List<AttendanceRecord> records) {
+            superseded.addAll(records);
+        }
+    }
+
+    private Recorder subscribe() throws IOException {
+        Recorder recorder = new Recorder();
+        store.subscribe(record -> { }, recorder);
+        return recorder;
+    }
+
+    private static AttendanceRecord mark(String date, String studentId, String status) {
+        return new AttendanceRecord(date, studentId, status);
+    }
+
+    private static List<String> lines(List<AttendanceRecord> records) {
+        List<String> lines = new ArrayList<>();
+        for (AttendanceRecord record : records) {
+            lines.add(record.getDate() + "," + record.getStudentId() + "," + record.getStatus());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,50 @@
+import java.io.IOException;
+import java.sql.Statement;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * JDBC Lecturer Store Test - Signup and Login Against the Database
+ *
+ * Uses the in-memory H2 database the build points -Djdbc.url at; the table
+ * is emptied before each test.
+ */
+public class JdbcLecturerStoreTest {
+    private final JdbcLecturerStore store = JdbcLecturerStore.getInstance();
+
+    @BeforeEach
+    void emptyTable() throws IOException {
+        Database.withConnection(connection -> {
+            try (Statement statement = connection.createStatement()) {
+                return statement.executeUpdate("DELETE FROM lecturers");
+            }
+        });
+    }
+
+    @Test
+    void anEmailIsRegisteredOnceWhateverItsCase() throws IOException {
+        assertTrue(store.add("Ada", "Ada@Example.com", "secret"));
+        assertFalse(store.add("Someone Else", " ada@example.COM ", "other"));
+
+        Lecturer lecturer = store.findByEmail("ADA@example.com");
+        assertNotNull(lecturer);
+        assertEquals("Ada", lecturer.getName());
+        assertEquals("Ada@Example.com", lecturer.getEmail());
+        assertTrue(store.exists("ada@example.com"));
+        assertFalse(store.exists("bob@example.com"));
+    }
+
+    @Test
+    void logsInWithTheRightPasswordOnly() throws IOException {
+        store.add("Ada", "ada@example.com", "secret");
+
+        assertTrue(store.authenticate("Ada@Example.com", "secret"));
+        assertFalse(store.authenticate("ada@example.com", "wrong"));
+        assertFalse(store.authenticate("bob@example.com", "secret"));
+        // The stored credential is a hash, not the password
+        assertNotEquals("secret", store.findByEmail("ada@example.com").getCredential());
+    }
+}